@@ -19,7 +19,7 @@ package com.github.psambit9791.jdsp.filter;
  *  
  *
  * @author  Sambit Paul
- * @version 2.0
+ * @version 2.1
  */
 public class Bessel implements _IIRFilter {
     private double samplingFreq;
@@ -115,4 +115,74 @@ public class Bessel implements _IIRFilter {
         }
         return output;
     }
+
+    /**
+     * This method designs a low pass filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param cutoffFreq The cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingLowPass(int order, double cutoffFreq, int channels) {
+        uk.me.berndporr.iirj.Bessel f = new uk.me.berndporr.iirj.Bessel();
+        f.lowPass(order, this.samplingFreq, cutoffFreq);
+        return StreamingIIRFilter.fromCascade(f, channels);
+    }
+
+    /**
+     * This method designs a high pass filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param cutoffFreq The cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingHighPass(int order, double cutoffFreq, int channels) {
+        uk.me.berndporr.iirj.Bessel f = new uk.me.berndporr.iirj.Bessel();
+        f.highPass(order, this.samplingFreq, cutoffFreq);
+        return StreamingIIRFilter.fromCascade(f, channels);
+    }
+
+    /**
+     * This method designs a band pass filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param lowCutoff The lower cutoff frequency for the filter
+     * @param highCutoff The upper cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @throws java.lang.IllegalArgumentException The lower cutoff frequency is greater than the higher cutoff frequency
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingBandPass(int order, double lowCutoff, double highCutoff, int channels) throws IllegalArgumentException {
+        if (lowCutoff >= highCutoff) {
+            throw new IllegalArgumentException("Lower Cutoff Frequency cannot be more than the Higher Cutoff Frequency");
+        }
+        double centreFreq = (highCutoff + lowCutoff)/2.0;
+        double width = Math.abs(highCutoff - lowCutoff);
+        uk.me.berndporr.iirj.Bessel f = new uk.me.berndporr.iirj.Bessel();
+        f.bandPass(order, this.samplingFreq, centreFreq, width);
+        return StreamingIIRFilter.fromCascade(f, channels);
+    }
+
+    /**
+     * This method designs a band stop filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param lowCutoff The lower cutoff frequency for the filter
+     * @param highCutoff The upper cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @throws java.lang.IllegalArgumentException The lower cutoff frequency is greater than the higher cutoff frequency
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingBandStop(int order, double lowCutoff, double highCutoff, int channels) throws IllegalArgumentException {
+        if (lowCutoff >= highCutoff) {
+            throw new IllegalArgumentException("Lower Cutoff Frequency cannot be more than the Higher Cutoff Frequency");
+        }
+        double centreFreq = (highCutoff + lowCutoff)/2.0;
+        double width = Math.abs(highCutoff - lowCutoff);
+        uk.me.berndporr.iirj.Bessel f = new uk.me.berndporr.iirj.Bessel();
+        f.bandStop(order, this.samplingFreq, centreFreq, width);
+        return StreamingIIRFilter.fromCascade(f, channels);
+    }
 }
@@ -18,7 +18,7 @@ package com.github.psambit9791.jdsp.filter;
  *  
  *
  * @author  Sambit Paul
- * @version 2.0
+ * @version 2.1
  */
 public class Chebyshev implements _IIRFilter {
     private double samplingFreq;
@@ -179,4 +179,114 @@ public class Chebyshev implements _IIRFilter {
         }
         return output;
     }
+
+    /**
+     * This method designs a low pass filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param cutoffFreq The cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingLowPass(int order, double cutoffFreq, int channels) {
+        if (this.filterType == 1) {
+            uk.me.berndporr.iirj.ChebyshevI f = new uk.me.berndporr.iirj.ChebyshevI();
+            f.lowPass(order, this.samplingFreq, cutoffFreq, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else if (this.filterType == 2) {
+            uk.me.berndporr.iirj.ChebyshevII f = new uk.me.berndporr.iirj.ChebyshevII();
+            f.lowPass(order, this.samplingFreq, cutoffFreq, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else {
+            throw new IllegalArgumentException("Chebyshev filter can only be of Type 1 and 2.");
+        }
+    }
+
+    /**
+     * This method designs a high pass filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param cutoffFreq The cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingHighPass(int order, double cutoffFreq, int channels) {
+        if (this.filterType == 1) {
+            uk.me.berndporr.iirj.ChebyshevI f = new uk.me.berndporr.iirj.ChebyshevI();
+            f.highPass(order, this.samplingFreq, cutoffFreq, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else if (this.filterType == 2) {
+            uk.me.berndporr.iirj.ChebyshevII f = new uk.me.berndporr.iirj.ChebyshevII();
+            f.highPass(order, this.samplingFreq, cutoffFreq, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else {
+            throw new IllegalArgumentException("Chebyshev filter can only be of Type 1 and 2.");
+        }
+    }
+
+    /**
+     * This method designs a band pass filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param lowCutoff The lower cutoff frequency for the filter
+     * @param highCutoff The upper cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @throws java.lang.IllegalArgumentException The lower cutoff frequency is greater than the higher cutoff frequency
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingBandPass(int order, double lowCutoff, double highCutoff, int channels) throws IllegalArgumentException {
+        if (lowCutoff >= highCutoff) {
+            throw new IllegalArgumentException("Lower Cutoff Frequency cannot be more than the Higher Cutoff Frequency");
+        }
+        double centreFreq = (highCutoff + lowCutoff)/2.0;
+        double width = Math.abs(highCutoff - lowCutoff);
+        if (this.filterType == 1) {
+            uk.me.berndporr.iirj.ChebyshevI f = new uk.me.berndporr.iirj.ChebyshevI();
+            f.bandPass(order, this.samplingFreq, centreFreq, width, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else if (this.filterType == 2) {
+            uk.me.berndporr.iirj.ChebyshevII f = new uk.me.berndporr.iirj.ChebyshevII();
+            f.bandPass(order, this.samplingFreq, centreFreq, width, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else {
+            throw new IllegalArgumentException("Chebyshev filter can only be of Type 1 and 2.");
+        }
+    }
+
+    /**
+     * This method designs a band stop filter with given parameters and returns it as a streaming filter which keeps its
+     * state between chunks.
+     * @param order Order of the filter
+     * @param lowCutoff The lower cutoff frequency for the filter
+     * @param highCutoff The upper cutoff frequency for the filter
+     * @param channels Number of channels to be filtered
+     * @throws java.lang.IllegalArgumentException The lower cutoff frequency is greater than the higher cutoff frequency
+     * @return StreamingIIRFilter The designed filter
+     */
+    public StreamingIIRFilter streamingBandStop(int order, double lowCutoff, double highCutoff, int channels) throws IllegalArgumentException {
+        if (lowCutoff >= highCutoff) {
+            throw new IllegalArgumentException("Lower Cutoff Frequency cannot be more than the Higher Cutoff Frequency");
+        }
+        double centreFreq = (highCutoff + lowCutoff)/2.0;
+        double width = Math.abs(highCutoff - lowCutoff);
+        if (this.filterType == 1) {
+            uk.me.berndporr.iirj.ChebyshevI f = new uk.me.berndporr.iirj.ChebyshevI();
+            f.bandStop(order, this.samplingFreq, centreFreq, width, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else if (this.filterType == 2) {
+            uk.me.berndporr.iirj.ChebyshevII f = new uk.me.berndporr.iirj.ChebyshevII();
+            f.bandStop(order, this.samplingFreq, centreFreq, width, rippleFactor);
+            return StreamingIIRFilter.fromCascade(f, channels);
+        }
+        else {
+            throw new IllegalArgumentException("Chebyshev filter can only be of Type 1 and 2.");
+        }
+    }
 }
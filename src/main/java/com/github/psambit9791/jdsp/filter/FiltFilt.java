@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+import org.apache.commons.math3.linear.DecompositionSolver;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+
+/**
+ * <h2>Zero-Phase Filtering</h2>
+ * The FiltFilt class applies a digital filter forward and then backward, which removes the phase shift of the filter
+ * and squares its magnitude response, in the same way as scipy.signal.filtfilt (for numerator/denominator
+ * coefficients, including FIR filters with a = {1}) and scipy.signal.sosfiltfilt (for second-order sections).
+ * The signal is extended at both ends by padlen samples (odd, even or constant extension) and the filter starts from the
+ * steady state for the first sample of each pass (see lfilterZi() and sosfiltZi()), which keeps the edge transients
+ * small. Both passes run block by block, applying every section of the cascade to a block before moving on, and can
+ * work in place: only the padded ends and one block are held in temporary buffers.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.2
+ */
+public final class FiltFilt {
+
+    public enum PadType {
+        ODD,
+        EVEN,
+        CONSTANT,
+        NONE
+    }
+
+    private static final int BLOCK = 256;
+
+    private FiltFilt() {
+    }
+
+    /**
+     * Computes the initial state of a direct-form filter which corresponds to the steady state of the step response,
+     * as scipy.signal.lfilter_zi. Scaling it by the first sample of a signal removes the start-up transient for signals
+     * which begin at a constant level.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @throws java.lang.IllegalArgumentException if a is empty or a[0] is 0
+     * @return double[] The initial state, of length max(len(a), len(b))-1
+     */
+    public static double[] lfilterZi(double[] b, double[] a) {
+        double[][] ba = LFilter.normalise(b, a);
+        b = ba[0];
+        a = ba[1];
+        int n = b.length;
+        if (n == 1) {
+            return new double[0];
+        }
+        // (I - A^T) zi = b[1:] - a[1:]*b[0], where A is the companion matrix of a
+        double[][] m = new double[n-1][n-1];
+        double[] rhs = new double[n-1];
+        for (int i=0; i<n-1; i++) {
+            m[i][i] = 1;
+            m[i][0] += a[i+1];
+            if (i < n-2) {
+                m[i][i+1] -= 1;
+            }
+            rhs[i] = b[i+1] - a[i+1]*b[0];
+        }
+        DecompositionSolver solver = new LUDecomposition(MatrixUtils.createRealMatrix(m)).getSolver();
+        return solver.solve(MatrixUtils.createRealVector(rhs)).toArray();
+    }
+
+    /**
+     * Computes the initial state of a cascade of second-order sections which corresponds to the steady state of the
+     * step response, as scipy.signal.sosfilt_zi.
+     * @param sos The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     * @throws java.lang.IllegalArgumentException if a row does not have 6 coefficients or a0 is 0
+     * @return double[][] The initial state, one row of 2 values per section
+     */
+    public static double[][] sosfiltZi(double[][] sos) {
+        double[][] zi = new double[sos.length][];
+        double scale = 1.0;
+        for (int s=0; s<sos.length; s++) {
+            if (sos[s].length != 6) {
+                throw new IllegalArgumentException("Each second-order section must have 6 coefficients");
+            }
+            double[] b = {sos[s][0], sos[s][1], sos[s][2]};
+            double[] a = {sos[s][3], sos[s][4], sos[s][5]};
+            double[] z = lfilterZi(b, a);
+            zi[s] = new double[] {scale*z[0], scale*z[1]};
+            scale *= (b[0] + b[1] + b[2]) / (a[0] + a[1] + a[2]);
+        }
+        return zi;
+    }
+
+    /**
+     * Applies the filter forward and backward with odd extension of 3*max(len(a), len(b)) samples at both ends.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @param x The signal to be filtered
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than the padding
+     * @return double[] The filtered signal
+     */
+    public static double[] filtfilt(double[] b, double[] a, double[] x) {
+        double[] out = new double[x.length];
+        filtfilt(b, a, x, out, PadType.ODD, -1);
+        return out;
+    }
+
+    /**
+     * Applies the filter forward and backward and writes the result to the output buffer, which may be the input array.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @param x The signal to be filtered
+     * @param out Buffer receiving the filtered signal; length at least x.length
+     * @param padtype Kind of extension at both ends of the signal
+     * @param padlen Number of samples the signal is extended by; a negative value uses 3*max(len(a), len(b))
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than the padding or the output buffer is
+     * too short
+     */
+    public static void filtfilt(double[] b, double[] a, double[] x, double[] out, PadType padtype, int padlen) {
+        double[][] ba = LFilter.normalise(b, a);
+        if (padlen < 0) {
+            padlen = 3 * Math.max(a.length, b.length);
+        }
+        run(new DirectForm(ba[0], ba[1]), x, out, padtype, padlen);
+    }
+
+    /**
+     * Applies the second-order sections forward and backward with odd extension at both ends. As in scipy, the signal
+     * is extended by 3*(2*sections + 1 - z) samples, where z is the smaller of the numbers of sections with b2 = 0 and
+     * with a2 = 0.
+     * @param sos The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     * @param x The signal to be filtered
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than the padding
+     * @return double[] The filtered signal
+     */
+    public static double[] sosfiltfilt(double[][] sos, double[] x) {
+        double[] out = new double[x.length];
+        sosfiltfilt(sos, x, out, PadType.ODD, -1);
+        return out;
+    }
+
+    /**
+     * Applies the second-order sections forward and backward and writes the result to the output buffer, which may be
+     * the input array.
+     * @param sos The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     * @param x The signal to be filtered
+     * @param out Buffer receiving the filtered signal; length at least x.length
+     * @param padtype Kind of extension at both ends of the signal
+     * @param padlen Number of samples the signal is extended by; a negative value uses the default of
+     *               sosfiltfilt(sos, x)
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than the padding or the output buffer is
+     * too short
+     */
+    public static void sosfiltfilt(double[][] sos, double[] x, double[] out, PadType padtype, int padlen) {
+        if (padlen < 0) {
+            int zb = 0;
+            int za = 0;
+            for (double[] section : sos) {
+                zb += section[2] == 0 ? 1 : 0;
+                za += section[5] == 0 ? 1 : 0;
+            }
+            padlen = 3 * (2*sos.length + 1 - Math.min(zb, za));
+        }
+        run(new Sections(sos), x, out, padtype, padlen);
+    }
+
+    private static void run(Kernel k, double[] x, double[] out, PadType padtype, int padlen) {
+        int n = x.length;
+        int ext = padtype == PadType.NONE ? 0 : padlen;
+        if (out.length < n) {
+            throw new IllegalArgumentException("Output buffer is shorter than the signal");
+        }
+        if (n == 0) {
+            return;
+        }
+        if (ext >= n) {
+            throw new IllegalArgumentException("The length of the signal must be greater than padlen (" + ext + ")");
+        }
+        double[] left = new double[ext];
+        double[] right = new double[ext];
+        for (int i=0; i<ext; i++) {
+            double l = x[ext - i];
+            double r = x[n - 2 - i];
+            switch (padtype) {
+                case ODD:
+                    left[i] = 2*x[0] - l;
+                    right[i] = 2*x[n-1] - r;
+                    break;
+                case EVEN:
+                    left[i] = l;
+                    right[i] = r;
+                    break;
+                default:
+                    left[i] = x[0];
+                    right[i] = x[n-1];
+                    break;
+            }
+        }
+        double[] buf = new double[BLOCK];
+
+        // Forward pass over the left extension, the signal and the right extension
+        k.reset(ext > 0 ? left[0] : x[0]);
+        pass(k, left, 0, 1, ext, null, 0, 1, buf);
+        pass(k, x, 0, 1, n, out, 0, 1, buf);
+        pass(k, right, 0, 1, ext, right, 0, 1, buf);
+
+        // Backward pass, stopping at the start of the signal
+        k.reset(ext > 0 ? right[ext-1] : out[n-1]);
+        pass(k, right, ext-1, -1, ext, null, 0, 1, buf);
+        pass(k, out, n-1, -1, n, out, n-1, -1, buf);
+    }
+
+    // Filters count samples read from src with the given stride, block by block, and writes them to dst if not null
+    private static void pass(Kernel k, double[] src, int srcStart, int srcStep, int count, double[] dst, int dstStart,
+                             int dstStep, double[] buf) {
+        for (int done=0; done<count; done+=buf.length) {
+            int len = Math.min(buf.length, count - done);
+            for (int j=0, i=srcStart + done*srcStep; j<len; j++, i+=srcStep) {
+                buf[j] = src[i];
+            }
+            k.apply(buf, len);
+            if (dst != null) {
+                for (int j=0, i=dstStart + done*dstStep; j<len; j++, i+=dstStep) {
+                    dst[i] = buf[j];
+                }
+            }
+        }
+    }
+
+    private abstract static class Kernel {
+        // Sets the state to the steady state for a constant input of value x0
+        abstract void reset(double x0);
+        // Filters buf[0 .. len) in place, continuing from the current state
+        abstract void apply(double[] buf, int len);
+    }
+
+    // Second-order sections in Direct Form II transposed, applied with the section kernel of SecondOrderSections
+    private static final class Sections extends Kernel {
+        private final double[] coeffs;
+        private final double[] zi;
+        private final double[] z;
+
+        Sections(double[][] sos) {
+            double[][] init = sosfiltZi(sos);
+            this.coeffs = SecondOrderSections.pack(sos);
+            this.zi = new double[2*sos.length];
+            for (int s=0; s<sos.length; s++) {
+                this.zi[2*s] = init[s][0];
+                this.zi[2*s+1] = init[s][1];
+            }
+            this.z = new double[2*sos.length];
+        }
+
+        void reset(double x0) {
+            for (int i=0; i<this.z.length; i++) {
+                this.z[i] = this.zi[i]*x0;
+            }
+        }
+
+        void apply(double[] buf, int len) {
+            SecondOrderSections.filter(this.coeffs, this.z, 0, buf, 0, buf, 0, len);
+        }
+    }
+
+    // Normalised direct-form coefficients of equal length, in Direct Form II transposed
+    private static final class DirectForm extends Kernel {
+        private final double[] b;
+        private final double[] a;
+        private final double[] zi;
+        private final double[] z;
+
+        DirectForm(double[] b, double[] a) {
+            this.b = b;
+            this.a = a;
+            this.zi = lfilterZi(b, a);
+            this.z = new double[this.zi.length];
+        }
+
+        void reset(double x0) {
+            for (int i=0; i<this.z.length; i++) {
+                this.z[i] = this.zi[i]*x0;
+            }
+        }
+
+        void apply(double[] buf, int len) {
+            LFilter.directForm(this.b, this.a, this.z, buf, buf, len);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * <h2>Filter Bank</h2>
+ * The FilterBank class applies a set of IIR filters (bands) to every channel of a multi-channel signal, such as the
+ * double[channels][frames] data returned by WAV.getData(), and writes one output per band and channel. A band can use
+ * the same design for all channels or a different design for each channel. The designs are given as StreamingIIRFilter
+ * objects, for example from Butterworth.streamingBandPass(), of which only the packed second-order sections are used.
+ * Every pair of band and channel is an independent unit of work with its own filter state, kept between calls so that a
+ * signal can be filtered chunk by chunk. The units are split into contiguous blocks which are computed as tasks of an
+ * executor (the common ForkJoinPool by default), so the work scales with the number of cores as long as there are more
+ * units than cores. Each unit runs the same section kernel as StreamingIIRFilter over blocks of frames with the filter
+ * state held in local variables, so threads do not write to shared cache lines while filtering. The output is the same
+ * with or without an executor.
+ * A FilterBank must not be used by more than one thread at a time.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.1
+ */
+public class FilterBank {
+
+    private final int bands;
+    private final int channels;
+    // Packed coefficients of band b and channel c at index b*channels + c, shared with the design, 5 per section:
+    // b0, b1, b2, a1, a2
+    private final double[][] coeffs;
+    // Delay elements of band b and channel c at index b*channels + c, 2 per section
+    private final double[][] state;
+
+    /**
+     * This constructor initialises the prerequisites required to use FilterBank, applying each band to every channel.
+     * @param channels Number of channels to be filtered
+     * @param bands The filter of each band
+     * @throws java.lang.IllegalArgumentException if channels is less than 1 or there are no bands
+     */
+    public FilterBank(int channels, StreamingIIRFilter... bands) {
+        this(repeat(channels, bands));
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use FilterBank with a different design for each channel.
+     * @param designs The filter of each band and channel, indexed as designs[band][channel]
+     * @throws java.lang.IllegalArgumentException if there are no bands or channels, or the bands do not all have the
+     * same number of channels
+     */
+    public FilterBank(StreamingIIRFilter[][] designs) {
+        if (designs.length == 0 || designs[0].length == 0) {
+            throw new IllegalArgumentException("Filter bank must have at least one band and one channel");
+        }
+        this.bands = designs.length;
+        this.channels = designs[0].length;
+        this.coeffs = new double[this.bands * this.channels][];
+        this.state = new double[this.bands * this.channels][];
+        for (int b=0; b<this.bands; b++) {
+            if (designs[b].length != this.channels) {
+                throw new IllegalArgumentException("Every band must have a design for each of the " + this.channels + " channels");
+            }
+            for (int c=0; c<this.channels; c++) {
+                this.coeffs[b*this.channels + c] = designs[b][c].getCoefficients();
+                this.state[b*this.channels + c] = new double[2*designs[b][c].getNumSections()];
+            }
+        }
+    }
+
+    private static StreamingIIRFilter[][] repeat(int channels, StreamingIIRFilter[] bands) {
+        if (channels < 1) {
+            throw new IllegalArgumentException("Number of channels must be at least 1");
+        }
+        StreamingIIRFilter[][] designs = new StreamingIIRFilter[bands.length][channels];
+        for (int b=0; b<bands.length; b++) {
+            for (int c=0; c<channels; c++) {
+                designs[b][c] = bands[b];
+            }
+        }
+        return designs;
+    }
+
+    /**
+     * Filters every channel with every band in parallel on the given executor and writes the outputs to the preallocated
+     * buffers. Filtering continues from the state left by the previous call.
+     * @param in The signal to be filtered, one row per channel
+     * @param out Buffers receiving the filtered signal, indexed as out[band][channel]; out[band][channel] must be at
+     *            least as long as in[channel]
+     * @param executor Executor used to filter the blocks of bands and channels; null to filter on the calling thread
+     * @throws java.lang.IllegalArgumentException if the number of channels or bands does not match or a buffer is too
+     * short
+     * @throws java.lang.IllegalStateException if the calling thread is interrupted while waiting for the filters
+     */
+    public void process(final double[][] in, final double[][][] out, ExecutorService executor) {
+        this.validate(in, out);
+        int units = this.coeffs.length;
+        if (executor == null) {
+            this.filterUnits(in, out, 0, units);
+            return;
+        }
+        int blocks = Math.min(units, 4*Runtime.getRuntime().availableProcessors());
+        List<Callable<Void>> tasks = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            final int from = (int) ((long) units*b/blocks);
+            final int to = (int) ((long) units*(b+1)/blocks);
+            tasks.add(() -> {
+                this.filterUnits(in, out, from, to);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Filter bank computation was interrupted", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Filters every channel with every band in parallel on the common ForkJoinPool and writes the outputs to the
+     * preallocated buffers. Filtering continues from the state left by the previous call.
+     * @param in The signal to be filtered, one row per channel
+     * @param out Buffers receiving the filtered signal, indexed as out[band][channel]; out[band][channel] must be at
+     *            least as long as in[channel]
+     * @throws java.lang.IllegalArgumentException if the number of channels or bands does not match or a buffer is too
+     * short
+     * @throws java.lang.IllegalStateException if the calling thread is interrupted while waiting for the filters
+     */
+    public void process(double[][] in, double[][][] out) {
+        this.process(in, out, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Filters every channel with every band in parallel on the common ForkJoinPool. Filtering continues from the state
+     * left by the previous call.
+     * @param in The signal to be filtered, one row per channel
+     * @throws java.lang.IllegalArgumentException if the number of channels does not match
+     * @throws java.lang.IllegalStateException if the calling thread is interrupted while waiting for the filters
+     * @return double[][][] The filtered signal, indexed as [band][channel][frame]
+     */
+    public double[][][] process(double[][] in) {
+        if (in.length != this.channels) {
+            throw new IllegalArgumentException("Input must have " + this.channels + " channels");
+        }
+        double[][][] out = new double[this.bands][this.channels][];
+        for (int b=0; b<this.bands; b++) {
+            for (int c=0; c<this.channels; c++) {
+                out[b][c] = new double[in[c].length];
+            }
+        }
+        this.process(in, out);
+        return out;
+    }
+
+    private void validate(double[][] in, double[][][] out) {
+        if (in.length != this.channels) {
+            throw new IllegalArgumentException("Input must have " + this.channels + " channels");
+        }
+        if (out.length != this.bands) {
+            throw new IllegalArgumentException("Output must have " + this.bands + " bands");
+        }
+        for (int b=0; b<this.bands; b++) {
+            if (out[b].length != this.channels) {
+                throw new IllegalArgumentException("Output of band " + b + " must have " + this.channels + " channels");
+            }
+            for (int c=0; c<this.channels; c++) {
+                if (out[b][c].length < in[c].length) {
+                    throw new IllegalArgumentException("Output of band " + b + " is shorter than channel " + c);
+                }
+            }
+        }
+    }
+
+    // Units are numbered b*channels + c
+    private void filterUnits(double[][] in, double[][][] out, int from, int to) {
+        for (int u=from; u<to; u++) {
+            int c = u % this.channels;
+            double[] y = out[u / this.channels][c];
+            SecondOrderSections.filter(this.coeffs[u], this.state[u], 0, in[c], 0, y, 0, in[c].length);
+        }
+    }
+
+    /**
+     * Clears the state of every band and channel.
+     */
+    public void reset() {
+        for (double[] z : this.state) {
+            Arrays.fill(z, 0);
+        }
+    }
+
+    /**
+     * Returns the number of bands.
+     * @return int The number of bands
+     */
+    public int getBands() {
+        return this.bands;
+    }
+
+    /**
+     * Returns the number of channels.
+     * @return int The number of channels
+     */
+    public int getChannels() {
+        return this.channels;
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+import org.apache.commons.math3.analysis.solvers.LaguerreSolver;
+import org.apache.commons.math3.complex.Complex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>IIR Filter Design</h2>
+ * The IIRDesign class designs Butterworth, Chebyshev (Type I and II) and Bessel filters as second-order sections,
+ * without going through iirj. The analog low-pass prototype is built as zeros, poles and gain (zpk), transformed to the
+ * requested low-pass, high-pass, band-pass or band-stop filter with pre-warped cutoff frequencies, mapped to the z-plane
+ * with the bilinear transform and finally grouped into second-order sections the same way as scipy.signal.zpk2sos (with
+ * 'nearest' pairing). The sections can be applied with StreamingIIRFilter.
+ * Each row of the returned matrix holds {b0, b1, b2, a0, a1, a2}; the overall gain is applied to the first section.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.1
+ */
+public final class IIRDesign {
+
+    public enum IIRfilterType {
+        LOWPASS,
+        HIGHPASS,
+        BANDPASS,
+        BANDSTOP
+    }
+
+    // Zeros, poles and gain of a filter
+    static final class ZPK {
+        final Complex[] zeros;
+        final Complex[] poles;
+        final double gain;
+
+        ZPK(Complex[] zeros, Complex[] poles, double gain) {
+            this.zeros = zeros;
+            this.poles = poles;
+            this.gain = gain;
+        }
+    }
+
+    private IIRDesign() {
+    }
+
+    /**
+     * Designs a Butterworth filter.
+     * @param order Order of the filter (of the low-pass prototype for band-pass and band-stop filters)
+     * @param Fs Sampling frequency in Hz
+     * @param type Type of the filter
+     * @param cutoff The cutoff frequency in Hz for low-pass and high-pass filters; the lower and upper cutoff frequencies
+     *               for band-pass and band-stop filters
+     * @throws java.lang.IllegalArgumentException if the order is less than 1 or the cutoff frequencies are invalid
+     * @return double[][] The second-order sections
+     */
+    public static double[][] butterworth(int order, double Fs, IIRfilterType type, double... cutoff) {
+        checkOrder(order);
+        Complex[] p = new Complex[order];
+        for (int i=0; i<order; i++) {
+            int m = 2*i - order + 1;
+            p[i] = new Complex(-Math.cos(Math.PI*m/(2.0*order)), -Math.sin(Math.PI*m/(2.0*order)));
+        }
+        return zpk2sos(digital(new ZPK(new Complex[0], p, 1.0), Fs, type, cutoff));
+    }
+
+    /**
+     * Designs a Chebyshev Type I filter. The cutoff frequency is the edge of the pass band, where the gain last
+     * drops to the bottom of the ripple.
+     * @param order Order of the filter (of the low-pass prototype for band-pass and band-stop filters)
+     * @param rippleDb Maximum ripple in the pass band in dB
+     * @param Fs Sampling frequency in Hz
+     * @param type Type of the filter
+     * @param cutoff The cutoff frequency in Hz for low-pass and high-pass filters; the lower and upper cutoff frequencies
+     *               for band-pass and band-stop filters
+     * @throws java.lang.IllegalArgumentException if the order is less than 1, the ripple is not positive or the cutoff
+     * frequencies are invalid
+     * @return double[][] The second-order sections
+     */
+    public static double[][] chebyshevI(int order, double rippleDb, double Fs, IIRfilterType type, double... cutoff) {
+        checkOrder(order);
+        if (rippleDb <= 0) {
+            throw new IllegalArgumentException("Ripple must be greater than 0 dB");
+        }
+        double eps = Math.sqrt(Math.pow(10, 0.1*rippleDb) - 1);
+        double mu = asinh(1/eps)/order;
+        Complex[] p = new Complex[order];
+        Complex k = Complex.ONE;
+        for (int i=0; i<order; i++) {
+            double theta = Math.PI*(2*i - order + 1)/(2.0*order);
+            // -sinh(mu + j*theta)
+            p[i] = new Complex(-Math.sinh(mu)*Math.cos(theta), -Math.cosh(mu)*Math.sin(theta));
+            k = k.multiply(p[i].negate());
+        }
+        double gain = k.getReal();
+        if (order % 2 == 0) {
+            gain = gain/Math.sqrt(1 + eps*eps);
+        }
+        return zpk2sos(digital(new ZPK(new Complex[0], p, gain), Fs, type, cutoff));
+    }
+
+    /**
+     * Designs a Chebyshev Type II filter. The cutoff frequency is the edge of the stop band, where the gain first
+     * reaches the stop band attenuation.
+     * @param order Order of the filter (of the low-pass prototype for band-pass and band-stop filters)
+     * @param stopBandDb Minimum attenuation in the stop band in dB
+     * @param Fs Sampling frequency in Hz
+     * @param type Type of the filter
+     * @param cutoff The cutoff frequency in Hz for low-pass and high-pass filters; the lower and upper cutoff frequencies
+     *               for band-pass and band-stop filters
+     * @throws java.lang.IllegalArgumentException if the order is less than 1, the attenuation is not positive or the
+     * cutoff frequencies are invalid
+     * @return double[][] The second-order sections
+     */
+    public static double[][] chebyshevII(int order, double stopBandDb, double Fs, IIRfilterType type, double... cutoff) {
+        checkOrder(order);
+        if (stopBandDb <= 0) {
+            throw new IllegalArgumentException("Stop band attenuation must be greater than 0 dB");
+        }
+        double de = 1.0/Math.sqrt(Math.pow(10, 0.1*stopBandDb) - 1);
+        double mu = asinh(1/de)/order;
+
+        // The zeros lie on the imaginary axis; an odd order has one zero at infinity
+        Complex[] z = new Complex[order - order % 2];
+        int idx = 0;
+        for (int i=0; i<order; i++) {
+            int m = 2*i - order + 1;
+            if (m != 0) {
+                z[idx++] = new Complex(0, 1.0/Math.sin(m*Math.PI/(2.0*order)));
+            }
+        }
+        Complex[] p = new Complex[order];
+        Complex num = Complex.ONE;
+        Complex den = Complex.ONE;
+        for (int i=0; i<order; i++) {
+            int m = 2*i - order + 1;
+            Complex q = new Complex(-Math.sinh(mu)*Math.cos(Math.PI*m/(2.0*order)),
+                    -Math.cosh(mu)*Math.sin(Math.PI*m/(2.0*order)));
+            p[i] = Complex.ONE.divide(q);
+            num = num.multiply(p[i].negate());
+        }
+        for (Complex zero : z) {
+            den = den.multiply(zero.negate());
+        }
+        double gain = num.divide(den).getReal();
+        return zpk2sos(digital(new ZPK(z, p, gain), Fs, type, cutoff));
+    }
+
+    /**
+     * Designs a Bessel filter. The analog prototype is normalised for a group delay of 1 second at DC (the 'delay'
+     * normalisation of scipy.signal.bessel), as in iirj.
+     * @param order Order of the filter (of the low-pass prototype for band-pass and band-stop filters)
+     * @param Fs Sampling frequency in Hz
+     * @param type Type of the filter
+     * @param cutoff The cutoff frequency in Hz for low-pass and high-pass filters; the lower and upper cutoff frequencies
+     *               for band-pass and band-stop filters
+     * @throws java.lang.IllegalArgumentException if the order is less than 1 or the cutoff frequencies are invalid
+     * @return double[][] The second-order sections
+     */
+    public static double[][] bessel(int order, double Fs, IIRfilterType type, double... cutoff) {
+        checkOrder(order);
+        // Coefficients of the reverse Bessel polynomial, lowest power first
+        double[] coeffs = new double[order + 1];
+        for (int k=0; k<=order; k++) {
+            double c = 1;
+            for (int j=order-k+1; j<=2*order-k; j++) {
+                c *= j;
+            }
+            for (int j=2; j<=k; j++) {
+                c /= j;
+            }
+            coeffs[k] = c / Math.pow(2, order - k);
+        }
+        Complex[] p;
+        if (order == 1) {
+            p = new Complex[] {new Complex(-coeffs[0]/coeffs[1], 0)};
+        }
+        else {
+            p = new LaguerreSolver(1e-14, 1e-14).solveAllComplex(coeffs, 0);
+        }
+        Complex k = Complex.ONE;
+        for (Complex pole : p) {
+            k = k.multiply(pole.negate());
+        }
+        return zpk2sos(digital(new ZPK(new Complex[0], p, k.getReal()), Fs, type, cutoff));
+    }
+
+    private static void checkOrder(int order) {
+        if (order < 1) {
+            throw new IllegalArgumentException("Order must be greater than 0");
+        }
+    }
+
+    private static double asinh(double x) {
+        return Math.log(x + Math.sqrt(x*x + 1));
+    }
+
+    /**
+     * Transforms the analog low-pass prototype (cutoff 1 rad/s) to the requested filter type with pre-warped cutoff
+     * frequencies and maps it to the z-plane with the bilinear transform.
+     */
+    static ZPK digital(ZPK proto, double Fs, IIRfilterType type, double[] cutoff) {
+        int expected = (type == IIRfilterType.LOWPASS || type == IIRfilterType.HIGHPASS) ? 1 : 2;
+        if (cutoff.length != expected) {
+            throw new IllegalArgumentException(type + " filter requires " + expected + " cutoff frequencies");
+        }
+        double[] w = new double[expected];
+        for (int i=0; i<expected; i++) {
+            if (cutoff[i] <= 0 || cutoff[i] >= Fs/2) {
+                throw new IllegalArgumentException("Cutoff frequencies must be between 0 and Fs/2");
+            }
+            w[i] = 2*Fs*Math.tan(Math.PI*cutoff[i]/Fs);
+        }
+        if (expected == 2 && cutoff[0] >= cutoff[1]) {
+            throw new IllegalArgumentException("Lower Cutoff Frequency cannot be more than the Higher Cutoff Frequency");
+        }
+        ZPK analog;
+        switch (type) {
+            case LOWPASS:
+                analog = lp2lp(proto, w[0]);
+                break;
+            case HIGHPASS:
+                analog = lp2hp(proto, w[0]);
+                break;
+            case BANDPASS:
+                analog = lp2bp(proto, Math.sqrt(w[0]*w[1]), w[1] - w[0]);
+                break;
+            default:
+                analog = lp2bs(proto, Math.sqrt(w[0]*w[1]), w[1] - w[0]);
+                break;
+        }
+        return bilinear(analog, Fs);
+    }
+
+    static ZPK lp2lp(ZPK f, double wo) {
+        Complex[] z = new Complex[f.zeros.length];
+        Complex[] p = new Complex[f.poles.length];
+        for (int i=0; i<z.length; i++) {
+            z[i] = f.zeros[i].multiply(wo);
+        }
+        for (int i=0; i<p.length; i++) {
+            p[i] = f.poles[i].multiply(wo);
+        }
+        return new ZPK(z, p, f.gain*Math.pow(wo, p.length - z.length));
+    }
+
+    static ZPK lp2hp(ZPK f, double wo) {
+        int degree = f.poles.length - f.zeros.length;
+        Complex[] z = new Complex[f.poles.length];
+        Complex[] p = new Complex[f.poles.length];
+        Complex ratio = Complex.ONE;
+        for (int i=0; i<f.zeros.length; i++) {
+            z[i] = new Complex(wo).divide(f.zeros[i]);
+            ratio = ratio.multiply(f.zeros[i].negate());
+        }
+        for (int i=0; i<degree; i++) {
+            z[f.zeros.length + i] = Complex.ZERO;
+        }
+        for (int i=0; i<p.length; i++) {
+            p[i] = new Complex(wo).divide(f.poles[i]);
+            ratio = ratio.divide(f.poles[i].negate());
+        }
+        return new ZPK(z, p, f.gain*ratio.getReal());
+    }
+
+    static ZPK lp2bp(ZPK f, double wo, double bw) {
+        int degree = f.poles.length - f.zeros.length;
+        Complex[] z = new Complex[2*f.zeros.length + degree];
+        Complex[] p = new Complex[2*f.poles.length];
+        for (int i=0; i<f.zeros.length; i++) {
+            Complex[] pair = bandSplit(f.zeros[i].multiply(bw/2), wo);
+            z[2*i] = pair[0];
+            z[2*i+1] = pair[1];
+        }
+        for (int i=2*f.zeros.length; i<z.length; i++) {
+            z[i] = Complex.ZERO;
+        }
+        for (int i=0; i<f.poles.length; i++) {
+            Complex[] pair = bandSplit(f.poles[i].multiply(bw/2), wo);
+            p[2*i] = pair[0];
+            p[2*i+1] = pair[1];
+        }
+        return new ZPK(z, p, f.gain*Math.pow(bw, degree));
+    }
+
+    static ZPK lp2bs(ZPK f, double wo, double bw) {
+        int degree = f.poles.length - f.zeros.length;
+        Complex[] z = new Complex[2*f.poles.length];
+        Complex[] p = new Complex[2*f.poles.length];
+        Complex ratio = Complex.ONE;
+        for (int i=0; i<f.zeros.length; i++) {
+            Complex[] pair = bandSplit(new Complex(bw/2).divide(f.zeros[i]), wo);
+            z[2*i] = pair[0];
+            z[2*i+1] = pair[1];
+            ratio = ratio.multiply(f.zeros[i].negate());
+        }
+        for (int i=0; i<degree; i++) {
+            z[2*f.zeros.length + 2*i] = new Complex(0, wo);
+            z[2*f.zeros.length + 2*i + 1] = new Complex(0, -wo);
+        }
+        for (int i=0; i<f.poles.length; i++) {
+            Complex[] pair = bandSplit(new Complex(bw/2).divide(f.poles[i]), wo);
+            p[2*i] = pair[0];
+            p[2*i+1] = pair[1];
+            ratio = ratio.divide(f.poles[i].negate());
+        }
+        return new ZPK(z, p, f.gain*ratio.getReal());
+    }
+
+    // Roots of s^2 - 2*c*s + wo^2, i.e. c +/- sqrt(c^2 - wo^2)
+    private static Complex[] bandSplit(Complex c, double wo) {
+        Complex root = c.multiply(c).subtract(wo*wo).sqrt();
+        return new Complex[] {c.add(root), c.subtract(root)};
+    }
+
+    static ZPK bilinear(ZPK f, double Fs) {
+        double fs2 = 2*Fs;
+        int degree = f.poles.length - f.zeros.length;
+        Complex[] z = new Complex[f.poles.length];
+        Complex[] p = new Complex[f.poles.length];
+        Complex ratio = Complex.ONE;
+        for (int i=0; i<f.zeros.length; i++) {
+            Complex d = new Complex(fs2).subtract(f.zeros[i]);
+            z[i] = new Complex(fs2).add(f.zeros[i]).divide(d);
+            ratio = ratio.multiply(d);
+        }
+        for (int i=0; i<degree; i++) {
+            z[f.zeros.length + i] = new Complex(-1);
+        }
+        for (int i=0; i<p.length; i++) {
+            Complex d = new Complex(fs2).subtract(f.poles[i]);
+            p[i] = new Complex(fs2).add(f.poles[i]).divide(d);
+            ratio = ratio.divide(d);
+        }
+        return new ZPK(z, p, f.gain*ratio.getReal());
+    }
+
+    /**
+     * Groups the zeros and poles of a digital filter into second-order sections. Poles closest to the unit circle are
+     * placed in the last sections and each pole pair is matched with the zeros nearest to it, which keeps the
+     * intermediate signals of the cascade well scaled. Complex zeros and poles must come in conjugate pairs.
+     * @param zeros Zeros of the filter
+     * @param poles Poles of the filter
+     * @param gain Gain of the filter
+     * @return double[][] The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     */
+    public static double[][] zpk2sos(Complex[] zeros, Complex[] poles, double gain) {
+        return zpk2sos(new ZPK(zeros, poles, gain));
+    }
+
+    static double[][] zpk2sos(ZPK f) {
+        int nSections = (Math.max(f.zeros.length, f.poles.length) + 1) / 2;
+        if (nSections == 0) {
+            return new double[][] {{f.gain, 0, 0, 1, 0, 0}};
+        }
+        // Keep one member of each conjugate pair; pad to 2*nSections with roots at the origin
+        List<Complex> z = halfPlane(f.zeros, 2*nSections);
+        List<Complex> p = halfPlane(f.poles, 2*nSections);
+
+        double[][] sos = new double[nSections][];
+        for (int s=nSections-1; s>=0; s--) {
+            int p1Idx = 0;
+            for (int i=1; i<p.size(); i++) {
+                if (Math.abs(1 - p.get(i).abs()) < Math.abs(1 - p.get(p1Idx).abs())) {
+                    p1Idx = i;
+                }
+            }
+            Complex p1 = p.remove(p1Idx);
+            double[] b;
+            double[] a;
+            if (isReal(p1) && countReal(p) == 0) {
+                // A single real pole with the nearest real zero
+                Complex z1 = z.remove(nearest(z, p1, true));
+                b = new double[] {1, -z1.getReal(), 0};
+                a = new double[] {1, -p1.getReal(), 0};
+            }
+            else {
+                int z1Idx;
+                if (!isReal(p1) && countReal(z) == 1) {
+                    // Keep the single real zero for a real pole
+                    z1Idx = nearest(z, p1, false);
+                }
+                else {
+                    z1Idx = 0;
+                    for (int i=1; i<z.size(); i++) {
+                        if (p1.subtract(z.get(i)).abs() < p1.subtract(z.get(z1Idx)).abs()) {
+                            z1Idx = i;
+                        }
+                    }
+                }
+                Complex z1 = z.remove(z1Idx);
+                if (!isReal(p1)) {
+                    a = conjugatePoly(p1);
+                    if (!isReal(z1)) {
+                        b = conjugatePoly(z1);
+                    }
+                    else {
+                        Complex z2 = z.remove(nearest(z, p1, true));
+                        b = realPoly(z1.getReal(), z2.getReal());
+                    }
+                }
+                else {
+                    if (!isReal(z1)) {
+                        b = conjugatePoly(z1);
+                        Complex p2 = p.remove(nearest(p, z1, true));
+                        a = realPoly(p1.getReal(), p2.getReal());
+                    }
+                    else {
+                        int p2Idx = -1;
+                        for (int i=0; i<p.size(); i++) {
+                            if (isReal(p.get(i)) && (p2Idx < 0
+                                    || Math.abs(p.get(i).abs() - 1) < Math.abs(p.get(p2Idx).abs() - 1))) {
+                                p2Idx = i;
+                            }
+                        }
+                        Complex p2 = p.remove(p2Idx);
+                        Complex z2 = z.remove(nearest(z, p2, true));
+                        a = realPoly(p1.getReal(), p2.getReal());
+                        b = realPoly(z1.getReal(), z2.getReal());
+                    }
+                }
+            }
+            sos[s] = SecondOrderSections.row(b, a);
+        }
+        for (int i=0; i<3; i++) {
+            sos[0][i] *= f.gain;
+        }
+        return sos;
+    }
+
+    private static boolean isReal(Complex c) {
+        return Math.abs(c.getImaginary()) <= 1e-10 * Math.max(1.0, c.abs());
+    }
+
+    private static int countReal(List<Complex> roots) {
+        int count = 0;
+        for (Complex c : roots) {
+            if (isReal(c)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<Complex> halfPlane(Complex[] roots, int length) {
+        List<Complex> out = new ArrayList<>();
+        for (Complex c : roots) {
+            if (isReal(c)) {
+                out.add(new Complex(c.getReal(), 0));
+            }
+            else if (c.getImaginary() > 0) {
+                out.add(c);
+            }
+        }
+        Complex[] padding = new Complex[length - roots.length];
+        Arrays.fill(padding, Complex.ZERO);
+        out.addAll(Arrays.asList(padding));
+        return out;
+    }
+
+    // Index of the real (or complex) root nearest to the target
+    private static int nearest(List<Complex> roots, Complex target, boolean real) {
+        int idx = -1;
+        for (int i=0; i<roots.size(); i++) {
+            if (isReal(roots.get(i)) == real && (idx < 0
+                    || roots.get(i).subtract(target).abs() < roots.get(idx).subtract(target).abs())) {
+                idx = i;
+            }
+        }
+        if (idx < 0) {
+            throw new IllegalArgumentException("Zeros and poles must come in conjugate pairs");
+        }
+        return idx;
+    }
+
+    private static double[] conjugatePoly(Complex c) {
+        return new double[] {1, -2*c.getReal(), c.getReal()*c.getReal() + c.getImaginary()*c.getImaginary()};
+    }
+
+    private static double[] realPoly(double r1, double r2) {
+        return new double[] {1, -(r1 + r2), r1*r2};
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+/**
+ * <h2>Linear Filter</h2>
+ * The LFilter class applies a rational transfer function, given by its numerator (b) and denominator (a) coefficient
+ * vectors, to a signal in Direct Form II transposed, in the same way as scipy.signal.lfilter. Any order is supported,
+ * which covers FIR filters (a = {1}) as well as IIR designs whose coefficients come from elsewhere.
+ * The filter state has length max(len(a), len(b))-1. Passing the final state returned by one call as the initial state
+ * of the next filters a long signal chunk by chunk with the same result as filtering it in one go; see
+ * FiltFilt.lfilterZi() for the steady-state initial conditions. The output may be written to the input array.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.1
+ */
+public final class LFilter {
+
+    private LFilter() {
+    }
+
+    /**
+     * Filters the signal starting from a zero state.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @param x The signal to be filtered
+     * @throws java.lang.IllegalArgumentException if a or b is empty or a[0] is 0
+     * @return double[] The filtered signal
+     */
+    public static double[] lfilter(double[] b, double[] a, double[] x) {
+        double[] out = new double[x.length];
+        lfilter(b, a, x, null, out);
+        return out;
+    }
+
+    /**
+     * Filters the signal starting from the given state and writes the result to the output buffer.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @param x The signal to be filtered
+     * @param zi Initial state of the filter delays, of length max(len(a), len(b))-1; null for a zero state
+     * @param out Buffer receiving the filtered signal, which may be x; length at least x.length
+     * @throws java.lang.IllegalArgumentException if a or b is empty, a[0] is 0, zi has the wrong length or the output
+     * buffer is too short
+     * @return double[] The final state of the filter delays, to be used as zi for the next chunk of the signal
+     */
+    public static double[] lfilter(double[] b, double[] a, double[] x, double[] zi, double[] out) {
+        double[][] ba = normalise(b, a);
+        double[] z = initialState(zi, ba[0].length - 1);
+        if (out.length < x.length) {
+            throw new IllegalArgumentException("Output buffer is shorter than the signal");
+        }
+        directForm(ba[0], ba[1], z, x, out, x.length);
+        return z;
+    }
+
+    /**
+     * Filters every channel of a multi-channel signal with the same coefficients, each channel starting from its own
+     * state, and writes the results to the output buffers.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @param x The signal to be filtered, one row per channel
+     * @param zi Initial state of each channel, one row of length max(len(a), len(b))-1 per channel; null for zero states
+     * @param out Buffers receiving the filtered channels, which may be the rows of x
+     * @throws java.lang.IllegalArgumentException if a or b is empty, a[0] is 0, zi or out do not match x
+     * @return double[][] The final state of each channel, to be used as zi for the next chunk of the signal
+     */
+    public static double[][] lfilter(double[] b, double[] a, double[][] x, double[][] zi, double[][] out) {
+        double[][] ba = normalise(b, a);
+        int order = ba[0].length - 1;
+        if (out.length != x.length || (zi != null && zi.length != x.length)) {
+            throw new IllegalArgumentException("Number of channels in x, zi and out must be the same");
+        }
+        double[][] zf = new double[x.length][];
+        for (int c=0; c<x.length; c++) {
+            if (out[c].length < x[c].length) {
+                throw new IllegalArgumentException("Output buffer is shorter than the signal for channel " + c);
+            }
+            zf[c] = initialState(zi == null ? null : zi[c], order);
+            directForm(ba[0], ba[1], zf[c], x[c], out[c], x[c].length);
+        }
+        return zf;
+    }
+
+    /**
+     * Filters every channel of a multi-channel signal with the same coefficients, starting from zero states.
+     * @param b The numerator coefficient vector
+     * @param a The denominator coefficient vector
+     * @param x The signal to be filtered, one row per channel
+     * @throws java.lang.IllegalArgumentException if a or b is empty or a[0] is 0
+     * @return double[][] The filtered signal, one row per channel
+     */
+    public static double[][] lfilter(double[] b, double[] a, double[][] x) {
+        double[][] out = new double[x.length][];
+        for (int c=0; c<x.length; c++) {
+            out[c] = new double[x[c].length];
+        }
+        lfilter(b, a, x, null, out);
+        return out;
+    }
+
+    private static double[] initialState(double[] zi, int order) {
+        if (zi == null) {
+            return new double[order];
+        }
+        if (zi.length != order) {
+            throw new IllegalArgumentException("Length of zi must be max(len(a), len(b))-1 = " + order);
+        }
+        return zi.clone();
+    }
+
+    // Returns b and a divided by a[0] and padded with zeros to the same length
+    static double[][] normalise(double[] b, double[] a) {
+        if (a.length == 0 || a[0] == 0) {
+            throw new IllegalArgumentException("a[0] cannot be 0");
+        }
+        if (b.length == 0) {
+            throw new IllegalArgumentException("Numerator coefficient vector must not be empty");
+        }
+        int n = Math.max(a.length, b.length);
+        double[] bn = new double[n];
+        double[] an = new double[n];
+        for (int i=0; i<b.length; i++) {
+            bn[i] = b[i]/a[0];
+        }
+        for (int i=0; i<a.length; i++) {
+            an[i] = a[i]/a[0];
+        }
+        return new double[][] {bn, an};
+    }
+
+    // Direct Form II transposed with normalised coefficients of equal length; z is updated to the final state
+    static void directForm(double[] b, double[] a, double[] z, double[] x, double[] y, int len) {
+        int m = z.length;
+        double b0 = b[0];
+        if (m == 0) {
+            for (int i=0; i<len; i++) {
+                y[i] = b0*x[i];
+            }
+            return;
+        }
+        if (m == 2) {
+            SecondOrderSections.filter(new double[] {b0, b[1], b[2], a[1], a[2]}, z, 0, x, 0, y, 0, len);
+            return;
+        }
+        for (int i=0; i<len; i++) {
+            double xi = x[i];
+            double yi = b0*xi + z[0];
+            for (int j=0; j<m-1; j++) {
+                z[j] = b[j+1]*xi - a[j+1]*yi + z[j+1];
+            }
+            z[m-1] = b[m]*xi - a[m]*yi;
+            y[i] = yi;
+        }
+    }
+}
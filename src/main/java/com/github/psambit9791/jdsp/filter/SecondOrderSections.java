@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+/**
+ * <h2>Second-Order Sections</h2>
+ * Helpers shared by the filters which work on cascades of second-order sections (StreamingIIRFilter, FilterBank,
+ * FiltFilt, LFilter and IIRDesign). A section is given as a row {b0, b1, b2, a0, a1, a2} and packed for filtering as the
+ * 5 coefficients b0, b1, b2, a1, a2 divided by a0, which is the form the shared section kernel filter() works on.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.1
+ */
+final class SecondOrderSections {
+
+    // Samples per block, chosen so that a block stays in the L1 cache while every section runs over it
+    private static final int BLOCK = 256;
+
+    private SecondOrderSections() {
+    }
+
+    /**
+     * Builds the row of a section from its numerator and denominator, normalised so that a0 is 1.
+     * @param b The numerator {b0, b1, b2}
+     * @param a The denominator {a0, a1, a2}
+     * @throws java.lang.IllegalArgumentException if a0 is 0
+     * @return double[] The row {b0, b1, b2, 1, a1, a2}
+     */
+    static double[] row(double[] b, double[] a) {
+        double a0 = a[0];
+        if (a0 == 0) {
+            throw new IllegalArgumentException("a0 of a second-order section cannot be 0");
+        }
+        return new double[] {b[0]/a0, b[1]/a0, b[2]/a0, 1.0, a[1]/a0, a[2]/a0};
+    }
+
+    /**
+     * Normalises the sections and packs them for filtering.
+     * @param sos The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     * @throws java.lang.IllegalArgumentException if a row does not have 6 coefficients or a0 is 0
+     * @return double[] The coefficients of section s at index 5*s: b0, b1, b2, a1, a2
+     */
+    static double[] pack(double[][] sos) {
+        double[] k = new double[5*sos.length];
+        for (int s=0; s<sos.length; s++) {
+            if (sos[s].length != 6) {
+                throw new IllegalArgumentException("Each second-order section must have 6 coefficients");
+            }
+            double a0 = sos[s][3];
+            if (a0 == 0) {
+                throw new IllegalArgumentException("a0 of a second-order section cannot be 0");
+            }
+            k[5*s] = sos[s][0]/a0;
+            k[5*s+1] = sos[s][1]/a0;
+            k[5*s+2] = sos[s][2]/a0;
+            k[5*s+3] = sos[s][4]/a0;
+            k[5*s+4] = sos[s][5]/a0;
+        }
+        return k;
+    }
+
+    /**
+     * Rebuilds the rows of packed sections.
+     * @param k The coefficients of section s at index 5*s: b0, b1, b2, a1, a2
+     * @return double[][] One row {b0, b1, b2, 1, a1, a2} per section
+     */
+    static double[][] unpack(double[] k) {
+        double[][] sos = new double[k.length/5][];
+        for (int s=0; s<sos.length; s++) {
+            int j = 5*s;
+            sos[s] = new double[] {k[j], k[j+1], k[j+2], 1.0, k[j+3], k[j+4]};
+        }
+        return sos;
+    }
+
+    /**
+     * Filters len samples, starting at inOff, with packed sections in Direct Form II transposed and writes the output
+     * to the output buffer starting at outOff, continuing from and updating the delay elements. The input and output
+     * buffers may be the same array. The sections are applied two at a time to each block of the output, keeping the
+     * delay elements in local variables.
+     * Both sections of a pair filter sample i in the same iteration, so each sample is loaded and stored once per pair
+     * instead of once per section. The recursion of the first section does not depend on the second, so the processor
+     * can start on sample i+1 of the first section while the second one is still working on sample i.
+     * @param k The coefficients of section s at index 5*s: b0, b1, b2, a1, a2
+     * @param z The delay elements of section s at index zOff + 2*s and zOff + 2*s + 1
+     * @param zOff Index of the delay elements of the first section
+     * @param in Buffer holding the input samples
+     * @param inOff Index of the first input sample
+     * @param out Buffer receiving the filtered samples
+     * @param outOff Index at which the first filtered sample is written
+     * @param len Number of samples
+     */
+    static void filter(double[] k, double[] z, int zOff, double[] in, int inOff, double[] out, int outOff, int len) {
+        boolean copy = in != out || inOff != outOff;
+        if (in == out && outOff > inOff) {
+            // Copying block by block would overwrite input which has not been read yet
+            System.arraycopy(in, inOff, out, outOff, len);
+            copy = false;
+        }
+        int n = k.length/5;
+        for (int start=0; start<len; start+=BLOCK) {
+            int from = outOff + start;
+            int to = outOff + Math.min(len, start + BLOCK);
+            if (copy) {
+                System.arraycopy(in, inOff + start, out, from, to - from);
+            }
+            int s = 0;
+            for (; s+1<n; s+=2) {
+                int j = 5*s;
+                int q = zOff + 2*s;
+                double b0 = k[j];
+                double b1 = k[j+1];
+                double b2 = k[j+2];
+                double a1 = k[j+3];
+                double a2 = k[j+4];
+                double c0 = k[j+5];
+                double c1 = k[j+6];
+                double c2 = k[j+7];
+                double d1 = k[j+8];
+                double d2 = k[j+9];
+                double z1 = z[q];
+                double z2 = z[q+1];
+                double w1 = z[q+2];
+                double w2 = z[q+3];
+                for (int i=from; i<to; i++) {
+                    double x = out[i];
+                    double y = b0*x + z1;
+                    z1 = b1*x - a1*y + z2;
+                    z2 = b2*x - a2*y;
+                    double v = c0*y + w1;
+                    w1 = c1*y - d1*v + w2;
+                    w2 = c2*y - d2*v;
+                    out[i] = v;
+                }
+                z[q] = z1;
+                z[q+1] = z2;
+                z[q+2] = w1;
+                z[q+3] = w2;
+            }
+            if (s < n) {
+                int j = 5*s;
+                int q = zOff + 2*s;
+                double b0 = k[j];
+                double b1 = k[j+1];
+                double b2 = k[j+2];
+                double a1 = k[j+3];
+                double a2 = k[j+4];
+                double z1 = z[q];
+                double z2 = z[q+1];
+                for (int i=from; i<to; i++) {
+                    double x = out[i];
+                    double y = b0*x + z1;
+                    z1 = b1*x - a1*y + z2;
+                    z2 = b2*x - a2*y;
+                    out[i] = y;
+                }
+                z[q] = z1;
+                z[q+1] = z2;
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.psambit9791.jdsp.filter;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Streaming Finite Impulse Response Filter</h2>
+ * The StreamingFIRFilter class applies an FIR filter (for example coefficients computed by FIRWin1, FIRWin2 or FIRLS) to
+ * one or more channels of a signal which arrives in chunks of arbitrary size. Every channel keeps a delay line with the
+ * last numTaps samples, so filtering a signal chunk by chunk gives the same output as filtering the whole signal at once
+ * with firfilter(b, x). The delay lines are stored twice back to back, which keeps the newest numTaps samples contiguous
+ * and the inner loop free of index wrapping. No memory is allocated while filtering into caller-provided buffers.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class StreamingFIRFilter {
+
+    private final double[] reversed;
+    private final int numTaps;
+    private final int channels;
+    private final double[][] delay;
+    private final int[] position;
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingFIRFilter.
+     * @param b The numerator coefficient vector of the FIR filter
+     * @param channels Number of channels to be filtered
+     * @throws java.lang.IllegalArgumentException if the coefficient vector is empty or channels is less than 1
+     */
+    public StreamingFIRFilter(double[] b, int channels) {
+        if (b.length == 0) {
+            throw new IllegalArgumentException("Coefficient vector must not be empty");
+        }
+        if (channels < 1) {
+            throw new IllegalArgumentException("Number of channels must be greater than 0");
+        }
+        this.numTaps = b.length;
+        this.channels = channels;
+        this.reversed = new double[b.length];
+        for (int i=0; i<b.length; i++) {
+            this.reversed[i] = b[b.length - 1 - i];
+        }
+        this.delay = new double[channels][2*b.length];
+        this.position = new int[channels];
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingFIRFilter for a single channel.
+     * @param b The numerator coefficient vector of the FIR filter
+     * @throws java.lang.IllegalArgumentException if the coefficient vector is empty
+     */
+    public StreamingFIRFilter(double[] b) {
+        this(b, 1);
+    }
+
+    /**
+     * Filters len samples of one channel, starting at inOff, and writes the output to the output buffer starting at
+     * outOff. The input and output buffers may be the same array.
+     * @param channel Index of the channel
+     * @param in Buffer holding the input samples
+     * @param inOff Index of the first input sample
+     * @param out Buffer receiving the filtered samples
+     * @param outOff Index at which the first filtered sample is written
+     * @param len Number of samples
+     * @throws java.lang.IllegalArgumentException if the channel does not exist or a range is outside its buffer
+     */
+    public void filter(int channel, double[] in, int inOff, double[] out, int outOff, int len) {
+        if (channel < 0 || channel >= this.channels) {
+            throw new IllegalArgumentException("Channel must be between 0 and " + (this.channels - 1));
+        }
+        if (len < 0 || inOff < 0 || outOff < 0 || inOff + len > in.length || outOff + len > out.length) {
+            throw new IllegalArgumentException("Sample range is outside the buffer");
+        }
+        double[] line = this.delay[channel];
+        double[] taps = this.reversed;
+        int m = this.numTaps;
+        int pos = this.position[channel];
+        for (int i=0; i<len; i++) {
+            double x = in[inOff + i];
+            line[pos] = x;
+            line[pos + m] = x;
+            // The newest m samples, oldest first, are at line[pos+1 .. pos+m]
+            double acc = 0;
+            for (int k=0; k<m; k++) {
+                acc += line[pos + 1 + k] * taps[k];
+            }
+            out[outOff + i] = acc;
+            pos = pos + 1 == m ? 0 : pos + 1;
+        }
+        this.position[channel] = pos;
+    }
+
+    /**
+     * Filters a chunk of one channel and writes the output to the output buffer.
+     * @param channel Index of the channel
+     * @param in The input samples
+     * @param out Buffer receiving the filtered samples; length at least in.length
+     * @throws java.lang.IllegalArgumentException if the channel does not exist or the output buffer is too short
+     */
+    public void filter(int channel, double[] in, double[] out) {
+        this.filter(channel, in, 0, out, 0, in.length);
+    }
+
+    /**
+     * Filters a chunk of every channel and writes the output to the output buffers. All channels of the chunk must have
+     * the same length.
+     * @param in The input samples, one row per channel
+     * @param out Buffers receiving the filtered samples, one row per channel
+     * @throws java.lang.IllegalArgumentException if the number of rows does not match the number of channels or the
+     * rows have different lengths
+     */
+    public void filter(double[][] in, double[][] out) {
+        if (in.length != this.channels || out.length != this.channels) {
+            throw new IllegalArgumentException("Number of rows must match the number of channels");
+        }
+        for (int c=0; c<this.channels; c++) {
+            if (in[c].length != in[0].length) {
+                throw new IllegalArgumentException("All channels must have the same number of samples");
+            }
+        }
+        for (int c=0; c<this.channels; c++) {
+            this.filter(c, in[c], 0, out[c], 0, in[c].length);
+        }
+    }
+
+    /**
+     * Filters a chunk of every channel and returns the output.
+     * @param in The input samples, one row per channel
+     * @throws java.lang.IllegalArgumentException if the number of rows does not match the number of channels or the
+     * rows have different lengths
+     * @return double[][] The filtered samples, one row per channel
+     */
+    public double[][] filter(double[][] in) {
+        double[][] out = new double[in.length][];
+        for (int c=0; c<in.length; c++) {
+            out[c] = new double[in[c].length];
+        }
+        this.filter(in, out);
+        return out;
+    }
+
+    /**
+     * Filters a chunk of channel 0 and returns the output.
+     * @param in The input samples
+     * @return double[] The filtered samples
+     */
+    public double[] filter(double[] in) {
+        double[] out = new double[in.length];
+        this.filter(0, in, 0, out, 0, in.length);
+        return out;
+    }
+
+    /**
+     * Clears the delay lines of all channels, so that the next chunk starts a new signal.
+     */
+    public void reset() {
+        for (int c=0; c<this.channels; c++) {
+            Arrays.fill(this.delay[c], 0.0);
+            this.position[c] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of channels
+     * @return int Number of channels
+     */
+    public int getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * Returns the number of filter coefficients
+     * @return int Number of taps
+     */
+    public int getNumTaps() {
+        return this.numTaps;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Streaming Infinite Impulse Response Filter</h2>
+ * The StreamingIIRFilter class applies an IIR filter, given as a cascade of second-order sections (biquads), to one or
+ * more channels of a signal which arrives in chunks of arbitrary size. The filter is designed once, for example with
+ * Butterworth.streamingLowPass(), and every channel keeps the state of each section between calls, so filtering a
+ * signal chunk by chunk gives the same output as filtering the whole signal at once. The sections are evaluated in
+ * Direct Form II transposed, by the section kernel shared with FilterBank and FiltFilt for a single channel, and no
+ * memory is allocated while filtering into caller-provided buffers.
+ * Multi-channel data stored interleaved (frame by frame, as read from an audio file) can be filtered in one call with
+ * processInterleaved(), which runs each section over a block of frames for all channels at once; the innermost loop then
+ * has no dependency between iterations, so the JIT can unroll and vectorise it.
+ * Each row of the second-order sections matrix holds {b0, b1, b2, a0, a1, a2}; IIRDesign computes them without iirj.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.4
+ */
+public class StreamingIIRFilter {
+
+    // Frames per block of the interleaved kernel, chosen so that a block of a few channels stays in the L1 cache
+    private static final int BLOCK = 256;
+
+    private final int sections;
+    private final int channels;
+    // Normalised coefficients of section s at index 5*s: b0, b1, b2, a1, a2
+    private final double[] coeffs;
+    // Delay elements of channel c and section s at index 2*(c*sections + s) and 2*(c*sections + s) + 1
+    private final double[] z;
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingIIRFilter.
+     * @param sos The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     * @param channels Number of channels to be filtered
+     * @throws java.lang.IllegalArgumentException if there are no sections, a row does not have 6 coefficients, a0 is 0
+     * or channels is less than 1
+     */
+    public StreamingIIRFilter(double[][] sos, int channels) {
+        if (sos.length == 0) {
+            throw new IllegalArgumentException("At least one second-order section is required");
+        }
+        if (channels < 1) {
+            throw new IllegalArgumentException("Number of channels must be greater than 0");
+        }
+        this.sections = sos.length;
+        this.channels = channels;
+        this.coeffs = SecondOrderSections.pack(sos);
+        this.z = new double[2*sos.length*channels];
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingIIRFilter for a single channel.
+     * @param sos The second-order sections, one row {b0, b1, b2, a0, a1, a2} per section
+     * @throws java.lang.IllegalArgumentException if there are no sections, a row does not have 6 coefficients or a0 is 0
+     */
+    public StreamingIIRFilter(double[][] sos) {
+        this(sos, 1);
+    }
+
+    /**
+     * Builds the streaming filter from a designed iirj cascade.
+     */
+    static StreamingIIRFilter fromCascade(uk.me.berndporr.iirj.Cascade cascade, int channels) {
+        double[][] sos = new double[cascade.getNumBiquads()][];
+        for (int s=0; s<sos.length; s++) {
+            uk.me.berndporr.iirj.Biquad bq = cascade.getBiquad(s);
+            // The getters of iirj return the coefficients as designed, not divided by a0; the constructor normalises them
+            sos[s] = new double[] {bq.getB0(), bq.getB1(), bq.getB2(), bq.getA0(), bq.getA1(), bq.getA2()};
+        }
+        return new StreamingIIRFilter(sos, channels);
+    }
+
+    /**
+     * Filters len samples of one channel, starting at inOff, and writes the output to the output buffer starting at
+     * outOff. The input and output buffers may be the same array.
+     * @param channel Index of the channel
+     * @param in Buffer holding the input samples
+     * @param inOff Index of the first input sample
+     * @param out Buffer receiving the filtered samples
+     * @param outOff Index at which the first filtered sample is written
+     * @param len Number of samples
+     * @throws java.lang.IllegalArgumentException if the channel does not exist or a range is outside its buffer
+     */
+    public void process(int channel, double[] in, int inOff, double[] out, int outOff, int len) {
+        if (channel < 0 || channel >= this.channels) {
+            throw new IllegalArgumentException("Channel must be between 0 and " + (this.channels - 1));
+        }
+        if (len < 0 || inOff < 0 || outOff < 0 || inOff + len > in.length || outOff + len > out.length) {
+            throw new IllegalArgumentException("Sample range is outside the buffer");
+        }
+        SecondOrderSections.filter(this.coeffs, this.z, 2*this.sections*channel, in, inOff, out, outOff, len);
+    }
+
+    /**
+     * Filters frames of interleaved multi-channel data, where sample c of frame i is at index off + i*channels + c,
+     * starting at inOff, and writes the output in the same layout to the output buffer starting at outOff. The input and
+     * output buffers may be the same array.
+     * @param in Buffer holding the interleaved input samples
+     * @param inOff Index of the first sample of the first frame
+     * @param out Buffer receiving the interleaved filtered samples
+     * @param outOff Index at which the first sample of the first frame is written
+     * @param frames Number of frames
+     * @throws java.lang.IllegalArgumentException if a range is outside its buffer
+     */
+    public void processInterleaved(double[] in, int inOff, double[] out, int outOff, int frames) {
+        int ch = this.channels;
+        long total = (long) frames * ch;
+        if (frames < 0 || inOff < 0 || outOff < 0 || inOff + total > in.length || outOff + total > out.length) {
+            throw new IllegalArgumentException("Sample range is outside the buffer");
+        }
+        if (in != out || inOff != outOff) {
+            System.arraycopy(in, inOff, out, outOff, (int) total);
+        }
+        double[] w = this.z;
+        int stride = 2*this.sections;
+        for (int start=0; start<frames; start+=BLOCK) {
+            int from = outOff + start*ch;
+            int to = outOff + Math.min(frames, start + BLOCK)*ch;
+            for (int s=0; s<this.sections; s++) {
+                int k = 5*s;
+                double b0 = this.coeffs[k];
+                double b1 = this.coeffs[k+1];
+                double b2 = this.coeffs[k+2];
+                double a1 = this.coeffs[k+3];
+                double a2 = this.coeffs[k+4];
+                int c = 0;
+                // Four channels at a time with the delay elements in registers: four independent recursions hide
+                // the latency of each other
+                for (; c+4<=ch; c+=4) {
+                    int z0 = 2*s + c*stride;
+                    int z1 = z0 + stride;
+                    int z2 = z1 + stride;
+                    int z3 = z2 + stride;
+                    double p0 = w[z0], p1 = w[z1], p2 = w[z2], p3 = w[z3];
+                    double q0 = w[z0+1], q1 = w[z1+1], q2 = w[z2+1], q3 = w[z3+1];
+                    for (int i=from+c; i<to; i+=ch) {
+                        double x0 = out[i], x1 = out[i+1], x2 = out[i+2], x3 = out[i+3];
+                        double y0 = b0*x0 + p0;
+                        double y1 = b0*x1 + p1;
+                        double y2 = b0*x2 + p2;
+                        double y3 = b0*x3 + p3;
+                        p0 = b1*x0 - a1*y0 + q0;
+                        p1 = b1*x1 - a1*y1 + q1;
+                        p2 = b1*x2 - a1*y2 + q2;
+                        p3 = b1*x3 - a1*y3 + q3;
+                        q0 = b2*x0 - a2*y0;
+                        q1 = b2*x1 - a2*y1;
+                        q2 = b2*x2 - a2*y2;
+                        q3 = b2*x3 - a2*y3;
+                        out[i] = y0;
+                        out[i+1] = y1;
+                        out[i+2] = y2;
+                        out[i+3] = y3;
+                    }
+                    w[z0] = p0; w[z1] = p1; w[z2] = p2; w[z3] = p3;
+                    w[z0+1] = q0; w[z1+1] = q1; w[z2+1] = q2; w[z3+1] = q3;
+                }
+                for (; c<ch; c++) {
+                    int z0 = 2*s + c*stride;
+                    double p0 = w[z0];
+                    double q0 = w[z0+1];
+                    for (int i=from+c; i<to; i+=ch) {
+                        double x0 = out[i];
+                        double y0 = b0*x0 + p0;
+                        p0 = b1*x0 - a1*y0 + q0;
+                        q0 = b2*x0 - a2*y0;
+                        out[i] = y0;
+                    }
+                    w[z0] = p0;
+                    w[z0+1] = q0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Filters frames of interleaved multi-channel data and returns the output in the same layout.
+     * @param in The interleaved input samples; the length must be a multiple of the number of channels
+     * @throws java.lang.IllegalArgumentException if the length is not a multiple of the number of channels
+     * @return double[] The interleaved filtered samples
+     */
+    public double[] processInterleaved(double[] in) {
+        if (in.length % this.channels != 0) {
+            throw new IllegalArgumentException("Length must be a multiple of the number of channels");
+        }
+        double[] out = new double[in.length];
+        this.processInterleaved(in, 0, out, 0, in.length / this.channels);
+        return out;
+    }
+
+    /**
+     * Filters len samples of channel 0, starting at off, and writes the output to the same positions of the output
+     * buffer. The input and output buffers may be the same array.
+     * @param in Buffer holding the input samples
+     * @param off Index of the first sample
+     * @param len Number of samples
+     * @param out Buffer receiving the filtered samples
+     * @throws java.lang.IllegalArgumentException if a range is outside its buffer
+     */
+    public void process(double[] in, int off, int len, double[] out) {
+        this.process(0, in, off, out, off, len);
+    }
+
+    /**
+     * Filters a chunk of every channel and writes the output to the output buffers. All channels of the chunk must have
+     * the same length.
+     * @param in The input samples, one row per channel
+     * @param out Buffers receiving the filtered samples, one row per channel
+     * @throws java.lang.IllegalArgumentException if the number of rows does not match the number of channels or the
+     * rows have different lengths
+     */
+    public void process(double[][] in, double[][] out) {
+        if (in.length != this.channels || out.length != this.channels) {
+            throw new IllegalArgumentException("Number of rows must match the number of channels");
+        }
+        for (int c=0; c<this.channels; c++) {
+            if (in[c].length != in[0].length) {
+                throw new IllegalArgumentException("All channels must have the same number of samples");
+            }
+        }
+        for (int c=0; c<this.channels; c++) {
+            this.process(c, in[c], 0, out[c], 0, in[c].length);
+        }
+    }
+
+    /**
+     * Filters a chunk of channel 0 and returns the output.
+     * @param in The input samples
+     * @return double[] The filtered samples
+     */
+    public double[] process(double[] in) {
+        double[] out = new double[in.length];
+        this.process(0, in, 0, out, 0, in.length);
+        return out;
+    }
+
+    /**
+     * Applies the filter forward and backward to a complete signal (zero-phase filtering, see FiltFilt.sosfiltfilt)
+     * and writes the result to the output buffer, which may be the input array. The state of the streaming channels is
+     * neither used nor changed.
+     * @param in The signal to be filtered
+     * @param out Buffer receiving the filtered signal; length at least in.length
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than the padding of the filter
+     */
+    public void filtfilt(double[] in, double[] out) {
+        FiltFilt.sosfiltfilt(this.getSOS(), in, out, FiltFilt.PadType.ODD, -1);
+    }
+
+    /**
+     * Applies the filter forward and backward to a complete signal (zero-phase filtering, see FiltFilt.sosfiltfilt)
+     * and returns the result. The state of the streaming channels is neither used nor changed.
+     * @param in The signal to be filtered
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than the padding of the filter
+     * @return double[] The filtered signal
+     */
+    public double[] filtfilt(double[] in) {
+        double[] out = new double[in.length];
+        this.filtfilt(in, out);
+        return out;
+    }
+
+    /**
+     * Clears the state of all channels, so that the next chunk starts a new signal.
+     */
+    public void reset() {
+        Arrays.fill(this.z, 0.0);
+    }
+
+    /**
+     * Returns the second-order sections of the filter, normalised so that a0 is 1
+     * @return double[][] One row {b0, b1, b2, a0, a1, a2} per section
+     */
+    public double[][] getSOS() {
+        return SecondOrderSections.unpack(this.coeffs);
+    }
+
+    /**
+     * Returns the packed coefficients used while filtering, which must not be modified.
+     * @return double[] The coefficients of section s at index 5*s: b0, b1, b2, a1, a2
+     */
+    double[] getCoefficients() {
+        return this.coeffs;
+    }
+
+    /**
+     * Returns the number of second-order sections
+     * @return int Number of sections
+     */
+    public int getNumSections() {
+        return this.sections;
+    }
+
+    /**
+     * Returns the number of channels
+     * @return int Number of channels
+     */
+    public int getChannels() {
+        return this.channels;
+    }
+}
@@ -19,14 +19,15 @@ import com.github.psambit9791.jdsp.signal.Convolution;
  *  
  *
  * @author  Sambit Paul
- * @version 1.2
+ * @version 1.3
  */
 public abstract class _FIRFilter {
 
     /**
      * FIR Filters follow the formula y_n = sum(b_i * x_(n-i)) for all coefficients i = 0 to M.
      * For FIR filters we can set a to 1.0.
-     * Similar to lfilter (from scipy) but modified for FIR application
+     * Similar to lfilter (from scipy) but modified for FIR application. Here zi is added to the first samples of the
+     * output; LFilter takes the filter delay state of scipy.signal.lfilter instead and returns the final state.
      * @param b The numerator coefficient vector
      * @param x The signal to be filtered
      * @param zi Initial conditions for the filter delays
@@ -64,4 +65,17 @@ public abstract class _FIRFilter {
         return fout;
     }
 
+    /**
+     * Applies the FIR filter forward and backward (zero-phase filtering) with odd extension of 3*len(b) samples at both
+     * ends and steady-state initial conditions, as scipy.signal.filtfilt(b, 1, x). See FiltFilt for other padding
+     * options and in-place filtering.
+     * @param b The numerator coefficient vector
+     * @param x The signal to be filtered
+     * @throws java.lang.IllegalArgumentException if the signal is not longer than 3*len(b)
+     * @return double[] The filtered signal
+     */
+    public double[] firfiltfilt(double[] b, double[] x) {
+        return FiltFilt.filtfilt(b, new double[] {1.0}, x);
+    }
+
 }
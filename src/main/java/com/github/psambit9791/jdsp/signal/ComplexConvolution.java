@@ -12,17 +12,27 @@ package com.github.psambit9791.jdsp.signal;
 
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.transform.FFTEngine;
+import com.github.psambit9791.jdsp.transform.FFTPlan;
 import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
 import org.apache.commons.math3.util.MathArrays;
 
+import java.util.Arrays;
+
 /**
  * <h2>Convolution for Complex Numbers</h2>
  * The ComplexConvolution class implements different modes of convolution for a list of complex numbers.
  * The window can be a list of Complex or real (double) numbers.
+ * The convolution can be computed directly, with the FFT or block by block, or the fastest of these can be chosen
+ * automatically. The FFT method works on interleaved primitive arrays (real and imaginary parts alternating) and
+ * convolves the complex sequences with a single complex FFT each, without creating Complex objects on the way; it is
+ * also available for interleaved arrays with convolveInterleaved(), and with convolveSpectrum() for a signal whose
+ * spectrum is reused for several kernels.
  *  
  *
  * @author  Sambit Paul
- * @version 1.1
+ * @version 1.4
  */
 public class ComplexConvolution {
     private double[] signal;
@@ -70,41 +80,51 @@ public class ComplexConvolution {
         this.output = null;
     }
 
-    private void convolveDoubleComplex(String mode) {
+    private void convolveDoubleComplex(String mode, String method) {
         double[][] kernel2D = UtilMethods.transpose(UtilMethods.complexTo2D(this.complexKernel));
 
         Convolution c_real = new Convolution(this.signal, kernel2D[0]);
         Convolution c_imag = new Convolution(this.signal, kernel2D[1]);
 
-        double[][] temp = {c_real.convolve(mode), c_imag.convolve(mode)};
+        double[][] temp = {c_real.convolve(mode, method), c_imag.convolve(mode, method)};
         temp = UtilMethods.transpose(temp);
 
         this.output = UtilMethods.matToComplex(temp);
     }
 
-    private void convolveComplexDouble(String mode) {
+    private void convolveComplexDouble(String mode, String method) {
         double[][] signal2D = UtilMethods.transpose(UtilMethods.complexTo2D(this.complexSignal));
 
         Convolution c_real = new Convolution(signal2D[0], this.kernel);
         Convolution c_imag = new Convolution(signal2D[1], this.kernel);
 
-        double[][] temp = {c_real.convolve(mode), c_imag.convolve(mode)};
+        double[][] temp = {c_real.convolve(mode, method), c_imag.convolve(mode, method)};
         temp = UtilMethods.transpose(temp);
 
         this.output = UtilMethods.matToComplex(temp);
     }
 
-    private void convolveComplexComplex(String mode) {
+    private void convolveComplexComplex(String mode, String method) {
         double[][] signal2D = UtilMethods.transpose(UtilMethods.complexTo2D(this.complexSignal));
         double[][] kernel2D = UtilMethods.transpose(UtilMethods.complexTo2D(this.complexKernel));
 
+        if (ConvolutionMethod.DIRECT.equals(method)) {
+            // Only the samples of the requested mode are computed, without intermediate Convolution objects
+            int[] range = Convolution.modeRange(signal2D[0].length, kernel2D[0].length, mode);
+            double[][] temp = new double[2][range[1]];
+            ConvolutionKernels.INSTANCE.convolveComplex(signal2D[0], signal2D[1], kernel2D[0], kernel2D[1],
+                    range[0], range[1], temp[0], temp[1]);
+            this.output = UtilMethods.matToComplex(UtilMethods.transpose(temp));
+            return;
+        }
+
         Convolution c_real_real = new Convolution(signal2D[0], kernel2D[0]);
         Convolution c_imag_imag = new Convolution(signal2D[1], kernel2D[1]);
         Convolution c_real_imag = new Convolution(signal2D[0], kernel2D[1]);
         Convolution c_imag_real = new Convolution(signal2D[1], kernel2D[0]);
 
-        double[] real = MathArrays.ebeAdd(c_real_real.convolve(mode), MathArrays.scale(-1, c_imag_imag.convolve(mode)));
-        double[] imag = MathArrays.ebeAdd(c_real_imag.convolve(mode), c_imag_real.convolve(mode));
+        double[] real = MathArrays.ebeAdd(c_real_real.convolve(mode, method), MathArrays.scale(-1, c_imag_imag.convolve(mode, method)));
+        double[] imag = MathArrays.ebeAdd(c_real_imag.convolve(mode, method), c_imag_real.convolve(mode, method));
 
         double[][] temp = {real, imag};
         temp = UtilMethods.transpose(temp);
@@ -112,31 +132,159 @@ public class ComplexConvolution {
         this.output = UtilMethods.matToComplex(temp);
     }
 
-    public Complex[] convolve(String mode) throws ExceptionInInitializerError {
+    /**
+     * This is the convolution procedure which works in the specified mode with the specified method. The real and
+     * imaginary parts are convolved separately with Convolution.convolve(mode, method).
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'
+     * @param method Method used to compute the convolution. Can be 'direct', 'fft', 'block' or 'auto'
+     * @throws java.lang.ExceptionInInitializerError if neither the signal nor the kernel is complex
+     * @throws java.lang.IllegalArgumentException if mode or method is not recognised
+     * @return Complex[] Result of convolution.
+     */
+    public Complex[] convolve(String mode, String method) throws ExceptionInInitializerError {
+        ConvolutionMethod.validate(method);
+        if (ConvolutionMethod.AUTO.equals(method)) {
+            int n = this.signal != null ? this.signal.length : (this.complexSignal != null ? this.complexSignal.length : 0);
+            int m = this.kernel != null ? this.kernel.length : (this.complexKernel != null ? this.complexKernel.length : 0);
+            int[] range = Convolution.modeRange(n, m, mode);
+            method = ConvolutionMethod.choose(n, m, range[0], range[1]);
+        }
+        if (ConvolutionMethod.FFT.equals(method)) {
+            return this.fastConvolve(mode);
+        }
+        if (this.complexSignal != null && this.kernel != null) {
+            this.convolveComplexDouble(mode, method);
+        }
+        else if (this.signal != null && this.complexKernel != null) {
+            this.convolveDoubleComplex(mode, method);
+        }
+        else if (this.complexSignal != null && this.complexKernel != null) {
+            this.convolveComplexComplex(mode, method);
+        }
+        else {
+            throw new ExceptionInInitializerError("This is a complex convolution method. Please use normal convolution for non-complex signals.");
+        }
+        return this.output;
+    }
+
+    /**
+     * Performs fast convolution of the signal and kernel using the FFT method in the specified mode. Both sequences are
+     * converted to interleaved arrays once and convolved with complex FFTs.
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'
+     * @throws java.lang.ExceptionInInitializerError if neither the signal nor the kernel is complex
+     * @throws java.lang.IllegalArgumentException if mode is not full, same or valid
+     * @return Complex[] Result of convolution.
+     */
+    public Complex[] fastConvolve(String mode) throws ExceptionInInitializerError {
+        double[] sig;
+        double[] krn;
         if (this.complexSignal != null && this.kernel != null) {
-            this.convolveComplexDouble(mode);
+            sig = FFTEngine.fromComplex(this.complexSignal);
+            krn = FFTEngine.fromReal(this.kernel, this.kernel.length);
         }
         else if (this.signal != null && this.complexKernel != null) {
-            this.convolveDoubleComplex(mode);
+            sig = FFTEngine.fromReal(this.signal, this.signal.length);
+            krn = FFTEngine.fromComplex(this.complexKernel);
         }
         else if (this.complexSignal != null && this.complexKernel != null) {
-            this.convolveComplexComplex(mode);
+            sig = FFTEngine.fromComplex(this.complexSignal);
+            krn = FFTEngine.fromComplex(this.complexKernel);
         }
         else {
             throw new ExceptionInInitializerError("This is a complex convolution method. Please use normal convolution for non-complex signals.");
         }
+        double[] out = convolveInterleaved(sig, krn, mode);
+        this.output = FFTEngine.toComplex(out, out.length/2);
         return this.output;
     }
 
+    /**
+     * Performs fast convolution of a complex signal and a complex kernel which are given as interleaved arrays (real
+     * and imaginary parts alternating) using the FFT method in the specified mode. The output is interleaved as well.
+     * @param signal Interleaved signal to be convolved
+     * @param kernel Interleaved kernel for convolution
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'
+     * @throws java.lang.IllegalArgumentException if mode is not full, same or valid, or if an array has an odd length
+     * @return double[] Interleaved result of convolution.
+     */
+    public static double[] convolveInterleaved(double[] signal, double[] kernel, String mode) {
+        if (signal.length%2 != 0 || kernel.length%2 != 0) {
+            throw new IllegalArgumentException("Interleaved arrays must have an even length");
+        }
+        int n = signal.length/2;
+        int m = kernel.length/2;
+        if (n == 0 || m == 0) {
+            return new double[2*Convolution.modeRange(n, m, mode)[1]];
+        }
+        double[] x = Arrays.copyOf(signal, 2*spectrumSize(n, m));
+        FFTPlan.of(spectrumSize(n, m), false, DftNormalization.STANDARD).execute(x);
+        return convolveSpectrum(x, n, kernel, mode);
+    }
+
+    /**
+     * Returns the FFT size used by convolveInterleaved() and convolveSpectrum() to convolve a signal of n samples with
+     * a kernel of m samples.
+     * @param n Number of samples of the signal
+     * @param m Number of samples of the kernel
+     * @return int The FFT size, the smallest power of 2 not less than n + m - 1
+     */
+    public static int spectrumSize(int n, int m) {
+        return (int) UtilMethods.nextPowerOfTwo(n + m - 1);
+    }
+
+    /**
+     * Performs the same convolution as convolveInterleaved() with the spectrum of the signal computed in advance, so that
+     * a signal which is convolved with many kernels is transformed only once. The spectrum is the forward FFT
+     * (DftNormalization.STANDARD) of the interleaved signal zero-padded to spectrumSize(n, m) samples and is not
+     * modified.
+     * @param spectrum Interleaved spectrum of the signal
+     * @param n Number of samples of the signal
+     * @param kernel Interleaved kernel for convolution
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'
+     * @throws java.lang.IllegalArgumentException if mode is not full, same or valid, if the kernel has an odd length or
+     * if the spectrum does not have the FFT size for n and the length of the kernel
+     * @return double[] Interleaved result of convolution.
+     */
+    public static double[] convolveSpectrum(double[] spectrum, int n, double[] kernel, String mode) {
+        if (kernel.length%2 != 0) {
+            throw new IllegalArgumentException("Interleaved arrays must have an even length");
+        }
+        int m = kernel.length/2;
+        int[] range = Convolution.modeRange(n, m, mode);
+        if (n == 0 || m == 0) {
+            return new double[2*range[1]];
+        }
+        int size = spectrumSize(n, m);
+        if (spectrum.length != 2*size) {
+            throw new IllegalArgumentException("Spectrum must have " + size + " points for this signal and kernel");
+        }
+        double[] h = Arrays.copyOf(kernel, 2*size);
+        FFTPlan.of(size, false, DftNormalization.STANDARD).execute(h);
+        for (int i=0; i<2*size; i+=2) {
+            double a = spectrum[i];
+            double b = spectrum[i+1];
+            double c = h[i];
+            double d = h[i+1];
+            h[i] = a*c - b*d;
+            h[i+1] = a*d + b*c;
+        }
+        FFTPlan.of(size, true, DftNormalization.STANDARD).execute(h);
+        return Arrays.copyOfRange(h, 2*range[0], 2*(range[0] + range[1]));
+    }
+
+    public Complex[] convolve(String mode) throws ExceptionInInitializerError {
+        return this.convolve(mode, ConvolutionMethod.DIRECT);
+    }
+
     public Complex[] convolve() throws ExceptionInInitializerError {
         if (this.signal == null && this.complexKernel == null) {
-            this.convolveComplexDouble("full");
+            this.convolveComplexDouble("full", ConvolutionMethod.DIRECT);
         }
         else if (this.complexSignal == null && this.kernel == null) {
-            this.convolveDoubleComplex("full");
+            this.convolveDoubleComplex("full", ConvolutionMethod.DIRECT);
         }
         else if (this.signal == null && this.kernel == null) {
-            this.convolveComplexComplex("full");
+            this.convolveComplexComplex("full", ConvolutionMethod.DIRECT);
         }
         else {
             throw new ExceptionInInitializerError("This is a complex convolution method. Please use normal convolution for non-complex signals.");
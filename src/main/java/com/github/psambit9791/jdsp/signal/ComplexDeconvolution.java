@@ -11,9 +11,13 @@
 package com.github.psambit9791.jdsp.signal;
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.transform.FFTEngine;
+import com.github.psambit9791.jdsp.transform.FFTPlan;
 import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
 
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 
 /**
  * <h2>Complex Deconvolution</h2>
@@ -22,13 +26,14 @@ import java.security.InvalidParameterException;
  * or 'full' mode. Given the convolved signal, the convolutional kernel used and the mode of convolution; the process
  * can recover the original signal.
  * The recovered signals can be complex or real.
- * For 'full' mode, FFT-based deconvolution is used.
+ * For 'full' mode, FFT-based deconvolution is used; the complex spectra are divided on interleaved primitive arrays, so
+ * the real and imaginary parts of the signal and kernel are handled together in O(N log N).
  * For 'same' mode, the overlap-and-add based deconvolution is used.
  * NOTE: Outputs may vary from the *scipy.signal.deconvolve* implementation which uses inverse filtering.
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.1
  */
 public class ComplexDeconvolution {
 
@@ -70,6 +75,12 @@ public class ComplexDeconvolution {
      * @param mode Mode in which convolution was performed. Can be either 'full' or 'same'.
      */
     private void deconvolve2Complex(String mode) {
+        if (mode.equals("full")) {
+            double[] sig = deconvolveFFT(FFTEngine.fromComplex(this.convolutionOutput),
+                    FFTEngine.fromReal(this.kernel, this.kernel.length));
+            this.complexSignal = FFTEngine.toComplex(sig, sig.length/2);
+            return;
+        }
         double[][] out = UtilMethods.transpose(UtilMethods.complexTo2D(this.convolutionOutput));
         double[] window = this.kernel;
 
@@ -85,6 +96,15 @@ public class ComplexDeconvolution {
      * @param mode Mode in which convolution was performed. Can be either 'full' or 'same'.
      */
     private void deconvolve2Double(String mode) {
+        if (mode.equals("full")) {
+            double[] sig = deconvolveFFT(FFTEngine.fromComplex(this.convolutionOutput),
+                    FFTEngine.fromComplex(this.complexKernel));
+            this.signal = new double[sig.length/2];
+            for (int i=0; i<this.signal.length; i++) {
+                this.signal[i] = sig[2*i];
+            }
+            return;
+        }
         double[][] out = UtilMethods.transpose(UtilMethods.complexTo2D(this.convolutionOutput));
         double[][] window = UtilMethods.transpose(UtilMethods.complexTo2D(this.complexKernel));
 
@@ -92,6 +112,36 @@ public class ComplexDeconvolution {
         this.signal = d1.deconvolve(mode);
     }
 
+    /**
+     * Recovers the signal from the output of a 'full' mode convolution by dividing the spectra of the output and the
+     * kernel, both given as interleaved arrays. As in Deconvolution, a tiny constant is added to the kernel spectrum to
+     * avoid division by zero and the result is rounded to 3 decimal places.
+     * @param out Interleaved output of the convolution
+     * @param window Interleaved kernel used for convolution
+     * @return double[] Interleaved recovered signal
+     */
+    private static double[] deconvolveFFT(double[] out, double[] window) {
+        int outLen = out.length/2;
+        int kerLen = window.length/2;
+        int n = Math.max(outLen, kerLen);
+        double[] y = Arrays.copyOf(out, 2*n);
+        double[] h = Arrays.copyOf(window, 2*n);
+        FFTPlan forward = FFTPlan.of(n, false, DftNormalization.STANDARD);
+        forward.execute(y);
+        forward.execute(h);
+        for (int i=0; i<2*n; i+=2) {
+            double a = y[i];
+            double b = y[i+1];
+            double c = h[i] + Float.MIN_NORMAL;
+            double d = h[i+1];
+            double den = c*c + d*d;
+            y[i] = (a*c + b*d)/den;
+            y[i+1] = (b*c - a*d)/den;
+        }
+        FFTPlan.of(n, true, DftNormalization.STANDARD).execute(y);
+        return UtilMethods.round(Arrays.copyOf(y, 2*Math.max(outLen - kerLen + 1, 0)), 3);
+    }
+
     /**
      * This function is a hyper-function which determines which type of deconvolution to perform depending on the convolved
      * signal and the window.
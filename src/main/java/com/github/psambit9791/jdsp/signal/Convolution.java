@@ -11,10 +11,7 @@
 package com.github.psambit9791.jdsp.signal;
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
-import com.github.psambit9791.jdsp.transform.FastFourier;
-import com.github.psambit9791.jdsp.transform.InverseFastFourier;
-import org.apache.commons.math3.complex.Complex;
-import org.apache.commons.math3.util.MathArrays;
+import com.github.psambit9791.jdsp.transform.FFTEngine;
 
 import java.util.Arrays;
 
@@ -23,10 +20,13 @@ import java.util.Arrays;
  * The Convolution class implements different variations of convolution as provided in numpy
  * <a href="https://docs.scipy.org/doc/numpy/reference/generated/numpy.convolve.html">convolve()</a> function
  * and scipy.ndimage <a href="https://docs.scipy.org/doc/scipy/reference/generated/scipy.ndimage.convolve1d.html">convolve1d()</a> function
+ * For long signals, blockConvolve() computes the convolution block by block with the overlap-save method, which needs
+ * memory and time proportional to the signal length times the logarithm of the kernel length.
+ * Direct convolution uses SIMD instructions through the JDK Vector API when available (see ConvolutionKernels).
  *  
  *
  * @author  Sambit Paul
- * @version 1.2
+ * @version 1.3
  */
 
 public class Convolution {
@@ -51,40 +51,21 @@ public class Convolution {
      */
     public double[] convolve() {
         // Works in "full" mode
-        this.output = MathArrays.convolve(this.signal, this.kernel);
+        this.output = this.convolve("full");
         return this.output;
     }
 
     /**
-     * This is the discrete linear convolution procedure which works in the specified mode.
+     * This is the discrete linear convolution procedure which works in the specified mode. Only the samples of the
+     * requested mode are computed.
      * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'
      * @throws java.lang.IllegalArgumentException if mode is not full, same or valid
      * @return double[] Result of convolution.
      */
     public double[] convolve(String mode) {
-        double[] temp = MathArrays.convolve(this.signal, this.kernel);
-        if (mode.equals("full")) {
-            this.output = temp;
-        }
-        else if (mode.equals("same")) {
-            this.output = new double[this.signal.length];
-            int iterator = Math.abs(temp.length - this.signal.length)/2;
-            for (int i=0; i<this.output.length; i++) {
-                this.output[i] = temp[iterator];
-                iterator++;
-            }
-        }
-        else if (mode.equals("valid")) {
-            this.output = new double[this.signal.length - this.kernel.length + 1];
-            int iterator = this.kernel.length-1;;
-            for (int i=0; i<this.output.length; i++) {
-                this.output[i] = temp[iterator];
-                iterator++;
-            }
-        }
-        else {
-            throw new IllegalArgumentException("convolve modes can only be full, same or valid");
-        }
+        int[] range = modeRange(this.signal.length, this.kernel.length, mode);
+        this.output = new double[range[1]];
+        ConvolutionKernels.INSTANCE.convolve(this.signal, this.kernel, range[0], range[1], this.output, 0);
         return this.output;
     }
 
@@ -108,37 +89,33 @@ public class Convolution {
         int maxLength = Math.max(this.signal.length, this.kernel.length);
         int newSize = (int) UtilMethods.nextPowerOfTwo(2 * maxLength - 1);
 
-        // Pad signals to the new size
+        // Pad signals to the new size and take their (real input) spectra
         double[] xPadded = new double[newSize];
         double[] yPadded = new double[newSize];
         System.arraycopy(this.signal, 0, xPadded, 0, this.signal.length);
         System.arraycopy(this.kernel, 0, yPadded, 0, this.kernel.length);
+        int bins = newSize/2 + 1;
+        double[] fftX = new double[2*bins];
+        double[] fftY = new double[2*bins];
+        FFTEngine.realForward(xPadded, fftX);
+        FFTEngine.realForward(yPadded, fftY);
 
-        FastFourier fft1 = new FastFourier(xPadded);
-        fft1.transform();
-        Complex[] fftX = fft1.getComplex(false);
-
-        FastFourier fft2 = new FastFourier(yPadded);
-        fft2.transform();
-        Complex[] fftY = fft2.getComplex(false);
-
-        Complex[] convolutionBuffer = new Complex[newSize];
-        for (int i = 0; i < newSize; i++) {
-            convolutionBuffer[i] = fftX[i].multiply(fftY[i]);
+        for (int i = 0; i < bins; i++) {
+            double xr = fftX[2*i];
+            double xi = fftX[2*i+1];
+            double yr = fftY[2*i];
+            double yi = fftY[2*i+1];
+            fftX[2*i] = xr*yr - xi*yi;
+            fftX[2*i+1] = xr*yi + xi*yr;
         }
 
         // Extract the relevant part of the convolution
-        InverseFastFourier ifft1 = new InverseFastFourier(convolutionBuffer, false);
-        ifft1.transform();
-        convolutionBuffer = ifft1.getComplex();
-
+        FFTEngine.realInverse(fftX, xPadded);
         int convolutionLength = this.signal.length + this.kernel.length - 1;
-        Complex[] convolution = new Complex[convolutionLength];
-        System.arraycopy(convolutionBuffer, 0, convolution, 0, convolutionLength);
-
-        double[] result = Arrays.stream(convolution)
-                .map(Complex::getReal)
-                .mapToDouble(Double::doubleValue).toArray();
+        double[] result = new double[convolutionLength];
+        for (int i = 0; i < convolutionLength; i++) {
+            result[i] = xPadded[i]/newSize;
+        }
 
         // Adjust result based on the mode
         double[] output;
@@ -156,10 +133,123 @@ public class Convolution {
         return output;
     }
 
+    /**
+     * Performs block convolution of the signal and kernel using the overlap-save method with the default mode 'full'.
+     * The FFT block size is chosen automatically from the kernel length.
+     *
+     * @return double[] Result of convolution.
+     */
+    public double[] blockConvolve() {
+        return this.blockConvolve("full");
+    }
+
+    /**
+     * Performs block convolution of the signal and kernel using the overlap-save method in the specified mode.
+     * The shorter of the two inputs is used as the kernel, its spectrum is computed once and reused for every block,
+     * and the FFT block size is chosen automatically from its length. Only the samples of the requested mode are computed.
+     *
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'.
+     * @throws IllegalArgumentException if mode is not 'full', 'same', or 'valid'.
+     * @return double[] Result of convolution.
+     */
+    public double[] blockConvolve(String mode) {
+        return this.blockConvolve(mode, 0);
+    }
+
+    /**
+     * Performs block convolution of the signal and kernel using the overlap-save method in the specified mode with
+     * the given FFT block size. Every block produces fftLength - min(signal length, kernel length) + 1 samples.
+     *
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'.
+     * @param fftLength Length of the FFT used for every block; 0 chooses it automatically from the kernel length.
+     * @throws IllegalArgumentException if mode is not 'full', 'same', or 'valid', or if fftLength is shorter than
+     * the kernel.
+     * @return double[] Result of convolution.
+     */
+    public double[] blockConvolve(String mode, int fftLength) {
+        int[] range = modeRange(this.signal.length, this.kernel.length, mode);
+        int start = range[0];
+        int length = range[1];
+
+        // Convolution is commutative, so the shorter input is used as the kernel
+        double[] longer = this.signal.length >= this.kernel.length ? this.signal : this.kernel;
+        double[] shorter = longer == this.signal ? this.kernel : this.signal;
+        if (fftLength == 0) {
+            fftLength = OverlapSave.fftLength(shorter.length, length);
+        }
+        double[] output = new double[length];
+        new OverlapSave(shorter, fftLength).convolve(longer, start, length, output, 0);
+        return output;
+    }
+
+    // Returns the index of the first sample and the number of samples of the full convolution which the mode keeps
+    static int[] modeRange(int signalLength, int kernelLength, String mode) {
+        int convolutionLength = signalLength + kernelLength - 1;
+        int start, length;
+        if ("full".equalsIgnoreCase(mode)) {
+            start = 0;
+            length = convolutionLength;
+        } else if ("same".equalsIgnoreCase(mode)) {
+            start = Math.abs(convolutionLength - signalLength) / 2;
+            length = signalLength;
+        } else if ("valid".equalsIgnoreCase(mode)) {
+            start = kernelLength - 1;
+            length = signalLength - kernelLength + 1;
+        } else {
+            throw new IllegalArgumentException("Convolve modes can only be 'full', 'same' or 'valid'.");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("Kernel must not be longer than the signal in 'valid' mode.");
+        }
+        return new int[]{start, length};
+    }
+
+    /**
+     * Performs convolution of the signal and kernel in the specified mode with the specified method.
+     * 'direct' works the same as convolve(mode), 'fft' the same as fastConvolve(mode) and 'block' the same as
+     * blockConvolve(mode). 'auto' uses the method returned by chooseMethod(mode).
+     *
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'.
+     * @param method Method used to compute the convolution. Can be 'direct', 'fft', 'block' or 'auto'.
+     * @throws IllegalArgumentException if mode is not 'full', 'same', or 'valid', or if method is not 'direct', 'fft',
+     * 'block' or 'auto'.
+     * @return double[] Result of convolution.
+     */
+    public double[] convolve(String mode, String method) {
+        ConvolutionMethod.validate(method);
+        if (ConvolutionMethod.AUTO.equals(method)) {
+            method = this.chooseMethod(mode);
+        }
+        if (ConvolutionMethod.DIRECT.equals(method)) {
+            return this.convolve(mode);
+        }
+        else if (ConvolutionMethod.FFT.equals(method)) {
+            this.output = this.fastConvolve(mode);
+        }
+        else {
+            this.output = this.blockConvolve(mode);
+        }
+        return this.output;
+    }
+
+    /**
+     * Returns the convolution method which is estimated to be the fastest for the signal and kernel lengths in the
+     * specified mode, similar to scipy's choose_conv_method(). The estimate uses the number of operations of every method,
+     * weighted with the time per operation measured on the running JVM the first time this is called.
+     *
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'.
+     * @throws IllegalArgumentException if mode is not 'full', 'same', or 'valid'.
+     * @return String The method: 'direct', 'fft' or 'block'.
+     */
+    public String chooseMethod(String mode) {
+        int[] range = modeRange(this.signal.length, this.kernel.length, mode);
+        return ConvolutionMethod.choose(this.signal.length, this.kernel.length, range[0], range[1]);
+    }
+
     private double[] convolve(double[] sig, double[] w) {
         // Works in "full" mode
-        double[] output;
-        output = MathArrays.convolve(sig,  w);
+        double[] output = new double[sig.length + w.length - 1];
+        ConvolutionKernels.INSTANCE.convolve(sig, w, 0, output.length, output, 0);
         return output;
     }
 
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.psambit9791.jdsp.signal;
+
+/**
+ * <h2>Direct Convolution Kernels</h2>
+ * The ConvolutionKernels class holds the inner loops of direct (time domain) convolution. Every output sample of a
+ * convolution is the dot product of a contiguous range of the signal with a contiguous range of the reversed kernel,
+ * so all loops are expressed in terms of dot(), which is the only method an implementation has to provide.
+ * The scalar implementation works on every Java version. When the library is used from the multi-release JAR on
+ * Java 17 or newer and the jdk.incubator.vector module is enabled (--add-modules jdk.incubator.vector), an
+ * implementation based on the Vector API is used instead; it is selected once, when this class is initialised.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+abstract class ConvolutionKernels {
+
+    private static final String VECTOR_IMPLEMENTATION = "com.github.psambit9791.jdsp.signal.VectorConvolutionKernels";
+
+    /**
+     * The implementation used by the library
+     */
+    static final ConvolutionKernels INSTANCE = load();
+
+    private static ConvolutionKernels load() {
+        try {
+            return (ConvolutionKernels) Class.forName(VECTOR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            // Not running from the multi-release JAR on Java 17+, or the incubator module is not enabled
+            return new Scalar();
+        }
+    }
+
+    /**
+     * Returns the name of the implementation in use
+     * @return String 'vector' or 'scalar'
+     */
+    abstract String getName();
+
+    /**
+     * Computes the dot product of len values of a starting at aOff with len values of b starting at bOff.
+     * @param a First array
+     * @param aOff Index of the first value of a
+     * @param b Second array
+     * @param bOff Index of the first value of b
+     * @param len Number of values
+     * @return double The dot product
+     */
+    abstract double dot(double[] a, int aOff, double[] b, int bOff, int len);
+
+    /**
+     * Computes count samples of the full convolution of the signal with the kernel, starting with sample from of the
+     * full convolution, and writes them to the output buffer starting at outOff.
+     * @param signal Signal to be convolved
+     * @param kernel Kernel for convolution
+     * @param from Index of the first sample of the full convolution to be computed
+     * @param count Number of samples to be computed
+     * @param out Buffer receiving the samples
+     * @param outOff Index at which the first sample is written
+     */
+    void convolve(double[] signal, double[] kernel, int from, int count, double[] out, int outOff) {
+        this.correlate(signal, reverse(kernel), from, count, out, outOff);
+    }
+
+    /**
+     * Computes count samples of the full convolution of the signal with a kernel which is given in reversed order,
+     * starting with sample from of the full convolution. This is the same as the full cross-correlation of the signal
+     * with the array passed as reversed.
+     * @param signal Signal to be convolved
+     * @param reversed Kernel for convolution in reversed order
+     * @param from Index of the first sample of the full convolution to be computed
+     * @param count Number of samples to be computed
+     * @param out Buffer receiving the samples
+     * @param outOff Index at which the first sample is written
+     */
+    void correlate(double[] signal, double[] reversed, int from, int count, double[] out, int outOff) {
+        // Sample k is the dot product of signal[lo..hi] with the reversed kernel starting at m-1-k+lo
+        int n = signal.length;
+        int m = reversed.length;
+        for (int i=0; i<count; i++) {
+            int k = from + i;
+            int lo = Math.max(0, k - m + 1);
+            int hi = Math.min(n - 1, k);
+            out[outOff + i] = hi < lo ? 0.0 : this.dot(signal, lo, reversed, m - 1 - k + lo, hi - lo + 1);
+        }
+    }
+
+    /**
+     * Computes count samples of the full convolution of a complex signal with a complex kernel, both given as separate
+     * real and imaginary parts, starting with sample from of the full convolution.
+     * @param signalRe Real part of the signal
+     * @param signalIm Imaginary part of the signal
+     * @param kernelRe Real part of the kernel
+     * @param kernelIm Imaginary part of the kernel
+     * @param from Index of the first sample of the full convolution to be computed
+     * @param count Number of samples to be computed
+     * @param outRe Buffer receiving the real part of the samples
+     * @param outIm Buffer receiving the imaginary part of the samples
+     */
+    void convolveComplex(double[] signalRe, double[] signalIm, double[] kernelRe, double[] kernelIm, int from, int count,
+                         double[] outRe, double[] outIm) {
+        double[] reversedRe = reverse(kernelRe);
+        double[] reversedIm = reverse(kernelIm);
+        double[] temp = new double[count];
+        this.correlate(signalRe, reversedRe, from, count, outRe, 0);
+        this.correlate(signalIm, reversedIm, from, count, temp, 0);
+        for (int i=0; i<count; i++) {
+            outRe[i] -= temp[i];
+        }
+        this.correlate(signalRe, reversedIm, from, count, outIm, 0);
+        this.correlate(signalIm, reversedRe, from, count, temp, 0);
+        for (int i=0; i<count; i++) {
+            outIm[i] += temp[i];
+        }
+    }
+
+    private static double[] reverse(double[] arr) {
+        double[] out = new double[arr.length];
+        for (int i=0; i<arr.length; i++) {
+            out[i] = arr[arr.length - 1 - i];
+        }
+        return out;
+    }
+
+    /**
+     * Scalar implementation; four independent partial sums let the JIT overlap the multiply-adds.
+     */
+    static final class Scalar extends ConvolutionKernels {
+
+        String getName() {
+            return "scalar";
+        }
+
+        double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int i = 0;
+            for (; i + 3 < len; i += 4) {
+                s0 += a[aOff + i] * b[bOff + i];
+                s1 += a[aOff + i + 1] * b[bOff + i + 1];
+                s2 += a[aOff + i + 2] * b[bOff + i + 2];
+                s3 += a[aOff + i + 3] * b[bOff + i + 3];
+            }
+            for (; i < len; i++) {
+                s0 += a[aOff + i] * b[bOff + i];
+            }
+            return (s0 + s1) + (s2 + s3);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.psambit9791.jdsp.signal;
+
+import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.transform.FFTEngine;
+
+import java.util.Random;
+
+/**
+ * <h2>Convolution Method Selection</h2>
+ * The ConvolutionMethod class chooses between direct, FFT and overlap-save block convolution, similar to scipy's
+ * <a href="https://docs.scipy.org/doc/scipy/reference/generated/scipy.signal.choose_conv_method.html">choose_conv_method()</a>.
+ * The number of operations of every method is estimated from the signal and kernel lengths and weighted with the time
+ * per multiply-add and per FFT butterfly, which are measured on the running JVM the first time a method is chosen.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.2
+ */
+final class ConvolutionMethod {
+
+    static final String DIRECT = "direct";
+    static final String FFT = "fft";
+    static final String BLOCK = "block";
+    static final String AUTO = "auto";
+
+    private ConvolutionMethod() {
+    }
+
+    // Runs of both kernels before they are timed, and the longest time spent on them
+    private static final int WARMUP_RUNS = 300;
+    private static final long WARMUP_NANOS = 200_000_000L;
+
+    // Initialised on first access, which the JVM guarantees to happen exactly once
+    private static final class Calibration {
+        static final double DIRECT_COST;
+        static final double FFT_COST;
+
+        static {
+            Random rand = new Random(0);
+            double[] signal = new double[2048];
+            double[] kernel = new double[32];
+            double[] convOut = new double[signal.length + kernel.length - 1];
+            double[] fftIn = new double[4096];
+            double[] fftOut = new double[2*(fftIn.length/2 + 1)];
+            for (int i=0; i<signal.length; i++) {
+                signal[i] = rand.nextDouble();
+            }
+            for (int i=0; i<kernel.length; i++) {
+                kernel[i] = rand.nextDouble();
+            }
+            for (int i=0; i<fftIn.length; i++) {
+                fftIn[i] = rand.nextDouble();
+            }
+
+            // Both kernels are run until they are compiled by the JIT before they are timed, with a time limit for slow
+            // machines
+            long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+            for (int r=0; r<WARMUP_RUNS && System.nanoTime() < warmupEnd; r++) {
+                ConvolutionKernels.INSTANCE.convolve(signal, kernel, 0, convOut.length, convOut, 0);
+                FFTEngine.realForward(fftIn, fftOut);
+            }
+
+            // The fastest of several repetitions is the least affected by other threads
+            long direct = Long.MAX_VALUE;
+            long fft = Long.MAX_VALUE;
+            for (int r=0; r<8; r++) {
+                long t0 = System.nanoTime();
+                ConvolutionKernels.INSTANCE.convolve(signal, kernel, 0, convOut.length, convOut, 0);
+                long t1 = System.nanoTime();
+                FFTEngine.realForward(fftIn, fftOut);
+                long t2 = System.nanoTime();
+                direct = Math.min(direct, t1 - t0);
+                fft = Math.min(fft, t2 - t1);
+            }
+            DIRECT_COST = Math.max(direct, 1) / ((double) signal.length * kernel.length);
+            FFT_COST = Math.max(fft, 1) / (fftIn.length * log2(fftIn.length));
+        }
+    }
+
+    /**
+     * Returns the measured time of one multiply-add of direct convolution.
+     * @return double The time in nanoseconds
+     */
+    static double directCost() {
+        return Calibration.DIRECT_COST;
+    }
+
+    /**
+     * Returns the measured time of one butterfly of a real FFT, per sample and stage.
+     * @return double The time in nanoseconds
+     */
+    static double fftCost() {
+        return Calibration.FFT_COST;
+    }
+
+    private static double log2(double n) {
+        return Math.log(n)/Math.log(2);
+    }
+
+    /**
+     * Checks that the method is one of 'direct', 'fft', 'block' or 'auto'.
+     * @param method The convolution method
+     * @throws java.lang.IllegalArgumentException if the method is not recognised
+     */
+    static void validate(String method) {
+        if (!DIRECT.equals(method) && !FFT.equals(method) && !BLOCK.equals(method) && !AUTO.equals(method)) {
+            throw new IllegalArgumentException("Convolution method can only be 'direct', 'fft', 'block' or 'auto'.");
+        }
+    }
+
+    /**
+     * Returns the method which is estimated to be the fastest to compute the samples [start, start+length) of the full
+     * convolution of a signal and a kernel. Direct convolution only computes the requested samples, FFT convolution
+     * transforms both inputs at the padded full length, and block convolution transforms blocks of the longer input with
+     * the spectrum of the shorter one.
+     * @param signalLength Number of samples in the signal
+     * @param kernelLength Number of samples in the kernel
+     * @param start Index of the first sample of the full convolution that is needed
+     * @param length Number of samples of the full convolution that are needed
+     * @return String The method: 'direct', 'fft' or 'block'
+     */
+    static String choose(int signalLength, int kernelLength, int start, int length) {
+        int shorter = Math.min(signalLength, kernelLength);
+        int longer = Math.max(signalLength, kernelLength);
+        if (shorter <= 1 || length <= 0) {
+            return DIRECT;
+        }
+        double direct = Calibration.DIRECT_COST * directOperations(signalLength, kernelLength, start, length);
+
+        double n = UtilMethods.nextPowerOfTwo(2*longer - 1);
+        double fft = Calibration.FFT_COST * 3 * n * log2(n);
+
+        int blockFFT = OverlapSave.fftLength(shorter, length);
+        double blocks = Math.ceil(length / (double) (blockFFT - shorter + 1));
+        double block = Calibration.FFT_COST * (2*blocks + 1) * blockFFT * log2(blockFFT);
+
+        if (direct <= fft && direct <= block) {
+            return DIRECT;
+        }
+        return fft <= block ? FFT : BLOCK;
+    }
+
+    /**
+     * Returns the number of multiply-adds of direct convolution for the samples [start, start+length) of the full
+     * convolution. Sample k of the full convolution sums min(k+1, shorter, signalLength+kernelLength-1-k) products.
+     * @param signalLength Number of samples in the signal
+     * @param kernelLength Number of samples in the kernel
+     * @param start Index of the first sample of the full convolution that is needed
+     * @param length Number of samples of the full convolution that are needed
+     * @return double The number of multiply-adds
+     */
+    static double directOperations(int signalLength, int kernelLength, int start, int length) {
+        int shorter = Math.min(signalLength, kernelLength);
+        double full = (double) signalLength + kernelLength - 1;
+        // The rising edge, the plateau and the falling edge do not overlap, so the product count of sample k is
+        // min(k+1, shorter) + min(full-k, shorter) - shorter
+        return rampSum(start + length, shorter) - rampSum(start, shorter)
+                + rampSum(full - start, shorter) - rampSum(full - start - length, shorter)
+                - (double) length * shorter;
+    }
+
+    // Sum of min(j, limit) for j = 1..x
+    private static double rampSum(double x, int limit) {
+        if (x <= limit) {
+            return x*(x+1)/2;
+        }
+        return limit*(limit+1)/2.0 + (x - limit)*limit;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.psambit9791.jdsp.signal;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h2>Convolver</h2>
+ * The Convolver class applies one kernel to any number of signals by convolution or cross-correlation. The kernel is
+ * fixed at construction; for every FFT size that is used, the spectrum of the kernel (and of the reversed kernel for
+ * correlation) is computed once and cached, so repeated calls only transform the signal blocks. For every call, the
+ * method estimated to be the fastest (direct or overlap-save FFT, see Convolution.chooseMethod()) is used.
+ * A Convolver holds no per-call state and can be shared between threads.
+ * Modes follow Convolution.convolve() and CrossCorrelation.crossCorrelate() with the kernel of this object.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class Convolver {
+
+    private final double[] kernel;
+    private final double[] reversed;
+    private final ConcurrentHashMap<Integer, OverlapSave> convolvers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, OverlapSave> correlators = new ConcurrentHashMap<>();
+
+    /**
+     * This constructor initialises the prerequisites required to use Convolver.
+     * @param kernel Kernel for convolution; it is copied, so later changes to the array have no effect
+     * @throws java.lang.IllegalArgumentException if the kernel is empty
+     */
+    public Convolver(double[] kernel) {
+        if (kernel.length == 0) {
+            throw new IllegalArgumentException("Kernel must not be empty");
+        }
+        this.kernel = kernel.clone();
+        this.reversed = new double[kernel.length];
+        for (int i=0; i<kernel.length; i++) {
+            this.reversed[i] = kernel[kernel.length - 1 - i];
+        }
+    }
+
+    /**
+     * Convolves the signal with the kernel in 'full' mode.
+     * @param signal Signal to be convolved
+     * @return double[] Result of convolution.
+     */
+    public double[] convolve(double[] signal) {
+        return this.convolve(signal, "full");
+    }
+
+    /**
+     * Convolves the signal with the kernel in the specified mode.
+     * @param signal Signal to be convolved
+     * @param mode Mode in which convolution will work. Can be 'full', 'same' or 'valid'
+     * @throws java.lang.IllegalArgumentException if mode is not full, same or valid
+     * @return double[] Result of convolution.
+     */
+    public double[] convolve(double[] signal, String mode) {
+        return this.apply(signal, mode, this.kernel, this.reversed, this.convolvers);
+    }
+
+    /**
+     * Cross-correlates the signal with the kernel in 'valid' mode.
+     * @param signal Signal to be correlated
+     * @return double[] Result of cross-correlation.
+     */
+    public double[] correlate(double[] signal) {
+        return this.correlate(signal, "valid");
+    }
+
+    /**
+     * Cross-correlates the signal with the kernel in the specified mode.
+     * @param signal Signal to be correlated
+     * @param mode Mode in which correlation will work. Can be 'full', 'same' or 'valid'
+     * @throws java.lang.IllegalArgumentException if mode is not full, same or valid
+     * @return double[] Result of cross-correlation.
+     */
+    public double[] correlate(double[] signal, String mode) {
+        // Correlation is convolution with the reversed kernel
+        return this.apply(signal, mode, this.reversed, this.kernel, this.correlators);
+    }
+
+    private double[] apply(double[] signal, String mode, double[] filter, double[] filterReversed,
+                           ConcurrentHashMap<Integer, OverlapSave> cache) {
+        int[] range = Convolution.modeRange(signal.length, filter.length, mode);
+        double[] output = new double[range[1]];
+        if (signal.length == 0 || output.length == 0) {
+            return output;
+        }
+        if (ConvolutionMethod.DIRECT.equals(ConvolutionMethod.choose(signal.length, filter.length, range[0], range[1]))) {
+            ConvolutionKernels.INSTANCE.correlate(signal, filterReversed, range[0], range[1], output, 0);
+        }
+        else {
+            int fftLength = OverlapSave.fftLength(filter.length, range[1]);
+            OverlapSave engine = cache.computeIfAbsent(fftLength, n -> new OverlapSave(filter, n));
+            engine.convolve(signal, range[0], range[1], output, 0);
+        }
+        return output;
+    }
+
+    /**
+     * Returns a copy of the kernel
+     * @return double[] The kernel
+     */
+    public double[] getKernel() {
+        return this.kernel.clone();
+    }
+
+    /**
+     * Returns the number of FFT sizes for which kernel spectra are cached
+     * @return int Number of cached spectra (convolution and correlation)
+     */
+    public int getCachedSpectra() {
+        return this.convolvers.size() + this.correlators.size();
+    }
+}
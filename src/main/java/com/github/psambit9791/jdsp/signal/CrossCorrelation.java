@@ -16,11 +16,12 @@ import com.github.psambit9791.jdsp.misc.UtilMethods;
  * <h2>Cross-Correlation</h2>
  * The Cross-Correlation class implements
  * correlation as provided in numpy <a href="https://docs.scipy.org/doc/numpy/reference/generated/numpy.correlate.html">correlate()</a>
- * function.
+ * function. The correlation can be computed directly, with the FFT or block by block, or the fastest of these can be
+ * chosen automatically.
  *  
  *
  * @author  Sambit Paul
- * @version 1.1
+ * @version 1.2
  */
 
 public class CrossCorrelation {
@@ -70,9 +71,21 @@ public class CrossCorrelation {
      * @return double[] Result of cross-correlation.
      */
     public double[] crossCorrelate(String mode) {
-        this.kernel = UtilMethods.reverse(this.kernel);
-        Convolution c1 = new Convolution(this.signal, this.kernel);
-        this.output = c1.convolve(mode);
+        return this.crossCorrelate(mode, ConvolutionMethod.DIRECT);
+    }
+
+    /**
+     * This is the cross-correlation procedure which works in the specified mode with the specified method.
+     * 'direct' works the same as crossCorrelate(mode) and 'fft' the same as fastCrossCorrelate(mode); 'block' uses
+     * overlap-save block convolution and 'auto' chooses the method estimated to be the fastest.
+     * @param mode Mode in which correlation will work. Can be 'full', 'same' or 'valid'
+     * @param method Method used to compute the correlation. Can be 'direct', 'fft', 'block' or 'auto'
+     * @throws java.lang.IllegalArgumentException if mode or method is not recognised
+     * @return double[] Result of cross-correlation.
+     */
+    public double[] crossCorrelate(String mode, String method) {
+        Convolution c1 = new Convolution(this.signal, UtilMethods.reverse(this.kernel));
+        this.output = c1.convolve(mode, method);
         return this.output;
     }
 
@@ -97,9 +110,6 @@ public class CrossCorrelation {
      * @return double[] Result of cross-correlation.
      */
     public double[] fastCrossCorrelate(String mode) {
-        this.kernel = UtilMethods.reverse(this.kernel);
-        Convolution c1 = new Convolution(this.signal, this.kernel);
-        this.output = c1.fastConvolve(mode);
-        return this.output;
+        return this.crossCorrelate(mode, ConvolutionMethod.FFT);
     }
 }
@@ -10,7 +10,6 @@
 
 package com.github.psambit9791.jdsp.signal;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.filter.Chebyshev;
 
 
@@ -22,7 +21,7 @@ import com.github.psambit9791.jdsp.filter.Chebyshev;
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.1
  */
 public class Decimate {
 
@@ -78,15 +77,12 @@ public class Decimate {
         else {
             // Refer to this answer: https://dsp.stackexchange.com/a/9468
             // Refer to this video: https://www.youtube.com/watch?v=ue4ba_wXV6A
+            // The order 4 filter is applied forward and backward (FiltFilt) with odd padding and steady-state initial
+            // conditions, which avoids the transients of filtering the reversed signal from rest
             int newSamplingFreq = this.samplingFreq/downSamplingFactor;
             double nyquistFreq = newSamplingFreq/2.0;
-
-            Chebyshev f1 = new Chebyshev((double)this.samplingFreq, 0.05);
-            double[] lowPassOutput = f1.lowPassFilter(this.signal, 4, nyquistFreq*0.8);
-            lowPassOutput = UtilMethods.reverse(lowPassOutput);
-            Chebyshev f2 = new Chebyshev((double)this.samplingFreq, 0.05);
-            lowPassOutput = f2.lowPassFilter(lowPassOutput, 4, nyquistFreq*0.8);
-            lowPassOutput = UtilMethods.reverse(lowPassOutput);
+            Chebyshev f = new Chebyshev((double)this.samplingFreq, 0.05);
+            double[] lowPassOutput = f.streamingLowPass(4, nyquistFreq*0.8, 1).filtfilt(this.signal);
 
             int index = 0;
             for (int i=0; i<output.length; i++) {
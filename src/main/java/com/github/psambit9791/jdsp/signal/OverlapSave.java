@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.psambit9791.jdsp.signal;
+
+import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.transform.FFTPlan;
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Overlap-Save Convolution</h2>
+ * The OverlapSave class computes the linear convolution of a long signal with a kernel block by block using the
+ * overlap-save method. The spectrum of the kernel is computed once in the constructor and reused for every block; each
+ * block transforms fftLength input samples (the block plus kernelLength-1 samples of history) and keeps the
+ * fftLength-kernelLength+1 outputs which are not affected by the circular wrap-around. Any contiguous range of the
+ * full convolution can be computed, so 'same' and 'valid' outputs do not pay for the discarded samples.
+ * An instance is immutable after construction and can be shared between threads.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+final class OverlapSave {
+
+    private static final int MAX_FFT_LENGTH = 1 << 24;
+
+    private final int kernelLength;
+    private final int fftLength;
+    private final int blockLength;
+    private final FFTPlan forward;
+    private final FFTPlan inverse;
+    private final double[] kernelSpectrum;
+
+    /**
+     * This constructor initialises the prerequisites required to use OverlapSave.
+     * @param kernel Kernel for convolution
+     * @param fftLength Length of the FFT used for every block; must be at least the kernel length
+     * @throws java.lang.IllegalArgumentException if the kernel is empty or the FFT length is too short
+     */
+    OverlapSave(double[] kernel, int fftLength) {
+        if (kernel.length == 0) {
+            throw new IllegalArgumentException("Kernel must not be empty");
+        }
+        if (fftLength < kernel.length) {
+            throw new IllegalArgumentException("FFT length must be equal to or greater than the kernel length");
+        }
+        this.kernelLength = kernel.length;
+        this.fftLength = fftLength;
+        this.blockLength = fftLength - kernel.length + 1;
+        this.forward = FFTPlan.of(fftLength, false, DftNormalization.STANDARD);
+        this.inverse = FFTPlan.of(fftLength, true, DftNormalization.STANDARD);
+        double[] padded = new double[fftLength];
+        System.arraycopy(kernel, 0, padded, 0, kernel.length);
+        this.kernelSpectrum = new double[2*(fftLength/2 + 1)];
+        this.forward.executeReal(padded, this.kernelSpectrum);
+    }
+
+    /**
+     * Returns the power of 2 FFT length which minimises the cost per output sample for a kernel of the given length.
+     * Every block costs a forward and an inverse real FFT and one complex multiplication per bin, and produces
+     * fftLength-kernelLength+1 outputs; lengths beyond what a single block of outputLength samples needs are not
+     * considered.
+     * @param kernelLength Number of samples in the kernel
+     * @param outputLength Number of output samples to be computed
+     * @return int The FFT length
+     */
+    static int fftLength(int kernelLength, int outputLength) {
+        int n = (int) UtilMethods.nextPowerOfTwo(Math.max(kernelLength, 2));
+        long upper = UtilMethods.nextPowerOfTwo((int) Math.min((long) outputLength + kernelLength - 1, MAX_FFT_LENGTH));
+        int best = n;
+        double bestCost = Double.MAX_VALUE;
+        for (long size = n; size <= Math.max(upper, n); size *= 2) {
+            double cost = size*(Math.log(size)/Math.log(2) + 1)/(size - kernelLength + 1);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = (int) size;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the FFT length used for every block
+     * @return int The FFT length
+     */
+    int getFFTLength() {
+        return this.fftLength;
+    }
+
+    /**
+     * Returns the number of output samples produced by every block
+     * @return int The block length (fftLength-kernelLength+1)
+     */
+    int getBlockLength() {
+        return this.blockLength;
+    }
+
+    /**
+     * Computes count samples of the full convolution of the signal with the kernel, starting with sample from of the
+     * full convolution, and writes them to the output buffer starting at outOff. Samples of the signal outside its
+     * bounds are treated as zeros.
+     * @param signal Signal to be convolved
+     * @param from Index of the first sample of the full convolution to be computed
+     * @param count Number of samples to be computed
+     * @param out Buffer receiving the samples
+     * @param outOff Index at which the first sample is written
+     */
+    void convolve(double[] signal, int from, int count, double[] out, int outOff) {
+        double[] block = new double[this.fftLength];
+        double[] spectrum = new double[this.kernelSpectrum.length];
+        int history = this.kernelLength - 1;
+        for (int done = 0; done < count; done += this.blockLength) {
+            // Output k of the full convolution depends on the signal samples k-kernelLength+1 to k
+            int start = from + done - history;
+            int lo = Math.max(0, -start);
+            int hi = Math.min(this.fftLength, signal.length - start);
+            if (hi <= lo) {
+                int n = Math.min(this.blockLength, count - done);
+                Arrays.fill(out, outOff + done, outOff + done + n, 0.0);
+                continue;
+            }
+            Arrays.fill(block, 0, lo, 0.0);
+            System.arraycopy(signal, start + lo, block, lo, hi - lo);
+            Arrays.fill(block, hi, this.fftLength, 0.0);
+
+            this.forward.executeReal(block, spectrum);
+            for (int i=0; i<spectrum.length; i+=2) {
+                double a = spectrum[i];
+                double b = spectrum[i+1];
+                spectrum[i] = a*this.kernelSpectrum[i] - b*this.kernelSpectrum[i+1];
+                spectrum[i+1] = a*this.kernelSpectrum[i+1] + b*this.kernelSpectrum[i];
+            }
+            this.inverse.executeReal(spectrum, block);
+            System.arraycopy(block, history, out, outOff + done, Math.min(this.blockLength, count - done));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.signal;
+
+/**
+ * <h2>Polyphase Decimator</h2>
+ * The PolyphaseDecimator class low-pass filters one or more channels and keeps every 'factor'-th sample, computing the
+ * filter only at the kept samples. It is a PolyphaseResampler with up = 1; see PolyphaseResampler for the streaming
+ * behaviour. Unlike Decimate, which filters the whole signal at the full rate before discarding samples, the work per
+ * input sample is numTaps/factor multiplications.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class PolyphaseDecimator extends PolyphaseResampler {
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseDecimator with a given FIR filter.
+     * @param h The FIR filter coefficients
+     * @param factor The decimation factor
+     * @param channels Number of channels to be decimated
+     * @throws java.lang.IllegalArgumentException if the filter is empty, or factor or channels is less than 1
+     */
+    public PolyphaseDecimator(double[] h, int factor, int channels) {
+        super(h, 1, factor, channels);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseDecimator with a given FIR filter for a
+     * single channel.
+     * @param h The FIR filter coefficients
+     * @param factor The decimation factor
+     * @throws java.lang.IllegalArgumentException if the filter is empty or factor is less than 1
+     */
+    public PolyphaseDecimator(double[] h, int factor) {
+        super(h, 1, factor, 1);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseDecimator. The anti-aliasing filter is a
+     * Kaiser windowed FIR filter with 20*factor+1 taps, as used by Resample.
+     * @param factor The decimation factor
+     * @param channels Number of channels to be decimated
+     * @throws java.lang.IllegalArgumentException if factor or channels is less than 1
+     */
+    public PolyphaseDecimator(int factor, int channels) {
+        super(1, factor, channels);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseDecimator for a single channel. The
+     * anti-aliasing filter is a Kaiser windowed FIR filter with 20*factor+1 taps, as used by Resample.
+     * @param factor The decimation factor
+     * @throws java.lang.IllegalArgumentException if factor is less than 1
+     */
+    public PolyphaseDecimator(int factor) {
+        super(1, factor, 1);
+    }
+
+    /**
+     * Returns the decimation factor
+     * @return int The decimation factor
+     */
+    public int getFactor() {
+        return this.getDown();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.signal;
+
+/**
+ * <h2>Polyphase Interpolator</h2>
+ * The PolyphaseInterpolator class raises the sampling rate of one or more channels by an integer factor. Each input
+ * sample produces 'factor' output samples, one from each polyphase component of the interpolation filter, so the zeros
+ * of the upsampled signal are never multiplied. It is a PolyphaseResampler with down = 1; see PolyphaseResampler for
+ * the streaming behaviour.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class PolyphaseInterpolator extends PolyphaseResampler {
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseInterpolator with a given FIR filter. The
+     * filter is applied at the upsampled rate and should have a gain of 'factor' to preserve the signal amplitude.
+     * @param h The FIR filter coefficients
+     * @param factor The interpolation factor
+     * @param channels Number of channels to be interpolated
+     * @throws java.lang.IllegalArgumentException if the filter is empty, or factor or channels is less than 1
+     */
+    public PolyphaseInterpolator(double[] h, int factor, int channels) {
+        super(h, factor, 1, channels);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseInterpolator with a given FIR filter for
+     * a single channel. The filter should have a gain of 'factor' to preserve the signal amplitude.
+     * @param h The FIR filter coefficients
+     * @param factor The interpolation factor
+     * @throws java.lang.IllegalArgumentException if the filter is empty or factor is less than 1
+     */
+    public PolyphaseInterpolator(double[] h, int factor) {
+        super(h, factor, 1, 1);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseInterpolator. The interpolation filter
+     * is a Kaiser windowed FIR filter with 20*factor+1 taps, as used by Resample.
+     * @param factor The interpolation factor
+     * @param channels Number of channels to be interpolated
+     * @throws java.lang.IllegalArgumentException if factor or channels is less than 1
+     */
+    public PolyphaseInterpolator(int factor, int channels) {
+        super(factor, 1, channels);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseInterpolator for a single channel. The
+     * interpolation filter is a Kaiser windowed FIR filter with 20*factor+1 taps, as used by Resample.
+     * @param factor The interpolation factor
+     * @throws java.lang.IllegalArgumentException if factor is less than 1
+     */
+    public PolyphaseInterpolator(int factor) {
+        super(factor, 1, 1);
+    }
+
+    /**
+     * Returns the interpolation factor
+     * @return int The interpolation factor
+     */
+    public int getFactor() {
+        return this.getUp();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.signal;
+
+import com.github.psambit9791.jdsp.filter.FIRWin1;
+import org.apache.commons.math3.util.ArithmeticUtils;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Polyphase Resampler</h2>
+ * The PolyphaseResampler class changes the sampling rate of one or more channels by a rational factor up/down. It is
+ * equivalent to upsampling by 'up' (inserting up-1 zeros between samples), applying an FIR filter and keeping every
+ * 'down'-th sample, but the filter is split into 'up' polyphase components so that only the kept output samples are
+ * computed and the inserted zeros are never multiplied.
+ * The input can arrive in chunks of arbitrary size: every channel keeps a delay line and its position in the output
+ * sequence, so processing a signal chunk by chunk gives the same output as processing the whole signal at once. The
+ * filter is causal; for the default linear-phase low-pass filter the output lags the input by getDelay() output samples.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class PolyphaseResampler {
+
+    private final int up;
+    private final int down;
+    private final int numTaps;
+    private final int phaseLength;
+    private final int channels;
+    private final double[][] phases;
+    private final double[][] delay;
+    private final int[] position;
+    private final int[] offset;
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseResampler with a given FIR filter. The
+     * filter is applied at the upsampled rate, so a filter designed for the original sampling rate should be scaled by
+     * 'up' to preserve the signal amplitude.
+     * @param h The FIR filter coefficients applied at the upsampled rate
+     * @param up The upsampling factor
+     * @param down The downsampling factor
+     * @param channels Number of channels to be resampled
+     * @throws java.lang.IllegalArgumentException if the filter is empty, or up, down or channels is less than 1
+     */
+    public PolyphaseResampler(double[] h, int up, int down, int channels) {
+        if (h.length == 0) {
+            throw new IllegalArgumentException("Coefficient vector must not be empty");
+        }
+        if (up < 1 || down < 1) {
+            throw new IllegalArgumentException("up and down must be greater than 0");
+        }
+        if (channels < 1) {
+            throw new IllegalArgumentException("Number of channels must be greater than 0");
+        }
+        this.up = up;
+        this.down = down;
+        this.numTaps = h.length;
+        this.channels = channels;
+        this.phaseLength = (h.length + up - 1) / up;
+
+        // Phase p holds h[p], h[p+up], h[p+2*up], ... reversed, so that it lines up with the delay line (oldest first)
+        this.phases = new double[up][this.phaseLength];
+        for (int p=0; p<up; p++) {
+            for (int i=0; p + i*up < h.length; i++) {
+                this.phases[p][this.phaseLength - 1 - i] = h[p + i*up];
+            }
+        }
+        this.delay = new double[channels][2*this.phaseLength];
+        this.position = new int[channels];
+        this.offset = new int[channels];
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseResampler with a given FIR filter for a
+     * single channel.
+     * @param h The FIR filter coefficients applied at the upsampled rate
+     * @param up The upsampling factor
+     * @param down The downsampling factor
+     * @throws java.lang.IllegalArgumentException if the filter is empty, or up or down is less than 1
+     */
+    public PolyphaseResampler(double[] h, int up, int down) {
+        this(h, up, down, 1);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseResampler. up and down are reduced by
+     * their greatest common divisor and the low-pass filter is designed in the same way as the polyphase mode of
+     * Resample, using a Kaiser window of beta 5.
+     * @param up The upsampling factor
+     * @param down The downsampling factor
+     * @param channels Number of channels to be resampled
+     * @throws java.lang.IllegalArgumentException if up, down or channels is less than 1
+     */
+    public PolyphaseResampler(int up, int down, int channels) {
+        this(lowPassFilter(up, down, 5.0), reduce(up, down, true), reduce(up, down, false), channels);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use PolyphaseResampler for a single channel. up and
+     * down are reduced by their greatest common divisor and the low-pass filter is designed in the same way as the
+     * polyphase mode of Resample, using a Kaiser window of beta 5.
+     * @param up The upsampling factor
+     * @param down The downsampling factor
+     * @throws java.lang.IllegalArgumentException if up or down is less than 1
+     */
+    public PolyphaseResampler(int up, int down) {
+        this(up, down, 1);
+    }
+
+    /**
+     * Designs the anti-aliasing low-pass filter used by the polyphase mode of Resample: a Kaiser windowed FIR filter
+     * with 20*max(up, down)+1 taps, cutoff at 1/max(up, down) of the Nyquist frequency of the upsampled signal and a
+     * gain of 'up'. up and down are reduced by their greatest common divisor first.
+     * @param up The upsampling factor
+     * @param down The downsampling factor
+     * @param beta Beta parameter of the Kaiser window
+     * @throws java.lang.IllegalArgumentException if up or down is less than 1
+     * @return double[] The filter coefficients
+     */
+    public static double[] lowPassFilter(int up, int down, double beta) {
+        int u = reduce(up, down, true);
+        int maxRate = Math.max(u, reduce(up, down, false));
+        int halfLen = 10 * maxRate;
+        FIRWin1 fw = new FIRWin1(2*halfLen+1, beta, true);
+        double[] h = fw.computeCoefficients(new double[] {1.0/maxRate}, FIRWin1.FIRfilterType.LOWPASS, true);
+        for (int i=0; i<h.length; i++) {
+            h[i] *= u;
+        }
+        return h;
+    }
+
+    private static int reduce(int up, int down, boolean numerator) {
+        if (up < 1 || down < 1) {
+            throw new IllegalArgumentException("up and down must be greater than 0");
+        }
+        int g = ArithmeticUtils.gcd(up, down);
+        return numerator ? up/g : down/g;
+    }
+
+    /**
+     * Resamples len samples of one channel, starting at inOff, and writes the output to the output buffer starting at
+     * outOff. The number of output samples depends on the position of the channel in the output sequence and is given
+     * by getOutputLength(channel, len); at most ceil(len*up/down) samples are written.
+     * @param channel Index of the channel
+     * @param in Buffer holding the input samples
+     * @param inOff Index of the first input sample
+     * @param len Number of input samples
+     * @param out Buffer receiving the resampled signal
+     * @param outOff Index at which the first output sample is written
+     * @throws java.lang.IllegalArgumentException if the channel does not exist or a range is outside its buffer
+     * @return int Number of output samples written
+     */
+    public int resample(int channel, double[] in, int inOff, int len, double[] out, int outOff) {
+        this.checkChannel(channel);
+        int count = this.getOutputLength(channel, len);
+        if (len < 0 || inOff < 0 || outOff < 0 || inOff + len > in.length || outOff + count > out.length) {
+            throw new IllegalArgumentException("Sample range is outside the buffer");
+        }
+        double[] line = this.delay[channel];
+        int q = this.phaseLength;
+        int pos = this.position[channel];
+        int t = this.offset[channel];
+        int o = outOff;
+        for (int i=0; i<len; i++) {
+            double x = in[inOff + i];
+            line[pos] = x;
+            line[pos + q] = x;
+            // The newest q samples, oldest first, are at line[pos+1 .. pos+q]; t is the position of the next output
+            // sample relative to the newest input sample on the upsampled time axis
+            while (t < this.up) {
+                double[] taps = this.phases[t];
+                double acc = 0;
+                for (int k=0; k<q; k++) {
+                    acc += line[pos + 1 + k] * taps[k];
+                }
+                out[o++] = acc;
+                t += this.down;
+            }
+            t -= this.up;
+            pos = pos + 1 == q ? 0 : pos + 1;
+        }
+        this.position[channel] = pos;
+        this.offset[channel] = t;
+        return count;
+    }
+
+    /**
+     * Resamples a chunk of one channel and returns the output.
+     * @param channel Index of the channel
+     * @param in The input samples
+     * @throws java.lang.IllegalArgumentException if the channel does not exist
+     * @return double[] The resampled signal
+     */
+    public double[] resample(int channel, double[] in) {
+        double[] out = new double[this.getOutputLength(channel, in.length)];
+        this.resample(channel, in, 0, in.length, out, 0);
+        return out;
+    }
+
+    /**
+     * Resamples a chunk of every channel and returns the output. All channels of the chunk must have the same length.
+     * @param in The input samples, one row per channel
+     * @throws java.lang.IllegalArgumentException if the number of rows does not match the number of channels or the
+     * rows have different lengths
+     * @return double[][] The resampled signal, one row per channel
+     */
+    public double[][] resample(double[][] in) {
+        if (in.length != this.channels) {
+            throw new IllegalArgumentException("Number of rows must match the number of channels");
+        }
+        for (int c=0; c<this.channels; c++) {
+            if (in[c].length != in[0].length) {
+                throw new IllegalArgumentException("All channels must have the same number of samples");
+            }
+        }
+        double[][] out = new double[this.channels][];
+        for (int c=0; c<this.channels; c++) {
+            out[c] = this.resample(c, in[c]);
+        }
+        return out;
+    }
+
+    /**
+     * Resamples a chunk of channel 0 and returns the output.
+     * @param in The input samples
+     * @return double[] The resampled signal
+     */
+    public double[] resample(double[] in) {
+        return this.resample(0, in);
+    }
+
+    /**
+     * Returns the number of output samples that resampling the next len input samples of a channel produces.
+     * @param channel Index of the channel
+     * @param len Number of input samples
+     * @throws java.lang.IllegalArgumentException if the channel does not exist
+     * @return int Number of output samples
+     */
+    public int getOutputLength(int channel, int len) {
+        this.checkChannel(channel);
+        long span = (long) len * this.up - this.offset[channel];
+        if (span <= 0) {
+            return 0;
+        }
+        return (int) ((span + this.down - 1) / this.down);
+    }
+
+    /**
+     * Clears the delay lines of all channels, so that the next chunk starts a new signal.
+     */
+    public void reset() {
+        for (int c=0; c<this.channels; c++) {
+            Arrays.fill(this.delay[c], 0.0);
+            this.position[c] = 0;
+            this.offset[c] = 0;
+        }
+    }
+
+    private void checkChannel(int channel) {
+        if (channel < 0 || channel >= this.channels) {
+            throw new IllegalArgumentException("Channel must be between 0 and " + (this.channels - 1));
+        }
+    }
+
+    /**
+     * Returns the group delay of a linear-phase (symmetric) filter in output samples, i.e. (numTaps-1)/(2*down).
+     * @return double The delay in output samples
+     */
+    public double getDelay() {
+        return (this.numTaps - 1) / (2.0 * this.down);
+    }
+
+    /**
+     * Returns the upsampling factor
+     * @return int The upsampling factor
+     */
+    public int getUp() {
+        return this.up;
+    }
+
+    /**
+     * Returns the downsampling factor
+     * @return int The downsampling factor
+     */
+    public int getDown() {
+        return this.down;
+    }
+
+    /**
+     * Returns the number of channels
+     * @return int Number of channels
+     */
+    public int getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * Returns the number of filter coefficients
+     * @return int Number of taps
+     */
+    public int getNumTaps() {
+        return this.numTaps;
+    }
+}
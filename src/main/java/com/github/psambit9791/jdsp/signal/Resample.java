@@ -13,12 +13,11 @@ package com.github.psambit9791.jdsp.signal;
 
 import com.github.psambit9791.jdsp.filter.FIRWin1;
 import com.github.psambit9791.jdsp.misc.UtilMethods;
-import com.github.psambit9791.jdsp.transform.DiscreteFourier;
-import com.github.psambit9791.jdsp.transform.InverseDiscreteFourier;
+import com.github.psambit9791.jdsp.transform.FFTPlan;
+import org.apache.commons.math3.transform.DftNormalization;
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.rank.Median;
 import org.apache.commons.math3.util.ArithmeticUtils;
-import org.apache.commons.math3.util.MathArrays;
 
 import java.util.Arrays;
 
@@ -27,20 +26,25 @@ import java.util.Arrays;
  * The Resample class samples the signal again with a new number of samples. Resampling works in two modes - using the
  * Fourier transform and the Polyphase filtering.
  * For the Fourier transform method; the new spacing equals the number of previous samples divided by the new number of samples
- * and the previous spacing. The signal is expected to be periodic.
+ * and the previous spacing. The signal is expected to be periodic. The spectrum is computed with a real FFT of the exact
+ * signal length, so any length is resampled in O(N log N). Long signals can be resampled in overlapping chunks, which
+ * bounds the size of the transforms; each chunk is extended by an overlap on both sides that is discarded after
+ * resampling.
  * For the Polyphase filtering method; the signal is upsampled by 'up' factor, filtered using a zero-phase low-pass FIR filter
  * (FIRWin1), and downsampled by 'down' factor.
  * Resampling works only for real signals.
  *  
  *
  * @author  Sambit Paul
- * @version 1.1
+ * @version 1.3
  */
 public class Resample {
 
     private double[] signal;
     private boolean poly;
     private int num;
+    private int chunkLength;
+    private int overlap;
     private int up;
     private int down;
     private double beta;
@@ -58,6 +62,45 @@ public class Resample {
         this.poly = false;
     }
 
+    /**
+     * This constructor initialises the prerequisites required to use Resample in chunked mode. The signal is split into
+     * chunks of about chunkLength samples which are resampled separately after being extended by overlap samples of the
+     * neighbouring chunks on both sides. Chunk and overlap lengths are rounded up to a multiple of
+     * N/gcd(N, num), where N is the signal length, so that every chunk maps to a whole number of output samples. Away
+     * from the ends of the signal, the output approaches that of Resample(num) as the overlap grows; near the ends it
+     * does not assume the signal to be periodic.
+     * If the rounded chunk length is not shorter than the signal, which is always the case when N and num are coprime,
+     * the signal cannot be split and is resampled in one piece, giving the same output as Resample(num). Chunking
+     * therefore only bounds the transform size when N/gcd(N, num) is small compared to N.
+     * @param num The number of samples required after resampling
+     * @param chunkLength The number of input samples resampled per chunk, excluding the overlap
+     * @param overlap The number of input samples the chunks are extended by on either side
+     * @throws java.lang.IllegalArgumentException if chunkLength is less than 1 or overlap is negative
+     */
+    public Resample(int num, int chunkLength, int overlap) {
+        if (chunkLength < 1) {
+            throw new IllegalArgumentException("chunkLength must be greater than 0");
+        }
+        if (overlap < 0) {
+            throw new IllegalArgumentException("overlap must be non-negative");
+        }
+        this.num = num;
+        this.chunkLength = chunkLength;
+        this.overlap = overlap;
+        this.poly = false;
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use Resample in chunked mode. The chunks are extended
+     * by chunkLength/4 samples on either side.
+     * @param num The number of samples required after resampling
+     * @param chunkLength The number of input samples resampled per chunk, excluding the overlap
+     * @throws java.lang.IllegalArgumentException if chunkLength is less than 1
+     */
+    public Resample(int num, int chunkLength) {
+        this(num, chunkLength, chunkLength/4);
+    }
+
     /**
      * This constructor initialises the prerequisites required to use Polyphase Resample. Uses a Kaiser window of beta
      * 5 to construct the low-pass filter.
@@ -167,36 +210,83 @@ public class Resample {
      */
     private void resample_fft() {
         int Nx = this.signal.length;
+        if (this.chunkLength == 0 || this.chunkLength + 2L * this.overlap >= Nx) {
+            this.output = _fft_resample(this.signal, 0, Nx, this.num);
+            return;
+        }
 
-        DiscreteFourier df = new DiscreteFourier(this.signal);
-        df.transform();
-        double[][] X = df.getComplex2D(true);
-        double[][] Y = new double[this.num/2+1][2];
+        // A chunk of p input samples maps to exactly q output samples
+        int g = ArithmeticUtils.gcd(Nx, this.num);
+        int p = Nx / g;
+        int q = this.num / g;
+        int block = (int) Math.min(Nx, ((this.chunkLength + (long) p - 1) / p) * p);
+        if (block >= Nx) {
+            this.output = _fft_resample(this.signal, 0, Nx, this.num);
+            return;
+        }
+        int extra = (int) Math.min(Nx, ((this.overlap + (long) p - 1) / p) * p);
+
+        this.output = new double[this.num];
+        for (int start=0; start<Nx; start+=block) {
+            int end = Math.min(start + block, Nx);
+            int from = Math.max(0, start - extra);
+            int to = Math.min(Nx, end + extra);
+            int len = to - from;
+            int outLen = (int) ((long) len / p * q);
+
+            // Removing the line through the end points makes the periodic extension of the chunk continuous, which
+            // keeps the ringing caused by the chunk boundaries small; the line itself is resampled exactly
+            double a = this.signal[from];
+            double b = len > 1 ? (this.signal[to - 1] - a) / (len - 1) : 0.0;
+            double[] chunk = new double[len];
+            for (int i=0; i<len; i++) {
+                chunk[i] = this.signal[from + i] - (a + b*i);
+            }
+            double[] y = _fft_resample(chunk, 0, len, outLen);
+            double step = (double) len / outLen;
+            for (int j=0; j<outLen; j++) {
+                y[j] += a + b*j*step;
+            }
+            int skip = (int) ((long) (start - from) / p * q);
+            int keep = (int) ((long) (end - start) / p * q);
+            System.arraycopy(y, skip, this.output, (int) ((long) start / p * q), keep);
+        }
+    }
 
-        int N = Math.min(this.num, Nx);
+    /**
+     * Resamples len samples of the signal, starting at from, to num samples by zero-padding or truncating the spectrum
+     * computed with a real FFT of length len.
+     */
+    private static double[] _fft_resample(double[] signal, int from, int len, int num) {
+        double[] x = Arrays.copyOfRange(signal, from, from + len);
+        double[] X = new double[2*(len/2+1)];
+        FFTPlan.of(len, false, DftNormalization.STANDARD).executeReal(x, X);
+        double[] Y = new double[2*(num/2+1)];
+
+        int N = Math.min(num, len);
         int nyquist_idx = N/2+1;
-        for (int i=0; i<nyquist_idx; i++) {
-            Y[i][0] = X[i][0];
-            Y[i][1] = X[i][1];
-        }
+        System.arraycopy(X, 0, Y, 0, 2*nyquist_idx);
 
         if (N%2 == 0) {
             // Downsampling
-            if (this.num < Nx) {
-                Y[N/2][0] = Y[N/2][0]*2;
-                Y[N/2][1] = Y[N/2][1]*2;
+            if (num < len) {
+                Y[N] = Y[N]*2;
+                Y[N+1] = Y[N+1]*2;
             }
             // Upsampling
-            else {
-                Y[N/2][0] = Y[N/2][0]*0.5;
-                Y[N/2][1] = Y[N/2][1]*0.5;
+            else if (num > len) {
+                Y[N] = Y[N]*0.5;
+                Y[N+1] = Y[N+1]*0.5;
             }
         }
 
-        InverseDiscreteFourier idf = new InverseDiscreteFourier(Y, true);
-        idf.transform();
-        double[] y = idf.getReal();
-        this.output = MathArrays.scale((float)this.num/(float)Nx, y);
+        double[] y = new double[num];
+        FFTPlan.of(num, true, DftNormalization.STANDARD).executeReal(Y, y);
+        double scale = (double) num / len;
+        for (int i=0; i<num; i++) {
+            y[i] *= scale;
+        }
+        return y;
     }
 
     private double _funcs(double[] signal, String action) {
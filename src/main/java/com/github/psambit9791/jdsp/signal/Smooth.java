@@ -20,10 +20,12 @@ import org.apache.commons.math3.util.MathArrays;
  * The Smooth class implements moving average method of smoothing.
  * Reference <a href="http://www.reproducibility.org/RSF/book/gee/ajt/paper_html/node15.html">article</a> for more information on smoothing.
  * The triangular smooth is like the rectangular smooth except that it implements a weighted smoothing function.
+ * For wide windows, the correlation can be computed with the FFT or block by block, or the fastest method can be chosen
+ * automatically.
  *  
  *
  * @author  Sambit Paul
- * @version 1.1
+ * @version 1.2
  */
 
 public class Smooth {
@@ -96,12 +98,24 @@ public class Smooth {
      * @return double[] Smoothed signal
      */
     public double[] smoothSignal(String correlation_mode) throws IllegalArgumentException{
+        return this.smoothSignal(correlation_mode, ConvolutionMethod.DIRECT);
+    }
+
+    /**
+     * This method smooths the signal in a specific correlation mode with a specific correlation method and returns it.
+     * @param correlation_mode The mode in which cross-correlation is performed
+     * @param method The method used for cross-correlation. Can be "direct", "fft", "block" or "auto"
+     * @throws java.lang.IllegalArgumentException if correlation_mode is not same, valid or full
+     * @throws java.lang.IllegalArgumentException if method is not direct, fft, block or auto
+     * @return double[] Smoothed signal
+     */
+    public double[] smoothSignal(String correlation_mode, String method) throws IllegalArgumentException{
         if (!correlation_mode.equals("same") && !correlation_mode.equals("valid") && !correlation_mode.equals("full")) {
             throw new IllegalArgumentException("Mode can only be same, valid or full.");
         }
         else {
             CrossCorrelation c = new CrossCorrelation(this.signal, this.smoothing_kernel);
-            this.output = c.crossCorrelate(correlation_mode);
+            this.output = c.crossCorrelate(correlation_mode, method);
         }
         return this.output;
     }
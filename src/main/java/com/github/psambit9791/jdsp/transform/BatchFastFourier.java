@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.stream.IntStream;
+
+/**
+ * <h2>Batch Fast Fourier Transform</h2>
+ * The BatchFastFourier class performs the fast fourier transform on a batch of equal-length real signals in one call.
+ * The signals can be provided as rows of a 2D array or as one flat buffer in which signal r starts at index r*stride
+ * (with stride smaller than the length, consecutive signals overlap like the frames of a ShortTimeFourier).
+ * All signals share one FFTPlan and the non-mirrored output is stored in two contiguous planes (real and imaginary parts)
+ * with the N/2+1 bins of each signal next to each other. Large batches are split across the cores of the common
+ * ForkJoinPool; the output does not depend on whether the batch was processed in parallel.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class BatchFastFourier {
+
+    // Minimum number of samples in the batch before it is split across cores
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private final double[][] signals;
+    private final double[] buffer;
+    private final int stride;
+    private final int count;
+    private final int length;
+    private final int bins;
+    private final FFTPlan plan;
+
+    private double[] outRe = null;
+    private double[] outIm = null;
+
+    /**
+     * This constructor initialises the prerequisites required to use BatchFastFourier.
+     * @param signals Signals to be transformed; every row must have the same length
+     * @throws java.lang.IllegalArgumentException if the rows have different lengths
+     */
+    public BatchFastFourier(double[][] signals) {
+        this(signals, DftNormalization.STANDARD);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use BatchFastFourier.
+     * @param signals Signals to be transformed; every row must have the same length
+     * @param norm The normalization option to be used the Fast Fourier transform.
+     * @throws java.lang.IllegalArgumentException if the rows have different lengths
+     */
+    public BatchFastFourier(double[][] signals, DftNormalization norm) {
+        int len = signals.length > 0 ? signals[0].length : 0;
+        for (double[] s : signals) {
+            if (s.length != len) {
+                throw new IllegalArgumentException("All signals must have the same length");
+            }
+        }
+        this.signals = signals;
+        this.buffer = null;
+        this.stride = len;
+        this.count = signals.length;
+        this.length = len;
+        this.bins = len/2 + 1;
+        this.plan = FFTPlan.of(len, false, norm);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use BatchFastFourier on signals stored in one flat
+     * buffer. Signal r consists of the samples buffer[r*stride] to buffer[r*stride + length - 1]; as many signals as fit
+     * into the buffer are transformed.
+     * @param buffer Flat buffer holding the signals
+     * @param length Length of every signal
+     * @param stride Distance between the first samples of consecutive signals
+     * @param norm The normalization option to be used the Fast Fourier transform.
+     * @throws java.lang.IllegalArgumentException if length or stride is not positive
+     */
+    public BatchFastFourier(double[] buffer, int length, int stride, DftNormalization norm) {
+        if (length < 1 || stride < 1) {
+            throw new IllegalArgumentException("Length and stride must be positive");
+        }
+        this.signals = null;
+        this.buffer = buffer;
+        this.stride = stride;
+        this.count = buffer.length < length ? 0 : (buffer.length - length)/stride + 1;
+        this.length = length;
+        this.bins = length/2 + 1;
+        this.plan = FFTPlan.of(length, false, norm);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use BatchFastFourier on consecutive, non-overlapping
+     * signals stored in one flat buffer.
+     * @param buffer Flat buffer holding the signals
+     * @param length Length of every signal
+     * @throws java.lang.IllegalArgumentException if length is not positive
+     */
+    public BatchFastFourier(double[] buffer, int length) {
+        this(buffer, length, length, DftNormalization.STANDARD);
+    }
+
+    /**
+     * Performs the fourier transformation on all the signals. Large batches are processed in parallel.
+     */
+    public void transform() {
+        this.transform((long) this.count*this.length >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Performs the fourier transformation on all the signals.
+     * @param parallel Set to True to split the signals across the cores of the common ForkJoinPool
+     */
+    public void transform(boolean parallel) {
+        double[] re = new double[this.count*this.bins];
+        double[] im = new double[this.count*this.bins];
+        int workers = parallel ? Math.min(this.count, Runtime.getRuntime().availableProcessors()) : 1;
+        if (workers <= 1) {
+            this.transformRows(0, this.count, re, im);
+        }
+        else {
+            // Contiguous blocks of rows keep every worker on its own region of the input and output
+            final int chunks = workers*4;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int from = (int) ((long) this.count*c/chunks);
+                int to = (int) ((long) this.count*(c+1)/chunks);
+                this.transformRows(from, to, re, im);
+            });
+        }
+        this.outRe = re;
+        this.outIm = im;
+    }
+
+    private void transformRows(int from, int to, double[] re, double[] im) {
+        for (int r=from; r<to; r++) {
+            if (this.signals != null) {
+                this.plan.executeReal(this.signals[r], 0, re, r*this.bins, im, r*this.bins);
+            }
+            else {
+                this.plan.executeReal(this.buffer, r*this.stride, re, r*this.bins, im, r*this.bins);
+            }
+        }
+    }
+
+    private void checkOutput() {
+        if (this.outRe == null) {
+            throw new ExceptionInInitializerError("Execute transform() function before returning result");
+        }
+    }
+
+    // Index into the output planes of bin i of the mirrored output of signal r; bins above N/2 are read from their mirror
+    private int index(int r, int i) {
+        return r*this.bins + (i < this.bins ? i : this.length - i);
+    }
+
+    private double re(int r, int i) {
+        return this.outRe[this.index(r, i)];
+    }
+
+    private double im(int r, int i) {
+        double v = this.outIm[this.index(r, i)];
+        return i < this.bins ? v : -v;
+    }
+
+    /**
+     * Returns the number of signals in the batch
+     * @return int Number of signals
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the length of every signal in the batch
+     * @return int Length of the signals
+     */
+    public int getSignalLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the plane with the real parts of the non-mirrored output. Bin k of signal r is at index r*(N/2+1) + k.
+     * The returned array is the internal buffer and is not copied.
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     * @return double[] Real parts of the output of all signals
+     */
+    public double[] getRealPlane() throws ExceptionInInitializerError {
+        this.checkOutput();
+        return this.outRe;
+    }
+
+    /**
+     * Returns the plane with the imaginary parts of the non-mirrored output. Bin k of signal r is at index r*(N/2+1) + k.
+     * The returned array is the internal buffer and is not copied.
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     * @return double[] Imaginary parts of the output of all signals
+     */
+    public double[] getImaginaryPlane() throws ExceptionInInitializerError {
+        this.checkOutput();
+        return this.outIm;
+    }
+
+    /**
+     * Returns the magnitude of the fourier transformed signals
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     * @return double[][] The magnitude of the FFT output; one row per signal
+     */
+    public double[][] getMagnitude(boolean onlyPositive) throws ExceptionInInitializerError {
+        this.checkOutput();
+        double[][] out = new double[this.count][onlyPositive ? this.bins : this.length];
+        for (int r=0; r<this.count; r++) {
+            for (int i=0; i<out[r].length; i++) {
+                double re = this.re(r, i);
+                double im = this.im(r, i);
+                out[r][i] = Math.sqrt(re*re + im*im);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the phase of the fourier transformed signals in radians
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     * @return double[][] The phase of the FFT output (in radians); one row per signal
+     */
+    public double[][] getPhaseRad(boolean onlyPositive) throws ExceptionInInitializerError {
+        this.checkOutput();
+        double[][] out = new double[this.count][onlyPositive ? this.bins : this.length];
+        for (int r=0; r<this.count; r++) {
+            for (int i=0; i<out[r].length; i++) {
+                out[r][i] = Math.atan2(this.im(r, i), this.re(r, i));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the complex value of the fourier transform of one signal as a 2D matrix
+     * @param index Index of the signal in the batch
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     * @return double[][] The complex FFT output; first array column = real part; second array column = imaginary part
+     */
+    public double[][] getComplex2D(int index, boolean onlyPositive) throws ExceptionInInitializerError {
+        this.checkOutput();
+        double[][] out = new double[onlyPositive ? this.bins : this.length][2];
+        for (int i=0; i<out.length; i++) {
+            out[i][0] = this.re(index, i);
+            out[i][1] = this.im(index, i);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the complex value of the fourier transform of one signal
+     * @param index Index of the signal in the batch
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     * @return Complex[] The complex FFT output
+     */
+    public Complex[] getComplex(int index, boolean onlyPositive) throws ExceptionInInitializerError {
+        this.checkOutput();
+        Complex[] out = new Complex[onlyPositive ? this.bins : this.length];
+        for (int i=0; i<out.length; i++) {
+            out[i] = new Complex(this.re(index, i), this.im(index, i));
+        }
+        return out;
+    }
+}
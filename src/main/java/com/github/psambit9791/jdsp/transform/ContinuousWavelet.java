@@ -15,15 +15,22 @@ import com.github.psambit9791.jdsp.signal.ComplexConvolution;
 import com.github.psambit9791.jdsp.signal.Convolution;
 import com.github.psambit9791.jdsp.signal.Generate;
 import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * <h2>Continuous Wavelet Transform</h2>
  * The ContinuousWavelet class applies the wavelet transform on the input signal using different wavelet functions. This class
  * works with 3 wavelets - Ricker, Morlet and Paul.
+ * The complex wavelets (Morlet and Paul) are applied by FFT convolution on interleaved primitive arrays with
+ * ComplexConvolution.convolveSpectrum(); the spectrum of the signal is computed once for every FFT size and reused for
+ * all widths which need that size.
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.2
  */
 public class ContinuousWavelet {
 
@@ -58,29 +65,54 @@ public class ContinuousWavelet {
     }
 
     /**
-     * Perform wavelet transform with the Morlet wavelet
+     * Convolves the signal with a complex wavelet in 'same' mode using the FFT. The spectrum of the signal for the FFT
+     * size in use is taken from the cache, or computed and added to it.
      * @param data Signal to be transformed
      * @param wavelet Wavelet to be used for transforming
+     * @param conjugate If true, the complex conjugate of the wavelet is used
+     * @param spectra Spectra of the signal, by FFT size
      * @return Complex[] Transformed signal
      */
-    private Complex[] morlet_cwt(double[] data, Complex[] wavelet) {
-        Complex[] wavelet_conjugate = new Complex[wavelet.length];
-        for (int i=0; i<wavelet.length; i++) {
-            wavelet_conjugate[i] = wavelet[i].conjugate();
+    private Complex[] complex_cwt(double[] data, Complex[] wavelet, boolean conjugate, Map<Integer, double[]> spectra) {
+        int n = data.length;
+        int m = wavelet.length;
+        int size = ComplexConvolution.spectrumSize(n, m);
+        double[] spectrum = spectra.get(size);
+        if (spectrum == null) {
+            spectrum = FFTEngine.fromReal(data, size);
+            FFTPlan.of(size, false, DftNormalization.STANDARD).execute(spectrum);
+            spectra.put(size, spectrum);
+        }
+
+        double sign = conjugate ? -1 : 1;
+        double[] h = new double[2*m];
+        for (int i=0; i<m; i++) {
+            h[2*i] = wavelet[i].getReal();
+            h[2*i+1] = sign * wavelet[i].getImaginary();
         }
-        ComplexConvolution c1 = new ComplexConvolution(data, wavelet_conjugate);
-        return c1.convolve("same");
+        return FFTEngine.toComplex(ComplexConvolution.convolveSpectrum(spectrum, n, h, "same"), n);
+    }
+
+    /**
+     * Perform wavelet transform with the Morlet wavelet
+     * @param data Signal to be transformed
+     * @param wavelet Wavelet to be used for transforming
+     * @param spectra Spectra of the signal, by FFT size
+     * @return Complex[] Transformed signal
+     */
+    private Complex[] morlet_cwt(double[] data, Complex[] wavelet, Map<Integer, double[]> spectra) {
+        return this.complex_cwt(data, wavelet, true, spectra);
     }
 
     /**
      * Perform wavelet transform with the Paul wavelet
      * @param data Signal to be transformed
      * @param wavelet Wavelet to be used for transforming
+     * @param spectra Spectra of the signal, by FFT size
      * @return Complex[] Transformed signal
      */
-    private Complex[] paul_cwt(double[] data, Complex[] wavelet) {
-        ComplexConvolution c1 = new ComplexConvolution(data, wavelet);
-        return c1.convolve("same");
+    private Complex[] paul_cwt(double[] data, Complex[] wavelet, Map<Integer, double[]> spectra) {
+        return this.complex_cwt(data, wavelet, false, spectra);
     }
 
     /**
@@ -94,6 +126,7 @@ public class ContinuousWavelet {
      */
     public Complex[][] transform(waveletType wavelet_type, double args) throws IllegalArgumentException{
         Complex[][] output = new Complex[this.widths.length][this.signal.length];
+        Map<Integer, double[]> spectra = new HashMap<>();
         switch (wavelet_type) {
             case RICKER:
                 for (int i=0; i<this.widths.length; i++) {
@@ -110,7 +143,7 @@ public class ContinuousWavelet {
                     Generate gp = new Generate();
                     Complex[] wavelet = gp.generateMorletCWTComplex(N, args, this.widths[i]);
                     wavelet = UtilMethods.reverse(wavelet);
-                    output[i] = this.morlet_cwt(this.signal, wavelet);
+                    output[i] = this.morlet_cwt(this.signal, wavelet, spectra);
                 }
                 break;
             case PAUL:
@@ -121,7 +154,7 @@ public class ContinuousWavelet {
                     for (int w=0; w<wavelet.length; w++) {
                         wavelet[w] = wavelet[w].multiply(norm); //Normalization
                     }
-                    output[i] = this.paul_cwt(this.signal, wavelet);
+                    output[i] = this.paul_cwt(this.signal, wavelet, spectra);
                 }
                 break;
             default:
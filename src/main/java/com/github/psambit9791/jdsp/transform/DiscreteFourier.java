@@ -25,7 +25,7 @@ import java.util.Arrays;
  *  
  *
  * @author  Sambit Paul
- * @version 1.2
+ * @version 1.3
  */
 public class DiscreteFourier implements _Fourier {
 
@@ -95,6 +95,44 @@ public class DiscreteFourier implements _Fourier {
         this.output = out;
     }
 
+    /**
+     * Performs the fourier transform on the given signal and writes the output into the caller owned buffers. If the
+     * buffers can hold N values the mirrored output is written, otherwise only the non-mirrored N/2+1 bins. The signal and
+     * output of this object are not changed.
+     * @param in Signal to be transformed
+     * @param outRe Real part of the output; length at least N/2+1
+     * @param outIm Imaginary part of the output; same length as outRe
+     * @throws java.lang.IllegalArgumentException if the output buffers are too short
+     */
+    public void transform(double[] in, double[] outRe, double[] outIm) {
+        int n = in.length;
+        int bins = Math.min(outRe.length, outIm.length) >= n ? n : n/2+1;
+        if (outRe.length < bins || outIm.length < bins) {
+            throw new IllegalArgumentException("Output buffers must hold at least N/2+1 values");
+        }
+        for (int k=0; k<bins; k++) {
+            double real = 0;
+            double imag = 0;
+            for (int t=0; t<n; t++) {
+                double angle = (2*Math.PI*t*k)/n;
+                real += in[t]*Math.cos(angle);
+                imag += -in[t]*Math.sin(angle);
+            }
+            outRe[k] = real;
+            outIm[k] = imag;
+        }
+    }
+
+    private void checkOutput() {
+        if (this.output == null) {
+            throw new ExceptionInInitializerError("Execute transform() function before returning result");
+        }
+    }
+
+    private int numBins(boolean onlyPositive) {
+        return onlyPositive ? this.output.length/2+1 : this.output.length;
+    }
+
     // Refer to this post to know the relevance of only positive: https://dsp.stackexchange.com/a/4827
     // About plotting, please refer here: https://stackoverflow.com/a/25735274
 
@@ -109,6 +147,20 @@ public class DiscreteFourier implements _Fourier {
         return Arrays.stream(dftout).mapToDouble(Complex::abs).toArray();
     }
 
+    /**
+     * Writes the magnitude of the discrete fourier transformed sequence into the caller owned buffer
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param dst Output buffer; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     */
+    public void getMagnitude(boolean onlyPositive, double[] dst) throws ExceptionInInitializerError {
+        this.checkOutput();
+        int bins = this.numBins(onlyPositive);
+        for (int i=0; i<bins; i++) {
+            dst[i] = this.output[i].abs();
+        }
+    }
+
     /**
      * Returns the phase of the discrete fourier transformed sequence in radians
      * @param onlyPositive Set to True if non-mirrored output is required
@@ -120,6 +172,20 @@ public class DiscreteFourier implements _Fourier {
         return Arrays.stream(dftout).mapToDouble(Complex::getArgument).toArray();
     }
 
+    /**
+     * Writes the phase of the discrete fourier transformed sequence in radians into the caller owned buffer
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param dst Output buffer; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     */
+    public void getPhaseRad(boolean onlyPositive, double[] dst) throws ExceptionInInitializerError {
+        this.checkOutput();
+        int bins = this.numBins(onlyPositive);
+        for (int i=0; i<bins; i++) {
+            dst[i] = this.output[i].getArgument();
+        }
+    }
+
     /**
      * Returns the phase of the discrete fourier transformed sequence in degrees
      * @param onlyPositive Set to True if non-mirrored output is required
@@ -180,6 +246,22 @@ public class DiscreteFourier implements _Fourier {
         return UtilMethods.complexTo2D(dftout);
     }
 
+    /**
+     * Writes the complex value of the discrete fourier transformed sequence into the caller owned buffers
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param re Real part of the output; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @param im Imaginary part of the output; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     */
+    public void getComplex(boolean onlyPositive, double[] re, double[] im) throws ExceptionInInitializerError {
+        this.checkOutput();
+        int bins = this.numBins(onlyPositive);
+        for (int i=0; i<bins; i++) {
+            re[i] = this.output[i].getReal();
+            im[i] = this.output[i].getImaginary();
+        }
+    }
+
     /**
      * Returns the complex value of the discrete fourier transformed sequence
      * @param onlyPositive Set to True if non-mirrored output is required
@@ -18,7 +18,7 @@ package com.github.psambit9791.jdsp.transform;
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.1
  */
 public class DiscreteSine implements _SineCosine {
     private double[] signal;
@@ -166,6 +166,20 @@ public class DiscreteSine implements _SineCosine {
         this.output = this.type1();
     }
 
+    /**
+     * Performs the sine transformation of the given type on the given signal with the normalization of this object and
+     * writes the output into the caller owned buffer, which may be the input array. The signal given to the constructor
+     * and the output of transform() are not changed, and no memory is allocated once a signal length has been seen.
+     * The output is computed with the FFT, as in FastSine, rather than with the direct sums of transform().
+     * @param in Signal to be transformed
+     * @param out Output buffer; length at least in.length
+     * @param type Type of transform to apply (1 to 4)
+     * @throws java.lang.IllegalArgumentException If type is not between 1 and 4 or the output buffer is too short
+     */
+    public void transform(double[] in, double[] out, int type) throws IllegalArgumentException {
+        SineCosineEngine.dst(in, out, type, this.norm == Normalization.ORTHOGONAL);
+    }
+
     /**
      * Returns the length of the input signal.
      *
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
+
+/**
+ * <h2>FFT Engine</h2>
+ * The FFTEngine class is the native fast fourier transform core used by FastFourier, InverseFastFourier, Hilbert and
+ * the FFT based convolution routines. It operates in-place on interleaved primitive buffers where the real part of bin k
+ * is stored at index 2k and the imaginary part at index 2k+1, so no Complex objects are created during the transform.
+ * Any length is supported without padding. Powers of 2 use an iterative decimation-in-time FFT which fuses pairs of
+ * radix-2 stages into radix-4 passes to halve the number of sweeps over the buffer. Lengths whose prime factors are all
+ * 2, 3, 5 or 7 use a recursive mixed-radix FFT, and all other lengths use Bluestein's chirp-z algorithm which maps the
+ * transform onto a power of 2 convolution. All of them run in O(N log N).
+ * Real input signals have a dedicated transform (realForward/realInverse) which packs the even and odd samples into a
+ * single complex FFT of half the length and returns only the non-negative half of the Hermitian spectrum.
+ * The transforms are executed through cached FFTPlan objects, so the twiddle factors and permutation tables of a length
+ * are only computed once.
+ * Reference <a href="https://en.wikipedia.org/wiki/Cooley%E2%80%93Tukey_FFT_algorithm">article</a> for more information on the Cooley-Tukey algorithm.
+ * Reference <a href="https://en.wikipedia.org/wiki/Chirp_Z-transform#Bluestein.27s_algorithm">article</a> for more information on Bluestein's algorithm.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.3
+ */
+public final class FFTEngine {
+
+    private FFTEngine() {
+    }
+
+    /**
+     * Checks if the number is a power of 2
+     * @param n The number to be checked
+     * @return boolean True if n is a positive power of 2
+     */
+    public static boolean isPowerOfTwo(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    /**
+     * Performs the forward transform (e^-2πikn/N kernel) on the interleaved buffer in-place. No scaling is applied.
+     * @param data Interleaved complex buffer of length 2N
+     */
+    public static void forward(double[] data) {
+        transform(data, false);
+    }
+
+    /**
+     * Performs the inverse transform (e^2πikn/N kernel) on the interleaved buffer in-place. No scaling is applied.
+     * @param data Interleaved complex buffer of length 2N
+     */
+    public static void inverse(double[] data) {
+        transform(data, true);
+    }
+
+    /**
+     * Performs the forward or inverse transform on the interleaved buffer in-place and applies the scaling required by
+     * the normalization convention.
+     * @param data Interleaved complex buffer of length 2N
+     * @param inverse Set to True for the inverse transform
+     * @param norm The normalization convention (as used by the Apache Math3 FastFourierTransformer)
+     */
+    public static void transform(double[] data, boolean inverse, DftNormalization norm) {
+        FFTPlan.of(complexLength(data), inverse, norm).execute(data);
+    }
+
+    /**
+     * Performs the forward or inverse transform on the interleaved buffer in-place. No scaling is applied.
+     * @param data Interleaved complex buffer of length 2N
+     * @param inverse Set to True for the inverse transform
+     */
+    public static void transform(double[] data, boolean inverse) {
+        FFTPlan.of(complexLength(data), inverse, DftNormalization.STANDARD).executeRaw(data);
+    }
+
+    /**
+     * Performs the forward transform of a real signal of length N and writes the non-negative half of the spectrum
+     * (N/2+1 bins) in interleaved form to the output buffer. No scaling is applied.
+     * @param signal The real signal
+     * @param out Interleaved output buffer of length at least 2*(N/2+1)
+     * @throws java.lang.IllegalArgumentException if the output buffer is too short
+     */
+    public static void realForward(double[] signal, double[] out) {
+        FFTPlan.of(signal.length, false, DftNormalization.STANDARD).executeRealRaw(signal, out);
+    }
+
+    /**
+     * Performs the inverse transform of the non-negative half (N/2+1 bins) of a Hermitian spectrum and writes the real
+     * signal of length N to the output buffer. The imaginary parts of the DC and Nyquist bins are ignored. No scaling is
+     * applied, so the result is N times the signal (same as the complex inverse transform of the full spectrum).
+     * @param spectrum Interleaved half spectrum with at least N/2+1 complex values
+     * @param out The output signal; its length determines N
+     * @throws java.lang.IllegalArgumentException if the spectrum is too short
+     */
+    public static void realInverse(double[] spectrum, double[] out) {
+        FFTPlan.of(out.length, true, DftNormalization.STANDARD).executeRealRaw(spectrum, out);
+    }
+
+    private static int complexLength(double[] data) {
+        if (data.length%2 != 0) {
+            throw new IllegalArgumentException("Interleaved buffer must have an even length");
+        }
+        return data.length/2;
+    }
+
+    /**
+     * Multiplies every element of the interleaved buffer with a constant
+     * @param data Interleaved complex buffer
+     * @param factor The scaling factor
+     */
+    public static void scale(double[] data, double factor) {
+        for (int i=0; i<data.length; i++) {
+            data[i] *= factor;
+        }
+    }
+
+    /**
+     * Copies a real signal into a new interleaved buffer of the given number of complex points. Points beyond the signal
+     * length are zero.
+     * @param signal The real signal
+     * @param n Number of complex points in the buffer
+     * @return double[] Interleaved buffer of length 2n
+     */
+    public static double[] fromReal(double[] signal, int n) {
+        double[] data = new double[2*n];
+        int len = Math.min(n, signal.length);
+        for (int i=0; i<len; i++) {
+            data[2*i] = signal[i];
+        }
+        return data;
+    }
+
+    /**
+     * Copies a Complex array into a new interleaved buffer
+     * @param sequence The complex sequence
+     * @return double[] Interleaved buffer of length 2N
+     */
+    public static double[] fromComplex(Complex[] sequence) {
+        double[] data = new double[2*sequence.length];
+        for (int i=0; i<sequence.length; i++) {
+            data[2*i] = sequence[i].getReal();
+            data[2*i+1] = sequence[i].getImaginary();
+        }
+        return data;
+    }
+
+    /**
+     * Copies a 2D complex matrix (column 0: real, column 1: imaginary) into a new interleaved buffer
+     * @param sequence The complex sequence as a 2D matrix
+     * @return double[] Interleaved buffer of length 2N
+     */
+    public static double[] fromComplex2D(double[][] sequence) {
+        double[] data = new double[2*sequence.length];
+        for (int i=0; i<sequence.length; i++) {
+            data[2*i] = sequence[i][0];
+            data[2*i+1] = sequence[i][1];
+        }
+        return data;
+    }
+
+    /**
+     * Builds a Complex array from the first n points of an interleaved buffer
+     * @param data Interleaved complex buffer
+     * @param n Number of points to be converted
+     * @return Complex[] The complex sequence
+     */
+    public static Complex[] toComplex(double[] data, int n) {
+        Complex[] out = new Complex[n];
+        for (int i=0; i<n; i++) {
+            out[i] = new Complex(data[2*i], data[2*i+1]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,703 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import com.github.psambit9791.jdsp.misc.UtilMethods;
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h2>FFT Plan</h2>
+ * The FFTPlan class holds everything a fast fourier transform of a fixed length, direction and normalization needs which
+ * does not depend on the data: twiddle factors, the bit-reversal permutation, the radix decomposition and, for lengths
+ * which use Bluestein's algorithm, the spectrum of the chirp kernel. Plans are cached, so repeated transforms of the same
+ * length (for example the frames of a ShortTimeFourier) only pay for the butterflies.
+ * A plan is immutable and can be shared across threads; the scratch buffers it needs are kept per thread.
+ * Buffers are interleaved complex arrays where the real part of point k is at index 2k and the imaginary part at 2k+1.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.1
+ */
+public final class FFTPlan {
+
+    private static final int CACHE_LIMIT = 256;
+    private static final ConcurrentHashMap<Long, FFTPlan> CACHE = new ConcurrentHashMap<>();
+    private static final int[] RADICES = {4, 2, 3, 5, 7};
+
+    private enum Kind {POW2, MIXED, BLUESTEIN}
+
+    private final int n;
+    private final boolean inverse;
+    private final DftNormalization norm;
+    private final double scale;
+    private final Kind kind;
+
+    // Twiddle factors w^k = exp(-/+ 2*pi*i*k/N); N/2 entries for powers of 2, N entries for mixed radix
+    private final double[] cos;
+    private final double[] sin;
+
+    // Index pairs to swap for the bit-reversal permutation (powers of 2)
+    private final int[] swaps;
+
+    // Radix decomposition (mixed radix)
+    private final int[] factors;
+    private final int maxRadix;
+
+    // Chirp, kernel spectrum and power of 2 sub-plans (Bluestein)
+    private final int m;
+    private final double[] chirpCos;
+    private final double[] chirpSin;
+    private final double[] kernel;
+    private final FFTPlan subForward;
+    private final FFTPlan subInverse;
+
+    private final ThreadLocal<double[][]> scratch;
+    private volatile RealPart real = null;
+
+    private FFTPlan(int n, boolean inverse, DftNormalization norm) {
+        this.n = n;
+        this.inverse = inverse;
+        this.norm = norm;
+        if (norm == DftNormalization.UNITARY) {
+            this.scale = n > 0 ? 1.0/Math.sqrt(n) : 1.0;
+        }
+        else {
+            this.scale = (inverse && n > 0) ? 1.0/n : 1.0;
+        }
+
+        int[] f = n > 1 ? factorize(n) : new int[0];
+        if (n <= 1 || FFTEngine.isPowerOfTwo(n)) {
+            this.kind = Kind.POW2;
+        }
+        else if (f != null) {
+            this.kind = Kind.MIXED;
+        }
+        else {
+            this.kind = Kind.BLUESTEIN;
+        }
+
+        if (this.kind == Kind.POW2) {
+            double[][] tw = twiddles(n, n/2, inverse);
+            this.cos = tw[0];
+            this.sin = tw[1];
+            this.swaps = bitReversalSwaps(n);
+            this.factors = null;
+            this.maxRadix = 0;
+        }
+        else if (this.kind == Kind.MIXED) {
+            double[][] tw = twiddles(n, n, inverse);
+            this.cos = tw[0];
+            this.sin = tw[1];
+            this.swaps = null;
+            this.factors = f;
+            int mr = 0;
+            for (int r : f) {
+                mr = Math.max(mr, r);
+            }
+            this.maxRadix = mr;
+        }
+        else {
+            this.cos = null;
+            this.sin = null;
+            this.swaps = null;
+            this.factors = null;
+            this.maxRadix = 0;
+        }
+
+        if (this.kind == Kind.BLUESTEIN) {
+            this.m = (int) UtilMethods.nextPowerOfTwo(2*n-1);
+            this.chirpCos = new double[n];
+            this.chirpSin = new double[n];
+            long mod = 2L*n;
+            for (int k=0; k<n; k++) {
+                double angle = Math.PI*((long)k*k % mod)/n;
+                this.chirpCos[k] = StrictMath.cos(angle);
+                this.chirpSin[k] = inverse ? StrictMath.sin(angle) : -StrictMath.sin(angle);
+            }
+            this.subForward = FFTPlan.of(this.m, false, DftNormalization.STANDARD);
+            this.subInverse = FFTPlan.of(this.m, true, DftNormalization.STANDARD);
+            this.kernel = new double[2*this.m];
+            this.kernel[0] = this.chirpCos[0];
+            this.kernel[1] = -this.chirpSin[0];
+            for (int k=1; k<n; k++) {
+                this.kernel[2*k] = this.chirpCos[k];
+                this.kernel[2*k+1] = -this.chirpSin[k];
+                this.kernel[2*(this.m-k)] = this.chirpCos[k];
+                this.kernel[2*(this.m-k)+1] = -this.chirpSin[k];
+            }
+            this.subForward.executeRaw(this.kernel);
+        }
+        else {
+            this.m = 0;
+            this.chirpCos = null;
+            this.chirpSin = null;
+            this.kernel = null;
+            this.subForward = null;
+            this.subInverse = null;
+        }
+
+        final int scratchLen;
+        if (this.kind == Kind.MIXED) {
+            scratchLen = 2*n;
+        }
+        else if (this.kind == Kind.BLUESTEIN) {
+            scratchLen = 2*this.m;
+        }
+        else {
+            scratchLen = 0;
+        }
+        final int tmpLen = 2*this.maxRadix;
+        this.scratch = ThreadLocal.withInitial(() -> new double[][] {new double[scratchLen], new double[tmpLen]});
+    }
+
+    /**
+     * Returns the (cached) plan for transforms of the given length, direction and normalization.
+     * @param n Number of complex points of the transform
+     * @param inverse Set to True for the inverse transform
+     * @param norm The normalization convention (as used by the Apache Math3 FastFourierTransformer). With STANDARD the
+     *             forward transform is not scaled and the inverse is scaled by 1/N; with UNITARY both are scaled by 1/sqrt(N).
+     * @throws java.lang.IllegalArgumentException if n is negative
+     * @return FFTPlan The plan
+     */
+    public static FFTPlan of(int n, boolean inverse, DftNormalization norm) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Transform length must not be negative");
+        }
+        long key = ((long) n << 2) | (inverse ? 1 : 0) | (norm == DftNormalization.UNITARY ? 2 : 0);
+        FFTPlan plan = CACHE.get(key);
+        if (plan == null) {
+            if (CACHE.size() >= CACHE_LIMIT) {
+                CACHE.clear();
+            }
+            plan = new FFTPlan(n, inverse, norm);
+            FFTPlan existing = CACHE.putIfAbsent(key, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the number of complex points of the transform
+     * @return int Transform length
+     */
+    public int getLength() {
+        return this.n;
+    }
+
+    /**
+     * Returns the direction of the transform
+     * @return boolean True if this is an inverse transform
+     */
+    public boolean isInverse() {
+        return this.inverse;
+    }
+
+    /**
+     * Returns the normalization convention of the transform
+     * @return DftNormalization The normalization
+     */
+    public DftNormalization getNormalization() {
+        return this.norm;
+    }
+
+    /**
+     * Performs the complex transform in-place on the first N points of the interleaved buffer and applies the scaling
+     * of the normalization convention.
+     * @param data Interleaved complex buffer of length at least 2N
+     * @throws java.lang.IllegalArgumentException if the buffer is too short
+     */
+    public void execute(double[] data) {
+        this.executeRaw(data);
+        if (this.scale != 1.0) {
+            for (int i=0; i<2*this.n; i++) {
+                data[i] *= this.scale;
+            }
+        }
+    }
+
+    /**
+     * Performs the real-data variant of the transform. For a forward plan, the input is a real signal of length N and the
+     * output receives the non-negative half of the spectrum (N/2+1 interleaved bins). For an inverse plan, the input is
+     * the non-negative half of a Hermitian spectrum (N/2+1 interleaved bins) and the output receives the real signal of
+     * length N; the imaginary parts of the DC and Nyquist bins are ignored. The scaling of the normalization convention
+     * is applied.
+     * @param in Real signal (forward) or interleaved half spectrum (inverse)
+     * @param out Interleaved half spectrum (forward) or real signal (inverse)
+     * @throws java.lang.IllegalArgumentException if a buffer is too short
+     */
+    public void executeReal(double[] in, double[] out) {
+        this.executeRealRaw(in, out);
+        if (this.scale != 1.0) {
+            int len = this.inverse ? this.n : 2*(this.n/2+1);
+            for (int i=0; i<len; i++) {
+                out[i] *= this.scale;
+            }
+        }
+    }
+
+    /**
+     * Performs the real-data forward transform and writes the non-negative half of the spectrum (N/2+1 bins) into
+     * separate real and imaginary buffers. The scaling of the normalization convention is applied. No memory is allocated
+     * once the calling thread has used the plan.
+     * @param in Real signal of length N
+     * @param outRe Real parts of the spectrum; length at least N/2+1
+     * @param outIm Imaginary parts of the spectrum; length at least N/2+1
+     * @throws java.lang.IllegalArgumentException if this is an inverse plan or a buffer is too short
+     */
+    public void executeReal(double[] in, double[] outRe, double[] outIm) {
+        this.executeReal(in, 0, outRe, 0, outIm, 0);
+    }
+
+    /**
+     * Performs the real-data forward transform of the N values starting at inOff and writes the non-negative half of
+     * the spectrum (N/2+1 bins) into separate real and imaginary buffers starting at the given offsets. The scaling of
+     * the normalization convention is applied. No memory is allocated once the calling thread has used the plan.
+     * @param in Buffer holding the real signal
+     * @param inOff Index of the first sample of the signal
+     * @param outRe Buffer receiving the real parts of the spectrum
+     * @param reOff Index at which the first real part is written
+     * @param outIm Buffer receiving the imaginary parts of the spectrum
+     * @param imOff Index at which the first imaginary part is written
+     * @throws java.lang.IllegalArgumentException if this is an inverse plan or a buffer is too short
+     */
+    public void executeReal(double[] in, int inOff, double[] outRe, int reOff, double[] outIm, int imOff) {
+        int bins = this.n/2 + 1;
+        if (this.inverse) {
+            throw new IllegalArgumentException("Split output is only available for forward plans");
+        }
+        if (inOff < 0 || reOff < 0 || imOff < 0 || in.length - inOff < this.n || outRe.length - reOff < bins
+                || outIm.length - imOff < bins) {
+            throw new IllegalArgumentException("Signal must hold N values and outputs N/2+1 values");
+        }
+        this.realPart().forward(in, inOff, outRe, reOff, 1, outIm, imOff, 1);
+        if (this.scale != 1.0) {
+            for (int i=0; i<bins; i++) {
+                outRe[reOff+i] *= this.scale;
+                outIm[imOff+i] *= this.scale;
+            }
+        }
+    }
+
+    void executeRaw(double[] data) {
+        if (data.length < 2*this.n) {
+            throw new IllegalArgumentException("Buffer must hold at least " + this.n + " complex values");
+        }
+        if (this.n <= 1) {
+            return;
+        }
+        switch (this.kind) {
+            case POW2:
+                this.radix2(data);
+                break;
+            case MIXED:
+                this.mixedRadix(data);
+                break;
+            default:
+                this.bluestein(data);
+                break;
+        }
+    }
+
+    void executeRealRaw(double[] in, double[] out) {
+        int bins = this.n/2 + 1;
+        if (this.inverse) {
+            if (in.length < 2*bins || out.length < this.n) {
+                throw new IllegalArgumentException("Spectrum must hold N/2+1 complex values and output N values");
+            }
+        }
+        else if (in.length < this.n || out.length < 2*bins) {
+            throw new IllegalArgumentException("Signal must hold N values and output N/2+1 complex values");
+        }
+        this.realPart().execute(in, out);
+    }
+
+    private RealPart realPart() {
+        RealPart r = this.real;
+        if (r == null) {
+            synchronized (this) {
+                r = this.real;
+                if (r == null) {
+                    r = new RealPart();
+                    this.real = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    private static double[][] twiddles(int n, int len, boolean inverse) {
+        double[] cos = new double[len];
+        double[] sin = new double[len];
+        for (int k=0; k<len; k++) {
+            double angle = -2*Math.PI*k/n;
+            cos[k] = StrictMath.cos(angle);
+            sin[k] = inverse ? -StrictMath.sin(angle) : StrictMath.sin(angle);
+        }
+        return new double[][] {cos, sin};
+    }
+
+    // Returns the radix sequence for n, or null if n has a prime factor larger than 7
+    private static int[] factorize(int n) {
+        int[] factors = new int[32];
+        int count = 0;
+        for (int r : RADICES) {
+            while (n%r == 0) {
+                factors[count++] = r;
+                n /= r;
+            }
+        }
+        if (n != 1) {
+            return null;
+        }
+        return Arrays.copyOf(factors, count);
+    }
+
+    private static int[] bitReversalSwaps(int n) {
+        int[] pairs = new int[n];
+        int count = 0;
+        int j = 0;
+        for (int i=0; i<n-1; i++) {
+            if (i < j) {
+                pairs[count++] = i;
+                pairs[count++] = j;
+            }
+            int bit = n >> 1;
+            while (bit >= 1 && (j & bit) != 0) {
+                j ^= bit;
+                bit >>= 1;
+            }
+            j |= bit;
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+
+    private void radix2(double[] data) {
+        for (int s=0; s<this.swaps.length; s+=2) {
+            int a = 2*this.swaps[s];
+            int b = 2*this.swaps[s+1];
+            double tr = data[a];
+            double ti = data[a+1];
+            data[a] = data[b];
+            data[a+1] = data[b+1];
+            data[b] = tr;
+            data[b+1] = ti;
+        }
+
+        int h = 1;
+        if (Integer.numberOfTrailingZeros(this.n)%2 != 0) {
+            radix2Pass(data, this.n);
+            h = 2;
+        }
+        for (; h < this.n; h *= 4) {
+            radix4Pass(data, this.n, h, this.cos, this.sin, this.inverse);
+        }
+    }
+
+    // Butterflies of span 1; all twiddles are 1
+    private static void radix2Pass(double[] data, int n) {
+        for (int i=0; i<2*n; i+=4) {
+            double ar = data[i];
+            double ai = data[i+1];
+            double br = data[i+2];
+            double bi = data[i+3];
+            data[i] = ar + br;
+            data[i+1] = ai + bi;
+            data[i+2] = ar - br;
+            data[i+3] = ai - bi;
+        }
+    }
+
+    // Two fused radix-2 stages of span h and 2h over blocks of 4h points
+    private static void radix4Pass(double[] data, int n, int h, double[] cos, double[] sin, boolean inverse) {
+        int stride2 = n/(2*h);
+        int stride4 = n/(4*h);
+        for (int base=0; base<n; base+=4*h) {
+            for (int j=0; j<h; j++) {
+                double wr = cos[j*stride2];
+                double wi = sin[j*stride2];
+                double vr = cos[j*stride4];
+                double vi = sin[j*stride4];
+
+                int ia = 2*(base+j);
+                int ib = ia + 2*h;
+                int ic = ib + 2*h;
+                int id = ic + 2*h;
+
+                double ar = data[ia], ai = data[ia+1];
+                double br = data[ib], bi = data[ib+1];
+                double cr = data[ic], ci = data[ic+1];
+                double dr = data[id], di = data[id+1];
+
+                // First stage: (a, b) and (c, d) with twiddle W
+                double tr = br*wr - bi*wi;
+                double ti = br*wi + bi*wr;
+                double a1r = ar + tr, a1i = ai + ti;
+                double b1r = ar - tr, b1i = ai - ti;
+                tr = dr*wr - di*wi;
+                ti = dr*wi + di*wr;
+                double c1r = cr + tr, c1i = ci + ti;
+                double d1r = cr - tr, d1i = ci - ti;
+
+                // Second stage: (a1, c1) with twiddle V and (b1, d1) with twiddle V*(-i) [V*(+i) for inverse]
+                double vcr = c1r*vr - c1i*vi;
+                double vci = c1r*vi + c1i*vr;
+                double vdr = d1r*vr - d1i*vi;
+                double vdi = d1r*vi + d1i*vr;
+                double qr, qi;
+                if (inverse) {
+                    qr = -vdi;
+                    qi = vdr;
+                }
+                else {
+                    qr = vdi;
+                    qi = -vdr;
+                }
+
+                data[ia] = a1r + vcr;
+                data[ia+1] = a1i + vci;
+                data[ic] = a1r - vcr;
+                data[ic+1] = a1i - vci;
+                data[ib] = b1r + qr;
+                data[ib+1] = b1i + qi;
+                data[id] = b1r - qr;
+                data[id+1] = b1i - qi;
+            }
+        }
+    }
+
+    private void mixedRadix(double[] data) {
+        double[][] buffers = this.scratch.get();
+        double[] in = buffers[0];
+        System.arraycopy(data, 0, in, 0, 2*this.n);
+        this.mixedRadixStage(in, 0, 1, data, 0, this.n, 0, 1, buffers[1]);
+    }
+
+    // Recursive decimation-in-time step: splits the n points read from 'in' (with the given stride) into 'p' interleaved
+    // sub-sequences, transforms each of them into consecutive blocks of 'out' and combines the blocks with radix-p butterflies.
+    private void mixedRadixStage(double[] in, int inOff, int inStride, double[] out, int outOff, int len, int fi,
+                                 int twStride, double[] tmp) {
+        int p = this.factors[fi];
+        int sub = len/p;
+        if (sub == 1) {
+            for (int q=0; q<p; q++) {
+                out[2*(outOff+q)] = in[2*(inOff+q*inStride)];
+                out[2*(outOff+q)+1] = in[2*(inOff+q*inStride)+1];
+            }
+        }
+        else {
+            for (int q=0; q<p; q++) {
+                this.mixedRadixStage(in, inOff+q*inStride, inStride*p, out, outOff+q*sub, sub, fi+1, twStride*p, tmp);
+            }
+        }
+
+        int rootStride = this.n/p;
+        for (int k=0; k<sub; k++) {
+            // Apply the twiddles w_len^(q*k) to the k-th element of every block
+            for (int q=0; q<p; q++) {
+                int idx = 2*(outOff+q*sub+k);
+                int t = q*k*twStride;
+                double xr = out[idx];
+                double xi = out[idx+1];
+                tmp[2*q] = xr*this.cos[t] - xi*this.sin[t];
+                tmp[2*q+1] = xr*this.sin[t] + xi*this.cos[t];
+            }
+            if (p == 2) {
+                int i0 = 2*(outOff+k);
+                int i1 = 2*(outOff+sub+k);
+                out[i0] = tmp[0] + tmp[2];
+                out[i0+1] = tmp[1] + tmp[3];
+                out[i1] = tmp[0] - tmp[2];
+                out[i1+1] = tmp[1] - tmp[3];
+                continue;
+            }
+            // Radix-p DFT of the twiddled elements
+            for (int r=0; r<p; r++) {
+                double sr = 0;
+                double si = 0;
+                for (int q=0; q<p; q++) {
+                    int t = ((q*r)%p)*rootStride;
+                    sr += tmp[2*q]*this.cos[t] - tmp[2*q+1]*this.sin[t];
+                    si += tmp[2*q]*this.sin[t] + tmp[2*q+1]*this.cos[t];
+                }
+                out[2*(outOff+r*sub+k)] = sr;
+                out[2*(outOff+r*sub+k)+1] = si;
+            }
+        }
+    }
+
+    // Bluestein's algorithm: X_k = c_k * sum_j (x_j * c_j) * conj(c_(k-j)) with the chirp c_k = exp(-i*pi*k^2/n)
+    private void bluestein(double[] data) {
+        double[] a = this.scratch.get()[0];
+        for (int k=0; k<this.n; k++) {
+            double xr = data[2*k];
+            double xi = data[2*k+1];
+            a[2*k] = xr*this.chirpCos[k] - xi*this.chirpSin[k];
+            a[2*k+1] = xr*this.chirpSin[k] + xi*this.chirpCos[k];
+        }
+        Arrays.fill(a, 2*this.n, 2*this.m, 0.0);
+
+        this.subForward.executeRaw(a);
+        for (int i=0; i<this.m; i++) {
+            double ar = a[2*i];
+            double ai = a[2*i+1];
+            double br = this.kernel[2*i];
+            double bi = this.kernel[2*i+1];
+            a[2*i] = ar*br - ai*bi;
+            a[2*i+1] = ar*bi + ai*br;
+        }
+        this.subInverse.executeRaw(a);
+
+        for (int k=0; k<this.n; k++) {
+            double cr = a[2*k]/this.m;
+            double ci = a[2*k+1]/this.m;
+            data[2*k] = cr*this.chirpCos[k] - ci*this.chirpSin[k];
+            data[2*k+1] = cr*this.chirpSin[k] + ci*this.chirpCos[k];
+        }
+    }
+
+    // Real-data transform which packs even and odd samples into one complex transform of half the length. Odd and very
+    // short lengths use the full complex transform instead.
+    private final class RealPart {
+        private final boolean packed;
+        private final FFTPlan half;
+        private final double[] realCos;
+        private final double[] realSin;
+        private final ThreadLocal<double[]> buffer;
+
+        private RealPart() {
+            int len = FFTPlan.this.n;
+            this.packed = len%2 == 0 && len >= 4;
+            if (this.packed) {
+                int h = len/2;
+                this.half = FFTPlan.of(h, FFTPlan.this.inverse, DftNormalization.STANDARD);
+                this.realCos = new double[h+1];
+                this.realSin = new double[h+1];
+                for (int k=0; k<=h; k++) {
+                    double angle = -2*Math.PI*k/len;
+                    this.realCos[k] = StrictMath.cos(angle);
+                    this.realSin[k] = StrictMath.sin(angle);
+                }
+                this.buffer = ThreadLocal.withInitial(() -> new double[len]);
+            }
+            else {
+                this.half = null;
+                this.realCos = null;
+                this.realSin = null;
+                this.buffer = ThreadLocal.withInitial(() -> new double[2*len]);
+            }
+        }
+
+        private void execute(double[] in, double[] out) {
+            if (!FFTPlan.this.inverse) {
+                this.forward(in, 0, out, 0, 2, out, 1, 2);
+                return;
+            }
+            int len = FFTPlan.this.n;
+            if (len == 0) {
+                return;
+            }
+            double[] z = this.buffer.get();
+            if (!this.packed) {
+                this.inverseUnpacked(in, out, z);
+                return;
+            }
+            int h = len/2;
+            for (int k=0; k<h; k++) {
+                int a = 2*k;
+                int b = 2*(h-k);
+                double er = (in[a] + in[b])/2;
+                double ei = (in[a+1] - in[b+1])/2;
+                double dr = (in[a] - in[b])/2;
+                double di = (in[a+1] + in[b+1])/2;
+                // Multiply with conj(w^k)
+                double wr = this.realCos[k];
+                double wi = -this.realSin[k];
+                double or = dr*wr - di*wi;
+                double oi = dr*wi + di*wr;
+                z[a] = er - oi;
+                z[a+1] = ei + or;
+            }
+            // The imaginary parts of DC and Nyquist are not part of a Hermitian spectrum
+            z[0] = (in[0] + in[2*h])/2;
+            z[1] = (in[0] - in[2*h])/2;
+            this.half.executeRaw(z);
+            for (int i=0; i<len; i++) {
+                out[i] = 2*z[i];
+            }
+        }
+
+        // Writes bin k to re[reOff + k*reStep] and im[imOff + k*imStep]
+        private void forward(double[] in, int inOff, double[] re, int reOff, int reStep, double[] im, int imOff, int imStep) {
+            int len = FFTPlan.this.n;
+            if (len == 0) {
+                // The spectrum of an empty signal is the single bin 0
+                re[reOff] = 0;
+                im[imOff] = 0;
+                return;
+            }
+            double[] z = this.buffer.get();
+            if (!this.packed) {
+                for (int i=0; i<len; i++) {
+                    z[2*i] = in[inOff+i];
+                    z[2*i+1] = 0;
+                }
+                FFTPlan.this.executeRaw(z);
+                for (int k=0; k<=len/2; k++) {
+                    re[reOff + k*reStep] = z[2*k];
+                    im[imOff + k*imStep] = z[2*k+1];
+                }
+                return;
+            }
+            int h = len/2;
+            // Even samples go to the real part and odd samples to the imaginary part: the layout of the signal itself
+            System.arraycopy(in, inOff, z, 0, len);
+            this.half.executeRaw(z);
+            for (int k=0; k<=h; k++) {
+                int a = 2*(k%h);
+                int b = 2*((h-k)%h);
+                double er = (z[a] + z[b])/2;
+                double ei = (z[a+1] - z[b+1])/2;
+                double or = (z[a+1] + z[b+1])/2;
+                double oi = -(z[a] - z[b])/2;
+                double wr = this.realCos[k];
+                double wi = this.realSin[k];
+                re[reOff + k*reStep] = er + or*wr - oi*wi;
+                im[imOff + k*imStep] = ei + or*wi + oi*wr;
+            }
+        }
+
+        private void inverseUnpacked(double[] in, double[] out, double[] data) {
+            int len = FFTPlan.this.n;
+            int bins = len/2 + 1;
+            Arrays.fill(data, 0.0);
+            data[0] = in[0];
+            for (int k=1; k<bins; k++) {
+                data[2*k] = in[2*k];
+                data[2*k+1] = in[2*k+1];
+                data[2*(len-k)] = in[2*k];
+                data[2*(len-k)+1] = -in[2*k+1];
+            }
+            if (len%2 == 0 && len > 0) {
+                data[len+1] = 0;
+            }
+            FFTPlan.this.executeRaw(data);
+            for (int i=0; i<len; i++) {
+                out[i] = data[2*i];
+            }
+        }
+    }
+}
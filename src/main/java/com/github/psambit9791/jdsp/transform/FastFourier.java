@@ -13,8 +13,6 @@ package com.github.psambit9791.jdsp.transform;
 import com.github.psambit9791.jdsp.misc.UtilMethods;
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.transform.DftNormalization;
-import org.apache.commons.math3.transform.FastFourierTransformer;
-import org.apache.commons.math3.transform.TransformType;
 
 import java.util.Arrays;
 
@@ -22,35 +20,28 @@ import java.util.Arrays;
  * <h2>Fast Fourier Transform</h2>
  * The FastFourier class performs discrete fourier transform on the input signal using the FFT algorithm and
  * provides different representations of the output to be returned and if the output should be mirrored or not-mirrored.
- * This can be considered a wrapper on top of the Apache Math3 FastFourierTransformer [FORWARD] which pre-processes the signal before
- * the operation.
+ * The transform is computed by the native FFTEngine on primitive buffers at the exact length of the signal (no padding to
+ * a power of 2 is done). As the input is real, a real-input FFT is used and only the non-negative half of the spectrum is
+ * stored; the mirrored half is derived from it by conjugate symmetry and Complex representations of the output are only
+ * built when requested. The overloads taking output buffers write into arrays owned by the caller and do not allocate
+ * memory once warmed up.
  * Reference <a href="https://mathworld.wolfram.com/FastFourierTransform.html">article</a> for more information on fast fourier transform.
  *  
  *
  * @author  Sambit Paul
- * @version 1.2
+ * @version 1.6
  */
 public class FastFourier implements _Fourier {
 
     private double[] signal;
-    private Complex[] output;
-    private FastFourierTransformer ft;
+    private double[] output = null;
+    private Complex[] complexOutput = null;
+    private DftNormalization norm;
+    private FFTPlan plan = null;
 
     /**
-     * This extends the signal such that length is in the nearest power of 2
-     */
-    private void extendSignal() {
-        double power = Math.log(this.signal.length)/Math.log(2);
-        double raised_power = Math.ceil(power);
-        int new_length = (int)(Math.pow(2, raised_power));
-        if (new_length != this.signal.length) {
-            this.signal = UtilMethods.zeroPadSignal(this.signal, new_length-this.signal.length);
-        }
-    }
-
-    /**
-     * Returns the length of the modified signal (padded length)
-     * @return int The modified length of the input signal
+     * Returns the length of the signal. As no padding is applied, this is the same as the input length.
+     * @return int The length of the input signal
      */
     public int getSignalLength() {
         return this.signal.length;
@@ -90,21 +81,88 @@ public class FastFourier implements _Fourier {
      */
     public FastFourier(double[] signal) {
         this.signal = signal;
-        this.extendSignal();
-        this.ft = new FastFourierTransformer(DftNormalization.STANDARD);
+        this.norm = DftNormalization.STANDARD;
     }
 
+    /**
+     * This constructor initialises the prerequisites required to use FastFourier.
+     * @param signal Signal to be transformed
+     * @param norm The normalization option to be used the Fast Fourier transform.
+     */
     public FastFourier(double[] signal, DftNormalization norm) {
         this.signal = signal;
-        this.extendSignal();
-        this.ft = new FastFourierTransformer(norm);
+        this.norm = norm;
+    }
+
+    // Wraps an already computed non-mirrored interleaved spectrum of the signal
+    FastFourier(double[] signal, double[] output) {
+        this.signal = signal;
+        this.norm = DftNormalization.STANDARD;
+        this.output = output;
     }
 
     /**
      * Performs the fourier transformation on the input signal.
      */
     public void transform() {
-        this.output = this.ft.transform(this.signal, TransformType.FORWARD);
+        int n = this.signal.length;
+        double[] data = new double[2*(n/2+1)];
+        this.plan(n).executeReal(this.signal, data);
+        this.output = data;
+        this.complexOutput = null;
+    }
+
+    /**
+     * Performs the fourier transformation on the given signal and writes the output into the caller owned buffers. If the
+     * buffers can hold N values the mirrored output is written, otherwise only the non-mirrored N/2+1 bins. The signal and
+     * output of this object are not changed. No memory is allocated once warmed up with signals of the same length.
+     * @param in Signal to be transformed
+     * @param outRe Real part of the output; length at least N/2+1
+     * @param outIm Imaginary part of the output; same length as outRe
+     * @throws java.lang.IllegalArgumentException if the output buffers are too short
+     */
+    public void transform(double[] in, double[] outRe, double[] outIm) {
+        int n = in.length;
+        this.plan(n).executeReal(in, outRe, outIm);
+        if (outRe.length >= n && outIm.length >= n) {
+            for (int i=n/2+1; i<n; i++) {
+                outRe[i] = outRe[n-i];
+                outIm[i] = -outIm[n-i];
+            }
+        }
+    }
+
+    // The plan is kept so that repeated calls with the same length skip the cache lookup
+    private FFTPlan plan(int n) {
+        FFTPlan p = this.plan;
+        if (p == null || p.getLength() != n) {
+            p = FFTPlan.of(n, false, this.norm);
+            this.plan = p;
+        }
+        return p;
+    }
+
+    private void checkOutput() {
+        if (this.output == null) {
+            throw new ExceptionInInitializerError("Execute transform() function before returning result");
+        }
+    }
+
+    private int numBins(boolean onlyPositive) {
+        int n = this.signal.length;
+        return onlyPositive ? n/2+1 : n;
+    }
+
+    // Real part of bin i of the full spectrum
+    private double re(int i) {
+        int half = this.signal.length/2;
+        return i <= half ? this.output[2*i] : this.output[2*(this.signal.length-i)];
+    }
+
+    // Imaginary part of bin i of the full spectrum; bins above N/2 are conjugates of the mirrored bins
+    private double im(int i) {
+        int half = this.signal.length/2;
+        return i <= half ? this.output[2*i+1] : -this.output[2*(this.signal.length-i)+1];
     }
 
     /**
@@ -114,8 +172,30 @@ public class FastFourier implements _Fourier {
      * @return double[] The magnitude of the FFT output
      */
     public double[] getMagnitude(boolean onlyPositive) throws ExceptionInInitializerError{
-        Complex[] dftout = getComplex(onlyPositive);
-        return Arrays.stream(dftout).mapToDouble(Complex::abs).toArray();
+        this.checkOutput();
+        double[] mag = new double[this.numBins(onlyPositive)];
+        for (int i=0; i<mag.length; i++) {
+            double re = this.re(i);
+            double im = this.im(i);
+            mag[i] = Math.sqrt(re*re + im*im);
+        }
+        return mag;
+    }
+
+    /**
+     * Writes the magnitude of the discrete fourier transformed sequence into the caller owned buffer
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param dst Output buffer; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     */
+    public void getMagnitude(boolean onlyPositive, double[] dst) throws ExceptionInInitializerError {
+        this.checkOutput();
+        int bins = this.numBins(onlyPositive);
+        for (int i=0; i<bins; i++) {
+            double re = this.re(i);
+            double im = this.im(i);
+            dst[i] = Math.sqrt(re*re + im*im);
+        }
     }
 
     /**
@@ -125,8 +205,26 @@ public class FastFourier implements _Fourier {
      * @return double[] The phase of the FFT output (in radians)
      */
     public double[] getPhaseRad(boolean onlyPositive) throws ExceptionInInitializerError{
-        Complex[] dftout = getComplex(onlyPositive);
-        return Arrays.stream(dftout).mapToDouble(Complex::getArgument).toArray();
+        this.checkOutput();
+        double[] phase = new double[this.numBins(onlyPositive)];
+        for (int i=0; i<phase.length; i++) {
+            phase[i] = Math.atan2(this.im(i), this.re(i));
+        }
+        return phase;
+    }
+
+    /**
+     * Writes the phase of the discrete fourier transformed sequence in radians into the caller owned buffer
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param dst Output buffer; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     */
+    public void getPhaseRad(boolean onlyPositive, double[] dst) throws ExceptionInInitializerError {
+        this.checkOutput();
+        int bins = this.numBins(onlyPositive);
+        for (int i=0; i<bins; i++) {
+            dst[i] = Math.atan2(this.im(i), this.re(i));
+        }
     }
 
     /**
@@ -185,8 +283,29 @@ public class FastFourier implements _Fourier {
      * @return double[][] The complex FFT output; first array column = real part; second array column = imaginary part
      */
     public double[][] getComplex2D(boolean onlyPositive) throws ExceptionInInitializerError {
-        Complex[] dftout = getComplex(onlyPositive);
-        return UtilMethods.complexTo2D(dftout);
+        this.checkOutput();
+        double[][] out = new double[this.numBins(onlyPositive)][2];
+        for (int i=0; i<out.length; i++) {
+            out[i][0] = this.re(i);
+            out[i][1] = this.im(i);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the complex value of the fast fourier transformed sequence into the caller owned buffers
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param re Real part of the output; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @param im Imaginary part of the output; length at least N/2+1 (non-mirrored) or N (mirrored)
+     * @throws java.lang.ExceptionInInitializerError if called before executing transform() method
+     */
+    public void getComplex(boolean onlyPositive, double[] re, double[] im) throws ExceptionInInitializerError {
+        this.checkOutput();
+        int bins = this.numBins(onlyPositive);
+        for (int i=0; i<bins; i++) {
+            re[i] = this.re(i);
+            im[i] = this.im(i);
+        }
     }
 
     /**
@@ -196,19 +315,15 @@ public class FastFourier implements _Fourier {
      * @return Complex[] The complex FFT output
      */
     public Complex[] getComplex(boolean onlyPositive) throws ExceptionInInitializerError {
-        if (this.output == null) {
-            throw new ExceptionInInitializerError("Execute transform() function before returning result");
-        }
-        Complex[] dftout;
-
-        if (onlyPositive) {
-            int numBins = this.output.length/2+1;
-            dftout = new Complex[numBins];
-        }
-        else{
-            dftout = new Complex[this.output.length];
+        this.checkOutput();
+        if (this.complexOutput == null) {
+            this.complexOutput = new Complex[this.signal.length];
+            for (int i=0; i<this.complexOutput.length; i++) {
+                this.complexOutput[i] = new Complex(this.re(i), this.im(i));
+            }
         }
-        System.arraycopy(this.output, 0, dftout, 0, dftout.length);
+        Complex[] dftout = new Complex[this.numBins(onlyPositive)];
+        System.arraycopy(this.complexOutput, 0, dftout, 0, dftout.length);
         return dftout;
     }
 }
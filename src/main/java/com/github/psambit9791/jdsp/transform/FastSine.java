@@ -8,40 +8,24 @@
  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package com.github.psambit9791.jdsp.transform;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
-import org.apache.commons.math3.transform.*;
+package com.github.psambit9791.jdsp.transform;
 
 /**
  * <h2>Fast Sine Transform</h2>
  * The FastSine class decomposes a finite sequence of data points in terms of a sum of sine functions of different frequencies.
- * This class implements only Type 1 transform.
- * This can be considered a wrapper on top of the Apache Math3 FastSineTransformer [FORWARD] which pre-processes the signal before
- * the operation.
+ * Types 1 to 4 are supported for any signal length and computed in O(N log N) with the FFT; the output is the same as
+ * that of DiscreteSine (same normalization conventions), which computes the sums directly.
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.2
  */
-public class FastSine implements _SineCosine{
+public class FastSine implements _SineCosine {
 
     private double[] signal;
-    private double[] output;
-
-    private FastSineTransformer fst;
-
-    /**
-     * Extends the length of the signal to the nearest power of 2.
-     */
-    private void extendSignal() {
-        double power = Math.log(this.signal.length)/Math.log(2);
-        double raised_power = Math.ceil(power);
-        int new_length = (int)(Math.pow(2, raised_power));
-        if (new_length != this.signal.length) {
-            this.signal = UtilMethods.zeroPadSignal(this.signal, new_length-this.signal.length);
-        }
-    }
+    private double[] output = null;
+    private Normalization norm;
 
     /**
      * This constructor initialises the prerequisites required to use FastSine.
@@ -50,8 +34,7 @@ public class FastSine implements _SineCosine{
      */
     public FastSine(double[] signal) {
         this.signal = signal;
-        this.extendSignal();
-        this.fst = new FastSineTransformer(DstNormalization.STANDARD_DST_I);
+        this.norm = Normalization.STANDARD;
     }
 
     /**
@@ -62,34 +45,36 @@ public class FastSine implements _SineCosine{
      */
     public FastSine(double[] signal, Normalization norm) {
         this.signal = signal;
-        this.extendSignal();
-        if (norm == Normalization.ORTHOGONAL) {
-            this.fst = new FastSineTransformer(DstNormalization.ORTHOGONAL_DST_I);
-        }
-        else {
-            this.fst = new FastSineTransformer(DstNormalization.STANDARD_DST_I);
-        }
+        this.norm = norm;
     }
 
     /**
      * Performs the sine transformation on the input signal.
-     * @param type Only accepts the value 1.
-     * @throws java.lang.IllegalArgumentException If type is not 1
+     * @param type Type of transform to apply (1 to 4).
+     * @throws java.lang.IllegalArgumentException If type is not between 1 and 4
      */
     public void transform(int type) throws IllegalArgumentException {
-        if (type != 1) {
-            throw new IllegalArgumentException("FastSine only has type 1 implementation");
-        }
-        else {
-            this.output = this.fst.transform(this.signal, TransformType.FORWARD);
-        }
+        this.output = SineCosineEngine.dst(this.signal, type, this.norm == Normalization.ORTHOGONAL);
     }
 
     /**
-     * Performs the sine transformation on the input signal.
+     * Performs the sine transformation (type 1) on the input signal.
      */
     public void transform() {
-        this.output = this.fst.transform(this.signal, TransformType.FORWARD);
+        this.transform(1);
+    }
+
+    /**
+     * Performs the sine transformation of the given type on the given signal with the normalization of this object and
+     * writes the output into the caller owned buffer, which may be the input array. The signal given to the constructor
+     * and the output of transform() are not changed, and no memory is allocated once a signal length has been seen.
+     * @param in Signal to be transformed
+     * @param out Output buffer; length at least in.length
+     * @param type Type of transform to apply (1 to 4)
+     * @throws java.lang.IllegalArgumentException If type is not between 1 and 4 or the output buffer is too short
+     */
+    public void transform(double[] in, double[] out, int type) throws IllegalArgumentException {
+        SineCosineEngine.dst(in, out, type, this.norm == Normalization.ORTHOGONAL);
     }
 
     /**
@@ -106,9 +91,9 @@ public class FastSine implements _SineCosine{
     }
 
     /**
-     * Returns the length of the input signal after preprocessing for FastSine (padded to nearest power of 2).
+     * Returns the length of the input signal. As no padding is applied, this is the same as the input length.
      *
-     * @return int The updated length of the input signal.
+     * @return int The length of the input signal.
      */
     public int getSignalLength() {
         return this.signal.length;
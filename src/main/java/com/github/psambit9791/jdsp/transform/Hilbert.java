@@ -11,7 +11,7 @@
 package com.github.psambit9791.jdsp.transform;
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
-import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
 import org.apache.commons.math3.util.FastMath;
 
 import java.util.Arrays;
@@ -22,16 +22,18 @@ import java.util.Arrays;
  * The analytical signal can be used for finding the amplitude envelope, instantaneous phase and instantaneous frequency of the original signal.
  * Reference <a href="https://en.wikipedia.org/wiki/Hilbert_transform">article</a> for more information on Hilbert transform.
  * Reference <a href="https://tomroelandts.com/articles/what-is-an-analytic-signal">article</a> for more information on analytical signals.
+ * The analytical signal is computed with an FFT of the exact signal length in O(N log N), so the output always has the
+ * same length as the input. For signals which arrive in blocks, see StreamingHilbert.
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.1
  */
 public class Hilbert {
 
     private double[] signal;
     private double[] h;
-    private Complex[] output = null;
+    private double[] output = null;
 
     /**
      * This constructor initialises the prerequisites required to use Hilbert.
@@ -50,76 +52,55 @@ public class Hilbert {
             this.h[this.h.length/2] = 1;
         }
         else {
-            for (int i=0; i<(this.h.length+1)/2; i++) {
+            for (int i=1; i<(this.h.length+1)/2; i++) {
                 this.h[i] = 2;
             }
         }
     }
 
     /**
-     * This function performs the hilbert transform on the input signal. By default, if signal length is less than 200,
-     * DFT is used. For longer signals, FFT is used. This implies output length for signals of length less than 200 is
-     * same as the signal; and for signals longer than 200, it is the highest number which is a power of 2.
+     * This function performs the hilbert transform on the input signal using an FFT of the signal length. The output
+     * length is same as the signal length.
      */
     public void transform() {
-        _Fourier dft;
-        if (this.signal.length > 200) {
-            dft = new FastFourier(this.signal);
-        }
-        else {
-            dft = new DiscreteFourier(this.signal);
-        }
-        this.h = new double[dft.getSignalLength()];
-        Arrays.fill(this.h, 0);
-        this.fillH();
-        dft.transform();
-        double[][] dftOut = dft.getComplex2D(false);
-
-        double[][] modOut = new double[dftOut.length][dftOut[0].length];
-
-        for (int i=0; i<modOut.length; i++) {
-            modOut[i][0] = dftOut[i][0] * this.h[i];
-            modOut[i][1] = dftOut[i][1] * this.h[i];
-        }
-
-        _InverseFourier idft;
-        if (Math.log(modOut.length)%Math.log(2) == 0) {
-            idft = new InverseFastFourier(UtilMethods.matToComplex(modOut), false);
-        }
-        else {
-            idft = new InverseDiscreteFourier(modOut, false);
-        }
-        idft.transform();
-        this.output = idft.getComplex();
+        this.transform(false);
     }
 
     /**
      * This function performs the hilbert transform on the input signal. If forceDFT is false, it works the same as
-     * transform(). If forceDFT is set to True, DFT is used irrespective of the signal length.
-     * @param forceDFT If set to True, DFT is used instead of FFT and the output length is same as signal length.
+     * transform(). If forceDFT is set to True, the O(N^2) DFT is used instead; the output is the same up to rounding.
+     * @param forceDFT If set to True, DFT is used instead of FFT.
      */
     public void transform(boolean forceDFT) {
-        _Fourier dft;
-        if (forceDFT) {
-            dft = new DiscreteFourier(this.signal);
-            this.h = new double[dft.getSignalLength()];
-            Arrays.fill(this.h, 0);
-            this.fillH();
+        if (!forceDFT) {
+            this.transformFFT();
         }
         else {
-            if (this.signal.length > 200) {
-                dft = new FastFourier(this.signal);
-                this.h = new double[dft.getSignalLength()];
-                Arrays.fill(this.h, 0);
-                this.fillH();
-            }
-            else {
-                dft = new DiscreteFourier(this.signal);
-                this.h = new double[dft.getSignalLength()];
-                Arrays.fill(this.h, 0);
-                this.fillH();
-            }
+            this.transformDFT();
+        }
+    }
+
+    private void transformFFT() {
+        int n = this.signal.length;
+        this.h = new double[n];
+        this.fillH();
+
+        // Only the non-negative frequencies survive the multiplication with h, so the real-input FFT is sufficient
+        double[] data = new double[2*n];
+        FFTEngine.realForward(this.signal, data);
+        for (int i=0; i<=n/2; i++) {
+            data[2*i] *= this.h[i];
+            data[2*i+1] *= this.h[i];
         }
+        FFTPlan.of(n, true, DftNormalization.STANDARD).execute(data);
+        this.output = data;
+    }
+
+    private void transformDFT() {
+        _Fourier dft = new DiscreteFourier(this.signal);
+        this.h = new double[dft.getSignalLength()];
+        Arrays.fill(this.h, 0);
+        this.fillH();
         dft.transform();
         double[][] dftOut = dft.getComplex2D(false);
 
@@ -130,21 +111,9 @@ public class Hilbert {
             modOut[i][1] = dftOut[i][1] * this.h[i];
         }
 
-        _InverseFourier idft;
-        if (forceDFT) {
-            idft = new InverseDiscreteFourier(modOut, false);
-        }
-        else {
-            if (Math.log(modOut.length)%Math.log(2) == 0) {
-                idft = new InverseFastFourier(UtilMethods.matToComplex(modOut), false);
-            }
-            else {
-                idft = new InverseDiscreteFourier(modOut, false);
-            }
-        }
-
+        _InverseFourier idft = new InverseDiscreteFourier(modOut, false);
         idft.transform();
-        this.output = idft.getComplex();
+        this.output = FFTEngine.fromComplex2D(idft.getComplex2D());
     }
 
     /**
@@ -156,10 +125,10 @@ public class Hilbert {
         if (this.output == null) {
             throw new ExceptionInInitializerError("Execute hilbert_transform() function before returning result");
         }
-        double[][] out = new double[this.output.length][2];
+        double[][] out = new double[this.output.length/2][2];
         for (int i=0; i<out.length; i++) {
-            out[i][0] = this.output[i].getReal();
-            out[i][1] = this.output[i].getImaginary();
+            out[i][0] = this.output[2*i];
+            out[i][1] = this.output[2*i+1];
         }
         return out;
     }
@@ -173,9 +142,11 @@ public class Hilbert {
         if (this.output == null) {
             throw new ExceptionInInitializerError("Execute hilbert_transform() function before returning result");
         }
-        double[] sig = new double[this.output.length];
+        double[] sig = new double[this.output.length/2];
         for (int i=0; i<sig.length; i++) {
-            sig[i] = this.output[i].abs();
+            double re = this.output[2*i];
+            double im = this.output[2*i+1];
+            sig[i] = Math.sqrt(re*re + im*im);
         }
         return sig;
     }
@@ -189,9 +160,9 @@ public class Hilbert {
         if (this.output == null) {
             throw new ExceptionInInitializerError("Execute hilbert_transform() function before returning result");
         }
-        double[] sig = new double[this.output.length];
+        double[] sig = new double[this.output.length/2];
         for (int i=0; i<sig.length; i++) {
-            sig[i] = FastMath.atan2(this.output[i].getImaginary(), this.output[i].getReal());
+            sig[i] = FastMath.atan2(this.output[2*i+1], this.output[2*i]);
         }
         return UtilMethods.unwrap(sig);
     }
@@ -8,38 +8,26 @@
  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package com.github.psambit9791.jdsp.transform;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
-import org.apache.commons.math3.transform.DctNormalization;
-import org.apache.commons.math3.transform.FastCosineTransformer;
-import org.apache.commons.math3.transform.TransformType;
+package com.github.psambit9791.jdsp.transform;
 
 /**
  * <h2>Inverse Fast Cosine Transform</h2>
  * The InverseFastCosine class applies the inverse fast cosine transform on the input sequence and returns the output signal.
- * This should be used for signals transformed using FastCosine (Type 1).
- * This can be considered a wrapper on top of the Apache Math3 FastCosine [INVERSE] which pre-processes the signal before
- * the operation.
+ * This should be used for signals transformed using FastCosine with the specific transform type.
+ * Types 1 to 4 are supported for any signal length and computed in O(N log N) with the FFT. In STANDARD mode the
+ * output is scaled so that the original signal is reconstructed exactly; in ORTHOGONAL mode the transform is the
+ * transpose of the orthonormal forward transform.
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.1
  */
 public class InverseFastCosine implements _InverseSineCosine {
 
     private double[] signal;
-    private double[] output;
-    private FastCosineTransformer fct;
-
-    private void extendSignal() {
-        double power = Math.log(this.signal.length - 1)/Math.log(2);
-        double raised_power = Math.ceil(power);
-        int new_length = (int)(Math.pow(2, raised_power)) + 1;
-        if (new_length != this.signal.length) {
-            this.signal = UtilMethods.zeroPadSignal(this.signal, new_length-this.signal.length);
-        }
-    }
+    private double[] output = null;
+    private Normalization norm;
 
     /**
      * This constructor initialises the prerequisites required to use InverseFastCosine.
@@ -48,8 +36,7 @@ public class InverseFastCosine implements _InverseSineCosine {
      */
     public InverseFastCosine(double[] signal) {
         this.signal = signal;
-        this.extendSignal();
-        this.fct = new FastCosineTransformer(DctNormalization.STANDARD_DCT_I);
+        this.norm = Normalization.STANDARD;
     }
 
     /**
@@ -60,34 +47,23 @@ public class InverseFastCosine implements _InverseSineCosine {
      */
     public InverseFastCosine(double[] signal, Normalization norm) {
         this.signal = signal;
-        this.extendSignal();
-        if (norm == Normalization.ORTHOGONAL) {
-            this.fct = new FastCosineTransformer(DctNormalization.ORTHOGONAL_DCT_I);
-        }
-        else {
-            this.fct = new FastCosineTransformer(DctNormalization.STANDARD_DCT_I);
-        }
+        this.norm = norm;
     }
 
     /**
-     * Performs the cosine transformation on the input signal.
-     * @param type Only accepts the value 1.
-     * @throws java.lang.IllegalArgumentException If type is not 1
+     * Performs the inverse cosine transformation on the input signal.
+     * @param type Type of transform that was applied during the forward transform (1 to 4).
+     * @throws java.lang.IllegalArgumentException If type is not between 1 and 4, or for a type 1 transform of less than 2 samples
      */
     public void transform(int type) throws IllegalArgumentException {
-        if (type != 1) {
-            throw new IllegalArgumentException("InverseFastCosine only has type 1 implementation");
-        }
-        else {
-            this.output = this.fct.transform(this.signal, TransformType.INVERSE);
-        }
+        this.output = SineCosineEngine.idct(this.signal, type, this.norm == Normalization.ORTHOGONAL);
     }
 
     /**
-     * Performs the inverse cosine transformation on the input signal.
+     * Performs the inverse cosine transformation (type 1) on the input signal.
      */
     public void transform() {
-        this.output = this.fct.transform(this.signal, TransformType.INVERSE);
+        this.transform(1);
     }
 
     /**
@@ -104,9 +80,9 @@ public class InverseFastCosine implements _InverseSineCosine {
     }
 
     /**
-     * Returns the length of the input signal after preprocessing for InverseFastSine (padded to nearest power of 2).
+     * Returns the length of the input signal. As no padding is applied, this is the same as the input length.
      *
-     * @return int The updated length of the input signal.
+     * @return int The length of the input signal.
      */
     public int getSignalLength() {
         return this.signal.length;
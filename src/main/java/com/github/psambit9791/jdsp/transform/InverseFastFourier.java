@@ -10,46 +10,47 @@
 
 package com.github.psambit9791.jdsp.transform;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.transform.DftNormalization;
-import org.apache.commons.math3.transform.FastFourierTransformer;
-import org.apache.commons.math3.transform.TransformType;
 
 /**
  * <h2>Inverse Fast Fourier Transform</h2>
  * The InverseFastFourier class applies the inverse fast fourier transform on the input sequence (real/complex) and
  * provides different representations of the reconstructed signal to be returned (real signal, complex signal, ...).
  * This should be used for signals transformed using FastFourier.
- * This can be considered a wrapper on top of the Apache Math3 FastFourierTransformer [INVERSE] which pre-processes the signal before
- * the operation.
+ * The transform is computed by the native FFTEngine on primitive buffers for sequences of any length. When only the
+ * positive half of a spectrum is provided, it is treated as Hermitian and a real-output inverse FFT of half the size is
+ * used. Complex representations of the output are only built when requested.
  *  
  *
  * @author  Sambit Paul
- * @version 1.1
+ * @version 1.4
  */
 public class InverseFastFourier implements _InverseFourier {
 
-    private Complex[] sequence;
-    private Complex[] signal = null;
-    private FastFourierTransformer ft;
+    private double[] sequence;
+    private boolean onlyPositive;
+    private double[] signal = null;
+    private double[] realSignal = null;
+    private Complex[] complexSignal = null;
+    private DftNormalization norm;
 
     private void checkOutput() {
-        if (this.signal == null) {
+        if (this.signal == null && this.realSignal == null) {
             throw new ExceptionInInitializerError("Execute transform() function before returning result");
         }
     }
 
-    private Complex[] toFullSequence(Complex[] signal) {
-        int size = (signal.length-1)*2;
-        Complex[] out = new Complex[size];
-        System.arraycopy(signal, 0, out, 0, signal.length);
-        int index = signal.length;
-        for (int i=signal.length-2; i>0; i--) {
-            out[index] = signal[i].conjugate();
-            index++;
-        }
-        return out;
+    private int length() {
+        return this.realSignal != null ? this.realSignal.length : this.signal.length/2;
+    }
+
+    private double re(int i) {
+        return this.realSignal != null ? this.realSignal[i] : this.signal[2*i];
+    }
+
+    private double im(int i) {
+        return this.realSignal != null ? 0.0 : this.signal[2*i+1];
     }
 
     /**
@@ -60,14 +61,9 @@ public class InverseFastFourier implements _InverseFourier {
      *                     are complex conjugates of the first half.
      */
     public InverseFastFourier(double[][] fftOutput, boolean onlyPositive) {
-        Complex[] temp = UtilMethods.matToComplex(fftOutput);
-        if (onlyPositive) {
-            this.sequence = this.toFullSequence(temp);
-        }
-        else {
-            this.sequence = temp;
-        }
-        this.ft = new FastFourierTransformer(DftNormalization.STANDARD);
+        this.sequence = FFTEngine.fromComplex2D(fftOutput);
+        this.onlyPositive = onlyPositive;
+        this.norm = DftNormalization.STANDARD;
     }
 
     /**
@@ -77,13 +73,7 @@ public class InverseFastFourier implements _InverseFourier {
      *                     are complex conjugates of the first half.
      */
     public InverseFastFourier(Complex[] fftOutput, boolean onlyPositive) {
-        if (onlyPositive) {
-            this.sequence = this.toFullSequence(fftOutput);
-        }
-        else {
-            this.sequence = fftOutput;
-        }
-        this.ft = new FastFourierTransformer(DftNormalization.STANDARD);
+        this(fftOutput, onlyPositive, DftNormalization.STANDARD);
     }
 
     /**
@@ -94,20 +84,31 @@ public class InverseFastFourier implements _InverseFourier {
      * @param norm The normalization option to be used the Inverse Fast Fourier transform.
      */
     public InverseFastFourier(Complex[] fftOutput, boolean onlyPositive, DftNormalization norm) {
-        if (onlyPositive) {
-            this.sequence = this.toFullSequence(fftOutput);
-        }
-        else {
-            this.sequence = fftOutput;
-        }
-        this.ft = new FastFourierTransformer(norm);
+        this.sequence = FFTEngine.fromComplex(fftOutput);
+        this.onlyPositive = onlyPositive;
+        this.norm = norm;
     }
 
     /**
      * Performs the inverse fourier transformation on the input signal.
      */
     public void transform() {
-        this.signal = this.ft.transform(this.sequence, TransformType.INVERSE);
+        this.complexSignal = null;
+        if (this.onlyPositive) {
+            // The half spectrum of length N/2+1 describes a real signal of even length N
+            int n = 2*(this.sequence.length/2 - 1);
+            double[] out = new double[n];
+            FFTEngine.realInverse(this.sequence, out);
+            FFTEngine.scale(out, this.norm == DftNormalization.UNITARY ? 1.0/Math.sqrt(n) : 1.0/n);
+            this.realSignal = out;
+            this.signal = null;
+        }
+        else {
+            double[] data = this.sequence.clone();
+            FFTEngine.transform(data, true, this.norm);
+            this.signal = data;
+            this.realSignal = null;
+        }
     }
 
     /**
@@ -117,7 +118,13 @@ public class InverseFastFourier implements _InverseFourier {
      */
     public Complex[] getComplex() throws ExceptionInInitializerError {
         this.checkOutput();
-        return this.signal;
+        if (this.complexSignal == null) {
+            this.complexSignal = new Complex[this.length()];
+            for (int i=0; i<this.complexSignal.length; i++) {
+                this.complexSignal[i] = new Complex(this.re(i), this.im(i));
+            }
+        }
+        return this.complexSignal;
     }
 
     /**
@@ -127,10 +134,10 @@ public class InverseFastFourier implements _InverseFourier {
      */
     public double[][] getComplex2D() throws ExceptionInInitializerError {
         checkOutput();
-        double[][] ret = new double[this.signal.length][2];
+        double[][] ret = new double[this.length()][2];
         for (int i=0; i<ret.length; i++) {
-            ret[i][0] = this.signal[i].getReal();
-            ret[i][1] = this.signal[i].getImaginary();
+            ret[i][0] = this.re(i);
+            ret[i][1] = this.im(i);
         }
         return ret;
     }
@@ -142,9 +149,9 @@ public class InverseFastFourier implements _InverseFourier {
      */
     public double[] getReal() throws ExceptionInInitializerError {
         this.checkOutput();
-        double[] real = new double[this.signal.length];
+        double[] real = new double[this.length()];
         for (int i=0; i<real.length; i++) {
-            real[i] = this.signal[i].getReal();
+            real[i] = this.re(i);
         }
         return real;
     }
@@ -156,9 +163,9 @@ public class InverseFastFourier implements _InverseFourier {
      */
     public double[] getImaginary() throws ExceptionInInitializerError {
         this.checkOutput();
-        double[] imag = new double[this.signal.length];
+        double[] imag = new double[this.length()];
         for (int i=0; i<imag.length; i++) {
-            imag[i] = this.signal[i].getImaginary();
+            imag[i] = this.im(i);
         }
         return imag;
     }
@@ -170,9 +177,11 @@ public class InverseFastFourier implements _InverseFourier {
      */
     public double[] getMagnitude() throws ExceptionInInitializerError {
         checkOutput();
-        double[] ret = new double[this.signal.length];
+        double[] ret = new double[this.length()];
         for (int i=0; i<ret.length; i++) {
-            ret[i] = this.signal[i].abs();
+            double re = this.re(i);
+            double im = this.im(i);
+            ret[i] = Math.sqrt(re*re + im*im);
         }
         return ret;
     }
@@ -184,9 +193,9 @@ public class InverseFastFourier implements _InverseFourier {
      */
     public double[] getPhase() throws ExceptionInInitializerError {
         checkOutput();
-        double[] ret = new double[this.signal.length];
+        double[] ret = new double[this.length()];
         for (int i=0; i<ret.length; i++) {
-            ret[i] = this.signal[i].getArgument();
+            ret[i] = Math.atan2(this.im(i), this.re(i));
         }
         return ret;
     }
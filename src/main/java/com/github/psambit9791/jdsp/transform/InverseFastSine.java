@@ -8,37 +8,26 @@
  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package com.github.psambit9791.jdsp.transform;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
-import org.apache.commons.math3.transform.*;
+package com.github.psambit9791.jdsp.transform;
 
 /**
  * <h2>Inverse Fast Sine Transform</h2>
  * The InverseFastSine class applies the inverse fast sine transform on the input sequence and returns the output signal.
- * This should be used for signals transformed using FastSine (Type 1).
- * This can be considered a wrapper on top of the Apache Math3 FastSine [INVERSE] which pre-processes the signal before
- * the operation.
+ * This should be used for signals transformed using FastSine with the specific transform type.
+ * Types 1 to 4 are supported for any signal length and computed in O(N log N) with the FFT. In STANDARD mode the
+ * output is scaled so that the original signal is reconstructed exactly; in ORTHOGONAL mode the transform is the
+ * transpose of the orthonormal forward transform.
  *  
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.1
  */
 public class InverseFastSine implements _InverseSineCosine {
 
     private double[] signal;
-    private double[] output;
-    private FastSineTransformer fst;
-
-
-    private void extendSignal() {
-        double power = Math.log(this.signal.length)/Math.log(2);
-        double raised_power = Math.ceil(power);
-        int new_length = (int)(Math.pow(2, raised_power));
-        if (new_length != this.signal.length) {
-            this.signal = UtilMethods.zeroPadSignal(this.signal, new_length-this.signal.length);
-        }
-    }
+    private double[] output = null;
+    private Normalization norm;
 
     /**
      * This constructor initialises the prerequisites required to use InverseFastSine.
@@ -47,8 +36,7 @@ public class InverseFastSine implements _InverseSineCosine {
      */
     public InverseFastSine(double[] signal) {
         this.signal = signal;
-        this.extendSignal();
-        this.fst = new FastSineTransformer(DstNormalization.STANDARD_DST_I);
+        this.norm = Normalization.STANDARD;
     }
 
     /**
@@ -59,34 +47,23 @@ public class InverseFastSine implements _InverseSineCosine {
      */
     public InverseFastSine(double[] signal, Normalization norm) {
         this.signal = signal;
-        this.extendSignal();
-        if (norm == Normalization.ORTHOGONAL) {
-            this.fst = new FastSineTransformer(DstNormalization.ORTHOGONAL_DST_I);
-        }
-        else {
-            this.fst = new FastSineTransformer(DstNormalization.STANDARD_DST_I);
-        }
+        this.norm = norm;
     }
 
     /**
-     * Performs the cosine transformation on the input signal.
-     * @param type Only accepts the value 1.
-     * @throws java.lang.IllegalArgumentException If type is not 1
+     * Performs the inverse sine transformation on the input signal.
+     * @param type Type of transform that was applied during the forward transform (1 to 4).
+     * @throws java.lang.IllegalArgumentException If type is not between 1 and 4
      */
     public void transform(int type) throws IllegalArgumentException {
-        if (type != 1) {
-            throw new IllegalArgumentException("InverseFastSine only has type 1 implementation");
-        }
-        else {
-            this.output = this.fst.transform(this.signal, TransformType.INVERSE);
-        }
+        this.output = SineCosineEngine.idst(this.signal, type, this.norm == Normalization.ORTHOGONAL);
     }
 
     /**
-     * Performs the inverse sine transformation on the input signal.
+     * Performs the inverse sine transformation (type 1) on the input signal.
      */
     public void transform() {
-        this.output = this.fst.transform(this.signal, TransformType.INVERSE);
+        this.transform(1);
     }
 
     /**
@@ -103,9 +80,9 @@ public class InverseFastSine implements _InverseSineCosine {
     }
 
     /**
-     * Returns the length of the input signal after preprocessing for InverseFastSine (padded to nearest power of 2).
+     * Returns the length of the input signal. As no padding is applied, this is the same as the input length.
      *
-     * @return int The updated length of the input signal.
+     * @return int The length of the input signal.
      */
     public int getSignalLength() {
         return this.signal.length;
@@ -118,15 +118,7 @@ public class InverseShortTimeFourier {
         boolean dataLost = false;
 
         for (_Fourier dtft : this.signal) {
-            double[][] seq = UtilMethods.complexTo2D(dtft.getComplex(false));
-            _InverseFourier idft;
-            double logval = Math.log(seq.length)/Math.log(2);
-            if (logval == (int)(logval)) {
-                idft = new InverseFastFourier(UtilMethods.matToComplex(seq), false);
-            }
-            else {
-                idft = new InverseDiscreteFourier(seq, false);
-            }
+            _InverseFourier idft = new InverseFastFourier(dtft.getComplex(false), false);
             idft.transform();
             Complex[] idft_result = idft.getComplex();
 
@@ -10,26 +10,40 @@
 
 package com.github.psambit9791.jdsp.transform;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.windows.Rectangular;
 import com.github.psambit9791.jdsp.windows._Window;
 import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * <h2>Short Time Fourier Transform</h2>
  * The ShortTimeFourier class applies the short time fourier transform on the input signal and
  * provides different representations of the output to be returned (spectrogram, complex value, magnitudes, phases...)
  * and if the output should be mirrored or not-mirrored.
+ * All frames share one FFTPlan and their spectra are written into a preallocated matrix. As the frames are independent,
+ * they can also be computed in parallel on an executor, which produces bit-identical results. The result can be accessed
+ * without creating objects per frame or bin through getSpectrogram().
  *  
  *
  * @author  Sibo Van Gool
- * @version 1.0
+ * @version 1.1
  */
 public class ShortTimeFourier {
     private double[] signal;
     private _Fourier[] output = null;
+    private Spectrogram result = null;
+    private double[] outRe = null;   // Planes of the result; bin k of frame c at index c*bins + k
+    private double[] outIm = null;
+    private int bins;
+    private int numFrames;
     private final double Fs;
     private final int frameLength;
     private final int fourierLength;
@@ -142,51 +156,127 @@ public class ShortTimeFourier {
      * Calculate the STFT output
      */
     public void transform() {
-        int cols = (this.signal.length - frameLength) / (frameLength - overlap) + 1;
-        this.output = new _Fourier[cols];
-
-        int R = 0;  // Initialize frame counter
-        for (int m = 0; R < cols; m += (frameLength - overlap)) {
-            double[] frame = Arrays.copyOfRange(this.signal, m, m + frameLength);
-
-            // Apply windowing
-            frame = window.applyWindow(frame);
+        int cols = this.numFrames();
+        this.allocate(cols);
+        this.transformFrames(0, cols);
+    }
 
-            // Perform zero padding
-            if (this.fourierLength > this.frameLength) {
-                frame = UtilMethods.zeroPadSignal(frame, this.fourierLength-this.frameLength);
+    /**
+     * Calculate the STFT output in parallel. The frames are split into contiguous blocks which are computed as tasks of
+     * the given executor (for example a ForkJoinPool) and written into the preallocated output matrix. The result is
+     * bit-identical to the one of transform().
+     * @param executor Executor used to compute the blocks of frames
+     * @throws java.lang.IllegalStateException if the calling thread is interrupted while waiting for the frames
+     */
+    public void transform(ExecutorService executor) {
+        int cols = this.numFrames();
+        this.allocate(cols);
+        int blocks = Math.min(cols, 4*Runtime.getRuntime().availableProcessors());
+        List<Callable<Void>> tasks = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            final int from = (int) ((long) cols*b/blocks);
+            final int to = (int) ((long) cols*(b+1)/blocks);
+            tasks.add(() -> {
+                this.transformFrames(from, to);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
             }
-
-            // Calculate Fourier transform
-            _Fourier dft;
-            if (frame.length > 200) {
-                dft = new FastFourier(frame);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("STFT computation was interrupted", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
-            else {
-                dft = new DiscreteFourier(frame);
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
-            dft.transform();
+            throw new IllegalStateException(cause);
+        }
+    }
 
-            // Fill in the output
-            this.output[R] = dft;
+    /**
+     * Calculate the STFT output in parallel on the common ForkJoinPool. The result is bit-identical to the one of
+     * transform().
+     * @param parallel Set to True to compute the frames in parallel
+     */
+    public void transform(boolean parallel) {
+        if (parallel) {
+            this.transform(ForkJoinPool.commonPool());
+        }
+        else {
+            this.transform();
+        }
+    }
+
+    private int numFrames() {
+        return (this.signal.length - frameLength) / (frameLength - overlap) + 1;
+    }
+
+    private void allocate(int cols) {
+        if (this.window.getWindow().length != this.frameLength) {
+            throw new IllegalArgumentException("Input data dimensions and window dimensions don't match");
+        }
+        this.bins = this.fourierLength/2 + 1;
+        this.result = new Spectrogram(cols, this.fourierLength);
+        this.outRe = this.result.getRealPlane();
+        this.outIm = this.result.getImaginaryPlane();
+        this.output = null;
+        this.numFrames = cols;
+    }
 
-            R++;
+    // Computes frames [from, to) into the output matrix; every call uses its own frame buffer
+    private void transformFrames(int from, int to) {
+        FFTPlan plan = FFTPlan.of(this.fourierLength, false, DftNormalization.STANDARD);
+        double[] w = this.window.getWindow();
+        double[] frame = new double[this.fourierLength];    // Samples beyond frameLength stay zero (zero padding)
+        int hop = this.frameLength - this.overlap;
+        for (int R = from; R < to; R++) {
+            int m = R*hop;
+            // Apply windowing
+            for (int i = 0; i < this.frameLength; i++) {
+                frame[i] = this.signal[m + i]*w[i];
+            }
+            // Calculate Fourier transform
+            plan.executeReal(frame, 0, this.outRe, R*this.bins, this.outIm, R*this.bins);
         }
     }
 
+    // Real and imaginary part of frequency bin r of frame c; bins above N/2 are conjugates of the mirrored bins
+    private double re(int r, int c) {
+        return r < this.bins ? this.outRe[c*this.bins + r] : this.outRe[c*this.bins + this.fourierLength - r];
+    }
+
+    private double im(int r, int c) {
+        return r < this.bins ? this.outIm[c*this.bins + r] : -this.outIm[c*this.bins + this.fourierLength - r];
+    }
+
+    private int numBins(boolean onlyPositive) {
+        return onlyPositive ? this.bins : this.fourierLength;
+    }
+
     /**
      * Returns the spectrogram matrix of the STFT (= squared magnitude)
      * @param onlyPositive set to True if non-mirrored output is required
      * @return double[][] spectrogram (squared magnitude) of the STFT; row = frequency frame; column = time frame
      */
     public double[][] spectrogram(boolean onlyPositive) {
-        double[][] resultMag = getMagnitude(onlyPositive);
-        double[][] result = new double[resultMag.length][resultMag[0].length];
+        checkOutput();
+        double[][] result = new double[this.numBins(onlyPositive)][this.numFrames];
 
         // Fill in the output
-        for (int c = 0; c < resultMag[0].length; c++) {
-            for (int r = 0; r < resultMag.length; r++) {
-                result[r][c] = Math.pow(resultMag[r][c], 2);    // Squared magnitude of the output
+        for (int r = 0; r < result.length; r++) {
+            for (int c = 0; c < this.numFrames; c++) {
+                double re = this.re(r, c);
+                double im = this.im(r, c);
+                result[r][c] = re*re + im*im;    // Squared magnitude of the output
             }
         }
         return result;
@@ -198,13 +288,15 @@ public class ShortTimeFourier {
      * @return double[][] magnitude matrix of the STFT; row = frequency frame; column = time frame
      */
     public double[][] getMagnitude(boolean onlyPositive) {
-        Complex[][] resultComplex = getComplex(onlyPositive);
-        double[][] result = new double[resultComplex.length][resultComplex[0].length];
+        checkOutput();
+        double[][] result = new double[this.numBins(onlyPositive)][this.numFrames];
 
         // Fill in the output
-        for (int c = 0; c < resultComplex[0].length; c++) {
-            for (int r = 0; r < resultComplex.length; r++) {
-                result[r][c] = resultComplex[r][c].abs();
+        for (int r = 0; r < result.length; r++) {
+            for (int c = 0; c < this.numFrames; c++) {
+                double re = this.re(r, c);
+                double im = this.im(r, c);
+                result[r][c] = Math.sqrt(re*re + im*im);
             }
         }
         return result;
@@ -216,13 +308,13 @@ public class ShortTimeFourier {
      * @return double[][] phase matrix (radians) of the STFT; row = frequency frame; column = time frame
      */
     public double[][] getPhaseRad(boolean onlyPositive) {
-        Complex[][] resultComplex = getComplex(onlyPositive);
-        double[][] result = new double[resultComplex.length][resultComplex[0].length];
+        checkOutput();
+        double[][] result = new double[this.numBins(onlyPositive)][this.numFrames];
 
         // Fill in the output
-        for (int c = 0; c < resultComplex[0].length; c++) {
-            for (int r = 0; r < resultComplex.length; r++) {
-                result[r][c] = resultComplex[r][c].getArgument();
+        for (int r = 0; r < result.length; r++) {
+            for (int c = 0; c < this.numFrames; c++) {
+                result[r][c] = Math.atan2(this.im(r, c), this.re(r, c));
             }
         }
         return result;
@@ -234,25 +326,51 @@ public class ShortTimeFourier {
      * @return double[][] phase matrix (degrees) of the STFT; row = frequency frame; column = time frame
      */
     public double[][] getPhaseDeg(boolean onlyPositive) {
-        Complex[][] resultComplex = getComplex(onlyPositive);
-        double[][] result = new double[resultComplex.length][resultComplex[0].length];
-
-        // Fill in the output
-        for (int c = 0; c < resultComplex[0].length; c++) {
-            for (int r = 0; r < resultComplex.length; r++) {
-                result[r][c] = Math.toDegrees(resultComplex[r][c].getArgument());
+        double[][] result = getPhaseRad(onlyPositive);
+        for (double[] row : result) {
+            for (int c = 0; c < row.length; c++) {
+                row[c] = Math.toDegrees(row[c]);
             }
         }
         return result;
     }
 
     /**
-     * Returns the output of the Short Time Fourier Transform
+     * Returns the non-mirrored output of the STFT as a Spectrogram backed by contiguous primitive planes. The spectrogram
+     * is not copied; this is the most compact way to access the result.
+     * @return Spectrogram The STFT result
+     */
+    public Spectrogram getSpectrogram() {
+        checkOutput();
+        return this.result;
+    }
+
+    /**
+     * Returns the output of the Short Time Fourier Transform. One Fourier object is created per frame on the first call;
+     * getSpectrogram() gives access to the same values without these objects.
      * @return _Fourier[] Array of Fourier objects
      */
     public _Fourier[] getOutput() {
         checkOutput();
-        return output;
+        if (this.output == null) {
+            _Fourier[] frames = new _Fourier[this.numFrames];
+            double[] w = this.window.getWindow();
+            int hop = this.frameLength - this.overlap;
+            for (int c = 0; c < frames.length; c++) {
+                double[] frame = new double[this.fourierLength];
+                for (int i = 0; i < this.frameLength; i++) {
+                    frame[i] = this.signal[c*hop + i]*w[i];
+                }
+                double[] spectrum = new double[2*this.bins];
+                for (int k = 0; k < this.bins; k++) {
+                    spectrum[2*k] = this.outRe[c*this.bins + k];
+                    spectrum[2*k+1] = this.outIm[c*this.bins + k];
+                }
+                frames[c] = new FastFourier(frame, spectrum);
+            }
+            this.output = frames;
+        }
+        return this.output;
     }
 
     /**
@@ -263,13 +381,12 @@ public class ShortTimeFourier {
     public Complex[][] getComplex(boolean onlyPositive) {
         checkOutput();
 
-        Complex[][] result = new Complex[this.output[0].getComplex(onlyPositive).length][this.output.length];
+        Complex[][] result = new Complex[this.numBins(onlyPositive)][this.numFrames];
 
         // Fill in the output
-        for (int c = 0; c < this.output.length; c++) {
-            _Fourier dft = this.output[c];
-            for (int r = 0; r < result.length; r++) {
-                result[r][c] = dft.getComplex(onlyPositive)[r];
+        for (int r = 0; r < result.length; r++) {
+            for (int c = 0; c < this.numFrames; c++) {
+                result[r][c] = new Complex(this.re(r, c), this.im(r, c));
             }
         }
 
@@ -284,7 +401,7 @@ public class ShortTimeFourier {
     public double[] getFrequencyAxis(boolean onlyPositive) {
         checkOutput();
 
-        double[] axis = new double[this.output[0].getComplex(onlyPositive).length];
+        double[] axis = new double[this.numBins(onlyPositive)];
 
         for (int i = 0; i < axis.length; i++) {
             axis[i] = i*this.Fs/this.frameLength;
@@ -300,7 +417,7 @@ public class ShortTimeFourier {
     public double[] getTimeAxis() {
         checkOutput();
 
-        double[] axis = new double[this.output.length];
+        double[] axis = new double[this.numFrames];
         for (int i = 0; i < axis.length; i++) {
             axis[i] = i*(this.frameLength - overlap)/this.Fs;
         }
@@ -312,7 +429,7 @@ public class ShortTimeFourier {
      * @throws ExceptionInInitializerError if result hasn't been calculated yet
      */
     private void checkOutput() {
-        if (this.output == null) {
+        if (this.outRe == null) {
             throw new ExceptionInInitializerError("Execute stft() function before returning result");
         }
     }
@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Sine and Cosine Transform Engine</h2>
+ * The SineCosineEngine class computes the discrete cosine and sine transforms of types 1 to 4 for any length in
+ * O(N log N) by mapping them onto the FFTEngine. The conventions are the same as DiscreteCosine and DiscreteSine
+ * (no scaling in STANDARD mode, orthonormal basis in ORTHOGONAL mode):
+ * DCT-II uses Makhoul's reordering and a real FFT of length N, DCT-III is its transpose computed with one complex FFT of
+ * length N, DCT-I and DST-I use the even / odd symmetric extension and DCT-IV a complex FFT of length 2N. DST-II, DST-III
+ * and DST-IV are obtained from the corresponding DCT by reversing and sign alternating.
+ * Reference <a href="https://doi.org/10.1109/TASSP.1980.1163351">Makhoul (1980)</a> for more information on the FFT based DCT.
+ * The work buffers and FFT plans are kept per thread and reused, so transforms written into a caller owned buffer do not
+ * allocate once a length has been seen. Buffers of more than MAX_CACHED values are allocated for each call instead, so
+ * that a single long transform does not keep its memory attached to the thread.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.2
+ */
+final class SineCosineEngine {
+
+    private static final double SQRT2 = Math.sqrt(2.0);
+
+    // Largest work buffer kept per thread (512 KiB); covers every type up to N = 16384
+    private static final int MAX_CACHED = 1 << 16;
+
+    // Work buffers grown on demand up to MAX_CACHED values and the plans of the last lengths used, one set per thread
+    private static final class Workspace {
+        private double[] input = new double[0];
+        private double[] a = new double[0];
+        private double[] b = new double[0];
+        // The types use different FFT lengths (N, 2N, 2(N-1) and 2(N+1)), so a few plans are kept to avoid the cache lookup
+        private final FFTPlan[] plans = new FFTPlan[8];
+        private int nextPlan = 0;
+
+        double[] input(int len) {
+            if (this.input.length < len) {
+                double[] buf = new double[len];
+                if (len > MAX_CACHED) {
+                    return buf;
+                }
+                this.input = buf;
+            }
+            return this.input;
+        }
+
+        double[] a(int len) {
+            if (this.a.length < len) {
+                double[] buf = new double[len];
+                if (len > MAX_CACHED) {
+                    return buf;
+                }
+                this.a = buf;
+            }
+            return this.a;
+        }
+
+        double[] b(int len) {
+            if (this.b.length < len) {
+                double[] buf = new double[len];
+                if (len > MAX_CACHED) {
+                    return buf;
+                }
+                this.b = buf;
+            }
+            return this.b;
+        }
+
+        FFTPlan real(int n) {
+            return this.plan(n, false);
+        }
+
+        FFTPlan complex(int n, boolean inverse) {
+            return this.plan(n, inverse);
+        }
+
+        private FFTPlan plan(int n, boolean inverse) {
+            for (FFTPlan p : this.plans) {
+                if (p != null && p.getLength() == n && p.isInverse() == inverse) {
+                    return p;
+                }
+            }
+            FFTPlan p = FFTPlan.of(n, inverse, DftNormalization.STANDARD);
+            this.plans[this.nextPlan] = p;
+            this.nextPlan = (this.nextPlan + 1) % this.plans.length;
+            return p;
+        }
+    }
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private SineCosineEngine() {
+    }
+
+    private static void checkType(int type) {
+        if ((type <= 0) || (type > 4)) {
+            throw new IllegalArgumentException("Type must be between 1 and 4");
+        }
+    }
+
+    private static void checkOutput(double[] x, double[] out) {
+        if (out.length < x.length) {
+            throw new IllegalArgumentException("Output buffer must hold at least " + x.length + " values");
+        }
+    }
+
+    /**
+     * Computes the discrete cosine transform of the given type
+     * @param x The signal
+     * @param type Type of the transform (1 to 4)
+     * @param ortho Set to True for the orthonormal transform
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4, or for a DCT-I of less than 2 samples
+     * @return double[] The transformed signal
+     */
+    static double[] dct(double[] x, int type, boolean ortho) {
+        double[] out = new double[x.length];
+        dct(x, out, type, ortho);
+        return out;
+    }
+
+    /**
+     * Computes the discrete cosine transform of the given type into the output buffer, which may be the input array
+     * @param x The signal
+     * @param out Output buffer; length at least x.length
+     * @param type Type of the transform (1 to 4)
+     * @param ortho Set to True for the orthonormal transform
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4, for a DCT-I of less than 2 samples or
+     * if the output buffer is too short
+     */
+    static void dct(double[] x, double[] out, int type, boolean ortho) {
+        checkType(type);
+        checkOutput(x, out);
+        int n = x.length;
+        if (n == 0) {
+            return;
+        }
+        if (type == 1 && n < 2) {
+            throw new IllegalArgumentException("DCT-I requires at least 2 samples");
+        }
+        Workspace ws = WORKSPACE.get();
+        double[] in = ws.input(n);
+        System.arraycopy(x, 0, in, 0, n);
+        switch (type) {
+            case 1:
+                if (ortho) {
+                    in[0] *= SQRT2;
+                    in[n-1] *= SQRT2;
+                }
+                dct1(in, n, out, ws);
+                if (ortho) {
+                    scale(out, n, 0.5*Math.sqrt(2.0/(n-1)));
+                    out[0] /= SQRT2;
+                    out[n-1] /= SQRT2;
+                }
+                return;
+            case 2:
+                dct2(in, n, out, ws);
+                if (ortho) {
+                    scale(out, n, Math.sqrt(1.0/(2*n)));
+                    out[0] /= SQRT2;
+                }
+                return;
+            case 3:
+                if (ortho) {
+                    in[0] *= SQRT2;
+                }
+                dct3(in, n, out, ws);
+                if (ortho) {
+                    scale(out, n, 1.0/Math.sqrt(2*n));
+                }
+                return;
+            default:
+                dct4(in, n, out, ws);
+                if (ortho) {
+                    scale(out, n, 1.0/Math.sqrt(2*n));
+                }
+        }
+    }
+
+    /**
+     * Computes the discrete sine transform of the given type
+     * @param x The signal
+     * @param type Type of the transform (1 to 4)
+     * @param ortho Set to True for the orthonormal transform
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4
+     * @return double[] The transformed signal
+     */
+    static double[] dst(double[] x, int type, boolean ortho) {
+        double[] out = new double[x.length];
+        dst(x, out, type, ortho);
+        return out;
+    }
+
+    /**
+     * Computes the discrete sine transform of the given type into the output buffer, which may be the input array
+     * @param x The signal
+     * @param out Output buffer; length at least x.length
+     * @param type Type of the transform (1 to 4)
+     * @param ortho Set to True for the orthonormal transform
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4 or if the output buffer is too short
+     */
+    static void dst(double[] x, double[] out, int type, boolean ortho) {
+        checkType(type);
+        checkOutput(x, out);
+        int n = x.length;
+        if (n == 0) {
+            return;
+        }
+        Workspace ws = WORKSPACE.get();
+        double[] in = ws.input(n);
+        System.arraycopy(x, 0, in, 0, n);
+        switch (type) {
+            case 1:
+                dst1(in, n, out, ws);
+                if (ortho) {
+                    scale(out, n, 1.0/Math.sqrt(2*(n+1)));
+                }
+                return;
+            case 2:
+                // DST-II(x)_k = DCT-II((-1)^n x_n)_(N-1-k)
+                alternate(in, n);
+                dct2(in, n, out, ws);
+                reverse(out, n);
+                if (ortho) {
+                    scale(out, n, Math.sqrt(1.0/(2*n)));
+                    out[n-1] /= SQRT2;
+                }
+                return;
+            case 3:
+                // DST-III(x)_k = (-1)^k DCT-III(reversed x)_k
+                if (ortho) {
+                    in[n-1] *= SQRT2;
+                }
+                reverse(in, n);
+                dct3(in, n, out, ws);
+                alternate(out, n);
+                if (ortho) {
+                    scale(out, n, 1.0/Math.sqrt(2*n));
+                }
+                return;
+            default:
+                // DST-IV(x)_k = (-1)^k DCT-IV(reversed x)_k
+                reverse(in, n);
+                dct4(in, n, out, ws);
+                alternate(out, n);
+                if (ortho) {
+                    scale(out, n, 1.0/Math.sqrt(2*n));
+                }
+        }
+    }
+
+    /**
+     * Computes the inverse of the discrete cosine transform of the given type, so that idct(dct(x)) = x
+     * @param y The transformed signal
+     * @param type Type of the forward transform (1 to 4)
+     * @param ortho Set to True if the forward transform was orthonormal
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4, or for a DCT-I of less than 2 samples
+     * @return double[] The reconstructed signal
+     */
+    static double[] idct(double[] y, int type, boolean ortho) {
+        double[] out = new double[y.length];
+        idct(y, out, type, ortho);
+        return out;
+    }
+
+    /**
+     * Computes the inverse of the discrete cosine transform of the given type into the output buffer, which may be the
+     * input array
+     * @param y The transformed signal
+     * @param out Output buffer; length at least y.length
+     * @param type Type of the forward transform (1 to 4)
+     * @param ortho Set to True if the forward transform was orthonormal
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4, for a DCT-I of less than 2 samples or
+     * if the output buffer is too short
+     */
+    static void idct(double[] y, double[] out, int type, boolean ortho) {
+        checkType(type);
+        int n = y.length;
+        int inverseType = type == 2 ? 3 : (type == 3 ? 2 : type);
+        dct(y, out, inverseType, ortho);
+        if (!ortho && n > 0) {
+            scale(out, n, type == 1 ? 1.0/(2*(n-1)) : 1.0/(2*n));
+        }
+    }
+
+    /**
+     * Computes the inverse of the discrete sine transform of the given type, so that idst(dst(x)) = x
+     * @param y The transformed signal
+     * @param type Type of the forward transform (1 to 4)
+     * @param ortho Set to True if the forward transform was orthonormal
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4
+     * @return double[] The reconstructed signal
+     */
+    static double[] idst(double[] y, int type, boolean ortho) {
+        double[] out = new double[y.length];
+        idst(y, out, type, ortho);
+        return out;
+    }
+
+    /**
+     * Computes the inverse of the discrete sine transform of the given type into the output buffer, which may be the
+     * input array
+     * @param y The transformed signal
+     * @param out Output buffer; length at least y.length
+     * @param type Type of the forward transform (1 to 4)
+     * @param ortho Set to True if the forward transform was orthonormal
+     * @throws java.lang.IllegalArgumentException if type is not between 1 and 4 or if the output buffer is too short
+     */
+    static void idst(double[] y, double[] out, int type, boolean ortho) {
+        checkType(type);
+        int n = y.length;
+        int inverseType = type == 2 ? 3 : (type == 3 ? 2 : type);
+        dst(y, out, inverseType, ortho);
+        if (!ortho && n > 0) {
+            scale(out, n, type == 1 ? 1.0/(2*(n+1)) : 1.0/(2*n));
+        }
+    }
+
+    // y_k = x_0 + (-1)^k x_(N-1) + 2 sum_(n=1)^(N-2) x_n cos(pi k n/(N-1)); real FFT of the even extension of length 2(N-1)
+    private static void dct1(double[] x, int n, double[] out, Workspace ws) {
+        int m = 2*(n-1);
+        double[] ext = ws.a(m);
+        System.arraycopy(x, 0, ext, 0, n);
+        for (int i=1; i<n-1; i++) {
+            ext[m-i] = x[i];
+        }
+        double[] spec = ws.b(2*(m/2+1));
+        ws.real(m).executeRealRaw(ext, spec);
+        for (int k=0; k<n; k++) {
+            out[k] = spec[2*k];
+        }
+    }
+
+    // y_k = 2 sum x_n cos(pi k (2n+1)/(2N)); Makhoul: v = (x_0, x_2, ..., x_3, x_1), y_k = 2 Re(exp(-i pi k/(2N)) V_k)
+    private static void dct2(double[] x, int n, double[] out, Workspace ws) {
+        double[] v = ws.a(n);
+        for (int i=0; 2*i<n; i++) {
+            v[i] = x[2*i];
+        }
+        for (int i=0; 2*i+1<n; i++) {
+            v[n-1-i] = x[2*i+1];
+        }
+        double[] spec = ws.b(2*(n/2+1));
+        ws.real(n).executeRealRaw(v, spec);
+        for (int k=0; k<n; k++) {
+            double re, im;
+            if (k <= n/2) {
+                re = spec[2*k];
+                im = spec[2*k+1];
+            }
+            else {
+                re = spec[2*(n-k)];
+                im = -spec[2*(n-k)+1];
+            }
+            double angle = Math.PI*k/(2*n);
+            out[k] = 2*(StrictMath.cos(angle)*re + StrictMath.sin(angle)*im);
+        }
+    }
+
+    // y_k = x_0 + 2 sum_(n>=1) x_n cos(pi n (2k+1)/(2N)); z = IDFT((x_n - i x_(N-n)) exp(i pi n/(2N))) unscaled,
+    // y_(2m) = Re z_m and y_(2m+1) = Re z_(N-1-m)
+    private static void dct3(double[] x, int n, double[] out, Workspace ws) {
+        double[] z = ws.a(2*n);
+        for (int i=0; i<n; i++) {
+            double a = x[i];
+            double b = i == 0 ? 0 : -x[n-i];
+            double angle = Math.PI*i/(2*n);
+            double c = StrictMath.cos(angle);
+            double s = StrictMath.sin(angle);
+            z[2*i] = a*c - b*s;
+            z[2*i+1] = a*s + b*c;
+        }
+        ws.complex(n, true).executeRaw(z);
+        for (int m=0; 2*m<n; m++) {
+            out[2*m] = z[2*m];
+        }
+        for (int m=0; 2*m+1<n; m++) {
+            out[2*m+1] = z[2*(n-1-m)];
+        }
+    }
+
+    // y_k = 2 sum x_n cos(pi (2n+1)(2k+1)/(4N)) = 2 Re(exp(-i pi (2k+1)/(4N)) A_k) with A the 2N point DFT of
+    // x_n exp(-i pi n/(2N))
+    private static void dct4(double[] x, int n, double[] out, Workspace ws) {
+        double[] a = ws.a(4*n);
+        for (int i=0; i<n; i++) {
+            double angle = -Math.PI*i/(2*n);
+            a[2*i] = x[i]*StrictMath.cos(angle);
+            a[2*i+1] = x[i]*StrictMath.sin(angle);
+        }
+        Arrays.fill(a, 2*n, 4*n, 0);
+        ws.complex(2*n, false).executeRaw(a);
+        for (int k=0; k<n; k++) {
+            double angle = -Math.PI*(2*k+1)/(4*n);
+            out[k] = 2*(StrictMath.cos(angle)*a[2*k] - StrictMath.sin(angle)*a[2*k+1]);
+        }
+    }
+
+    // y_k = 2 sum x_n sin(pi (k+1)(n+1)/(N+1)); real FFT of the odd extension of length 2(N+1), y_k = -Im O_(k+1)
+    private static void dst1(double[] x, int n, double[] out, Workspace ws) {
+        int m = 2*(n+1);
+        double[] ext = ws.a(m);
+        ext[0] = 0;
+        ext[n+1] = 0;
+        for (int i=0; i<n; i++) {
+            ext[i+1] = x[i];
+            ext[m-1-i] = -x[i];
+        }
+        double[] spec = ws.b(2*(m/2+1));
+        ws.real(m).executeRealRaw(ext, spec);
+        for (int k=0; k<n; k++) {
+            out[k] = -spec[2*(k+1)+1];
+        }
+    }
+
+    private static void reverse(double[] x, int n) {
+        for (int i=0; i<n/2; i++) {
+            double t = x[i];
+            x[i] = x[n-1-i];
+            x[n-1-i] = t;
+        }
+    }
+
+    private static void alternate(double[] x, int n) {
+        for (int i=1; i<n; i+=2) {
+            x[i] = -x[i];
+        }
+    }
+
+    private static void scale(double[] x, int n, double factor) {
+        for (int i=0; i<n; i++) {
+            x[i] *= factor;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+/**
+ * <h2>Spectrogram</h2>
+ * The Spectrogram class stores the non-mirrored spectra (N/2+1 bins) of a sequence of frames in two contiguous primitive
+ * planes, one for the real and one for the imaginary parts, with the bins of each frame next to each other. The memory
+ * footprint is therefore 16*(N/2+1) bytes per frame, independent of how the values are accessed. Magnitude, phase and
+ * decibel views are computed on first access and cached until the spectrogram is modified.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class Spectrogram {
+
+    private final int frames;
+    private final int fourierLength;
+    private final int bins;
+    private final double[] re;
+    private final double[] im;
+
+    private double[] magnitude = null;
+    private double[] phase = null;
+
+    /**
+     * This constructor creates an empty (all zero) spectrogram.
+     * @param frames Number of frames
+     * @param fourierLength Fourier length of every frame; N/2+1 bins are stored
+     * @throws java.lang.IllegalArgumentException if frames is negative or fourierLength is not positive
+     */
+    public Spectrogram(int frames, int fourierLength) {
+        this(new double[Math.max(frames, 0)*(Math.max(fourierLength, 0)/2+1)],
+                new double[Math.max(frames, 0)*(Math.max(fourierLength, 0)/2+1)], frames, fourierLength);
+    }
+
+    /**
+     * This constructor wraps existing planes without copying them. Bin k of frame f is at index f*(N/2+1) + k.
+     * @param re Plane with the real parts
+     * @param im Plane with the imaginary parts
+     * @param frames Number of frames
+     * @param fourierLength Fourier length of every frame; N/2+1 bins are stored
+     * @throws java.lang.IllegalArgumentException if the planes do not match the dimensions
+     */
+    public Spectrogram(double[] re, double[] im, int frames, int fourierLength) {
+        if (frames < 0 || fourierLength < 1) {
+            throw new IllegalArgumentException("Frames must be non-negative and Fourier length positive");
+        }
+        int bins = fourierLength/2 + 1;
+        if (re.length != (long) frames*bins || im.length != (long) frames*bins) {
+            throw new IllegalArgumentException("Planes must hold frames*(fourierLength/2+1) values");
+        }
+        this.frames = frames;
+        this.fourierLength = fourierLength;
+        this.bins = bins;
+        this.re = re;
+        this.im = im;
+    }
+
+    /**
+     * Returns the number of frames
+     * @return int Number of frames
+     */
+    public int getNumFrames() {
+        return this.frames;
+    }
+
+    /**
+     * Returns the number of stored (non-mirrored) frequency bins per frame
+     * @return int Number of bins (N/2+1)
+     */
+    public int getNumBins() {
+        return this.bins;
+    }
+
+    /**
+     * Returns the Fourier length of the frames
+     * @return int Fourier length
+     */
+    public int getFourierLength() {
+        return this.fourierLength;
+    }
+
+    /**
+     * Returns the memory used by the planes and the cached views
+     * @return long Number of bytes
+     */
+    public long getSizeInBytes() {
+        long values = 2L*this.re.length;
+        if (this.magnitude != null) {
+            values += this.magnitude.length;
+        }
+        if (this.phase != null) {
+            values += this.phase.length;
+        }
+        return 8*values;
+    }
+
+    private int index(int frame, int bin) {
+        if (frame < 0 || frame >= this.frames || bin < 0 || bin >= this.bins) {
+            throw new IndexOutOfBoundsException("Frame " + frame + ", bin " + bin + " is outside the spectrogram");
+        }
+        return frame*this.bins + bin;
+    }
+
+    /**
+     * Returns the real part of a bin
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @return double Real part
+     */
+    public double getReal(int frame, int bin) {
+        return this.re[this.index(frame, bin)];
+    }
+
+    /**
+     * Returns the imaginary part of a bin
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @return double Imaginary part
+     */
+    public double getImaginary(int frame, int bin) {
+        return this.im[this.index(frame, bin)];
+    }
+
+    /**
+     * Returns the magnitude of a bin
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @return double Magnitude
+     */
+    public double getMagnitude(int frame, int bin) {
+        return this.getMagnitudePlane()[this.index(frame, bin)];
+    }
+
+    /**
+     * Returns the phase of a bin in radians
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @return double Phase (in radians)
+     */
+    public double getPhase(int frame, int bin) {
+        return this.getPhasePlane()[this.index(frame, bin)];
+    }
+
+    /**
+     * Returns the power (squared magnitude) of a bin
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @return double Power
+     */
+    public double getPower(int frame, int bin) {
+        int i = this.index(frame, bin);
+        return this.re[i]*this.re[i] + this.im[i]*this.im[i];
+    }
+
+    /**
+     * Returns the power of a bin in decibels (10*log10 of the power). Bins with zero power return negative infinity.
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @return double Power in dB
+     */
+    public double getDecibel(int frame, int bin) {
+        return 10*Math.log10(this.getPower(frame, bin));
+    }
+
+    /**
+     * Sets the value of a bin
+     * @param frame Index of the frame
+     * @param bin Index of the frequency bin
+     * @param real Real part
+     * @param imaginary Imaginary part
+     */
+    public void set(int frame, int bin, double real, double imaginary) {
+        int i = this.index(frame, bin);
+        this.re[i] = real;
+        this.im[i] = imaginary;
+        this.invalidate();
+    }
+
+    /**
+     * Copies the real and imaginary parts of a frame into the caller owned buffers
+     * @param frame Index of the frame
+     * @param real Buffer receiving the real parts; length at least N/2+1
+     * @param imaginary Buffer receiving the imaginary parts; length at least N/2+1
+     */
+    public void getFrame(int frame, double[] real, double[] imaginary) {
+        int off = this.index(frame, 0);
+        System.arraycopy(this.re, off, real, 0, this.bins);
+        System.arraycopy(this.im, off, imaginary, 0, this.bins);
+    }
+
+    /**
+     * Replaces the real and imaginary parts of a frame
+     * @param frame Index of the frame
+     * @param real Real parts; length at least N/2+1
+     * @param imaginary Imaginary parts; length at least N/2+1
+     */
+    public void setFrame(int frame, double[] real, double[] imaginary) {
+        int off = this.index(frame, 0);
+        System.arraycopy(real, 0, this.re, off, this.bins);
+        System.arraycopy(imaginary, 0, this.im, off, this.bins);
+        this.invalidate();
+    }
+
+    /**
+     * Discards the cached magnitude and phase views. Must be called after modifying the planes returned by
+     * getRealPlane() or getImaginaryPlane() directly.
+     */
+    public void invalidate() {
+        this.magnitude = null;
+        this.phase = null;
+    }
+
+    /**
+     * Returns the plane with the real parts. The returned array is the internal buffer and is not copied.
+     * @return double[] Real parts; bin k of frame f at index f*(N/2+1) + k
+     */
+    public double[] getRealPlane() {
+        return this.re;
+    }
+
+    /**
+     * Returns the plane with the imaginary parts. The returned array is the internal buffer and is not copied.
+     * @return double[] Imaginary parts; bin k of frame f at index f*(N/2+1) + k
+     */
+    public double[] getImaginaryPlane() {
+        return this.im;
+    }
+
+    /**
+     * Returns the magnitude of all bins; computed on first access and cached. The returned array must not be modified.
+     * @return double[] Magnitudes; bin k of frame f at index f*(N/2+1) + k
+     */
+    public double[] getMagnitudePlane() {
+        double[] mag = this.magnitude;
+        if (mag == null) {
+            mag = new double[this.re.length];
+            for (int i=0; i<mag.length; i++) {
+                mag[i] = Math.sqrt(this.re[i]*this.re[i] + this.im[i]*this.im[i]);
+            }
+            this.magnitude = mag;
+        }
+        return mag;
+    }
+
+    /**
+     * Returns the phase (in radians) of all bins; computed on first access and cached. The returned array must not be
+     * modified.
+     * @return double[] Phases; bin k of frame f at index f*(N/2+1) + k
+     */
+    public double[] getPhasePlane() {
+        double[] ph = this.phase;
+        if (ph == null) {
+            ph = new double[this.re.length];
+            for (int i=0; i<ph.length; i++) {
+                ph[i] = Math.atan2(this.im[i], this.re[i]);
+            }
+            this.phase = ph;
+        }
+        return ph;
+    }
+
+    /**
+     * Returns the power of all bins in decibels relative to a reference power: 10*log10(max(power, floor)/ref).
+     * @param ref Reference power (for example 1, or the maximum power of the spectrogram)
+     * @param floor Smallest power taken into account, to avoid negative infinity for empty bins
+     * @return double[] Power in dB; bin k of frame f at index f*(N/2+1) + k
+     */
+    public double[] getDecibelPlane(double ref, double floor) {
+        double[] db = new double[this.re.length];
+        for (int i=0; i<db.length; i++) {
+            double power = this.re[i]*this.re[i] + this.im[i]*this.im[i];
+            db[i] = 10*Math.log10(Math.max(power, floor)/ref);
+        }
+        return db;
+    }
+
+    /**
+     * Returns the maximum power over all bins
+     * @return double Maximum power
+     */
+    public double getMaxPower() {
+        double max = 0;
+        for (int i=0; i<this.re.length; i++) {
+            max = Math.max(max, this.re[i]*this.re[i] + this.im[i]*this.im[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.windows.Blackman;
+import com.github.psambit9791.jdsp.windows._Window;
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.util.FastMath;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Streaming Hilbert Transform</h2>
+ * The StreamingHilbert class computes the analytical signal of a signal which arrives in chunks of arbitrary size, so
+ * that the amplitude envelope, instantaneous phase and instantaneous frequency can be tracked without holding the whole
+ * signal in memory. The imaginary part is obtained with a windowed FIR approximation of the ideal Hilbert transformer
+ * (odd number of taps) which is applied block-wise with the overlap-save method, and the real part is the input delayed
+ * by the group delay of the filter, (numTaps-1)/2 samples. Output samples are aligned with the input: the i-th output
+ * sample of the stream belongs to the i-th input sample, and is emitted once the delay and the current block have been
+ * filled. The instantaneous phase is unwrapped continuously across chunks.
+ * Away from the start and end of the stream, the result approximates that of Hilbert; the accuracy near DC and the
+ * Nyquist frequency improves with the number of taps.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class StreamingHilbert {
+
+    private final int numTaps;
+    private final int delay;
+    private final int fftLength;
+    private final int blockLength;
+    private final FFTPlan forward;
+    private final FFTPlan inverse;
+    private final double[] kernel;
+
+    private final double[] buffer;
+    private final double[] spectrum;
+    private final double[] filtered;
+    private int position;
+    private long toSkip;
+    private long received = 0;
+    private long emitted = 0;
+    private long limit = Long.MAX_VALUE;
+
+    private double[] re = new double[0];
+    private double[] im = new double[0];
+    private int count = 0;
+    private boolean processed = false;
+
+    private double[] phase = new double[0];
+    private boolean hasPhase = false;
+    private double lastPhase;
+    private boolean hasPhaseBefore;
+    private double phaseBefore;
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingHilbert.
+     * @param numTaps   Number of taps of the FIR Hilbert transformer; must be odd and at least 3
+     * @param fftLength Length of the FFT used for the overlap-save blocks; every block produces fftLength-numTaps+1 samples
+     * @param window    Window applied to the ideal Hilbert transformer; must have numTaps points
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingHilbert(int numTaps, int fftLength, _Window window) {
+        if (numTaps < 3 || numTaps%2 == 0) {
+            throw new IllegalArgumentException("Number of taps must be odd and at least 3");
+        }
+        if (fftLength < numTaps) {
+            throw new IllegalArgumentException("FFT length must be equal to or greater than the number of taps");
+        }
+        if (window == null) {
+            throw new IllegalArgumentException("Window can not be null");
+        }
+        double[] w = window.getWindow();
+        if (w.length != numTaps) {
+            throw new IllegalArgumentException("Window and number of taps must match");
+        }
+        this.numTaps = numTaps;
+        this.delay = (numTaps - 1)/2;
+        this.fftLength = fftLength;
+        this.blockLength = fftLength - numTaps + 1;
+        this.forward = FFTPlan.of(fftLength, false, DftNormalization.STANDARD);
+        this.inverse = FFTPlan.of(fftLength, true, DftNormalization.STANDARD);
+
+        // Ideal Hilbert transformer: 2/(pi*m) for odd m, 0 for even m, centred on the middle tap
+        double[] taps = new double[fftLength];
+        for (int k=0; k<numTaps; k++) {
+            int m = k - this.delay;
+            if (m%2 != 0) {
+                taps[k] = 2.0/(Math.PI*m) * w[k];
+            }
+        }
+        this.kernel = new double[2*(fftLength/2 + 1)];
+        this.forward.executeReal(taps, this.kernel);
+
+        this.buffer = new double[fftLength];
+        this.spectrum = new double[2*(fftLength/2 + 1)];
+        this.filtered = new double[fftLength];
+        this.position = numTaps - 1;
+        this.toSkip = this.delay;
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingHilbert.
+     * Defaults the FFT length to the power of 2 which is at least 4 times the number of taps.
+     * @param numTaps   Number of taps of the FIR Hilbert transformer; must be odd and at least 3
+     * @param window    Window applied to the ideal Hilbert transformer; must have numTaps points
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingHilbert(int numTaps, _Window window) {
+        this(numTaps, (int) UtilMethods.nextPowerOfTwo(4*numTaps), window);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingHilbert.
+     * Defaults the window to a Blackman window and the FFT length to the power of 2 which is at least 4 times the
+     * number of taps.
+     * @param numTaps   Number of taps of the FIR Hilbert transformer; must be odd and at least 3
+     * @throws java.lang.IllegalArgumentException if the number of taps is invalid
+     */
+    public StreamingHilbert(int numTaps) {
+        this(numTaps, new Blackman(numTaps));
+    }
+
+    /**
+     * Feeds a chunk of samples into the transform. The analytical signal of every sample which can be completed with
+     * the chunk is available through the getters until the next call.
+     * @param chunk The samples
+     * @return int Number of output samples emitted for this chunk
+     */
+    public int process(double[] chunk) {
+        return this.process(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Feeds len samples of the buffer, starting at off, into the transform. The analytical signal of every sample which
+     * can be completed with these samples is available through the getters until the next call.
+     * @param chunk Buffer holding the samples
+     * @param off Index of the first sample
+     * @param len Number of samples
+     * @throws java.lang.IllegalArgumentException if the range is outside the buffer
+     * @return int Number of output samples emitted for these samples
+     */
+    public int process(double[] chunk, int off, int len) {
+        if (off < 0 || len < 0 || off + len > chunk.length) {
+            throw new IllegalArgumentException("Sample range is outside the buffer");
+        }
+        this.begin(len + this.blockLength);
+        this.received += len;
+        while (len > 0) {
+            int n = Math.min(len, this.fftLength - this.position);
+            System.arraycopy(chunk, off, this.buffer, this.position, n);
+            this.position += n;
+            off += n;
+            len -= n;
+            if (this.position == this.fftLength) {
+                this.emitBlock();
+            }
+        }
+        this.finish();
+        return this.count;
+    }
+
+    /**
+     * Completes the stream: the buffered samples are padded with zeros so that the analytical signal of every remaining
+     * input sample is emitted, and the transform is then reset for a new stream.
+     * @return int Number of output samples emitted
+     */
+    public int flush() {
+        long pending = this.received - this.emitted;
+        this.begin((int) pending);
+        this.limit = this.received;
+        while (this.emitted < this.limit) {
+            Arrays.fill(this.buffer, this.position, this.fftLength, 0.0);
+            this.position = this.fftLength;
+            this.emitBlock();
+        }
+        this.finish();
+        int n = this.count;
+        this.restart();
+        return n;
+    }
+
+    private void begin(int capacity) {
+        if (this.re.length < capacity) {
+            this.re = new double[capacity];
+            this.im = new double[capacity];
+        }
+        this.count = 0;
+        this.processed = true;
+        this.hasPhaseBefore = this.hasPhase;
+        this.phaseBefore = this.lastPhase;
+    }
+
+    // Unwrapping only depends on the difference of consecutive wrapped phases, so the unwrapped phase of the previous
+    // sample is sufficient to continue the unwrapped phase across calls
+    private void finish() {
+        if (this.phase.length < this.count) {
+            this.phase = new double[this.re.length];
+        }
+        for (int i=0; i<this.count; i++) {
+            double p = FastMath.atan2(this.im[i], this.re[i]);
+            if (this.hasPhase) {
+                p = this.lastPhase + UtilMethods.modulo(p - this.lastPhase + Math.PI, 2*Math.PI) - Math.PI;
+            }
+            this.phase[i] = p;
+            this.lastPhase = p;
+            this.hasPhase = true;
+        }
+    }
+
+    // The buffer holds numTaps-1 samples of history followed by one block of new samples
+    private void emitBlock() {
+        this.forward.executeReal(this.buffer, this.spectrum);
+        for (int i=0; i<this.spectrum.length; i+=2) {
+            double a = this.spectrum[i];
+            double b = this.spectrum[i+1];
+            this.spectrum[i] = a*this.kernel[i] - b*this.kernel[i+1];
+            this.spectrum[i+1] = a*this.kernel[i+1] + b*this.kernel[i];
+        }
+        this.inverse.executeReal(this.spectrum, this.filtered);
+
+        for (int k=this.numTaps-1; k<this.fftLength; k++) {
+            if (this.toSkip > 0) {
+                this.toSkip--;
+                continue;
+            }
+            if (this.emitted == this.limit) {
+                break;
+            }
+            if (this.count == this.re.length) {
+                this.re = Arrays.copyOf(this.re, 2*this.count);
+                this.im = Arrays.copyOf(this.im, 2*this.count);
+            }
+            this.re[this.count] = this.buffer[k - this.delay];
+            this.im[this.count] = this.filtered[k];
+            this.count++;
+            this.emitted++;
+        }
+        System.arraycopy(this.buffer, this.blockLength, this.buffer, 0, this.numTaps - 1);
+        this.position = this.numTaps - 1;
+    }
+
+    private void restart() {
+        Arrays.fill(this.buffer, 0.0);
+        this.position = this.numTaps - 1;
+        this.toSkip = this.delay;
+        this.received = 0;
+        this.emitted = 0;
+        this.limit = Long.MAX_VALUE;
+        this.hasPhase = false;
+    }
+
+    /**
+     * Discards the buffered samples so that the next sample starts a new stream. Output of the last call is discarded
+     * as well.
+     */
+    public void reset() {
+        this.restart();
+        this.count = 0;
+        this.processed = false;
+    }
+
+    private void checkProcessed() {
+        if (!this.processed) {
+            throw new ExceptionInInitializerError("Execute process() function before returning result");
+        }
+    }
+
+    /**
+     * Returns the complex value of the analytical signal emitted by the last call as a 2D matrix.
+     * @throws java.lang.ExceptionInInitializerError if called before executing process() method
+     * @return double[][] The analytical signal
+     */
+    public double[][] getOutput() throws ExceptionInInitializerError {
+        this.checkProcessed();
+        double[][] out = new double[this.count][2];
+        for (int i=0; i<out.length; i++) {
+            out[i][0] = this.re[i];
+            out[i][1] = this.im[i];
+        }
+        return out;
+    }
+
+    /**
+     * Returns the amplitude envelope of the samples emitted by the last call.
+     * @throws java.lang.ExceptionInInitializerError if called before executing process() method
+     * @return double[] The amplitude envelope
+     */
+    public double[] getAmplitudeEnvelope() throws ExceptionInInitializerError {
+        this.checkProcessed();
+        double[] sig = new double[this.count];
+        for (int i=0; i<sig.length; i++) {
+            sig[i] = Math.sqrt(this.re[i]*this.re[i] + this.im[i]*this.im[i]);
+        }
+        return sig;
+    }
+
+    /**
+     * Returns the instantaneous phase of the samples emitted by the last call. The phase is unwrapped continuously from
+     * the first sample of the stream, so the concatenated output of all calls is the unwrapped phase of the stream.
+     * @throws java.lang.ExceptionInInitializerError if called before executing process() method
+     * @return double[] The instantaneous phase
+     */
+    public double[] getInstantaneousPhase() throws ExceptionInInitializerError {
+        this.checkProcessed();
+        return Arrays.copyOf(this.phase, this.count);
+    }
+
+    /**
+     * Returns the instantaneous frequency of the samples emitted by the last call. The frequency of a sample is computed
+     * from the phase difference to the preceding sample of the stream, so the very first sample of a stream has no
+     * frequency and the concatenated output of all calls has one value less than the number of emitted samples.
+     * @param Fs Sampling Frequency to be used
+     * @throws java.lang.ExceptionInInitializerError if called before executing process() method
+     * @return double[] The instantaneous frequency
+     */
+    public double[] getInstantaneousFrequency(double Fs) throws ExceptionInInitializerError {
+        this.checkProcessed();
+        if (this.count == 0) {
+            return new double[0];
+        }
+        int start = this.hasPhaseBefore ? 0 : 1;
+        double[] sig = new double[this.count - start];
+        double prev = this.hasPhaseBefore ? this.phaseBefore : this.phase[0];
+        double cons = 2 * Math.PI;
+        for (int i=start; i<this.count; i++) {
+            sig[i - start] = ((this.phase[i] - prev)/cons)*Fs;
+            prev = this.phase[i];
+        }
+        return sig;
+    }
+
+    /**
+     * Returns the group delay of the FIR Hilbert transformer, which is the number of samples an input sample has to be
+     * followed by before its analytical signal can be emitted
+     * @return int The delay in samples ((numTaps-1)/2)
+     */
+    public int getDelay() {
+        return this.delay;
+    }
+
+    /**
+     * Returns the number of new samples processed by every overlap-save block
+     * @return int The block length (fftLength-numTaps+1)
+     */
+    public int getBlockLength() {
+        return this.blockLength;
+    }
+
+    /**
+     * Returns the number of output samples emitted since the stream was started or reset
+     * @return long Number of samples
+     */
+    public long getSampleCount() {
+        return this.emitted;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import com.github.psambit9791.jdsp.windows.Rectangular;
+import com.github.psambit9791.jdsp.windows._Window;
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Streaming Inverse Short Time Fourier Transform</h2>
+ * The StreamingInverseShortTimeFourier class reconstructs a signal from STFT frames which arrive one at a time, for
+ * example from a StreamingShortTimeFourier followed by spectral processing. Every frame is inverse transformed, multiplied
+ * with the window and overlap-added into an accumulator together with the squared window, and the finished samples are
+ * normalized by the accumulated squared window (weighted overlap-add). Without modification of the frames this
+ * reconstructs the signal exactly wherever the window covers it. Samples where the accumulated squared window is at
+ * most 1e-10, such as the tapered edges at the start of the stream, are set to 0 instead.
+ * After frame i (covering samples i*hop to i*hop + frameLength - 1) has been processed, the hop samples starting at
+ * i*hop are emitted, because no later frame overlaps them. The latency, returned by getLatency(), is therefore
+ * frameLength - hop samples: the distance between the end of the latest frame and the last emitted sample. These
+ * remaining samples of the last frame are returned by flush().
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.2
+ */
+public class StreamingInverseShortTimeFourier {
+
+    // Smallest accumulated squared window by which a sample is normalized, as in scipy.signal.istft
+    private static final double MIN_WEIGHT = 1e-10;
+
+    private final int frameLength;
+    private final int hop;
+    private final int fourierLength;
+    private final double[] window;
+    private final FFTPlan plan;
+
+    private final double[] spectrum;
+    private final double[] frame;
+    private final double[] acc;
+    private final double[] weight;
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingInverseShortTimeFourier.
+     * @param frameLength   length of the frame used in the STFT
+     * @param overlap       number of overlapping samples used in the STFT
+     * @param fourierLength Fourier length used in the STFT; samples beyond frameLength are the zero padding and dropped
+     * @param window        window used in the STFT
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingInverseShortTimeFourier(int frameLength, int overlap, int fourierLength, _Window window) {
+        if (frameLength < 1) {
+            throw new IllegalArgumentException("Frame length must be greater than 0");
+        }
+        if (overlap < 0 || overlap >= frameLength) {
+            throw new IllegalArgumentException("Overlap must be non-negative and smaller than frame length");
+        }
+        if (fourierLength < frameLength) {
+            throw new IllegalArgumentException("Fourier length should be equal to or greater than the frame length");
+        }
+        if (window == null) {
+            throw new IllegalArgumentException("Window can not be null");
+        }
+        if (window.getWindow().length != frameLength) {
+            throw new IllegalArgumentException("Window and frame dimensions must match");
+        }
+        this.frameLength = frameLength;
+        this.hop = frameLength - overlap;
+        this.fourierLength = fourierLength;
+        this.window = window.getWindow().clone();
+        this.plan = FFTPlan.of(fourierLength, true, DftNormalization.STANDARD);
+        this.spectrum = new double[2*(fourierLength/2 + 1)];
+        this.frame = new double[fourierLength];
+        this.acc = new double[frameLength];
+        this.weight = new double[frameLength];
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingInverseShortTimeFourier.
+     * Defaults fourier length to frameLength.
+     * @param frameLength   length of the frame used in the STFT
+     * @param overlap       number of overlapping samples used in the STFT
+     * @param window        window used in the STFT
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingInverseShortTimeFourier(int frameLength, int overlap, _Window window) {
+        this(frameLength, overlap, frameLength, window);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingInverseShortTimeFourier.
+     * Defaults window to rectangular window (= no windowing effect) and fourier length to frameLength.
+     * @param frameLength   length of the frame used in the STFT
+     * @param overlap       number of overlapping samples used in the STFT
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingInverseShortTimeFourier(int frameLength, int overlap) {
+        this(frameLength, overlap, frameLength, new Rectangular(frameLength));
+    }
+
+    /**
+     * Adds the next frame and writes the hop finished samples to the output buffer.
+     * @param re Real part of the non-mirrored spectrum of the frame (fourierLength/2+1 bins)
+     * @param im Imaginary part of the non-mirrored spectrum of the frame (fourierLength/2+1 bins)
+     * @param out Buffer receiving the finished samples; length at least hop
+     * @return int Number of samples written (= hop)
+     */
+    public int process(double[] re, double[] im, double[] out) {
+        return this.process(re, im, out, 0);
+    }
+
+    /**
+     * Adds the next frame and writes the hop finished samples to the output buffer starting at off.
+     * @param re Real part of the non-mirrored spectrum of the frame (fourierLength/2+1 bins)
+     * @param im Imaginary part of the non-mirrored spectrum of the frame (fourierLength/2+1 bins)
+     * @param out Buffer receiving the finished samples
+     * @param off Index at which the first sample is written
+     * @throws java.lang.IllegalArgumentException if a spectrum is too short or the output does not have room for hop samples
+     * @return int Number of samples written (= hop)
+     */
+    public int process(double[] re, double[] im, double[] out, int off) {
+        int bins = this.fourierLength/2 + 1;
+        if (re.length < bins || im.length < bins) {
+            throw new IllegalArgumentException("Spectrum must hold fourierLength/2+1 bins");
+        }
+        if (off < 0 || out.length - off < this.hop) {
+            throw new IllegalArgumentException("Output must have room for hop samples");
+        }
+        for (int k=0; k<bins; k++) {
+            this.spectrum[2*k] = re[k];
+            this.spectrum[2*k+1] = im[k];
+        }
+        this.plan.executeReal(this.spectrum, this.frame);
+
+        // Overlap-add the windowed frame and the squared window
+        for (int i=0; i<this.frameLength; i++) {
+            this.acc[i] += this.frame[i]*this.window[i];
+            this.weight[i] += this.window[i]*this.window[i];
+        }
+
+        this.emit(out, off, this.hop);
+
+        // Shift the accumulators by one hop
+        int rest = this.frameLength - this.hop;
+        System.arraycopy(this.acc, this.hop, this.acc, 0, rest);
+        System.arraycopy(this.weight, this.hop, this.weight, 0, rest);
+        Arrays.fill(this.acc, rest, this.frameLength, 0.0);
+        Arrays.fill(this.weight, rest, this.frameLength, 0.0);
+        return this.hop;
+    }
+
+    /**
+     * Writes the remaining frameLength - hop samples of the last frame to the output buffer and resets the state.
+     * @param out Buffer receiving the samples; length at least frameLength - hop
+     * @throws java.lang.IllegalArgumentException if the output is too short
+     * @return int Number of samples written (= frameLength - hop)
+     */
+    public int flush(double[] out) {
+        int rest = this.frameLength - this.hop;
+        if (out.length < rest) {
+            throw new IllegalArgumentException("Output must have room for frameLength - hop samples");
+        }
+        this.emit(out, 0, rest);
+        this.reset();
+        return rest;
+    }
+
+    // Samples whose accumulated squared window is at most MIN_WEIGHT cannot be recovered and are set to 0; dividing by a
+    // tiny weight would amplify any change to the frames without bound
+    private void emit(double[] out, int off, int count) {
+        for (int i=0; i<count; i++) {
+            out[off + i] = this.weight[i] > MIN_WEIGHT ? this.acc[i]/this.weight[i] : 0;
+        }
+    }
+
+    /**
+     * Discards the accumulated samples so that the next frame starts a new stream.
+     */
+    public void reset() {
+        Arrays.fill(this.acc, 0.0);
+        Arrays.fill(this.weight, 0.0);
+    }
+
+    /**
+     * Returns the number of samples emitted per frame
+     * @return int Hop size (frameLength - overlap)
+     */
+    public int getHop() {
+        return this.hop;
+    }
+
+    /**
+     * Returns the latency in samples, the distance between the end of the latest frame and the last emitted sample
+     * @return int Latency (frameLength - hop)
+     */
+    public int getLatency() {
+        return this.frameLength - this.hop;
+    }
+}
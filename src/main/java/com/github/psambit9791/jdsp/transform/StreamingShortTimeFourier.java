@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.transform;
+
+import com.github.psambit9791.jdsp.windows.Rectangular;
+import com.github.psambit9791.jdsp.windows._Window;
+import org.apache.commons.math3.transform.DftNormalization;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Streaming Short Time Fourier Transform</h2>
+ * The StreamingShortTimeFourier class computes the short time fourier transform of a signal which arrives in chunks of
+ * arbitrary size. The last frameLength samples are kept in a ring buffer and every time hop (= frameLength - overlap)
+ * new samples have arrived, the windowed frame is transformed and the non-mirrored spectrum (fourierLength/2+1 bins) is
+ * passed to a FrameListener. Memory use is bounded by the frame length, independent of how long the input runs, and the
+ * emitted frames are the same as the columns of ShortTimeFourier for the concatenated input.
+ *  
+ *
+ * @author  Sambit Paul
+ * @version 1.0
+ */
+public class StreamingShortTimeFourier {
+
+    /**
+     * Receives the frames computed by StreamingShortTimeFourier.
+     */
+    public interface FrameListener {
+        /**
+         * Called for every completed frame. The arrays are reused for the next frame, so they must be copied if the
+         * values are needed after the call returns.
+         * @param index Index of the frame (0 for the first frame); frame i starts at sample i*hop of the stream
+         * @param re Real part of the non-mirrored spectrum of the frame
+         * @param im Imaginary part of the non-mirrored spectrum of the frame
+         */
+        void onFrame(long index, double[] re, double[] im);
+    }
+
+    private final int frameLength;
+    private final int hop;
+    private final int fourierLength;
+    private final double[] window;
+    private final FrameListener listener;
+    private final FFTPlan plan;
+
+    private final double[] ring;
+    private final double[] frame;
+    private final double[] re;
+    private final double[] im;
+    private int position = 0;
+    private int untilNext;
+    private long frames = 0;
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingShortTimeFourier.
+     * @param frameLength   Number of samples that each FFT-frame should have
+     * @param overlap       Number of samples that overlap between frames
+     * @param fourierLength Number of samples used in the Fourier analysis of each frame
+     *                          If the value is greater than frameLength, frame gets zero padded
+     * @param window        Windowing function to perform on each STFT frame
+     * @param listener      Receives the spectrum of every completed frame
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingShortTimeFourier(int frameLength, int overlap, int fourierLength, _Window window, FrameListener listener) {
+        if (frameLength < 1) {
+            throw new IllegalArgumentException("Frame length must be greater than 0");
+        }
+        if (overlap < 0 || overlap >= frameLength) {
+            throw new IllegalArgumentException("Overlap size should be non-negative and smaller than the frame length");
+        }
+        if (fourierLength < frameLength) {
+            throw new IllegalArgumentException("Fourier length should be equal to or greater than the frame length");
+        }
+        if (window == null) {
+            throw new IllegalArgumentException("Window can not be null");
+        }
+        if (window.getWindow().length != frameLength) {
+            throw new IllegalArgumentException("Window and frame dimensions must match");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener can not be null");
+        }
+        this.frameLength = frameLength;
+        this.hop = frameLength - overlap;
+        this.fourierLength = fourierLength;
+        this.window = window.getWindow().clone();
+        this.listener = listener;
+        this.plan = FFTPlan.of(fourierLength, false, DftNormalization.STANDARD);
+        this.ring = new double[frameLength];
+        this.frame = new double[fourierLength];
+        this.re = new double[fourierLength/2 + 1];
+        this.im = new double[fourierLength/2 + 1];
+        this.untilNext = frameLength;
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingShortTimeFourier.
+     * Defaults fourier length to frameLength.
+     * @param frameLength   Number of samples that each FFT-frame should have
+     * @param overlap       Number of samples that overlap between frames
+     * @param window        Windowing function to perform on each STFT frame
+     * @param listener      Receives the spectrum of every completed frame
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingShortTimeFourier(int frameLength, int overlap, _Window window, FrameListener listener) {
+        this(frameLength, overlap, frameLength, window, listener);
+    }
+
+    /**
+     * This constructor initialises the prerequisites required to use StreamingShortTimeFourier.
+     * Defaults window to rectangular window (= no windowing) and fourier length to frameLength.
+     * @param frameLength   Number of samples that each FFT-frame should have
+     * @param overlap       Number of samples that overlap between frames
+     * @param listener      Receives the spectrum of every completed frame
+     * @throws java.lang.IllegalArgumentException if the arguments are inconsistent
+     */
+    public StreamingShortTimeFourier(int frameLength, int overlap, FrameListener listener) {
+        this(frameLength, overlap, frameLength, new Rectangular(frameLength), listener);
+    }
+
+    /**
+     * Feeds a chunk of samples into the transform. Every frame completed by the chunk is passed to the listener before
+     * this method returns.
+     * @param chunk The samples
+     * @return int Number of frames emitted for this chunk
+     */
+    public int process(double[] chunk) {
+        return this.process(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Feeds len samples of the buffer, starting at off, into the transform. Every frame completed by the samples is
+     * passed to the listener before this method returns.
+     * @param chunk Buffer holding the samples
+     * @param off Index of the first sample
+     * @param len Number of samples
+     * @throws java.lang.IllegalArgumentException if the range is outside the buffer
+     * @return int Number of frames emitted for these samples
+     */
+    public int process(double[] chunk, int off, int len) {
+        if (off < 0 || len < 0 || off + len > chunk.length) {
+            throw new IllegalArgumentException("Sample range is outside the buffer");
+        }
+        int emitted = 0;
+        while (len > 0) {
+            int n = Math.min(len, Math.min(this.untilNext, this.frameLength - this.position));
+            System.arraycopy(chunk, off, this.ring, this.position, n);
+            this.position = (this.position + n) % this.frameLength;
+            this.untilNext -= n;
+            off += n;
+            len -= n;
+            if (this.untilNext == 0) {
+                this.emit();
+                this.untilNext = this.hop;
+                emitted++;
+            }
+        }
+        return emitted;
+    }
+
+    // The ring is full whenever a frame is due; its oldest sample is at the write position
+    private void emit() {
+        int tail = this.frameLength - this.position;
+        for (int i=0; i<tail; i++) {
+            this.frame[i] = this.ring[this.position + i]*this.window[i];
+        }
+        for (int i=0; i<this.position; i++) {
+            this.frame[tail + i] = this.ring[i]*this.window[tail + i];
+        }
+        this.plan.executeReal(this.frame, this.re, this.im);
+        this.listener.onFrame(this.frames++, this.re, this.im);
+    }
+
+    /**
+     * Discards the buffered samples so that the next sample starts a new stream. The frame counter restarts at 0.
+     */
+    public void reset() {
+        Arrays.fill(this.ring, 0.0);
+        this.position = 0;
+        this.untilNext = this.frameLength;
+        this.frames = 0;
+    }
+
+    /**
+     * Returns the number of frames emitted since the stream was started or reset
+     * @return long Number of frames
+     */
+    public long getFrameCount() {
+        return this.frames;
+    }
+
+    /**
+     * Returns the number of non-mirrored frequency bins of every frame
+     * @return int Number of bins (fourierLength/2 + 1)
+     */
+    public int getNumBins() {
+        return this.fourierLength/2 + 1;
+    }
+}
@@ -16,9 +16,11 @@ import org.apache.commons.math3.complex.Complex;
  * <h2>Interface for Forward Fourier Transform</h2>
  *
  * The _Fourier interface is implemented by all Forward Fourier Transforms.
+ * Besides the getters which return new arrays, it provides overloads which write into buffers owned by the caller so that
+ * steady-state pipelines can run without allocating memory on every call.
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.2
  */
 public interface _Fourier {
 
@@ -89,4 +91,88 @@ public interface _Fourier {
      * @return double[] Array of frequency bins
      */
     double[] getFFTFreq(int Fs, boolean onlyPositive);
+
+    /**
+     * Performs the fourier transform of the given signal (ignoring the signal the object was constructed with) and writes
+     * the output into the caller owned buffers. If the buffers can hold N values the mirrored output is written, otherwise
+     * only the non-mirrored N/2+1 bins. The state of the object is not changed.
+     * The default implementation computes a new FastFourier transform of the signal and copies its output, which
+     * allocates on every call; FastFourier and DiscreteFourier override it without allocating.
+     * @param in Signal to be transformed
+     * @param outRe Real part of the output; length at least N/2+1
+     * @param outIm Imaginary part of the output; same length as outRe
+     * @throws java.lang.IllegalArgumentException if the output buffers are too short
+     */
+    default void transform(double[] in, double[] outRe, double[] outIm) {
+        int n = in.length;
+        if (outRe.length < n/2 + 1 || outIm.length < n/2 + 1) {
+            throw new IllegalArgumentException("Output buffers must hold at least N/2+1 = " + (n/2 + 1) + " values");
+        }
+        boolean full = outRe.length >= n && outIm.length >= n;
+        FastFourier ft = new FastFourier(in);
+        ft.transform();
+        double[][] out = ft.getComplex2D(!full);
+        for (int i=0; i<out.length; i++) {
+            outRe[i] = out[i][0];
+            outIm[i] = out[i][1];
+        }
+    }
+
+    /**
+     * Writes the magnitude of the fourier transformed sequence into the caller owned buffer
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param dst Output buffer; length at least the number of output bins
+     */
+    default void getMagnitude(boolean onlyPositive, double[] dst) {
+        double[] mag = this.getMagnitude(onlyPositive);
+        System.arraycopy(mag, 0, dst, 0, mag.length);
+    }
+
+    /**
+     * Writes the phase of the fourier transformed sequence in radians into the caller owned buffer
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param dst Output buffer; length at least the number of output bins
+     */
+    default void getPhaseRad(boolean onlyPositive, double[] dst) {
+        double[] phase = this.getPhaseRad(onlyPositive);
+        System.arraycopy(phase, 0, dst, 0, phase.length);
+    }
+
+    /**
+     * Writes the complex value of the fourier transformed sequence into the caller owned buffers
+     * @param onlyPositive Set to True if non-mirrored output is required
+     * @param re Real part of the output; length at least the number of output bins
+     * @param im Imaginary part of the output; length at least the number of output bins
+     */
+    default void getComplex(boolean onlyPositive, double[] re, double[] im) {
+        double[][] out = this.getComplex2D(onlyPositive);
+        for (int i=0; i<out.length; i++) {
+            re[i] = out[i][0];
+            im[i] = out[i][1];
+        }
+    }
+
+    /**
+     * Computes the magnitude of a complex sequence given as separate real and imaginary buffers
+     * @param re Real part of the sequence
+     * @param im Imaginary part of the sequence
+     * @param dst Output buffer; the first re.length values are written
+     */
+    static void magnitude(double[] re, double[] im, double[] dst) {
+        for (int i=0; i<re.length; i++) {
+            dst[i] = Math.sqrt(re[i]*re[i] + im[i]*im[i]);
+        }
+    }
+
+    /**
+     * Computes the phase (in radians) of a complex sequence given as separate real and imaginary buffers
+     * @param re Real part of the sequence
+     * @param im Imaginary part of the sequence
+     * @param dst Output buffer; the first re.length values are written
+     */
+    static void phase(double[] re, double[] im, double[] dst) {
+        for (int i=0; i<re.length; i++) {
+            dst[i] = Math.atan2(im[i], re[i]);
+        }
+    }
 }
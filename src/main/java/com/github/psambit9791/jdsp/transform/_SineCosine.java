@@ -17,7 +17,7 @@ package com.github.psambit9791.jdsp.transform;
  * The _SineCosine interface is implemented by all Forward Sine and Cosine Transforms.
  *
  * @author  Sambit Paul
- * @version 1.0
+ * @version 1.3
  */
 public interface _SineCosine {
 
@@ -48,6 +48,50 @@ public interface _SineCosine {
      */
     double[] getOutput();
 
+    /**
+     * Writes the output after the transform is applied into the caller owned buffer
+     * @param dst Output buffer; length at least the length of the output
+     */
+    default void getOutput(double[] dst) {
+        double[] out = this.getOutput();
+        System.arraycopy(out, 0, dst, 0, out.length);
+    }
+
+    /**
+     * Performs the forward transform of the given type on the given signal with the normalization of the object, and
+     * writes the output into the caller owned buffer, which may be the input array. The transforms of this package
+     * transform any signal this way, ignoring the signal the object was constructed with and without changing the state
+     * of the object, and do not allocate memory once a signal length has been transformed. The default implementation
+     * runs transform(type) and copies getOutput() into the buffer, so it requires in to be the signal the object was
+     * constructed with.
+     * @param in Signal to be transformed
+     * @param out Output buffer; length at least in.length
+     * @param type The type of transform to be applied
+     * @throws java.lang.IllegalArgumentException if type is not supported, the output buffer is too short or, for the
+     * default implementation, in does not have the length of the signal of the object
+     */
+    default void transform(double[] in, double[] out, int type) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output buffer must hold at least " + in.length + " values");
+        }
+        if (in.length != this.getSignalLength()) {
+            throw new IllegalArgumentException("Signal must have the length of the signal of the transform");
+        }
+        this.transform(type);
+        this.getOutput(out);
+    }
+
+    /**
+     * Performs the Type 1 forward transform on the given signal and writes the output into the caller owned buffer. See
+     * transform(in, out, type).
+     * @param in Signal to be transformed
+     * @param out Output buffer; length at least in.length
+     * @throws java.lang.IllegalArgumentException if the output buffer is too short
+     */
+    default void transform(double[] in, double[] out) {
+        this.transform(in, out, 1);
+    }
+
     /**
      * Returns the length of the input signal.
      * @return int length of the input signal
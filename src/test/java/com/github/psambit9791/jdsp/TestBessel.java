@@ -11,6 +11,7 @@
 package com.github.psambit9791.jdsp;
 
 import com.github.psambit9791.jdsp.filter.Bessel;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
 import com.github.psambit9791.jdsp.filter._IIRFilter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -183,4 +184,30 @@ public class TestBessel {
             double[] result = flt.bandPassFilter(this.signal2, 4, 30, 12);;
         });
     }
+
+    // Filters both signals as two channels in chunks of varying size
+    private double[][] streamChunks(StreamingIIRFilter f) {
+        double[][] out = new double[2][this.signal1.length];
+        int[] chunks = {1, 7, 13, 30, 49};
+        int start = 0;
+        for (int len : chunks) {
+            f.process(0, this.signal1, start, out[0], start, len);
+            f.process(1, this.signal2, start, out[1], start, len);
+            start += len;
+        }
+        return out;
+    }
+
+    @Test
+    public void StreamingTest() {
+        StreamingIIRFilter hp = flt.streamingHighPass(4, 29, 2);
+        double[][] out = this.streamChunks(hp);
+        Assertions.assertArrayEquals(flt.highPassFilter(this.signal1, 4, 29), out[0], 1e-10);
+        Assertions.assertArrayEquals(flt.highPassFilter(this.signal2, 4, 29), out[1], 1e-10);
+
+        StreamingIIRFilter bs = flt.streamingBandStop(4, 7, 28, 2);
+        out = this.streamChunks(bs);
+        Assertions.assertArrayEquals(flt.bandStopFilter(this.signal1, 4, 7, 28), out[0], 1e-10);
+        Assertions.assertArrayEquals(flt.bandStopFilter(this.signal2, 4, 7, 28), out[1], 1e-10);
+    }
 }
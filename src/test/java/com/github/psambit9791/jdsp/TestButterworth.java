@@ -11,6 +11,7 @@
 package com.github.psambit9791.jdsp;
 
 import com.github.psambit9791.jdsp.filter.Butterworth;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
 import com.github.psambit9791.jdsp.filter._IIRFilter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -183,4 +184,36 @@ public class TestButterworth {
             double[] result = flt.bandPassFilter(this.signal2, 4, 30, 12);;
         });
     }
+
+    // Filters both signals as two channels in chunks of varying size
+    private double[][] streamChunks(StreamingIIRFilter f) {
+        double[][] out = new double[2][this.signal1.length];
+        int[] chunks = {1, 7, 13, 30, 49};
+        int start = 0;
+        for (int len : chunks) {
+            f.process(0, this.signal1, start, out[0], start, len);
+            f.process(1, this.signal2, start, out[1], start, len);
+            start += len;
+        }
+        return out;
+    }
+
+    @Test
+    public void StreamingTest() {
+        StreamingIIRFilter lp = flt.streamingLowPass(4, 9, 2);
+        double[][] out = this.streamChunks(lp);
+        Assertions.assertArrayEquals(flt.lowPassFilter(this.signal1, 4, 9), out[0], 1e-10);
+        Assertions.assertArrayEquals(flt.lowPassFilter(this.signal2, 4, 9), out[1], 1e-10);
+
+        StreamingIIRFilter bp = flt.streamingBandPass(4, 12, 18, 2);
+        out = this.streamChunks(bp);
+        Assertions.assertArrayEquals(flt.bandPassFilter(this.signal1, 4, 12, 18), out[0], 1e-10);
+        Assertions.assertArrayEquals(flt.bandPassFilter(this.signal2, 4, 12, 18), out[1], 1e-10);
+
+        bp.reset();
+        Assertions.assertArrayEquals(flt.bandPassFilter(this.signal1, 4, 12, 18), bp.process(this.signal1), 1e-10);
+        Assertions.assertEquals(4, bp.getNumSections());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bp.process(2, this.signal1, 0, this.signal1, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> flt.streamingBandStop(4, 18, 12, 1));
+    }
 }
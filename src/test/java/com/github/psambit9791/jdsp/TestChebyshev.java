@@ -11,6 +11,7 @@
 package com.github.psambit9791.jdsp;
 
 import com.github.psambit9791.jdsp.filter.Chebyshev;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
 import com.github.psambit9791.jdsp.filter._IIRFilter;
 import com.github.psambit9791.jdsp.signal.Convolution;
 import org.junit.jupiter.api.Assertions;
@@ -319,4 +320,35 @@ public class TestChebyshev {
             double[] result = t2_1.bandPassFilter(this.signal2, 4, 30, 12);;
         });
     }
+
+    // Filters both signals as two channels in chunks of varying size
+    private double[][] streamChunks(StreamingIIRFilter f) {
+        double[][] out = new double[2][this.signal1.length];
+        int[] chunks = {1, 7, 13, 30, 49};
+        int start = 0;
+        for (int len : chunks) {
+            f.process(0, this.signal1, start, out[0], start, len);
+            f.process(1, this.signal2, start, out[1], start, len);
+            start += len;
+        }
+        return out;
+    }
+
+    @Test
+    public void StreamingTest() {
+        Chebyshev[] designs = {new Chebyshev(100, this.ripple_factor, 1), new Chebyshev(100, this.ripple_factor, 2)};
+        for (Chebyshev flt : designs) {
+            StreamingIIRFilter lp = flt.streamingLowPass(4, 9, 2);
+            double[][] out = this.streamChunks(lp);
+            Assertions.assertArrayEquals(flt.lowPassFilter(this.signal1, 4, 9), out[0], 1e-10);
+            Assertions.assertArrayEquals(flt.lowPassFilter(this.signal2, 4, 9), out[1], 1e-10);
+
+            StreamingIIRFilter bs = flt.streamingBandStop(4, 7, 28, 2);
+            out = this.streamChunks(bs);
+            Assertions.assertArrayEquals(flt.bandStopFilter(this.signal1, 4, 7, 28), out[0], 1e-10);
+            Assertions.assertArrayEquals(flt.bandStopFilter(this.signal2, 4, 7, 28), out[1], 1e-10);
+        }
+        Chebyshev bad = new Chebyshev(100, this.ripple_factor, 3);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bad.streamingLowPass(4, 9, 1));
+    }
 }
@@ -12,7 +12,10 @@ package com.github.psambit9791.jdsp;
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.signal.ComplexConvolution;
+import com.github.psambit9791.jdsp.transform.FFTEngine;
+import com.github.psambit9791.jdsp.transform.FFTPlan;
 import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -157,4 +160,53 @@ public class TestComplexConvolution {
             Assertions.assertArrayEquals(result_valid[i], output_valid[i], 0.001);
         }
     }
+
+    @Test
+    public void testComplexComplexMethods() {
+        Complex[] sg = UtilMethods.matToComplex(this.complexSignal2);
+        Complex[] krn = UtilMethods.matToComplex(this.complexKernel2);
+        ComplexConvolution c1 = new ComplexConvolution(sg, krn);
+        double[][] expected = UtilMethods.complexTo2D(c1.convolve("full"));
+        for (String method : new String[]{"direct", "fft", "block", "auto"}) {
+            double[][] output = UtilMethods.complexTo2D(c1.convolve("full", method));
+            for (int i=0; i<expected.length; i++) {
+                Assertions.assertArrayEquals(expected[i], output[i], 1e-9);
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> c1.convolve("full", "fastest"));
+    }
+
+    @Test
+    public void testInterleavedFFTConvolution() {
+        Complex[] sg = UtilMethods.matToComplex(this.complexSignal2);
+        Complex[] krn = UtilMethods.matToComplex(this.complexKernel2);
+        ComplexConvolution c1 = new ComplexConvolution(sg, krn);
+        for (String mode : new String[]{"full", "same", "valid"}) {
+            double[] expected = FFTEngine.fromComplex(c1.convolve(mode, "direct"));
+            double[] output = ComplexConvolution.convolveInterleaved(FFTEngine.fromComplex(sg), FFTEngine.fromComplex(krn), mode);
+            Assertions.assertArrayEquals(expected, output, 1e-9);
+            Assertions.assertArrayEquals(expected, FFTEngine.fromComplex(c1.fastConvolve(mode)), 1e-9);
+        }
+
+        ComplexConvolution c2 = new ComplexConvolution(this.doubleSignal2, krn);
+        Assertions.assertArrayEquals(FFTEngine.fromComplex(c2.convolve("same")), FFTEngine.fromComplex(c2.fastConvolve("same")), 1e-9);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ComplexConvolution.convolveInterleaved(new double[3], new double[2], "full"));
+    }
+
+    @Test
+    public void testSpectrumFFTConvolution() {
+        double[] sg = FFTEngine.fromComplex(UtilMethods.matToComplex(this.complexSignal2));
+        double[] krn = FFTEngine.fromComplex(UtilMethods.matToComplex(this.complexKernel2));
+        int n = sg.length/2;
+        int size = ComplexConvolution.spectrumSize(n, krn.length/2);
+        double[] spectrum = java.util.Arrays.copyOf(sg, 2*size);
+        FFTPlan.of(size, false, DftNormalization.STANDARD).execute(spectrum);
+        double[] copy = spectrum.clone();
+        for (String mode : new String[]{"full", "same", "valid"}) {
+            double[] expected = ComplexConvolution.convolveInterleaved(sg, krn, mode);
+            Assertions.assertArrayEquals(expected, ComplexConvolution.convolveSpectrum(spectrum, n, krn, mode), 1e-12);
+        }
+        Assertions.assertArrayEquals(copy, spectrum, 0.0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ComplexConvolution.convolveSpectrum(new double[2*size + 2], n, krn, "same"));
+    }
 }
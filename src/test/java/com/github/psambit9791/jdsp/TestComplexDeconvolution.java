@@ -11,11 +11,14 @@
 package com.github.psambit9791.jdsp;
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.signal.ComplexConvolution;
 import com.github.psambit9791.jdsp.signal.ComplexDeconvolution;
 import org.apache.commons.math3.complex.Complex;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 public class TestComplexDeconvolution {
 
     @Test
@@ -64,4 +67,24 @@ public class TestComplexDeconvolution {
         double[] signal2 = cd2.getRealOutput();
         Assertions.assertArrayEquals(signal2, result, 0.001);
     }
+
+    @Test
+    public void complexDeconvolutionLongTest() {
+        Random rand = new Random(11);
+        Complex[] signal = new Complex[500];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = new Complex(Math.round(rand.nextGaussian()*100)/100.0, Math.round(rand.nextGaussian()*100)/100.0);
+        }
+        double[] kernel = {1, 0.5, 0.25};
+        Complex[] convolved = new ComplexConvolution(signal, kernel).convolve("full");
+
+        ComplexDeconvolution cd = new ComplexDeconvolution(convolved, kernel);
+        cd.deconvolve("full");
+        double[][] recovered = UtilMethods.complexTo2D(cd.getComplexOutput());
+        double[][] expected = UtilMethods.complexTo2D(signal);
+        Assertions.assertEquals(expected.length, recovered.length);
+        for (int i=0; i<expected.length; i++) {
+            Assertions.assertArrayEquals(expected[i], recovered[i], 0.001);
+        }
+    }
 }
@@ -14,6 +14,8 @@ import com.github.psambit9791.jdsp.signal.Convolution;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 public class TestConvolution {
 
     final double[] signal1 = {1.0, 2.0, 3.0, 4.0, 5.0};
@@ -208,4 +210,75 @@ public class TestConvolution {
         out = con2.convolve1d("wrap");
         Assertions.assertArrayEquals(result2, out, 0.001);
     }
+
+    @Test
+    public void blockConvolutionTest() {
+        final double[] full1 = {1.0, 2.0, 4.0, 6.5, 9.0, 5.5, 7.0, 2.5};
+        final double[] same2 = {14, 26, 18, 37, 16, 49, 39, 36};
+        final double[] valid3 = {132.12};
+
+        Convolution con1 = new Convolution(this.signal1, this.kernel1);
+        Assertions.assertArrayEquals(full1, con1.blockConvolve(), 0.001);
+        Assertions.assertArrayEquals(full1, con1.blockConvolve("full", 4), 0.001);
+
+        Convolution con2 = new Convolution(this.signal2, this.kernel2);
+        Assertions.assertArrayEquals(same2, con2.blockConvolve("same"), 0.001);
+        Assertions.assertArrayEquals(same2, con2.blockConvolve("same", 5), 0.001);
+
+        Convolution con3 = new Convolution(this.signal3, this.kernel3);
+        Assertions.assertArrayEquals(valid3, con3.blockConvolve("valid"), 0.001);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> con1.blockConvolve("reflect"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> con1.blockConvolve("full", 3));
+    }
+
+    @Test
+    public void blockConvolutionLongSignalTest() {
+        Random rand = new Random(42);
+        double[] signal = new double[20011];
+        double[] kernel = new double[64];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = rand.nextGaussian();
+        }
+        for (int i=0; i<kernel.length; i++) {
+            kernel[i] = rand.nextGaussian();
+        }
+
+        Convolution con = new Convolution(signal, kernel);
+        for (String mode : new String[]{"full", "same", "valid"}) {
+            double[] expected = con.convolve(mode);
+            Assertions.assertArrayEquals(expected, con.blockConvolve(mode), 1e-9);
+            Assertions.assertArrayEquals(expected, con.blockConvolve(mode, 100), 1e-9);
+        }
+
+        // The kernel is longer than the signal: the roles are swapped internally
+        Convolution swapped = new Convolution(kernel, signal);
+        Assertions.assertArrayEquals(con.convolve("full"), swapped.blockConvolve("full"), 1e-9);
+        Assertions.assertArrayEquals(swapped.convolve("same"), swapped.blockConvolve("same"), 1e-9);
+    }
+
+    @Test
+    public void convolutionMethodTest() {
+        Convolution small = new Convolution(this.signal3, this.kernel3);
+        Assertions.assertEquals("direct", small.chooseMethod("full"));
+        for (String method : new String[]{"direct", "fft", "block", "auto"}) {
+            Assertions.assertArrayEquals(small.convolve("same"), small.convolve("same", method), 1e-9);
+        }
+
+        Random rand = new Random(7);
+        double[] signal = new double[100000];
+        double[] kernel = new double[2048];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = rand.nextGaussian();
+        }
+        for (int i=0; i<kernel.length; i++) {
+            kernel[i] = rand.nextGaussian();
+        }
+        Convolution large = new Convolution(signal, kernel);
+        Assertions.assertNotEquals("direct", large.chooseMethod("full"));
+        Assertions.assertArrayEquals(large.fastConvolve("valid"), large.convolve("valid", "auto"), 1e-8);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> small.convolve("full", "fastest"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> small.chooseMethod("reflect"));
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.psambit9791.jdsp;
+
+import com.github.psambit9791.jdsp.signal.Convolution;
+import com.github.psambit9791.jdsp.signal.Convolver;
+import com.github.psambit9791.jdsp.signal.CrossCorrelation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class TestConvolver {
+
+    private static double[] randomSignal(Random rand, int length) {
+        double[] signal = new double[length];
+        for (int i=0; i<length; i++) {
+            signal[i] = rand.nextGaussian();
+        }
+        return signal;
+    }
+
+    @Test
+    public void convolverMatchesConvolution() {
+        Random rand = new Random(3);
+        double[] kernel = randomSignal(rand, 64);
+        Convolver conv = new Convolver(kernel);
+        for (int length : new int[]{64, 100, 1000, 50000}) {
+            double[] signal = randomSignal(rand, length);
+            for (String mode : new String[]{"full", "same", "valid"}) {
+                Convolution c = new Convolution(signal, kernel);
+                Assertions.assertArrayEquals(c.convolve(mode), conv.convolve(signal, mode), 1e-9);
+                CrossCorrelation cc = new CrossCorrelation(signal, kernel);
+                Assertions.assertArrayEquals(cc.crossCorrelate(mode), conv.correlate(signal, mode), 1e-9);
+            }
+        }
+        double[] signal = randomSignal(rand, 10);
+        Assertions.assertArrayEquals(new Convolution(signal, kernel).convolve(), conv.convolve(signal), 1e-9);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> conv.correlate(signal));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> conv.convolve(signal, "reflect"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Convolver(new double[0]));
+    }
+
+    @Test
+    public void convolverCachesSpectra() {
+        Random rand = new Random(5);
+        double[] kernel = randomSignal(rand, 256);
+        Convolver conv = new Convolver(kernel);
+        double[][] signals = new double[64][];
+        for (int i=0; i<signals.length; i++) {
+            signals[i] = randomSignal(rand, 20000);
+        }
+        double[][] expected = new double[signals.length][];
+        for (int i=0; i<signals.length; i++) {
+            expected[i] = new Convolution(signals[i], kernel).blockConvolve("same");
+        }
+        double[][] outputs = new double[signals.length][];
+        IntStream.range(0, signals.length).parallel().forEach(i -> outputs[i] = conv.convolve(signals[i], "same"));
+        for (int i=0; i<signals.length; i++) {
+            Assertions.assertArrayEquals(expected[i], outputs[i], 1e-9);
+        }
+        Assertions.assertEquals(1, conv.getCachedSpectra());
+    }
+}
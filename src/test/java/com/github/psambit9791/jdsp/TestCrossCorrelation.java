@@ -182,4 +182,15 @@ public class TestCrossCorrelation {
         out = cc2.fastCrossCorrelate();
         Assertions.assertArrayEquals(result2, out, 0.001);
     }
+
+    @Test
+    public void crossCorrelationMethodTest() {
+        CrossCorrelation cc = new CrossCorrelation(this.signal2, this.kernel2);
+        for (String method : new String[]{"direct", "fft", "block", "auto"}) {
+            Assertions.assertArrayEquals(cc.crossCorrelate("full", "direct"), cc.crossCorrelate("full", method), 1e-9);
+        }
+        // Repeated calls do not change the kernel
+        Assertions.assertArrayEquals(cc.crossCorrelate("same"), cc.crossCorrelate("same"), 1e-9);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> cc.crossCorrelate("full", "fastest"));
+    }
 }
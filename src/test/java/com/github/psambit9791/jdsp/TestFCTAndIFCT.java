@@ -10,7 +10,6 @@
 
 package com.github.psambit9791.jdsp;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.transform.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -35,16 +34,6 @@ public class TestFCTAndIFCT {
             -0.208, -0.655, -1.362, -1.062, -0.496, -0.901, -1.482, -1.035, -0.402, -0.756, -1.212, -0.634,  0.04 ,
             -0.293, -0.658,  0.};
 
-    private double[] extendSignal(double[] signal) {
-        double power = Math.log(signal.length)/Math.log(2);
-        double raised_power = Math.ceil(power);
-        int new_length = (int)(Math.pow(2, raised_power)) + 1;
-        if (new_length != signal.length) {
-            signal = UtilMethods.zeroPadSignal(signal, new_length-signal.length);
-        }
-        return signal;
-    }
-
     @Test
     public void testFCTWithIFCT1() {
         FastCosine f1 = new FastCosine(this.signal1);
@@ -55,7 +44,7 @@ public class TestFCTAndIFCT {
         f2.transform();
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal1), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal1, reconstructed, 0.001);
 
     }
 
@@ -69,7 +58,7 @@ public class TestFCTAndIFCT {
         f2.transform();
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal1), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal1, reconstructed, 0.001);
 
     }
 
@@ -83,7 +72,7 @@ public class TestFCTAndIFCT {
         f2.transform();
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal1), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal1, reconstructed, 0.001);
 
     }
     @Test
@@ -96,7 +85,120 @@ public class TestFCTAndIFCT {
         f2.transform(1);
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal2), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal2, reconstructed, 0.001);
+    }
+
+    @Test
+    public void testFCTAllTypesMatchDiscrete() {
+        // Both signals end with 0 so that the type 1 sums of the direct implementation cover every sample
+        for (int type = 1; type <= 4; type++) {
+            for (_SineCosine.Normalization norm : _SineCosine.Normalization.values()) {
+                FastCosine f1 = new FastCosine(this.signal2, norm);
+                f1.transform(type);
+                DiscreteCosine d1 = new DiscreteCosine(this.signal2, norm);
+                d1.transform(type);
+                Assertions.assertArrayEquals(d1.getOutput(), f1.getOutput(), 1e-9);
+            }
+        }
     }
 
+    @Test
+    public void testFCTWithIFCTArbitraryLength() {
+        int[] lengths = {1, 2, 3, 7, 16, 31, 53, 79};
+        for (int n : lengths) {
+            double[] sig = new double[n];
+            System.arraycopy(this.signal1, 1, sig, 0, n);
+            for (int type = 1; type <= 4; type++) {
+                if (type == 1 && n < 2) {
+                    continue;
+                }
+                for (_SineCosine.Normalization norm : _SineCosine.Normalization.values()) {
+                    FastCosine f1 = new FastCosine(sig, norm);
+                    f1.transform(type);
+                    Assertions.assertEquals(n, f1.getOutput().length);
+
+                    InverseFastCosine f2 = new InverseFastCosine(f1.getOutput(), _InverseSineCosine.Normalization.valueOf(norm.name()));
+                    f2.transform(type);
+                    Assertions.assertArrayEquals(sig, f2.getOutput(), 1e-9);
+                }
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FastCosine(this.signal1).transform(5));
+    }
+
+    @Test
+    public void testIntoCallerBuffer() {
+        for (FastCosine.Normalization norm : FastCosine.Normalization.values()) {
+            for (int type=1; type<=4; type++) {
+                FastCosine f1 = new FastCosine(this.signal1, norm);
+                f1.transform(type);
+                double[] expected = f1.getOutput();
+
+                // A transform of another signal into a buffer does not change the output of the object
+                double[] out = new double[this.signal1.length];
+                f1.transform(this.signal2, out, type);
+                Assertions.assertArrayEquals(expected, f1.getOutput(), 0);
+                f1.transform(this.signal1, out, type);
+                Assertions.assertArrayEquals(expected, out, 1e-12);
+
+                double[] inPlace = this.signal1.clone();
+                f1.transform(inPlace, inPlace, type);
+                Assertions.assertArrayEquals(expected, inPlace, 1e-12);
+
+                DiscreteCosine d1 = new DiscreteCosine(this.signal1, norm);
+                d1.transform(this.signal1, out, type);
+                Assertions.assertArrayEquals(expected, out, 1e-12);
+            }
+        }
+        FastCosine f1 = new FastCosine(this.signal1);
+        double[] out = new double[this.signal1.length];
+        f1.transform(this.signal1, out);
+        f1.transform();
+        Assertions.assertArrayEquals(f1.getOutput(), out, 1e-12);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> f1.transform(this.signal1, new double[10], 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> f1.transform(this.signal1, out, 5));
+    }
+
+    @Test
+    public void testIntoCallerBufferDefault() {
+        final FastCosine fc = new FastCosine(this.signal1);
+        // An implementation which only provides the original methods uses the default of the buffer overload
+        _SineCosine legacy = new _SineCosine() {
+            public void transform() { fc.transform(); }
+            public void transform(int type) { fc.transform(type); }
+            public double[] getOutput() { return fc.getOutput(); }
+            public int getSignalLength() { return fc.getSignalLength(); }
+        };
+        for (int type=1; type<=4; type++) {
+            fc.transform(type);
+            double[] expected = fc.getOutput();
+            double[] out = new double[this.signal1.length];
+            legacy.transform(this.signal1, out, type);
+            Assertions.assertArrayEquals(expected, out, 1e-12);
+        }
+        double[] out = new double[this.signal1.length];
+        legacy.transform(this.signal1, out);
+        fc.transform();
+        Assertions.assertArrayEquals(fc.getOutput(), out, 1e-12);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> legacy.transform(this.signal1, new double[2], 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> legacy.transform(new double[3], new double[3], 1));
+    }
+
+    @Test
+    public void testFCTWithIFCTLongSignal() {
+        // Longer than the work buffers kept by the transform engine, so the buffers are allocated for the call
+        double[] signal = new double[70001];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = Math.sin(0.01*i) + ((i*31) % 7)/7.0;
+        }
+        for (int type=1; type<=4; type++) {
+            for (int r=0; r<2; r++) {
+                FastCosine f1 = new FastCosine(signal, FastCosine.Normalization.ORTHOGONAL);
+                f1.transform(type);
+                InverseFastCosine f2 = new InverseFastCosine(f1.getOutput(), InverseFastCosine.Normalization.ORTHOGONAL);
+                f2.transform(type);
+                Assertions.assertArrayEquals(signal, f2.getOutput(), 1e-9);
+            }
+        }
+    }
 }
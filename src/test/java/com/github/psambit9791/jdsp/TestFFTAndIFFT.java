@@ -11,15 +11,31 @@
 package com.github.psambit9791.jdsp;
 
 import com.github.psambit9791.jdsp.misc.UtilMethods;
+import com.github.psambit9791.jdsp.transform.BatchFastFourier;
+import com.github.psambit9791.jdsp.transform.DiscreteCosine;
 import com.github.psambit9791.jdsp.transform.DiscreteFourier;
+import com.github.psambit9791.jdsp.transform.FFTEngine;
+import com.github.psambit9791.jdsp.transform.FFTPlan;
+import com.github.psambit9791.jdsp.transform.FastCosine;
 import com.github.psambit9791.jdsp.transform.FastFourier;
+import com.github.psambit9791.jdsp.transform.FastSine;
 import com.github.psambit9791.jdsp.transform.InverseFastFourier;
+import com.github.psambit9791.jdsp.transform._Fourier;
+import com.github.psambit9791.jdsp.transform._SineCosine;
 import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestFFTAndIFFT {
 
@@ -109,4 +125,389 @@ public class TestFFTAndIFFT {
         Assertions.assertArrayEquals(this.signal, recovered, 0.0001);
         Assertions.assertArrayEquals(imag, f2.getImaginary(), 0.0001);
     }
+
+    @Test
+    public void fftEngineMatchesDFT() throws IOException {
+        this.buildSignal(1024);
+        int[] sizes = {1, 2, 4, 8, 32, 128, 512, 1024};
+        for (int n : sizes) {
+            double[] sig = UtilMethods.splitByIndex(this.signal, 0, n);
+            DiscreteFourier d = new DiscreteFourier(sig);
+            d.transform();
+            double[][] expected = d.getComplex2D(false);
+
+            double[] data = FFTEngine.fromReal(sig, n);
+            FFTEngine.forward(data);
+            for (int i=0; i<n; i++) {
+                Assertions.assertEquals(expected[i][0], data[2*i], 1e-6);
+                Assertions.assertEquals(expected[i][1], data[2*i+1], 1e-6);
+            }
+
+            FFTEngine.inverse(data);
+            FFTEngine.scale(data, 1.0/n);
+            for (int i=0; i<n; i++) {
+                Assertions.assertEquals(sig[i], data[2*i], 1e-9);
+                Assertions.assertEquals(0.0, data[2*i+1], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void fftEngineComplexInput() {
+        double[][] seq = {{1.0, 0.5}, {-2.0, 1.0}, {0.25, -3.0}, {4.0, 0.0}, {0.0, 1.5}, {-1.0, -1.0}, {2.5, 2.0}, {0.75, -0.5}};
+        double[] data = FFTEngine.fromComplex2D(seq);
+        FFTEngine.forward(data);
+
+        int n = seq.length;
+        for (int k=0; k<n; k++) {
+            double re = 0;
+            double im = 0;
+            for (int t=0; t<n; t++) {
+                double angle = -2*Math.PI*t*k/n;
+                re += seq[t][0]*Math.cos(angle) - seq[t][1]*Math.sin(angle);
+                im += seq[t][0]*Math.sin(angle) + seq[t][1]*Math.cos(angle);
+            }
+            Assertions.assertEquals(re, data[2*k], 1e-9);
+            Assertions.assertEquals(im, data[2*k+1], 1e-9);
+        }
+    }
+
+    @Test
+    public void fftArbitraryLength() throws IOException {
+        this.buildSignal(1000);
+        // Powers of 2, mixed radix (2, 3, 5, 7) and prime lengths (Bluestein)
+        int[] sizes = {3, 5, 6, 7, 12, 15, 30, 49, 60, 97, 100, 210, 257, 441, 1000};
+        for (int n : sizes) {
+            double[] sig = UtilMethods.splitByIndex(this.signal, 0, n);
+            DiscreteFourier d = new DiscreteFourier(sig);
+            d.transform();
+            FastFourier f = new FastFourier(sig);
+            f.transform();
+
+            Assertions.assertEquals(n, f.getSignalLength());
+            double[][] expected = d.getComplex2D(false);
+            double[][] result = f.getComplex2D(false);
+            Assertions.assertEquals(n, result.length);
+            for (int i=0; i<n; i++) {
+                Assertions.assertArrayEquals(expected[i], result[i], 1e-6);
+            }
+
+            InverseFastFourier fi = new InverseFastFourier(f.getComplex(false), false);
+            fi.transform();
+            Assertions.assertArrayEquals(sig, fi.getReal(), 1e-9);
+        }
+    }
+
+    @Test
+    public void fftExactLengthBins() {
+        // 44.1 kHz frame with a 1 kHz tone lands exactly on bin 1000 without padding
+        int n = 44100;
+        double[] sig = new double[n];
+        for (int i=0; i<n; i++) {
+            sig[i] = Math.sin(2*Math.PI*1000*i/(double)n);
+        }
+        FastFourier f = new FastFourier(sig);
+        f.transform();
+        double[] mag = f.getMagnitude(true);
+        Assertions.assertEquals(n/2+1, mag.length);
+        Assertions.assertEquals(n/2.0, mag[1000], 1e-6);
+        Assertions.assertEquals(0.0, mag[999], 1e-6);
+        Assertions.assertEquals(1000.0, f.getFFTFreq(n, true)[1000], 1e-9);
+    }
+
+    @Test
+    public void realFFTMatchesComplexFFT() throws IOException {
+        this.buildSignal(1000);
+        int[] sizes = {1, 2, 3, 4, 5, 8, 10, 17, 64, 100, 243, 1000};
+        for (int n : sizes) {
+            double[] sig = UtilMethods.splitByIndex(this.signal, 0, n);
+            double[] full = FFTEngine.fromReal(sig, n);
+            FFTEngine.forward(full);
+
+            double[] half = new double[2*(n/2+1)];
+            FFTEngine.realForward(sig, half);
+            for (int i=0; i<half.length; i++) {
+                Assertions.assertEquals(full[i], half[i], 1e-8);
+            }
+
+            double[] recovered = new double[n];
+            FFTEngine.realInverse(half, recovered);
+            for (int i=0; i<n; i++) {
+                Assertions.assertEquals(sig[i], recovered[i]/n, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void fftIfftMirrorOddLength() throws IOException {
+        this.buildSignal(101);
+
+        FastFourier f1 = new FastFourier(this.signal);
+        f1.transform();
+        double[][] mirrored = f1.getComplex2D(false);
+        for (int i=1; i<mirrored.length; i++) {
+            Assertions.assertEquals(mirrored[i][0], mirrored[mirrored.length-i][0], 1e-9);
+            Assertions.assertEquals(mirrored[i][1], -mirrored[mirrored.length-i][1], 1e-9);
+        }
+
+        InverseFastFourier f2 = new InverseFastFourier(f1.getComplex(false), false);
+        f2.transform();
+        Assertions.assertArrayEquals(this.signal, f2.getReal(), 1e-9);
+    }
+
+    @Test
+    public void fftPlanIsCached() {
+        FFTPlan p1 = FFTPlan.of(1000, false, DftNormalization.STANDARD);
+        FFTPlan p2 = FFTPlan.of(1000, false, DftNormalization.STANDARD);
+        Assertions.assertSame(p1, p2);
+        Assertions.assertNotSame(p1, FFTPlan.of(1000, true, DftNormalization.STANDARD));
+        Assertions.assertNotSame(p1, FFTPlan.of(1000, false, DftNormalization.UNITARY));
+        Assertions.assertEquals(1000, p1.getLength());
+        Assertions.assertFalse(p1.isInverse());
+        Assertions.assertEquals(DftNormalization.STANDARD, p1.getNormalization());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> p1.execute(new double[1998]));
+    }
+
+    @Test
+    public void fftEmptySignal() {
+        FastFourier f = new FastFourier(new double[0]);
+        f.transform();
+        Assertions.assertArrayEquals(new double[]{0}, f.getMagnitude(true));
+        Assertions.assertEquals(0, f.getMagnitude(false).length);
+
+        for (DftNormalization norm : DftNormalization.values()) {
+            double[] half = {1, 1};
+            FFTPlan.of(0, false, norm).executeReal(new double[0], half);
+            Assertions.assertArrayEquals(new double[]{0, 0}, half);
+            FFTPlan.of(0, true, norm).executeReal(half, new double[0]);
+        }
+    }
+
+    @Test
+    public void fftPlanNormalization() throws IOException {
+        this.buildSignal(240);
+        int n = this.signal.length;
+        for (DftNormalization norm : DftNormalization.values()) {
+            double[] data = FFTEngine.fromReal(this.signal, n);
+            FFTPlan.of(n, false, norm).execute(data);
+            double[] half = new double[2*(n/2+1)];
+            FFTPlan.of(n, false, norm).executeReal(this.signal, half);
+            for (int i=0; i<half.length; i++) {
+                Assertions.assertEquals(data[i], half[i], 1e-8);
+            }
+
+            double[] recovered = new double[n];
+            FFTPlan.of(n, true, norm).executeReal(half, recovered);
+            FFTPlan.of(n, true, norm).execute(data);
+            for (int i=0; i<n; i++) {
+                Assertions.assertEquals(this.signal[i], data[2*i], 1e-9);
+                Assertions.assertEquals(0, data[2*i+1], 1e-9);
+                Assertions.assertEquals(this.signal[i], recovered[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void fftPlanSharedAcrossThreads() throws Exception {
+        this.buildSignal(1009);
+        final double[] sig = this.signal;
+        final double[] expected = FFTEngine.fromReal(sig, sig.length);
+        FFTEngine.forward(expected);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<double[]>> results = new ArrayList<>();
+            for (int t=0; t<16; t++) {
+                results.add(pool.submit(() -> {
+                    double[] data = null;
+                    for (int r=0; r<20; r++) {
+                        data = FFTEngine.fromReal(sig, sig.length);
+                        FFTPlan.of(sig.length, false, DftNormalization.STANDARD).execute(data);
+                    }
+                    return data;
+                }));
+            }
+            for (Future<double[]> f : results) {
+                Assertions.assertArrayEquals(expected, f.get());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void fftIntoCallerBuffers() throws IOException {
+        this.buildSignal(1000);
+        FastFourier ft = new FastFourier(this.signal);
+        ft.transform();
+        double[][] expected = ft.getComplex2D(false);
+        double[] expectedMag = ft.getMagnitude(true);
+
+        double[] re = new double[this.signal.length];
+        double[] im = new double[this.signal.length];
+        ft.transform(this.signal, re, im);
+        for (int i=0; i<re.length; i++) {
+            Assertions.assertEquals(expected[i][0], re[i], 1e-9);
+            Assertions.assertEquals(expected[i][1], im[i], 1e-9);
+        }
+
+        double[] halfRe = new double[this.signal.length/2+1];
+        double[] halfIm = new double[this.signal.length/2+1];
+        new DiscreteFourier(this.signal).transform(this.signal, halfRe, halfIm);
+        double[] mag = new double[halfRe.length];
+        _Fourier.magnitude(halfRe, halfIm, mag);
+        Assertions.assertArrayEquals(expectedMag, mag, 1e-8);
+
+        ft.getMagnitude(true, mag);
+        Assertions.assertArrayEquals(expectedMag, mag, 1e-9);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ft.transform(this.signal, new double[10], new double[10]));
+    }
+
+    @Test
+    public void fftIntoCallerBuffersDefault() throws IOException {
+        this.buildSignal(1000);
+        final FastFourier ft = new FastFourier(this.signal);
+        ft.transform();
+        // An implementation which only provides the original methods uses the default of the buffer overload
+        _Fourier legacy = new _Fourier() {
+            public void transform() { }
+            public double[] getMagnitude(boolean onlyPositive) { return ft.getMagnitude(onlyPositive); }
+            public double[] getPhaseRad(boolean onlyPositive) { return ft.getPhaseRad(onlyPositive); }
+            public double[] getPhaseDeg(boolean onlyPositive) { return ft.getPhaseDeg(onlyPositive); }
+            public double[][] getMagPhaseRad(boolean onlyPositive) { return ft.getMagPhaseRad(onlyPositive); }
+            public double[][] getMagPhaseDeg(boolean onlyPositive) { return ft.getMagPhaseDeg(onlyPositive); }
+            public double[][] getComplex2D(boolean onlyPositive) { return ft.getComplex2D(onlyPositive); }
+            public Complex[] getComplex(boolean onlyPositive) { return ft.getComplex(onlyPositive); }
+            public int getSignalLength() { return ft.getSignalLength(); }
+            public double[] getFFTFreq(int Fs, boolean onlyPositive) { return ft.getFFTFreq(Fs, onlyPositive); }
+        };
+        double[][] expected = ft.getComplex2D(false);
+        double[] re = new double[this.signal.length];
+        double[] im = new double[this.signal.length];
+        legacy.transform(this.signal, re, im);
+        double[] halfRe = new double[this.signal.length/2+1];
+        double[] halfIm = new double[this.signal.length/2+1];
+        legacy.transform(this.signal, halfRe, halfIm);
+        for (int i=0; i<re.length; i++) {
+            Assertions.assertEquals(expected[i][0], re[i], 1e-9);
+            Assertions.assertEquals(expected[i][1], im[i], 1e-9);
+            if (i < halfRe.length) {
+                Assertions.assertEquals(expected[i][0], halfRe[i], 1e-9);
+                Assertions.assertEquals(expected[i][1], halfIm[i], 1e-9);
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> legacy.transform(this.signal, new double[10], new double[10]));
+    }
+
+    @Test
+    public void fftIntoCallerBuffersDoesNotAllocate() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+
+        this.buildSignal(1024);
+        long tid = Thread.currentThread().getId();
+        int[] sizes = {1024, 1000, 1009};
+        for (int n : sizes) {
+            double[] sig = UtilMethods.splitByIndex(this.signal, 0, n);
+            FastFourier ft = new FastFourier(sig);
+            ft.transform();
+            double[] re = new double[n];
+            double[] im = new double[n];
+            double[] mag = new double[n];
+            for (int r=0; r<2000; r++) {
+                ft.transform(sig, re, im);
+                _Fourier.magnitude(re, im, mag);
+                ft.getMagnitude(false, mag);
+            }
+            long probe = mx.getThreadAllocatedBytes(tid);
+            long overhead = mx.getThreadAllocatedBytes(tid) - probe;
+            long before = mx.getThreadAllocatedBytes(tid);
+            for (int r=0; r<100; r++) {
+                ft.transform(sig, re, im);
+                _Fourier.magnitude(re, im, mag);
+                ft.getMagnitude(false, mag);
+            }
+            long allocated = mx.getThreadAllocatedBytes(tid) - before;
+            // Allow for the bytes allocated by the measurement itself, but not for anything per call
+            Assertions.assertTrue(allocated <= overhead + 256, "Allocated " + allocated + " bytes for N = " + n);
+
+            // The sine and cosine transforms of every type reuse the buffers of the calling thread
+            _SineCosine[] transforms = {new FastCosine(sig), new FastSine(sig, _SineCosine.Normalization.ORTHOGONAL),
+                    new DiscreteCosine(sig)};
+            double[] out = new double[n];
+            for (int r=0; r<500; r++) {
+                for (_SineCosine t : transforms) {
+                    for (int type=1; type<=4; type++) {
+                        t.transform(sig, out, type);
+                    }
+                }
+            }
+            before = mx.getThreadAllocatedBytes(tid);
+            for (int r=0; r<50; r++) {
+                for (_SineCosine t : transforms) {
+                    for (int type=1; type<=4; type++) {
+                        t.transform(sig, out, type);
+                    }
+                }
+            }
+            allocated = mx.getThreadAllocatedBytes(tid) - before;
+            Assertions.assertTrue(allocated <= overhead + 256, "Allocated " + allocated + " bytes by the DCT/DST for N = " + n);
+        }
+    }
+
+    @Test
+    public void batchFFTMatchesSingleFFT() throws IOException {
+        this.buildSignal(6000);
+        int rows = 50;
+        int len = 120;
+        double[][] signals = new double[rows][];
+        for (int r=0; r<rows; r++) {
+            signals[r] = UtilMethods.splitByIndex(this.signal, r*len, (r+1)*len);
+        }
+
+        BatchFastFourier batch = new BatchFastFourier(signals, DftNormalization.UNITARY);
+        batch.transform(false);
+        double[][] mag = batch.getMagnitude(false);
+        double[][] phase = batch.getPhaseRad(true);
+        Assertions.assertEquals(rows, batch.getCount());
+        for (int r=0; r<rows; r++) {
+            FastFourier ft = new FastFourier(signals[r], DftNormalization.UNITARY);
+            ft.transform();
+            Assertions.assertArrayEquals(ft.getMagnitude(false), mag[r], 1e-12);
+            Assertions.assertArrayEquals(ft.getPhaseRad(true), phase[r], 1e-12);
+            Assertions.assertArrayEquals(ft.getComplex2D(false), batch.getComplex2D(r, false));
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BatchFastFourier(new double[][] {{1, 2}, {1}}));
+        Assertions.assertThrows(ExceptionInInitializerError.class, () -> new BatchFastFourier(signals).getRealPlane());
+    }
+
+    @Test
+    public void batchFFTFlatBufferParallel() throws IOException {
+        this.buildSignal(100000);
+        int len = 1000;
+        int hop = 250;
+
+        BatchFastFourier seq = new BatchFastFourier(this.signal, len, hop, DftNormalization.STANDARD);
+        seq.transform(false);
+        BatchFastFourier par = new BatchFastFourier(this.signal, len, hop, DftNormalization.STANDARD);
+        par.transform(true);
+        Assertions.assertEquals((this.signal.length - len)/hop + 1, par.getCount());
+        Assertions.assertArrayEquals(seq.getRealPlane(), par.getRealPlane());
+        Assertions.assertArrayEquals(seq.getImaginaryPlane(), par.getImaginaryPlane());
+
+        double[] frame = UtilMethods.splitByIndex(this.signal, 7*hop, 7*hop+len);
+        FastFourier ft = new FastFourier(frame);
+        ft.transform();
+        double[][] expected = ft.getComplex2D(true);
+        int bins = len/2 + 1;
+        for (int k=0; k<bins; k++) {
+            Assertions.assertEquals(expected[k][0], par.getRealPlane()[7*bins+k], 1e-12);
+            Assertions.assertEquals(expected[k][1], par.getImaginaryPlane()[7*bins+k], 1e-12);
+        }
+    }
 }
@@ -10,7 +10,6 @@
 
 package com.github.psambit9791.jdsp;
 
-import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.transform.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -35,16 +34,6 @@ public class TestFSTAndIFST {
             -0.208, -0.655, -1.362, -1.062, -0.496, -0.901, -1.482, -1.035, -0.402, -0.756, -1.212, -0.634,  0.04 ,
             -0.293, -0.658,  0.};
 
-    private double[] extendSignal(double[] signal) {
-        double power = Math.log(signal.length)/Math.log(2);
-        double raised_power = Math.ceil(power);
-        int new_length = (int)(Math.pow(2, raised_power));
-        if (new_length != signal.length) {
-            signal = UtilMethods.zeroPadSignal(signal, new_length-signal.length);
-        }
-        return signal;
-    }
-
     @Test
     public void testFSTWithIFST1() {
         FastSine f1 = new FastSine(this.signal1);
@@ -55,7 +44,7 @@ public class TestFSTAndIFST {
         f2.transform();
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal1), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal1, reconstructed, 0.001);
 
     }
 
@@ -69,7 +58,7 @@ public class TestFSTAndIFST {
         f2.transform();
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal1), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal1, reconstructed, 0.001);
 
     }
 
@@ -83,7 +72,7 @@ public class TestFSTAndIFST {
         f2.transform();
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal1), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal1, reconstructed, 0.001);
 
     }
 
@@ -97,7 +86,77 @@ public class TestFSTAndIFST {
         f2.transform(1);
         double[] reconstructed = f2.getOutput();
 
-        Assertions.assertArrayEquals(this.extendSignal(this.signal2), reconstructed, 0.001);
+        Assertions.assertArrayEquals(this.signal2, reconstructed, 0.001);
+    }
+
+    @Test
+    public void testFSTAllTypesMatchDiscrete() {
+        // Both signals end with 0 so that the type 1 sums of the direct implementation cover every sample
+        for (int type = 1; type <= 4; type++) {
+            for (_SineCosine.Normalization norm : new _SineCosine.Normalization[] {_SineCosine.Normalization.STANDARD}) {
+                FastSine f1 = new FastSine(this.signal2, norm);
+                f1.transform(type);
+                DiscreteSine d1 = new DiscreteSine(this.signal2, norm);
+                d1.transform(type);
+                Assertions.assertArrayEquals(d1.getOutput(), f1.getOutput(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testFSTWithIFSTArbitraryLength() {
+        int[] lengths = {1, 2, 3, 7, 16, 31, 53, 79};
+        for (int n : lengths) {
+            double[] sig = new double[n];
+            System.arraycopy(this.signal1, 1, sig, 0, n);
+            for (int type = 1; type <= 4; type++) {
+                if (false) {
+                    continue;
+                }
+                for (_SineCosine.Normalization norm : _SineCosine.Normalization.values()) {
+                    FastSine f1 = new FastSine(sig, norm);
+                    f1.transform(type);
+                    Assertions.assertEquals(n, f1.getOutput().length);
+
+                    InverseFastSine f2 = new InverseFastSine(f1.getOutput(), _InverseSineCosine.Normalization.valueOf(norm.name()));
+                    f2.transform(type);
+                    Assertions.assertArrayEquals(sig, f2.getOutput(), 1e-9);
+                }
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FastSine(this.signal1).transform(5));
     }
 
+    @Test
+    public void testIntoCallerBuffer() {
+        for (FastSine.Normalization norm : FastSine.Normalization.values()) {
+            for (int type=1; type<=4; type++) {
+                FastSine f1 = new FastSine(this.signal1, norm);
+                f1.transform(type);
+                double[] expected = f1.getOutput();
+
+                // A transform of another signal into a buffer does not change the output of the object
+                double[] out = new double[this.signal1.length];
+                f1.transform(this.signal2, out, type);
+                Assertions.assertArrayEquals(expected, f1.getOutput(), 0);
+                f1.transform(this.signal1, out, type);
+                Assertions.assertArrayEquals(expected, out, 1e-12);
+
+                double[] inPlace = this.signal1.clone();
+                f1.transform(inPlace, inPlace, type);
+                Assertions.assertArrayEquals(expected, inPlace, 1e-12);
+
+                DiscreteSine d1 = new DiscreteSine(this.signal1, norm);
+                d1.transform(this.signal1, out, type);
+                Assertions.assertArrayEquals(expected, out, 1e-12);
+            }
+        }
+        FastSine f1 = new FastSine(this.signal1);
+        double[] out = new double[this.signal1.length];
+        f1.transform(this.signal1, out);
+        f1.transform();
+        Assertions.assertArrayEquals(f1.getOutput(), out, 1e-12);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> f1.transform(this.signal1, new double[10], 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> f1.transform(this.signal1, out, 5));
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp;
+
+import com.github.psambit9791.jdsp.filter.Butterworth;
+import com.github.psambit9791.jdsp.filter.FIRWin1;
+import com.github.psambit9791.jdsp.filter.FiltFilt;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class TestFiltFilt {
+
+    private final double fs = 1000;
+
+    private double[] sine(double freq, int len) {
+        double[] out = new double[len];
+        for (int i=0; i<len; i++) {
+            out[i] = Math.sin(2*Math.PI*freq*i/this.fs);
+        }
+        return out;
+    }
+
+    @Test
+    public void LFilterZiTest() {
+        // y[n] = 0.5x[n] + 0.5y[n-1] settles at 1 for a unit step, with the delay holding 0.5
+        double[] zi = FiltFilt.lfilterZi(new double[] {0.5}, new double[] {1.0, -0.5});
+        Assertions.assertArrayEquals(new double[] {0.5}, zi, 1e-12);
+
+        // Coefficients are normalised by a[0]
+        zi = FiltFilt.lfilterZi(new double[] {1.0}, new double[] {2.0, -1.0});
+        Assertions.assertArrayEquals(new double[] {0.5}, zi, 1e-12);
+
+        // FIR filter: the delay line holds the partial sums of the remaining taps
+        zi = FiltFilt.lfilterZi(new double[] {0.25, 0.5, 0.25}, new double[] {1.0});
+        Assertions.assertArrayEquals(new double[] {0.75, 0.25}, zi, 1e-12);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                FiltFilt.lfilterZi(new double[] {1.0}, new double[] {0.0, 1.0}));
+    }
+
+    @Test
+    public void SOSFiltZiTest() {
+        double[][] sos = new Butterworth(this.fs).streamingLowPass(6, 50, 1).getSOS();
+        double[][] zi = FiltFilt.sosfiltZi(sos);
+        Assertions.assertEquals(sos.length, zi.length);
+
+        // Starting every section from its steady state, a unit step keeps every delay unchanged and comes out at
+        // the DC gain of the cascade
+        double x = 1.0;
+        for (int s=0; s<sos.length; s++) {
+            double y = sos[s][0]*x + zi[s][0];
+            Assertions.assertEquals(zi[s][0], sos[s][1]*x - sos[s][4]*y + zi[s][1], 1e-10);
+            Assertions.assertEquals(zi[s][1], sos[s][2]*x - sos[s][5]*y, 1e-10);
+            x = y;
+        }
+        Assertions.assertEquals(1.0, x, 1e-10);
+    }
+
+    @Test
+    public void SOSFiltFiltConstantAndRampTest() {
+        StreamingIIRFilter f = new Butterworth(this.fs).streamingLowPass(4, 20, 1);
+
+        double[] constant = new double[500];
+        Arrays.fill(constant, 3.0);
+        Assertions.assertArrayEquals(constant, f.filtfilt(constant), 1e-9);
+
+        // Odd extension continues a ramp, so away from the edge transients the low-pass keeps it unchanged
+        double[] ramp = new double[500];
+        for (int i=0; i<ramp.length; i++) {
+            ramp[i] = 0.01*i - 1.0;
+        }
+        double[] out = f.filtfilt(ramp);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(ramp, 100, 400), Arrays.copyOfRange(out, 100, 400), 1e-3);
+    }
+
+    @Test
+    public void SOSFiltFiltZeroPhaseTest() {
+        StreamingIIRFilter f = new Butterworth(this.fs).streamingLowPass(4, 100, 1);
+        double[] low = this.sine(10, 1000);
+        double[] high = this.sine(300, 1000);
+        double[] signal = new double[1000];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = low[i] + high[i];
+        }
+
+        double[] out = f.filtfilt(signal);
+        Assertions.assertEquals(signal.length, out.length);
+        // The passband tone comes through without any delay
+        Assertions.assertArrayEquals(Arrays.copyOfRange(low, 50, 950), Arrays.copyOfRange(out, 50, 950), 2e-3);
+
+        // A single forward pass delays the same tone
+        double[] single = new Butterworth(this.fs).streamingLowPass(4, 100, 1).process(signal);
+        double maxDiff = 0;
+        for (int i=100; i<900; i++) {
+            maxDiff = Math.max(maxDiff, Math.abs(single[i] - low[i]));
+        }
+        Assertions.assertTrue(maxDiff > 0.1);
+    }
+
+    @Test
+    public void FiltFiltMatchesSOSTest() {
+        double[][] sos = new Butterworth(this.fs).streamingLowPass(2, 80, 1).getSOS();
+        double[] b = {sos[0][0], sos[0][1], sos[0][2]};
+        double[] a = {sos[0][3], sos[0][4], sos[0][5]};
+
+        double[] signal = new double[300];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = Math.sin(0.05*i) + 0.3*Math.cos(1.3*i) + 0.002*i;
+        }
+
+        double[] expected = FiltFilt.sosfiltfilt(sos, signal);
+        Assertions.assertArrayEquals(expected, FiltFilt.filtfilt(b, a, signal), 1e-10);
+
+        for (FiltFilt.PadType pad : FiltFilt.PadType.values()) {
+            double[] ba = new double[signal.length];
+            double[] s = new double[signal.length];
+            FiltFilt.filtfilt(b, a, signal, ba, pad, 20);
+            FiltFilt.sosfiltfilt(sos, signal, s, pad, 20);
+            Assertions.assertArrayEquals(s, ba, 1e-10);
+        }
+    }
+
+    @Test
+    public void InPlaceTest() {
+        double[][] sos = new Butterworth(this.fs).streamingBandPass(3, 40, 120, 1).getSOS();
+        double[] signal = new double[1234];
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = Math.sin(0.3*i) + Math.sin(0.02*i*i/signal.length);
+        }
+        double[] expected = new double[signal.length];
+        FiltFilt.sosfiltfilt(sos, signal, expected, FiltFilt.PadType.EVEN, -1);
+
+        double[] inPlace = signal.clone();
+        FiltFilt.sosfiltfilt(sos, inPlace, inPlace, FiltFilt.PadType.EVEN, -1);
+        Assertions.assertArrayEquals(expected, inPlace, 1e-12);
+    }
+
+    @Test
+    public void PadLengthTest() {
+        double[][] sos = new Butterworth(this.fs).streamingLowPass(4, 100, 1).getSOS();
+        final double[] shortSignal = new double[10];
+        // Default padlen is 3*(2*2 + 1) = 15 samples
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FiltFilt.sosfiltfilt(sos, shortSignal));
+
+        // Without padding any length is accepted
+        double[] out = new double[shortSignal.length];
+        FiltFilt.sosfiltfilt(sos, shortSignal, out, FiltFilt.PadType.NONE, 0);
+        Assertions.assertArrayEquals(new double[shortSignal.length], out, 1e-12);
+    }
+
+    @Test
+    public void FIRFiltFiltTest() {
+        FIRWin1 fw = new FIRWin1(51, 50, this.fs);
+        double[] b = fw.computeCoefficients(new double[] {100}, FIRWin1.FIRfilterType.LOWPASS, true);
+        double[] low = this.sine(10, 1000);
+        double[] signal = new double[1000];
+        double[] high = this.sine(350, 1000);
+        for (int i=0; i<signal.length; i++) {
+            signal[i] = low[i] + high[i];
+        }
+
+        double[] out = fw.firfiltfilt(b, signal);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(low, 100, 900), Arrays.copyOfRange(out, 100, 900), 1e-2);
+        Assertions.assertArrayEquals(FiltFilt.filtfilt(b, new double[] {1.0}, signal), out, 1e-12);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp;
+
+import com.github.psambit9791.jdsp.filter.Bessel;
+import com.github.psambit9791.jdsp.filter.Butterworth;
+import com.github.psambit9791.jdsp.filter.Chebyshev;
+import com.github.psambit9791.jdsp.filter.FilterBank;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestFilterBank {
+
+    private final double fs = 1000;
+    private final double[][] signal;
+
+    public TestFilterBank() {
+        Random rand = new Random(11);
+        this.signal = new double[8][1500];
+        for (double[] channel : this.signal) {
+            for (int i=0; i<channel.length; i++) {
+                channel[i] = rand.nextGaussian();
+            }
+        }
+    }
+
+    private StreamingIIRFilter[] bands() {
+        Butterworth bw = new Butterworth(this.fs);
+        return new StreamingIIRFilter[] {
+                bw.streamingLowPass(4, 50, 1),
+                bw.streamingBandPass(3, 50, 150, 1),
+                new Chebyshev(this.fs, 1.0).streamingBandPass(2, 150, 300, 1),
+                new Bessel(this.fs).streamingHighPass(5, 300, 1)
+        };
+    }
+
+    @Test
+    public void SharedDesignTest() {
+        StreamingIIRFilter[] bands = this.bands();
+        FilterBank fb = new FilterBank(this.signal.length, bands);
+        Assertions.assertEquals(4, fb.getBands());
+        Assertions.assertEquals(8, fb.getChannels());
+
+        double[][][] out = fb.process(this.signal);
+        for (int b=0; b<bands.length; b++) {
+            for (int c=0; c<this.signal.length; c++) {
+                double[] expected = new StreamingIIRFilter(bands[b].getSOS()).process(this.signal[c]);
+                Assertions.assertArrayEquals(expected, out[b][c], 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void PerChannelDesignTest() {
+        StreamingIIRFilter[][] designs = new StreamingIIRFilter[2][3];
+        Butterworth bw = new Butterworth(this.fs);
+        for (int c=0; c<3; c++) {
+            designs[0][c] = bw.streamingLowPass(2 + c, 40 + 20*c, 1);
+            designs[1][c] = bw.streamingHighPass(2 + c, 200 + 50*c, 1);
+        }
+        FilterBank fb = new FilterBank(designs);
+        double[][] in = Arrays.copyOfRange(this.signal, 0, 3);
+        double[][][] out = fb.process(in);
+        for (int b=0; b<2; b++) {
+            for (int c=0; c<3; c++) {
+                double[] expected = new StreamingIIRFilter(designs[b][c].getSOS()).process(in[c]);
+                Assertions.assertArrayEquals(expected, out[b][c], 1e-12);
+            }
+        }
+
+        StreamingIIRFilter[][] ragged = {designs[0], Arrays.copyOf(designs[1], 2)};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FilterBank(ragged));
+    }
+
+    @Test
+    public void ChunkedExecutorTest() {
+        StreamingIIRFilter[] bands = this.bands();
+        // Parallel filtering on the common pool gives the same output as filtering on the calling thread
+        double[][][] parallel = new FilterBank(this.signal.length, bands).process(this.signal);
+        FilterBank fb = new FilterBank(this.signal.length, bands);
+        double[][][] whole = new double[bands.length][this.signal.length][this.signal[0].length];
+        fb.process(this.signal, whole, null);
+        for (int b=0; b<bands.length; b++) {
+            for (int c=0; c<this.signal.length; c++) {
+                Assertions.assertArrayEquals(whole[b][c], parallel[b][c]);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Filtering in chunks on another executor continues the state of every band and channel
+            fb.reset();
+            double[][][] out = new double[bands.length][this.signal.length][500];
+            for (int start=0; start<1500; start+=500) {
+                double[][] chunk = new double[this.signal.length][];
+                for (int c=0; c<this.signal.length; c++) {
+                    chunk[c] = Arrays.copyOfRange(this.signal[c], start, start + 500);
+                }
+                fb.process(chunk, out, executor);
+                for (int b=0; b<bands.length; b++) {
+                    for (int c=0; c<this.signal.length; c++) {
+                        Assertions.assertArrayEquals(Arrays.copyOfRange(whole[b][c], start, start + 500), out[b][c]);
+                    }
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void InvalidBufferTest() {
+        FilterBank fb = new FilterBank(2, this.bands());
+        double[][] in = Arrays.copyOfRange(this.signal, 0, 2);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fb.process(this.signal));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fb.process(in, new double[4][2][100]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fb.process(in, new double[3][2][1500]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FilterBank(0, this.bands()));
+    }
+}
@@ -12,6 +12,7 @@ package com.github.psambit9791.jdsp;
 
 
 import com.github.psambit9791.jdsp.filter.FIRWin1;
+import com.github.psambit9791.jdsp.filter.StreamingFIRFilter;
 import org.apache.commons.math3.ode.events.FilterType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -427,4 +428,38 @@ public class TestFirWin1 {
 
         Assertions.assertArrayEquals(resFiltered, filteredX, 0.0001);
     }
+
+    @Test
+    public void streamingFilterTest() {
+        double[] cutoff = {10.0};
+        FIRWin1 fw = new FIRWin1(60.0, 5, 100);
+        double[] coeffs = fw.computeCoefficients(cutoff, FIRWin1.FIRfilterType.LOWPASS, true);
+
+        double[] reversedSignal = new double[this.signal.length];
+        for (int i=0; i<this.signal.length; i++) {
+            reversedSignal[i] = this.signal[this.signal.length - 1 - i];
+        }
+        double[][] whole = {fw.firfilter(coeffs, this.signal), fw.firfilter(coeffs, reversedSignal)};
+
+        StreamingFIRFilter stream = new StreamingFIRFilter(coeffs, 2);
+        double[][] out = new double[2][this.signal.length];
+        int[] chunks = {1, 7, 3, 16, 23};
+        int pos = 0;
+        for (int c=0; pos<this.signal.length; c++) {
+            int len = Math.min(chunks[c % chunks.length], this.signal.length - pos);
+            stream.filter(0, this.signal, pos, out[0], pos, len);
+            stream.filter(1, reversedSignal, pos, out[1], pos, len);
+            pos += len;
+        }
+        Assertions.assertArrayEquals(whole[0], out[0], 1e-12);
+        Assertions.assertArrayEquals(whole[1], out[1], 1e-12);
+
+        stream.reset();
+        double[][] again = stream.filter(new double[][]{this.signal, reversedSignal});
+        Assertions.assertArrayEquals(whole[0], again[0], 1e-12);
+        Assertions.assertArrayEquals(whole[1], again[1], 1e-12);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> stream.filter(2, this.signal, new double[this.signal.length]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> stream.filter(new double[][]{this.signal}));
+    }
 }
@@ -13,6 +13,7 @@ package com.github.psambit9791.jdsp;
 import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.signal.Generate;
 import com.github.psambit9791.jdsp.transform.Hilbert;
+import com.github.psambit9791.jdsp.transform.StreamingHilbert;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -770,9 +771,23 @@ public class TestHilbert {
                 54.97787, 54.97787, 54.97787, 54.97787, 54.97787, 54.97787,
                 54.97787, 54.97787};
 
-        Assertions.assertArrayEquals(envelope, resEnv, 0.001);
-        Assertions.assertArrayEquals(phase, resPhase, 0.001);
-        Assertions.assertArrayEquals(frequency, resFreq, 0.001);
+        // The reference values were computed on the signal zero-padded to 512 samples; the pulse has decayed to zero at
+        // both ends, so the exact-length result matches them over the samples of the signal. Phase and frequency are
+        // ill-conditioned where the envelope vanishes and are only compared where it is above 1% of its peak.
+        int n = signal.length;
+        Assertions.assertEquals(n, envelope.length);
+        Assertions.assertEquals(n, phase.length);
+        Assertions.assertEquals(n-1, frequency.length);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(resEnv, 0, n), envelope, 0.001);
+        int compared = 0;
+        for (int i=0; i<n-1; i++) {
+            if (resEnv[i] > 0.01 && resEnv[i+1] > 0.01) {
+                Assertions.assertEquals(resPhase[i], phase[i], 0.001);
+                Assertions.assertEquals(resFreq[i], frequency[i], 0.001);
+                compared++;
+            }
+        }
+        Assertions.assertTrue(compared > 30);
     }
 
     @Test
@@ -782,7 +797,7 @@ public class TestHilbert {
         Hilbert h = new Hilbert(signal_250);
         h.transform();
         double[][] output = h.getOutput();
-        Assertions.assertEquals(256, output.length);
+        Assertions.assertEquals(250, output.length);
         h.transform(true);
         output = h.getOutput();
         Assertions.assertEquals(250, output.length);
@@ -790,4 +805,88 @@ public class TestHilbert {
             Assertions.assertArrayEquals(output_250[i], output[i], 0.001);
         }
     }
+
+    @Test
+    public void FFTHilbertOddLengthTest() {
+        double[] signal = amSignal(211, 1000);
+        Hilbert h = new Hilbert(signal);
+        h.transform();
+        double[][] fft = h.getOutput();
+        h.transform(true);
+        double[][] dft = h.getOutput();
+        Assertions.assertEquals(211, fft.length);
+        for (int i=0; i<fft.length; i++) {
+            Assertions.assertArrayEquals(dft[i], fft[i], 1e-9);
+            Assertions.assertEquals(signal[i], fft[i][0], 1e-9);
+        }
+    }
+
+    private static double[] amSignal(int n, double Fs) {
+        double[] signal = new double[n];
+        for (int i=0; i<n; i++) {
+            double t = i/Fs;
+            signal[i] = (1 + 0.5*Math.cos(2*Math.PI*3*t)) * Math.cos(2*Math.PI*50*t);
+        }
+        return signal;
+    }
+
+    @Test
+    public void StreamingHilbertTest() {
+        double Fs = 1000;
+        int n = 4000;
+        double[] signal = amSignal(n, Fs);
+
+        Hilbert h = new Hilbert(signal);
+        h.transform();
+        double[] refEnv = h.getAmplitudeEnvelope();
+
+        StreamingHilbert stream = new StreamingHilbert(201);
+        Assertions.assertEquals(100, stream.getDelay());
+        double[] env = new double[n];
+        double[] phase = new double[n];
+        double[] freq = new double[n-1];
+        int[] chunks = {1, 7, 300, 64, 1000, 13, 512};
+        int pos = 0, out = 0, outFreq = 0, c = 0;
+        while (pos < n) {
+            int len = Math.min(chunks[c++ % chunks.length], n - pos);
+            int emitted = stream.process(signal, pos, len);
+            pos += len;
+            System.arraycopy(stream.getAmplitudeEnvelope(), 0, env, out, emitted);
+            System.arraycopy(stream.getInstantaneousPhase(), 0, phase, out, emitted);
+            double[] f = stream.getInstantaneousFrequency(Fs);
+            System.arraycopy(f, 0, freq, outFreq, f.length);
+            out += emitted;
+            outFreq += f.length;
+        }
+        Assertions.assertTrue(out < n);
+        int emitted = stream.flush();
+        System.arraycopy(stream.getAmplitudeEnvelope(), 0, env, out, emitted);
+        System.arraycopy(stream.getInstantaneousPhase(), 0, phase, out, emitted);
+        double[] f = stream.getInstantaneousFrequency(Fs);
+        System.arraycopy(f, 0, freq, outFreq, f.length);
+        Assertions.assertEquals(n, out + emitted);
+        Assertions.assertEquals(n-1, outFreq + f.length);
+
+        // Away from the edges the FIR approximation matches the exact analytic signal
+        for (int i=300; i<n-300; i++) {
+            Assertions.assertEquals(refEnv[i], env[i], 0.01);
+            Assertions.assertEquals(50, freq[i], 0.5);
+        }
+        // Phase is unwrapped across chunks
+        Assertions.assertArrayEquals(UtilMethods.unwrap(phase), phase, 1e-9);
+
+        // Chunking does not change the result
+        stream.reset();
+        int whole = stream.process(signal);
+        double[] envWhole = stream.getAmplitudeEnvelope();
+        Assertions.assertArrayEquals(Arrays.copyOfRange(env, 0, whole), envWhole, 1e-9);
+    }
+
+    @Test
+    public void StreamingHilbertExceptionTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StreamingHilbert(100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StreamingHilbert(1));
+        StreamingHilbert stream = new StreamingHilbert(31);
+        Assertions.assertThrows(ExceptionInInitializerError.class, stream::getAmplitudeEnvelope);
+    }
 }
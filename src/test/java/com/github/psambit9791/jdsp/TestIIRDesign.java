@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp;
+
+import com.github.psambit9791.jdsp.filter.Bessel;
+import com.github.psambit9791.jdsp.filter.Butterworth;
+import com.github.psambit9791.jdsp.filter.Chebyshev;
+import com.github.psambit9791.jdsp.filter.IIRDesign;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
+import com.github.psambit9791.jdsp.filter._IIRFilter;
+import org.apache.commons.math3.complex.Complex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+public class TestIIRDesign {
+
+    private final double fs = 1000;
+    private final double[] signal;
+
+    public TestIIRDesign() {
+        Random rand = new Random(42);
+        this.signal = new double[1000];
+        for (int i=0; i<this.signal.length; i++) {
+            this.signal[i] = rand.nextGaussian();
+        }
+    }
+
+    private double[] nativeFilter(double[][] sos) {
+        return new StreamingIIRFilter(sos).process(this.signal);
+    }
+
+    private static double[] negate(double[] x) {
+        double[] out = new double[x.length];
+        for (int i=0; i<x.length; i++) {
+            out[i] = -x[i];
+        }
+        return out;
+    }
+
+    // Compares all four filter types of a native design with the iirj-based implementation
+    private void crossCheck(_IIRFilter iirj, BiFunction<IIRDesign.IIRfilterType, double[], double[][]> design,
+                            int order) {
+        double[] lp = iirj.lowPassFilter(this.signal, order, 100);
+        double[] hp = iirj.highPassFilter(this.signal, order, 100);
+        double[] bp = iirj.bandPassFilter(this.signal, order, 100, 200);
+        double[] bs = iirj.bandStopFilter(this.signal, order, 100, 200);
+        // iirj designs odd-order high-pass filters with a gain of -1 at the Nyquist frequency
+        if (order % 2 == 1) {
+            hp = negate(hp);
+        }
+        Assertions.assertArrayEquals(lp, this.nativeFilter(design.apply(IIRDesign.IIRfilterType.LOWPASS, new double[] {100})), 1e-10);
+        Assertions.assertArrayEquals(hp, this.nativeFilter(design.apply(IIRDesign.IIRfilterType.HIGHPASS, new double[] {100})), 1e-10);
+        Assertions.assertArrayEquals(bp, this.nativeFilter(design.apply(IIRDesign.IIRfilterType.BANDPASS, new double[] {100, 200})), 1e-10);
+        Assertions.assertArrayEquals(bs, this.nativeFilter(design.apply(IIRDesign.IIRfilterType.BANDSTOP, new double[] {100, 200})), 1e-10);
+    }
+
+    @Test
+    public void ButterworthCrossCheckTest() {
+        for (int order=1; order<=8; order++) {
+            final int n = order;
+            this.crossCheck(new Butterworth(this.fs), (t, c) -> IIRDesign.butterworth(n, this.fs, t, c), order);
+        }
+    }
+
+    @Test
+    public void ChebyshevCrossCheckTest() {
+        for (int order=1; order<=8; order++) {
+            final int n = order;
+            this.crossCheck(new Chebyshev(this.fs, 1.0, 1), (t, c) -> IIRDesign.chebyshevI(n, 1.0, this.fs, t, c), order);
+            this.crossCheck(new Chebyshev(this.fs, 40, 2), (t, c) -> IIRDesign.chebyshevII(n, 40, this.fs, t, c), order);
+        }
+    }
+
+    @Test
+    public void BesselCrossCheckTest() {
+        // From order 5, the real pole iirj finds for the Bessel polynomial is inaccurate
+        for (int order=1; order<=4; order++) {
+            final int n = order;
+            this.crossCheck(new Bessel(this.fs), (t, c) -> IIRDesign.bessel(n, this.fs, t, c), order);
+        }
+
+        // Order 5 reverse Bessel polynomial: real root at -3.6467386 rad/s; a low-pass with a cutoff of Fs/4 maps it to
+        // (1 + p/(2*Fs))/(1 - p/(2*Fs)) with p pre-warped by 2*Fs*tan(pi/4)
+        double[][] sos = IIRDesign.bessel(5, this.fs, IIRDesign.IIRfilterType.LOWPASS, this.fs/4);
+        double p = -3.6467385953296 * 2 * this.fs;
+        double expected = (2*this.fs + p)/(2*this.fs - p);
+        boolean found = false;
+        for (double[] section : sos) {
+            if (section[5] == 0 && Math.abs(-section[4] - expected) < 1e-9) {
+                found = true;
+            }
+        }
+        Assertions.assertTrue(found);
+
+        // Unit gain at DC
+        double[] step = new double[2000];
+        Arrays.fill(step, 1.0);
+        double[] out = new StreamingIIRFilter(IIRDesign.bessel(8, this.fs, IIRDesign.IIRfilterType.LOWPASS, 50)).process(step);
+        Assertions.assertEquals(1.0, out[out.length-1], 1e-9);
+    }
+
+    @Test
+    public void ZPK2SOSTest() {
+        // Two conjugate pole pairs and zeros at -1; the pair closest to the unit circle goes to the last section
+        Complex[] z = {new Complex(-1), new Complex(-1), new Complex(-1), new Complex(-1)};
+        Complex[] p = {new Complex(0.5, 0.5), new Complex(0.5, -0.5), new Complex(0.1, 0.9), new Complex(0.1, -0.9)};
+        double[][] sos = IIRDesign.zpk2sos(z, p, 0.5);
+        Assertions.assertEquals(2, sos.length);
+        Assertions.assertArrayEquals(new double[] {0.5, 1.0, 0.5, 1.0, -1.0, 0.5}, sos[0], 1e-12);
+        Assertions.assertArrayEquals(new double[] {1.0, 2.0, 1.0, 1.0, -0.2, 0.82}, sos[1], 1e-12);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IIRDesign.butterworth(0, this.fs, IIRDesign.IIRfilterType.LOWPASS, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IIRDesign.butterworth(4, this.fs, IIRDesign.IIRfilterType.BANDPASS, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IIRDesign.butterworth(4, this.fs, IIRDesign.IIRfilterType.LOWPASS, 600));
+    }
+
+    @Test
+    public void InterleavedTest() {
+        int channels = 5;
+        int frames = 700;
+        double[] interleaved = new double[channels*frames];
+        for (int i=0; i<interleaved.length; i++) {
+            interleaved[i] = this.signal[i % this.signal.length] * (1 + i % channels);
+        }
+        double[][] sos = IIRDesign.chebyshevI(6, 0.5, this.fs, IIRDesign.IIRfilterType.BANDPASS, 50, 150);
+
+        StreamingIIRFilter perChannel = new StreamingIIRFilter(sos, channels);
+        double[] expected = new double[interleaved.length];
+        for (int c=0; c<channels; c++) {
+            double[] x = new double[frames];
+            for (int i=0; i<frames; i++) {
+                x[i] = interleaved[i*channels + c];
+            }
+            double[] y = new double[frames];
+            perChannel.process(c, x, 0, y, 0, frames);
+            for (int i=0; i<frames; i++) {
+                expected[i*channels + c] = y[i];
+            }
+        }
+
+        // Chunks that do not line up with the kernel's block size, filtered in place
+        StreamingIIRFilter f = new StreamingIIRFilter(sos, channels);
+        double[] out = interleaved.clone();
+        int[] chunks = {1, 300, 257, 142};
+        int start = 0;
+        for (int len : chunks) {
+            f.processInterleaved(out, start*channels, out, start*channels, len);
+            start += len;
+        }
+        Assertions.assertArrayEquals(expected, out, 1e-12);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> f.processInterleaved(new double[7]));
+    }
+}
@@ -14,7 +14,10 @@ import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.transform._Fourier;
 import com.github.psambit9791.jdsp.transform.InverseShortTimeFourier;
 import com.github.psambit9791.jdsp.transform.ShortTimeFourier;
+import com.github.psambit9791.jdsp.transform.StreamingInverseShortTimeFourier;
+import com.github.psambit9791.jdsp.transform.StreamingShortTimeFourier;
 import com.github.psambit9791.jdsp.windows.Bartlett;
+import com.github.psambit9791.jdsp.windows.Gaussian;
 import com.github.psambit9791.jdsp.windows.Hamming;
 import com.github.psambit9791.jdsp.windows._Window;
 import org.junit.jupiter.api.Assertions;
@@ -297,4 +300,72 @@ public class TestInverseShortTimeFourier {
         expected = UtilMethods.splitByIndex(expected, 0, outputLength);
         Assertions.assertArrayEquals(expected, outputReal, 0.001);
     }
+
+    @Test
+    public void streamingISTFTReconstruction() throws IOException {
+        double[] ecg = UtilMethods.electrocardiogram();
+        int frameLength = 200;
+        int overlap = 150;
+        int hop = frameLength - overlap;
+        _Window window = new Hamming(frameLength);
+
+        double[] out = new double[ecg.length + frameLength];
+        int[] written = {0};
+        StreamingInverseShortTimeFourier istft = new StreamingInverseShortTimeFourier(frameLength, overlap, 256, window);
+        StreamingShortTimeFourier stft = new StreamingShortTimeFourier(frameLength, overlap, 256, window, (index, re, im) -> {
+            // Frame i completes the samples starting at i*hop: one frame of latency
+            Assertions.assertEquals(index*hop, written[0]);
+            written[0] += istft.process(re, im, out, written[0]);
+        });
+        for (int pos = 0; pos < ecg.length; pos += 1000) {
+            stft.process(ecg, pos, Math.min(1000, ecg.length - pos));
+        }
+        double[] tail = new double[istft.getLatency()];
+        istft.flush(tail);
+        System.arraycopy(tail, 0, out, written[0], tail.length);
+
+        int covered = written[0] + tail.length;
+        Assertions.assertEquals((stft.getFrameCount() - 1)*hop + frameLength, covered);
+        for (int i = 0; i < covered; i++) {
+            Assertions.assertEquals(ecg[i], out[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void streamingISTFTTaperedEdge() throws IOException {
+        double[] ecg = UtilMethods.electrocardiogram();
+        int frameLength = 64;
+        int overlap = 32;
+        int hop = frameLength - overlap;
+        // The squared window is below 1e-10 at the first three samples of a frame
+        _Window window = new Gaussian(frameLength, 6);
+        Assertions.assertTrue(Math.pow(window.getWindow()[2], 2) < 1e-10);
+        Assertions.assertTrue(Math.pow(window.getWindow()[3], 2) > 1e-10);
+
+        double[] out = new double[ecg.length + frameLength];
+        int[] written = {0};
+        StreamingInverseShortTimeFourier istft = new StreamingInverseShortTimeFourier(frameLength, overlap, window);
+        StreamingShortTimeFourier stft = new StreamingShortTimeFourier(frameLength, overlap, window, (index, re, im) -> {
+            // Low-pass filtering the frames makes them no longer vanish where the window does
+            for (int k = 8; k < re.length; k++) {
+                re[k] = 0;
+                im[k] = 0;
+            }
+            written[0] += istft.process(re, im, out, written[0]);
+        });
+        stft.process(ecg, 0, 20*hop);
+
+        Assertions.assertEquals(19*hop, written[0]);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, out[i]);
+        }
+        double peak = 0;
+        for (double v : ecg) {
+            peak = Math.max(peak, Math.abs(v));
+        }
+        // From the second hop on, every sample is near the centre of a frame and stays in the range of the signal
+        for (int i = hop; i < written[0]; i++) {
+            Assertions.assertTrue(Math.abs(out[i]) < 2*peak);
+        }
+    }
 }
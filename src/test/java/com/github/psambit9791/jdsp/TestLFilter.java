@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp;
+
+import com.github.psambit9791.jdsp.filter.Butterworth;
+import com.github.psambit9791.jdsp.filter.FIRWin1;
+import com.github.psambit9791.jdsp.filter.FiltFilt;
+import com.github.psambit9791.jdsp.filter.LFilter;
+import com.github.psambit9791.jdsp.filter.StreamingIIRFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestLFilter {
+
+    private final double fs = 1000;
+    private final double[] signal;
+
+    public TestLFilter() {
+        Random rand = new Random(7);
+        this.signal = new double[1000];
+        for (int i=0; i<this.signal.length; i++) {
+            this.signal[i] = rand.nextGaussian();
+        }
+    }
+
+    private static double[] polymul(double[] p, double[] q) {
+        double[] out = new double[p.length + q.length - 1];
+        for (int i=0; i<p.length; i++) {
+            for (int j=0; j<q.length; j++) {
+                out[i+j] += p[i]*q[j];
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void FIRTest() {
+        FIRWin1 fw = new FIRWin1(31, 50, this.fs);
+        double[] b = fw.computeCoefficients(new double[] {100}, FIRWin1.FIRfilterType.LOWPASS, true);
+        Assertions.assertArrayEquals(fw.firfilter(b, this.signal), LFilter.lfilter(b, new double[] {1.0}, this.signal), 1e-12);
+    }
+
+    @Test
+    public void IIRTest() {
+        // The transfer function of a cascade is the product of the section polynomials
+        StreamingIIRFilter f = new Butterworth(this.fs).streamingLowPass(6, 100, 1);
+        double[] b = {1.0};
+        double[] a = {1.0};
+        for (double[] s : f.getSOS()) {
+            b = polymul(b, new double[] {s[0], s[1], s[2]});
+            a = polymul(a, new double[] {s[3], s[4], s[5]});
+        }
+        Assertions.assertEquals(7, b.length);
+        double[] expected = f.process(this.signal);
+        Assertions.assertArrayEquals(expected, LFilter.lfilter(b, a, this.signal), 1e-8);
+
+        // Coefficients are normalised by a[0], and a shorter a is padded with zeros
+        double[] b2 = new double[b.length];
+        double[] a2 = new double[a.length];
+        for (int i=0; i<b.length; i++) {
+            b2[i] = 4*b[i];
+            a2[i] = 4*a[i];
+        }
+        Assertions.assertArrayEquals(expected, LFilter.lfilter(b2, a2, this.signal), 1e-8);
+        Assertions.assertArrayEquals(new double[] {0.5, 0.75, 0.875},
+                LFilter.lfilter(new double[] {0.5}, new double[] {1.0, -0.5}, new double[] {1, 1, 1}), 1e-12);
+    }
+
+    @Test
+    public void ChunkedTest() {
+        double[] b = {0.2, 0.3, -0.1, 0.05};
+        double[] a = {1.0, -0.6, 0.1};
+        double[] whole = LFilter.lfilter(b, a, this.signal);
+
+        double[] out = new double[this.signal.length];
+        double[] z = null;
+        int[] bounds = {0, 1, 100, 357, 900, 1000};
+        for (int k=0; k<bounds.length-1; k++) {
+            double[] chunk = Arrays.copyOfRange(this.signal, bounds[k], bounds[k+1]);
+            double[] y = new double[chunk.length];
+            z = LFilter.lfilter(b, a, chunk, z, y);
+            Assertions.assertEquals(3, z.length);
+            System.arraycopy(y, 0, out, bounds[k], y.length);
+        }
+        Assertions.assertArrayEquals(whole, out, 1e-12);
+
+        // In-place filtering
+        double[] inPlace = this.signal.clone();
+        LFilter.lfilter(b, a, inPlace, null, inPlace);
+        Assertions.assertArrayEquals(whole, inPlace, 1e-12);
+    }
+
+    @Test
+    public void SteadyStateTest() {
+        double[] b = {0.2, 0.3, -0.1, 0.05};
+        double[] a = {1.0, -0.6, 0.1};
+        double[] zi = FiltFilt.lfilterZi(b, a);
+        for (int i=0; i<zi.length; i++) {
+            zi[i] *= 2.0;
+        }
+        double[] x = new double[50];
+        Arrays.fill(x, 2.0);
+        double[] y = new double[x.length];
+        double[] zf = LFilter.lfilter(b, a, x, zi, y);
+
+        double gain = (0.2 + 0.3 - 0.1 + 0.05)/(1.0 - 0.6 + 0.1);
+        double[] expected = new double[x.length];
+        Arrays.fill(expected, 2.0*gain);
+        Assertions.assertArrayEquals(expected, y, 1e-12);
+        Assertions.assertArrayEquals(zi, zf, 1e-12);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                LFilter.lfilter(b, a, x, new double[2], new double[x.length]));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                LFilter.lfilter(b, new double[] {0.0, 1.0}, x));
+    }
+
+    @Test
+    public void MultiChannelTest() {
+        double[] b = {0.1, 0.2, 0.1};
+        double[] a = {1.0, -1.2, 0.5};
+        double[][] x = new double[3][];
+        for (int c=0; c<x.length; c++) {
+            x[c] = Arrays.copyOfRange(this.signal, 100*c, 100*c + 400);
+        }
+        double[][] out = LFilter.lfilter(b, a, x);
+        for (int c=0; c<x.length; c++) {
+            Assertions.assertArrayEquals(LFilter.lfilter(b, a, x[c]), out[c], 1e-12);
+        }
+
+        // Continuing each channel from its own final state
+        double[][] first = new double[3][200];
+        double[][] second = new double[3][200];
+        double[][] h1 = new double[3][];
+        double[][] h2 = new double[3][];
+        for (int c=0; c<x.length; c++) {
+            h1[c] = Arrays.copyOfRange(x[c], 0, 200);
+            h2[c] = Arrays.copyOfRange(x[c], 200, 400);
+        }
+        double[][] zf = LFilter.lfilter(b, a, h1, null, first);
+        LFilter.lfilter(b, a, h2, zf, second);
+        for (int c=0; c<x.length; c++) {
+            Assertions.assertArrayEquals(Arrays.copyOfRange(out[c], 0, 200), first[c], 1e-12);
+            Assertions.assertArrayEquals(Arrays.copyOfRange(out[c], 200, 400), second[c], 1e-12);
+        }
+    }
+}
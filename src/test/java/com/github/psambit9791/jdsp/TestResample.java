@@ -59,4 +59,46 @@ public class TestResample {
         double[] out = r1.resampleSignal(this.input_signal_2);
         Assertions.assertArrayEquals(result, out, 0.001);
     }
+
+    @Test
+    public void ResampleIntegerFactorTest() {
+        // Upsampling by an integer factor keeps the original samples; 19 -> 57 exercises odd lengths
+        Resample r1 = new Resample(57);
+        double[] out = r1.resampleSignal(this.input_signal_2);
+        Assertions.assertEquals(57, out.length);
+        for (int i=0; i<this.input_signal_2.length; i++) {
+            Assertions.assertEquals(this.input_signal_2[i], out[3*i], 1e-10);
+        }
+
+        Resample r2 = new Resample(20);
+        Assertions.assertArrayEquals(this.input_signal_1, r2.resampleSignal(this.input_signal_1), 1e-10);
+    }
+
+    @Test
+    public void ResampleChunkedTest() {
+        int n = 4800;
+        double[] signal = new double[n];
+        for (int i=0; i<n; i++) {
+            signal[i] = Math.sin(2*Math.PI*30*i/n) + 0.5*Math.cos(2*Math.PI*170*i/n + 0.3);
+        }
+        double[] whole = new Resample(4410).resampleSignal(signal);
+        double[] chunked = new Resample(4410, 700, 480).resampleSignal(signal);
+        Assertions.assertEquals(whole.length, chunked.length);
+        Assertions.assertArrayEquals(whole, chunked, 2e-3);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Resample(10, 0));
+    }
+
+    @Test
+    public void ResampleChunkedCoprimeTest() {
+        // 4801 and 4410 are coprime, so no chunk shorter than the signal maps to a whole number of output samples
+        int n = 4801;
+        double[] signal = new double[n];
+        for (int i=0; i<n; i++) {
+            signal[i] = Math.sin(2*Math.PI*30*i/n) + 0.5*i/n;
+        }
+        double[] whole = new Resample(4410).resampleSignal(signal);
+        double[] chunked = new Resample(4410, 700, 480).resampleSignal(signal);
+        Assertions.assertArrayEquals(whole, chunked, 1e-12);
+    }
 }
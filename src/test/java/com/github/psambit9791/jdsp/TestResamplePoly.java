@@ -10,10 +10,15 @@
 
 package com.github.psambit9791.jdsp;
 
+import com.github.psambit9791.jdsp.signal.PolyphaseDecimator;
+import com.github.psambit9791.jdsp.signal.PolyphaseInterpolator;
+import com.github.psambit9791.jdsp.signal.PolyphaseResampler;
 import com.github.psambit9791.jdsp.signal.Resample;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 public class TestResamplePoly {
 
     private double[] input_signal_1 = {1.   ,  0.999,  0.986,  0.931,  0.786,  0.505,  0.071, -0.454, -0.889, -0.973, -0.519,
@@ -555,4 +560,92 @@ public class TestResamplePoly {
         double[] out_2 = r5_2.resampleSignal(this.input_signal_2);
         Assertions.assertArrayEquals(result_2, out_2, 0.001);
     }
+
+    // Streams the signal followed by enough zeros to flush the filter, in chunks of the given size
+    private double[] streamWithFlush(PolyphaseResampler r, int channel, double[] x, int flush, int chunk) {
+        double[] padded = new double[x.length + flush];
+        System.arraycopy(x, 0, padded, 0, x.length);
+        double[] out = new double[(padded.length * r.getUp()) / r.getDown() + 1];
+        int written = 0;
+        for (int start=0; start<padded.length; start+=chunk) {
+            int len = Math.min(chunk, padded.length - start);
+            written += r.resample(channel, padded, start, len, out, written);
+        }
+        return Arrays.copyOf(out, written);
+    }
+
+    @Test
+    public void PolyphaseDecimatorTest() {
+        int factor = 4;
+        PolyphaseDecimator d = new PolyphaseDecimator(factor);
+        Assertions.assertEquals(81, d.getNumTaps());
+        Assertions.assertEquals(10.0, d.getDelay(), 1e-12);
+
+        double[] out = this.streamWithFlush(d, 0, this.input_signal_1, 80, 3);
+        double[] expected = new Resample(1, factor, "constant").resampleSignal(this.input_signal_1);
+        double[] aligned = Arrays.copyOfRange(out, 10, 10 + expected.length);
+        Assertions.assertArrayEquals(expected, aligned, 1e-10);
+    }
+
+    @Test
+    public void PolyphaseInterpolatorTest() {
+        int factor = 3;
+        PolyphaseInterpolator ip = new PolyphaseInterpolator(factor, 2);
+        Assertions.assertEquals(30.0, ip.getDelay(), 1e-12);
+
+        double[] out_1 = this.streamWithFlush(ip, 0, this.input_signal_1, 20, 7);
+        double[] out_2 = this.streamWithFlush(ip, 1, this.input_signal_2, 20, 1);
+        double[] expected_1 = new Resample(factor, 1, "constant").resampleSignal(this.input_signal_1);
+        double[] expected_2 = new Resample(factor, 1, "constant").resampleSignal(this.input_signal_2);
+        Assertions.assertArrayEquals(expected_1, Arrays.copyOfRange(out_1, 30, 30 + expected_1.length), 1e-10);
+        Assertions.assertArrayEquals(expected_2, Arrays.copyOfRange(out_2, 30, 30 + expected_2.length), 1e-10);
+    }
+
+    @Test
+    public void PolyphaseResamplerStreamingTest() {
+        double[] h = {0.1, -0.25, 0.4, 0.9, 0.4, -0.25, 0.1, 0.05, 0.3};
+        int up = 3;
+        int down = 5;
+        double[][] signal = {this.input_signal_1, Arrays.copyOf(this.input_signal_2, 20)};
+
+        // Upsample, filter and downsample explicitly
+        int nOut = (signal[0].length * up + down - 1) / down;
+        double[][] expected = new double[2][nOut];
+        for (int c=0; c<2; c++) {
+            for (int j=0; j<nOut; j++) {
+                for (int n=0; n<signal[c].length; n++) {
+                    int k = j*down - n*up;
+                    if (k >= 0 && k < h.length) {
+                        expected[c][j] += signal[c][n] * h[k];
+                    }
+                }
+            }
+        }
+
+        PolyphaseResampler r = new PolyphaseResampler(h, up, down, 2);
+        double[][] out = new double[2][0];
+        int[] chunks = {1, 4, 2, 6, 7};
+        int start = 0;
+        for (int len : chunks) {
+            double[][] block = new double[2][];
+            for (int c=0; c<2; c++) {
+                block[c] = Arrays.copyOfRange(signal[c], start, start + len);
+            }
+            Assertions.assertEquals(r.getOutputLength(0, len), r.getOutputLength(1, len));
+            double[][] res = r.resample(block);
+            for (int c=0; c<2; c++) {
+                double[] joined = Arrays.copyOf(out[c], out[c].length + res[c].length);
+                System.arraycopy(res[c], 0, joined, out[c].length, res[c].length);
+                out[c] = joined;
+            }
+            start += len;
+        }
+        Assertions.assertArrayEquals(expected[0], out[0], 1e-12);
+        Assertions.assertArrayEquals(expected[1], out[1], 1e-12);
+
+        r.reset();
+        Assertions.assertArrayEquals(expected[0], r.resample(signal[0]), 1e-12);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> r.resample(2, signal[0]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PolyphaseResampler(h, 0, 2));
+    }
 }
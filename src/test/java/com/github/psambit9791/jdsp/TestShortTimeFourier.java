@@ -10,7 +10,11 @@
 
 package com.github.psambit9791.jdsp;
 
+import com.github.psambit9791.jdsp.misc.UtilMethods;
 import com.github.psambit9791.jdsp.transform.ShortTimeFourier;
+import com.github.psambit9791.jdsp.transform.Spectrogram;
+import com.github.psambit9791.jdsp.transform.StreamingShortTimeFourier;
+import com.github.psambit9791.jdsp.transform._Fourier;
 import com.github.psambit9791.jdsp.windows.Rectangular;
 import com.github.psambit9791.jdsp.windows.Hanning;
 import com.github.psambit9791.jdsp.windows._Window;
@@ -21,6 +25,12 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 public class TestShortTimeFourier {
     // Linear chirp signal starting at 0 Hz, ending at 10 Hz, sampled @ 100 Hz
@@ -414,4 +424,129 @@ public class TestShortTimeFourier {
 
         Assertions.assertArrayEquals(result, out, 0.001);
     }
+
+    @Test
+    public void testSTFTParallel() throws IOException {
+        double[] ecg = UtilMethods.electrocardiogram();
+        int frameLength = 300;
+        int overlap = 220;
+        _Window window = new Hanning(frameLength);
+
+        ShortTimeFourier seq = new ShortTimeFourier(ecg, frameLength, overlap, 512, window, 360);
+        seq.transform();
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ShortTimeFourier fj = new ShortTimeFourier(ecg, frameLength, overlap, 512, window, 360);
+            fj.transform(pool);
+            ShortTimeFourier ex = new ShortTimeFourier(ecg, frameLength, overlap, 512, window, 360);
+            ex.transform(executor);
+            ShortTimeFourier common = new ShortTimeFourier(ecg, frameLength, overlap, 512, window, 360);
+            common.transform(true);
+
+            Complex[][] expected = seq.getComplex(false);
+            Assertions.assertArrayEquals(expected, fj.getComplex(false));
+            Assertions.assertArrayEquals(expected, ex.getComplex(false));
+            Assertions.assertArrayEquals(expected, common.getComplex(false));
+        }
+        finally {
+            pool.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSTFTOutputFrames() {
+        int frameLength = 5;
+        int overlap = 2;
+        ShortTimeFourier stft = new ShortTimeFourier(signal1, frameLength, overlap, 8, new Hanning(frameLength), 100);
+        stft.transform();
+        _Fourier[] frames = stft.getOutput();
+        Complex[][] matrix = stft.getComplex(false);
+        Assertions.assertEquals(matrix[0].length, frames.length);
+        for (int c = 0; c < frames.length; c++) {
+            Complex[] frame = frames[c].getComplex(false);
+            for (int r = 0; r < frame.length; r++) {
+                Assertions.assertEquals(matrix[r][c], frame[r]);
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingSTFT() throws IOException {
+        double[] ecg = UtilMethods.electrocardiogram();
+        int frameLength = 256;
+        int overlap = 192;
+        _Window window = new Hanning(frameLength);
+
+        ShortTimeFourier stft = new ShortTimeFourier(ecg, frameLength, overlap, 300, window, 360);
+        stft.transform();
+        Complex[][] expected = stft.getComplex(true);
+
+        List<Complex[]> frames = new ArrayList<>();
+        StreamingShortTimeFourier stream = new StreamingShortTimeFourier(frameLength, overlap, 300, window, (index, re, im) -> {
+            Assertions.assertEquals(frames.size(), index);
+            Complex[] frame = new Complex[re.length];
+            for (int k = 0; k < re.length; k++) {
+                frame[k] = new Complex(re[k], im[k]);
+            }
+            frames.add(frame);
+        });
+
+        Random rand = new Random(42);
+        int pos = 0;
+        while (pos < ecg.length) {
+            int len = Math.min(ecg.length - pos, rand.nextInt(500));
+            stream.process(ecg, pos, len);
+            pos += len;
+        }
+
+        Assertions.assertEquals(expected[0].length, frames.size());
+        Assertions.assertEquals(frames.size(), stream.getFrameCount());
+        for (int c = 0; c < frames.size(); c++) {
+            for (int r = 0; r < expected.length; r++) {
+                Assertions.assertEquals(expected[r][c], frames.get(c)[r]);
+            }
+        }
+
+        stream.reset();
+        frames.clear();
+        Assertions.assertEquals(0, stream.process(ecg, 0, frameLength - 1));
+        Assertions.assertEquals(1, stream.process(new double[1]));
+    }
+
+    @Test
+    public void testSpectrogram() {
+        int frameLength = 10;
+        int overlap = 5;
+        ShortTimeFourier stft = new ShortTimeFourier(signal1, frameLength, overlap, 16, new Hanning(frameLength), 100);
+        stft.transform();
+        Spectrogram spec = stft.getSpectrogram();
+        double[][] mag = stft.getMagnitude(true);
+        double[][] phase = stft.getPhaseRad(true);
+        double[][] power = stft.spectrogram(true);
+
+        Assertions.assertEquals(9, spec.getNumBins());
+        Assertions.assertEquals(mag[0].length, spec.getNumFrames());
+        Assertions.assertEquals(16L*9*spec.getNumFrames(), spec.getSizeInBytes());
+        double[] db = spec.getDecibelPlane(1, 1e-20);
+        for (int f = 0; f < spec.getNumFrames(); f++) {
+            for (int k = 0; k < spec.getNumBins(); k++) {
+                Assertions.assertEquals(mag[k][f], spec.getMagnitude(f, k), 1e-12);
+                Assertions.assertEquals(phase[k][f], spec.getPhase(f, k), 1e-12);
+                Assertions.assertEquals(power[k][f], spec.getPower(f, k), 1e-12);
+                Assertions.assertEquals(10*Math.log10(Math.max(power[k][f], 1e-20)), db[f*9 + k], 1e-9);
+            }
+        }
+
+        double[] re = new double[9];
+        double[] im = new double[9];
+        spec.getFrame(3, re, im);
+        Assertions.assertEquals(re[2], spec.getReal(3, 2));
+        spec.set(3, 2, 3, 4);
+        Assertions.assertEquals(5, spec.getMagnitude(3, 2), 1e-12);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> spec.getReal(spec.getNumFrames(), 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Spectrogram(new double[10], new double[10], 2, 16));
+    }
 }
@@ -99,4 +99,14 @@ public class TestSmooth {
         Assertions.assertThrows(IllegalArgumentException.class, () -> {Smooth s0 = new Smooth(this.signal, 3, "triangular"); double[] temp = s0.smoothSignal("abc");});
 
     }
+
+    @Test
+    public void smoothMethodTest() {
+        Smooth s1 = new Smooth(this.signal, 7, "triangular");
+        double[] expected = s1.smoothSignal("same");
+        for (String method : new String[]{"direct", "fft", "block", "auto"}) {
+            Assertions.assertArrayEquals(expected, s1.smoothSignal("same", method), 1e-9);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> s1.smoothSignal("same", "fastest"));
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestStreamingIIRFilter {
+
+    @Test
+    public void fromCascadeNormalisesTest() {
+        uk.me.berndporr.iirj.Butterworth cascade = new uk.me.berndporr.iirj.Butterworth();
+        cascade.lowPass(2, 100, 10);
+        // A section with a0 = 2: iirj returns the coefficients as set, which have to be divided by a0
+        cascade.getBiquad(0).setCoefficients(2, 0.4, 0.2, 1, 0.5, 0.25);
+        StreamingIIRFilter f = StreamingIIRFilter.fromCascade(cascade, 1);
+        double[] expected = {0.5, 0.25, 0.125, 1, 0.2, 0.1};
+        Assertions.assertArrayEquals(expected, f.getSOS()[0], 1e-15);
+
+        double[] impulse = new double[4];
+        impulse[0] = 1;
+        // y[n] = 0.5x[n] + 0.25x[n-1] + 0.125x[n-2] - 0.2y[n-1] - 0.1y[n-2]
+        Assertions.assertArrayEquals(new double[]{0.5, 0.15, 0.045, -0.024}, f.process(impulse), 1e-12);
+    }
+
+    // Plain per-sample cascade in Direct Form II transposed
+    private static double[] reference(double[][] sos, double[] x) {
+        double[] y = x.clone();
+        for (double[] r : sos) {
+            double z1 = 0;
+            double z2 = 0;
+            for (int i=0; i<y.length; i++) {
+                double v = r[0]/r[3]*y[i] + z1;
+                z1 = (r[1]*y[i] - r[4]*v)/r[3] + z2;
+                z2 = (r[2]*y[i] - r[5]*v)/r[3];
+                y[i] = v;
+            }
+        }
+        return y;
+    }
+
+    @Test
+    public void sectionKernelTest() {
+        double[][] sos = {
+                {0.2, 0.4, 0.2, 1, -0.5, 0.3},
+                {1, -1, 0.5, 2, 0.2, 0.4},
+                {0.5, 0, -0.5, 1, -0.1, 0.05}
+        };
+        double[] x = new double[700];
+        for (int i=0; i<x.length; i++) {
+            x[i] = Math.sin(0.1*i) + ((i*37) % 11)/11.0;
+        }
+        double[] expected = reference(sos, x);
+        for (int sections=1; sections<=3; sections++) {
+            double[][] part = java.util.Arrays.copyOf(sos, sections);
+            double[] exp = reference(part, x);
+            // Chunks crossing the block boundaries of the kernel
+            StreamingIIRFilter f = new StreamingIIRFilter(part, 2);
+            double[] out = new double[x.length];
+            for (int start=0; start<x.length; start+=300) {
+                int len = Math.min(300, x.length - start);
+                f.process(1, x, start, out, start, len);
+            }
+            Assertions.assertArrayEquals(exp, out, 1e-12);
+        }
+
+        // In place with the output ahead of and behind the input in the same array
+        for (int shift : new int[] {-3, 3}) {
+            double[] buf = new double[x.length + 6];
+            System.arraycopy(x, 0, buf, 3, x.length);
+            new StreamingIIRFilter(sos).process(0, buf, 3, buf, 3 + shift, x.length);
+            Assertions.assertArrayEquals(expected, java.util.Arrays.copyOfRange(buf, 3 + shift, 3 + shift + x.length), 1e-12);
+        }
+
+        // LFilter runs a single section through the same kernel
+        double[] y = LFilter.lfilter(new double[] {1, -1, 0.5}, new double[] {2, 0.2, 0.4}, x);
+        Assertions.assertArrayEquals(reference(new double[][] {sos[1]}, x), y, 1e-12);
+    }
+}
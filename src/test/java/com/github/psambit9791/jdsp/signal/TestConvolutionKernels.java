@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.signal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class TestConvolutionKernels {
+
+    // Lengths around the vector widths of 2, 4 and 8 doubles, so that every tail length is covered
+    private static final int MAX_LENGTH = 37;
+
+    private final ConvolutionKernels scalar = new ConvolutionKernels.Scalar();
+
+    private static double[] random(Random rand, int n) {
+        double[] x = new double[n];
+        for (int i=0; i<n; i++) {
+            x[i] = rand.nextGaussian();
+        }
+        return x;
+    }
+
+    @Test
+    public void selectedImplementationTest() {
+        // The vector-api profile runs this class a second time with the Vector API enabled and sets jdsp.kernels
+        String expected = System.getProperty("jdsp.kernels");
+        Assumptions.assumeTrue(expected != null);
+        Assertions.assertEquals(expected, ConvolutionKernels.INSTANCE.getName());
+    }
+
+    @Test
+    public void dotMatchesScalarTest() {
+        Random rand = new Random(11);
+        double[] a = random(rand, MAX_LENGTH + 3);
+        double[] b = random(rand, MAX_LENGTH + 3);
+        for (int len=0; len<=MAX_LENGTH; len++) {
+            for (int off=0; off<=3; off++) {
+                double expected = this.scalar.dot(a, off, b, 3 - off, len);
+                double actual = ConvolutionKernels.INSTANCE.dot(a, off, b, 3 - off, len);
+                Assertions.assertEquals(expected, actual, 1e-12*(1 + Math.abs(expected)));
+            }
+        }
+    }
+
+    @Test
+    public void convolveMatchesScalarTest() {
+        Random rand = new Random(12);
+        for (int n : new int[]{1, 5, 17, MAX_LENGTH}) {
+            for (int m : new int[]{1, 3, 8, 13, MAX_LENGTH}) {
+                double[] signal = random(rand, n);
+                double[] kernel = random(rand, m);
+                int full = n + m - 1;
+                double[] expected = new double[full + 1];
+                double[] actual = new double[full + 1];
+                this.scalar.convolve(signal, kernel, 0, full, expected, 1);
+                ConvolutionKernels.INSTANCE.convolve(signal, kernel, 0, full, actual, 1);
+                Assertions.assertArrayEquals(expected, actual, 1e-12);
+
+                this.scalar.correlate(signal, kernel, 1, full - 1, expected, 0);
+                ConvolutionKernels.INSTANCE.correlate(signal, kernel, 1, full - 1, actual, 0);
+                Assertions.assertArrayEquals(expected, actual, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void convolveComplexMatchesScalarTest() {
+        Random rand = new Random(13);
+        double[] signalRe = random(rand, 29);
+        double[] signalIm = random(rand, 29);
+        double[] kernelRe = random(rand, 11);
+        double[] kernelIm = random(rand, 11);
+        double[][] expected = new double[2][39];
+        double[][] actual = new double[2][39];
+        this.scalar.convolveComplex(signalRe, signalIm, kernelRe, kernelIm, 0, 39, expected[0], expected[1]);
+        ConvolutionKernels.INSTANCE.convolveComplex(signalRe, signalIm, kernelRe, kernelIm, 0, 39, actual[0], actual[1]);
+        Assertions.assertArrayEquals(expected[0], actual[0], 1e-12);
+        Assertions.assertArrayEquals(expected[1], actual[1], 1e-12);
+    }
+}
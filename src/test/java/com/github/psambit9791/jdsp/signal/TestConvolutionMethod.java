@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019 - 2023  Sambit Paul
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.psambit9791.jdsp.signal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestConvolutionMethod {
+
+    @Test
+    public void directOperationsTest() {
+        int[][] lengths = {{5, 4}, {4, 5}, {7, 7}, {100, 1}, {1, 100}, {50, 13}};
+        for (int[] l : lengths) {
+            int n = l[0];
+            int m = l[1];
+            int full = n + m - 1;
+            for (int start=0; start<full; start+=3) {
+                for (int length=0; start+length<=full; length+=2) {
+                    double expected = 0;
+                    for (int k=start; k<start+length; k++) {
+                        expected += Math.min(k, n-1) - Math.max(0, k-m+1) + 1;
+                    }
+                    Assertions.assertEquals(expected, ConvolutionMethod.directOperations(n, m, start, length), 1e-9);
+                }
+            }
+            Assertions.assertEquals((double) n*m, ConvolutionMethod.directOperations(n, m, 0, full), 1e-9);
+        }
+    }
+
+    @Test
+    public void chooseDirectForFewSamplesTest() {
+        // A handful of output samples of a long convolution are cheaper to compute directly than with any transform
+        Assertions.assertEquals(ConvolutionMethod.DIRECT, ConvolutionMethod.choose(100000, 2048, 50000, 4));
+        Assertions.assertNotEquals(ConvolutionMethod.DIRECT, ConvolutionMethod.choose(100000, 2048, 0, 101047));
+    }
+
+    @Test
+    public void calibrationTest() {
+        // Both costs are measured after warm-up, so they are far below the time of an interpreted operation
+        double direct = ConvolutionMethod.directCost();
+        double fft = ConvolutionMethod.fftCost();
+        Assertions.assertTrue(direct > 0 && direct < 100, "Direct cost " + direct + " ns");
+        Assertions.assertTrue(fft > 0 && fft < 100, "FFT cost " + fft + " ns");
+    }
+}